@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.tserver.InMemoryMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link InMemoryMap#mutate(List, int)} with the Java map implementations. The reported
+ * time is per batch of {@value #MUTATIONS_PER_BATCH} mutations. The map is replaced once it holds
+ * {@value #MAX_MAP_BYTES} bytes, like a minor compaction would, so it does not grow without bound.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryMapBenchmark {
+
+  private static final int MUTATIONS_PER_BATCH = 100;
+  private static final long MAX_MAP_BYTES = 256L * 1024 * 1024;
+
+  @Param({"NARROW", "LONG_ROW", "WIDE"})
+  public KeyShape shape;
+
+  @Param({"16", "256", "4096"})
+  public int valueSize;
+
+  @Param({"1", "10"})
+  public int updatesPerMutation;
+
+  @Param({"false", "true"})
+  public boolean offHeap;
+
+  private ConfigurationCopy config;
+  private InMemoryMap map;
+  private List<Mutation> batch;
+  private int numKVs;
+
+  @Setup(Level.Trial)
+  public void setupTrial() {
+    config = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    config.set(Property.TSERV_NATIVEMAP_ENABLED, "false");
+    config.set(Property.TSERV_OFFHEAPMAP_ENABLED, Boolean.toString(offHeap));
+
+    Random random = new Random(42);
+    batch = new ArrayList<>(MUTATIONS_PER_BATCH);
+    int ordinal = 0;
+    for (int i = 0; i < MUTATIONS_PER_BATCH; i++) {
+      Key first = shape.key(ordinal, 1L);
+      Mutation m = new Mutation(first.getRowData().toArray());
+      for (int j = 0; j < updatesPerMutation; j++) {
+        Key k = shape.key(ordinal++, 1L);
+        byte[] val = new byte[valueSize];
+        random.nextBytes(val);
+        m.put(k.getColumnFamilyData().toArray(), k.getColumnQualifierData().toArray(),
+            new ColumnVisibility(k.getColumnVisibilityData().toArray()), val);
+      }
+      batch.add(m);
+    }
+    numKVs = MUTATIONS_PER_BATCH * updatesPerMutation;
+  }
+
+  private InMemoryMap newMap() {
+    // the server context is only used when dumping the map to disk, which never happens here
+    return new InMemoryMap(config, null, TableId.of("1"));
+  }
+
+  @Setup(Level.Iteration)
+  public void setupIteration() {
+    map = newMap();
+  }
+
+  @TearDown(Level.Iteration)
+  public void teardownIteration() {
+    map.delete(0);
+  }
+
+  @Benchmark
+  public InMemoryMap mutate() {
+    // the same mutations are applied repeatedly, each time with new kvCounts, so they are all
+    // inserted as new entries
+    map.mutate(batch, numKVs);
+    if (map.estimatedSizeInBytes() > MAX_MAP_BYTES) {
+      map.delete(0);
+      map = newMap();
+    }
+    return map;
+  }
+}
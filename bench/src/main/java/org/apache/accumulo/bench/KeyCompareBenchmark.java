@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link Key#compareTo(Key)} for keys that are equal and for keys that are neighbors in
+ * sort order, which is the common case when merging iterators.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyCompareBenchmark {
+
+  private static final int NUM_KEYS = 1024;
+
+  @Param({"NARROW", "LONG_ROW", "WIDE"})
+  public KeyShape shape;
+
+  private Key[] keys;
+  private Key[] copies;
+
+  @Setup
+  public void setup() {
+    List<Key> sorted = shape.sortedKeys(NUM_KEYS);
+    keys = sorted.toArray(new Key[0]);
+    copies = new Key[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      copies[i] = new Key(keys[i]);
+    }
+  }
+
+  @Benchmark
+  public void compareEqual(Blackhole bh) {
+    for (int i = 0; i < keys.length; i++) {
+      bh.consume(keys[i].compareTo(copies[i]));
+    }
+  }
+
+  @Benchmark
+  public void compareAdjacent(Blackhole bh) {
+    for (int i = 1; i < keys.length; i++) {
+      bh.consume(keys[i - 1].compareTo(keys[i]));
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.bench;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * The shapes of keys used by the benchmarks. Each shape controls how many distinct rows there are
+ * and how long the individual key fields are, which affects the amount of prefix compression and
+ * the cost of key comparisons.
+ */
+public enum KeyShape {
+
+  /**
+   * Short rows, each with a single column.
+   */
+  NARROW(16, 1, 4, 8, 0),
+
+  /**
+   * Long rows that share a large common prefix, each with a handful of columns.
+   */
+  LONG_ROW(128, 4, 8, 16, 8),
+
+  /**
+   * Few rows with many columns, as produced by wide document style tables.
+   */
+  WIDE(16, 256, 8, 24, 16);
+
+  private static final String[] VISIBILITIES = {"", "A", "A&B", "(A|B)&C", "A&(B|(C&D))"};
+
+  private final int rowLength;
+  private final int columnsPerRow;
+  private final int cfLength;
+  private final int cqLength;
+  private final int cvLength;
+
+  KeyShape(int rowLength, int columnsPerRow, int cfLength, int cqLength, int cvLength) {
+    this.rowLength = rowLength;
+    this.columnsPerRow = columnsPerRow;
+    this.cfLength = cfLength;
+    this.cqLength = cqLength;
+    this.cvLength = cvLength;
+  }
+
+  private static byte[] pad(String s, int length) {
+    StringBuilder sb = new StringBuilder(length);
+    for (int i = s.length(); i < length; i++) {
+      sb.append('0');
+    }
+    sb.append(s);
+    return sb.toString().getBytes(UTF_8);
+  }
+
+  private byte[] visibility(int index) {
+    if (cvLength == 0) {
+      return new byte[0];
+    }
+    return VISIBILITIES[index % VISIBILITIES.length].getBytes(UTF_8);
+  }
+
+  /**
+   * Creates the key with the given ordinal. Keys created with increasing ordinals are sorted.
+   */
+  public Key key(int ordinal, long timestamp) {
+    int row = ordinal / columnsPerRow;
+    int col = ordinal % columnsPerRow;
+    return new Key(pad(Integer.toString(row, 16), rowLength),
+        pad(Integer.toString(col >> 5, 16), cfLength), pad(Integer.toString(col, 16), cqLength),
+        visibility(col), timestamp);
+  }
+
+  /**
+   * Creates a sorted list of {@code count} distinct keys.
+   */
+  public List<Key> sortedKeys(int count) {
+    List<Key> keys = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      keys.add(key(i, 1L));
+    }
+    return keys;
+  }
+
+  /**
+   * Creates a sorted map of {@code count} distinct keys with random values of {@code valueSize}
+   * bytes.
+   */
+  public TreeMap<Key,Value> sortedData(int count, int valueSize, long seed) {
+    Random random = new Random(seed);
+    TreeMap<Key,Value> data = new TreeMap<>();
+    for (int i = 0; i < count; i++) {
+      byte[] val = new byte[valueSize];
+      random.nextBytes(val);
+      data.put(key(i, 1L), new Value(val));
+    }
+    return data;
+  }
+}
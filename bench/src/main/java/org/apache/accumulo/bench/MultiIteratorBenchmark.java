@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.MultiIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.SystemIteratorUtil;
+import org.apache.accumulo.core.security.Authorizations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the {@link MultiIterator} (and so {@code HeapIterator}) merge of several sorted sources,
+ * optionally underneath the system scan iterators that a tablet server places on top of it. Keys
+ * are dealt to the sources round robin, so every {@code next()} switches the top source.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiIteratorBenchmark {
+
+  private static final int NUM_ENTRIES = 100_000;
+  private static final List<ByteSequence> EMPTY_CFS = Collections.emptyList();
+
+  @Param({"NARROW", "LONG_ROW", "WIDE"})
+  public KeyShape shape;
+
+  @Param({"1", "4", "16"})
+  public int numSources;
+
+  @Param({"false", "true"})
+  public boolean systemIterators;
+
+  private SortedKeyValueIterator<Key,Value> iter;
+
+  @Setup
+  public void setup() throws IOException {
+    List<TreeMap<Key,Value>> maps = new ArrayList<>();
+    for (int i = 0; i < numSources; i++) {
+      maps.add(new TreeMap<>());
+    }
+    int count = 0;
+    for (Entry<Key,Value> entry : shape.sortedData(NUM_ENTRIES, 16, 42).entrySet()) {
+      maps.get(count++ % numSources).put(entry.getKey(), entry.getValue());
+    }
+
+    List<SortedKeyValueIterator<Key,Value>> sources = new ArrayList<>();
+    for (TreeMap<Key,Value> map : maps) {
+      sources.add(new SortedMapIterator(map));
+    }
+
+    iter = new MultiIterator(sources, false);
+    if (systemIterators) {
+      iter = SystemIteratorUtil.setupSystemScanIterators(iter, Collections.emptySet(),
+          new Authorizations("A", "B", "C"), new byte[0], DefaultConfiguration.getInstance());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_ENTRIES)
+  public void merge(Blackhole bh) throws IOException {
+    iter.seek(new Range(), EMPTY_CFS, false);
+    while (iter.hasTop()) {
+      bh.consume(iter.getTopKey());
+      iter.next();
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.crypto.CryptoServiceFactory;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachableBuilder;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
+import org.apache.accumulo.core.spi.crypto.CryptoService;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.fs.Seekable;
+
+/**
+ * Writes and reads RFiles held entirely in memory, so that benchmarks measure the RFile code and
+ * not the file system.
+ */
+public class RFileBytes {
+
+  private static final Configuration CONF = new Configuration();
+  private static final CryptoService CRYPTO = CryptoServiceFactory.newDefaultInstance();
+
+  private static class SeekableByteArrayInputStream extends ByteArrayInputStream
+      implements Seekable, PositionedReadable {
+
+    SeekableByteArrayInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public long getPos() {
+      return pos;
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+      if (pos < 0 || pos > count) {
+        throw new IOException("Invalid seek position " + pos);
+      }
+      this.pos = (int) pos;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPos) {
+      return false;
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) {
+      if (position >= count) {
+        return -1;
+      }
+      int len = (int) Math.min(length, count - position);
+      System.arraycopy(buf, (int) position, buffer, offset, len);
+      return len;
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer) throws IOException {
+      readFully(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int offset, int length) throws IOException {
+      if (position + length > count) {
+        throw new IOException("Read past end of data " + (position + length));
+      }
+      System.arraycopy(buf, (int) position, buffer, offset, length);
+    }
+  }
+
+  private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+  private final FSDataOutputStream dos;
+  private final RFile.Writer writer;
+
+  public RFileBytes(String compression, int blockSize) throws IOException {
+    dos = new FSDataOutputStream(baos, new FileSystem.Statistics("bench"));
+    writer = new RFile.Writer(new BCFile.Writer(dos, null, compression, CONF, CRYPTO), blockSize);
+    writer.startDefaultLocalityGroup();
+  }
+
+  public void append(Key key, Value value) throws IOException {
+    writer.append(key, value);
+  }
+
+  public byte[] close() throws IOException {
+    writer.close();
+    dos.close();
+    return baos.toByteArray();
+  }
+
+  public static byte[] write(Map<Key,Value> data, String compression, int blockSize)
+      throws IOException {
+    RFileBytes rfile = new RFileBytes(compression, blockSize);
+    for (Entry<Key,Value> entry : data.entrySet()) {
+      rfile.append(entry.getKey(), entry.getValue());
+    }
+    return rfile.close();
+  }
+
+  public static RFile.Reader open(byte[] data) throws IOException {
+    FSDataInputStream in = new FSDataInputStream(new SeekableByteArrayInputStream(data));
+    return new RFile.Reader(new CachableBuilder().cacheId("bench").input(in).length(data.length)
+        .conf(CONF).cryptoService(CRYPTO));
+  }
+}
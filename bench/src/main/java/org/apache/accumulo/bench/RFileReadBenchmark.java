@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.bench;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@code RFile.Reader} seeks to random keys and sequential iteration with {@code next()}.
+ * There is no block cache, so each block read is decompressed again, as it would be on a cache
+ * miss.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RFileReadBenchmark {
+
+  private static final int NUM_ENTRIES = 100_000;
+  private static final int NUM_SEEKS = 1_000;
+  private static final List<ByteSequence> EMPTY_CFS = Collections.emptyList();
+
+  @Param({"NARROW", "LONG_ROW", "WIDE"})
+  public KeyShape shape;
+
+  @Param({"16", "256"})
+  public int valueSize;
+
+  @Param({"none", "gz"})
+  public String compression;
+
+  private RFile.Reader reader;
+  private Key[] seekKeys;
+
+  @Setup
+  public void setup() throws IOException {
+    byte[] file =
+        RFileBytes.write(shape.sortedData(NUM_ENTRIES, valueSize, 42), compression, 100 * 1024);
+    reader = RFileBytes.open(file);
+
+    Random random = new Random(7);
+    seekKeys = new Key[NUM_SEEKS];
+    for (int i = 0; i < NUM_SEEKS; i++) {
+      seekKeys[i] = shape.key(random.nextInt(NUM_ENTRIES), 1L);
+    }
+  }
+
+  @TearDown
+  public void teardown() throws IOException {
+    reader.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_SEEKS)
+  public void seek(Blackhole bh) throws IOException {
+    for (Key key : seekKeys) {
+      reader.seek(new Range(key, null), EMPTY_CFS, false);
+      bh.consume(reader.getTopKey());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_ENTRIES)
+  public void scan(Blackhole bh) throws IOException {
+    reader.seek(new Range(), EMPTY_CFS, false);
+    while (reader.hasTop()) {
+      bh.consume(reader.getTopKey());
+      bh.consume(reader.getTopValue());
+      reader.next();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.rfile.RelativeKey;
+import org.apache.accumulo.core.util.MutableByteSequence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures decoding of a single uncompressed RFile data block, either by skipping to a key with
+ * {@link RelativeKey#fastSkip} or by reading every entry with {@link RelativeKey#readFields}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RelativeKeyBenchmark {
+
+  private static final int BLOCK_ENTRIES = 4096;
+
+  @Param({"NARROW", "LONG_ROW", "WIDE"})
+  public KeyShape shape;
+
+  @Param({"16", "256"})
+  public int valueSize;
+
+  /**
+   * Position of the seek key in the block, as a percentage of the number of entries.
+   */
+  @Param({"50", "99"})
+  public int seekPercent;
+
+  private byte[] block;
+  private Key seekKey;
+  private final MutableByteSequence value = new MutableByteSequence(new byte[64], 0, 0);
+
+  @Setup
+  public void setup() throws IOException {
+    TreeMap<Key,Value> data = shape.sortedData(BLOCK_ENTRIES, valueSize, 42);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    Key prev = null;
+    for (Entry<Key,Value> entry : data.entrySet()) {
+      new RelativeKey(prev, entry.getKey()).write(out);
+      entry.getValue().write(out);
+      prev = entry.getKey();
+    }
+    out.close();
+    block = baos.toByteArray();
+
+    List<Key> keys = shape.sortedKeys(BLOCK_ENTRIES);
+    seekKey = keys.get(BLOCK_ENTRIES * seekPercent / 100);
+  }
+
+  @Benchmark
+  public RelativeKey.SkippR fastSkip() throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(block));
+    return RelativeKey.fastSkip(in, seekKey, value, new Key(), null, BLOCK_ENTRIES);
+  }
+
+  @Benchmark
+  public void readFields(Blackhole bh) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(block));
+    RelativeKey rk = new RelativeKey();
+    Value val = new Value();
+    for (int i = 0; i < BLOCK_ENTRIES; i++) {
+      rk.readFields(in);
+      val.readFields(in);
+      bh.consume(rk.getKey());
+    }
+  }
+}
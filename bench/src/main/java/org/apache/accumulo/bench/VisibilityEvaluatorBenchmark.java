@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.bench;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.core.security.VisibilityEvaluator;
+import org.apache.accumulo.core.security.VisibilityParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link VisibilityEvaluator#evaluate(ColumnVisibility)} for expressions of increasing
+ * complexity. The parse benchmark includes the cost of constructing the {@link ColumnVisibility},
+ * which is what {@code VisibilityFilter} pays for each distinct visibility it sees.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VisibilityEvaluatorBenchmark {
+
+  @Param({"A", "A&B", "(A|B)&C", "((A&B)|(C&(D|E)))&(F|G|H)"})
+  public String expression;
+
+  private byte[] expressionBytes;
+  private ColumnVisibility visibility;
+  private VisibilityEvaluator evaluator;
+
+  @Setup
+  public void setup() {
+    expressionBytes = expression.getBytes(UTF_8);
+    visibility = new ColumnVisibility(expressionBytes);
+    evaluator = new VisibilityEvaluator(new Authorizations("A", "C", "D", "F"));
+  }
+
+  @Benchmark
+  public boolean evaluate() throws VisibilityParseException {
+    return evaluator.evaluate(visibility);
+  }
+
+  @Benchmark
+  public boolean parseAndEvaluate() throws VisibilityParseException {
+    return evaluator.evaluate(new ColumnVisibility(expressionBytes));
+  }
+}
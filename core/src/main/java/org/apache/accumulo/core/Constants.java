@@ -77,6 +77,8 @@ public class Constants {
   public static final String ZHDFS_RESERVATIONS = "/hdfs_reservations";
   public static final String ZRECOVERY = "/recovery";
 
+  public static final String ZCOMPACTORS = "/compactors";
+
   /**
    * Base znode for storing secret keys that back delegation tokens
    */
@@ -73,4 +73,20 @@ public interface BatchScanner extends ScannerBase {
    */
   @Override
   void setTimeout(long timeout, TimeUnit timeUnit);
+
+  /**
+   * When set to true, iterators created after this call return entries in sorted order. Ranges are
+   * still looked up in parallel and the entries of the first range still being scanned are returned
+   * as they arrive, however entries that sort after it are held by the client until it has been
+   * completely scanned. This uses more client memory than the default unordered mode.
+   *
+   * @param orderedResults
+   *          true to return entries in sorted order, false to return them as they arrive
+   * @throws UnsupportedOperationException
+   *           if the implementation can not return ordered results
+   * @since 2.1.0
+   */
+  default void setOrderedResults(boolean orderedResults) {
+    throw new UnsupportedOperationException();
+  }
 }
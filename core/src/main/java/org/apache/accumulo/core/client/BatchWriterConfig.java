@@ -21,6 +21,7 @@ package org.apache.accumulo.core.client;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.accumulo.core.conf.ClientProperty.BATCH_WRITER_LATENCY_MAX;
 import static org.apache.accumulo.core.conf.ClientProperty.BATCH_WRITER_MEMORY_MAX;
+import static org.apache.accumulo.core.conf.ClientProperty.BATCH_WRITER_SERVER_INFLIGHT_MAX;
 import static org.apache.accumulo.core.conf.ClientProperty.BATCH_WRITER_THREADS_MAX;
 import static org.apache.accumulo.core.conf.ClientProperty.BATCH_WRITER_TIMEOUT_MAX;
 
@@ -59,6 +60,10 @@ public class BatchWriterConfig implements Writable {
       Integer.parseInt(BATCH_WRITER_THREADS_MAX.getDefaultValue());
   private Integer maxWriteThreads = null;
 
+  private static final Integer DEFAULT_MAX_IN_FLIGHT_PER_SERVER =
+      Integer.parseInt(BATCH_WRITER_SERVER_INFLIGHT_MAX.getDefaultValue());
+  private Integer maxInFlightPerServer = null;
+
   private Durability durability = Durability.DEFAULT;
   private boolean isDurabilitySet = false;
 
@@ -182,6 +187,30 @@ public class BatchWriterConfig implements Writable {
     return this;
   }
 
+  /**
+   * Sets the maximum number of batches that may be in flight to a single tablet server at once.
+   * Batches in flight to the same server never contain mutations for the same tablet, so mutations
+   * for a tablet are still sent in order.
+   *
+   * <p>
+   * <b>Default:</b> 2
+   *
+   * @param maxInFlightPerServer
+   *          the maximum batches in flight to one server
+   * @throws IllegalArgumentException
+   *           if {@code maxInFlightPerServer} is non-positive
+   * @return {@code this} to allow chaining of set methods
+   * @since 2.1.0
+   */
+  public BatchWriterConfig setMaxInFlightPerServer(int maxInFlightPerServer) {
+    if (maxInFlightPerServer <= 0)
+      throw new IllegalArgumentException(
+          "Max in flight per server must be positive " + maxInFlightPerServer);
+
+    this.maxInFlightPerServer = maxInFlightPerServer;
+    return this;
+  }
+
   public long getMaxMemory() {
     return maxMemory != null ? maxMemory : DEFAULT_MAX_MEMORY;
   }
@@ -199,6 +228,14 @@ public class BatchWriterConfig implements Writable {
     return maxWriteThreads != null ? maxWriteThreads : DEFAULT_MAX_WRITE_THREADS;
   }
 
+  /**
+   * @since 2.1.0
+   * @return the maximum number of batches that may be in flight to a single tablet server
+   */
+  public int getMaxInFlightPerServer() {
+    return maxInFlightPerServer != null ? maxInFlightPerServer : DEFAULT_MAX_IN_FLIGHT_PER_SERVER;
+  }
+
   /**
    * @since 1.7.0
    * @return the durability to be used by the BatchWriter
@@ -235,6 +272,8 @@ public class BatchWriterConfig implements Writable {
       addField(fields, "maxWriteThreads", maxWriteThreads);
     if (timeout != null)
       addField(fields, "timeout", timeout);
+    if (maxInFlightPerServer != null)
+      addField(fields, "maxInFlightPerServer", maxInFlightPerServer);
     if (durability != Durability.DEFAULT)
       addField(fields, "durability", durability);
     String output = StringUtils.join(",", fields);
@@ -278,6 +317,8 @@ public class BatchWriterConfig implements Writable {
         maxWriteThreads = Integer.valueOf(value);
       } else if ("timeout".equals(key)) {
         timeout = Long.valueOf(value);
+      } else if ("maxInFlightPerServer".equals(key)) {
+        maxInFlightPerServer = Integer.valueOf(value);
       } else if ("durability".equals(key)) {
         durability = DurabilityImpl.fromString(value);
       } else {
@@ -330,6 +371,16 @@ public class BatchWriterConfig implements Writable {
           return false;
         }
       }
+
+      if (maxInFlightPerServer != null) {
+        if (!maxInFlightPerServer.equals(other.maxInFlightPerServer)) {
+          return false;
+        }
+      } else {
+        if (other.maxInFlightPerServer != null) {
+          return false;
+        }
+      }
       return durability == other.durability;
     }
 
@@ -357,6 +408,7 @@ public class BatchWriterConfig implements Writable {
     result.maxLatency = merge(this.maxLatency, other.maxLatency);
     result.timeout = merge(this.timeout, other.timeout);
     result.maxWriteThreads = merge(this.maxWriteThreads, other.maxWriteThreads);
+    result.maxInFlightPerServer = merge(this.maxInFlightPerServer, other.maxInFlightPerServer);
     if (this.isDurabilitySet) {
       result.durability = this.durability;
     } else if (other.isDurabilitySet) {
@@ -369,7 +421,7 @@ public class BatchWriterConfig implements Writable {
   public int hashCode() {
     HashCodeBuilder hcb = new HashCodeBuilder();
     hcb.append(maxMemory).append(maxLatency).append(maxWriteThreads).append(timeout)
-        .append(durability);
+        .append(maxInFlightPerServer).append(durability);
     return hcb.toHashCode();
   }
 
@@ -379,7 +431,8 @@ public class BatchWriterConfig implements Writable {
     sb.append("[maxMemory=").append(getMaxMemory()).append(", maxLatency=")
         .append(getMaxLatency(TimeUnit.MILLISECONDS)).append(", maxWriteThreads=")
         .append(getMaxWriteThreads()).append(", timeout=").append(getTimeout(TimeUnit.MILLISECONDS))
-        .append(", durability=").append(durability).append("]");
+        .append(", maxInFlightPerServer=").append(getMaxInFlightPerServer()).append(", durability=")
+        .append(durability).append("]");
     return sb.toString();
   }
 }
@@ -100,6 +100,10 @@ public class ClientContext implements AccumuloClient {
 
   private Credentials creds;
   private BatchWriterConfig batchWriterConfig;
+  // read lazily since server contexts may need ZooKeeper to build their client properties
+  private volatile Integer scannerPipelineWindow;
+  private volatile Integer rpcConnectionsPerServer;
+  private volatile Long rpcConnectionWaitMillis;
   private AccumuloConfiguration serverConf;
   private Configuration hadoopConf;
 
@@ -299,6 +303,10 @@ public class ClientContext implements AccumuloClient {
       if (timeout != null) {
         batchWriterConfig.setTimeout(timeout, TimeUnit.SECONDS);
       }
+      Integer maxInFlight = ClientProperty.BATCH_WRITER_SERVER_INFLIGHT_MAX.getInteger(props);
+      if (maxInFlight != null) {
+        batchWriterConfig.setMaxInFlightPerServer(maxInFlight);
+      }
       String durability = ClientProperty.BATCH_WRITER_DURABILITY.getValue(props);
       if (!durability.isEmpty()) {
         batchWriterConfig.setDurability(Durability.valueOf(durability.toUpperCase()));
@@ -307,6 +315,51 @@ public class ClientContext implements AccumuloClient {
     return batchWriterConfig;
   }
 
+  /**
+   * @return the number of batches a tablet server may read ahead of a scanner
+   */
+  public int getScannerPipelineWindow() {
+    ensureOpen();
+    if (scannerPipelineWindow == null) {
+      scannerPipelineWindow =
+          ClientProperty.SCANNER_PIPELINE_WINDOW.getInteger(info.getProperties());
+    }
+    return scannerPipelineWindow;
+  }
+
+  /**
+   * @return the number of connections to a single server this process keeps open, 0 when there is
+   *         no limit
+   */
+  public int getRpcConnectionsPerServer() {
+    ensureOpen();
+    if (rpcConnectionsPerServer == null) {
+      rpcConnectionsPerServer =
+          ClientProperty.RPC_CONNECTIONS_PER_SERVER_MAX.getInteger(info.getProperties());
+    }
+    return rpcConnectionsPerServer;
+  }
+
+  /**
+   * @return milliseconds to wait for a connection to be returned when a server is at its limit
+   */
+  public long getRpcConnectionWaitMillis() {
+    ensureOpen();
+    if (rpcConnectionWaitMillis == null) {
+      rpcConnectionWaitMillis =
+          ClientProperty.RPC_CONNECTIONS_WAIT_MAX.getTimeInMillis(info.getProperties());
+    }
+    return rpcConnectionWaitMillis;
+  }
+
+  /**
+   * @return counts of cache hits, misses and refreshes for the tablet locators of this instance
+   */
+  public TabletLocatorMetrics getTabletLocatorMetrics() {
+    ensureOpen();
+    return TabletLocator.getMetrics(getInstanceID());
+  }
+
   /**
    * Serialize the credentials just before initiating the RPC call
    */
@@ -758,6 +811,8 @@ public class ClientContext implements AccumuloClient {
       ClientProperty.BATCH_WRITER_TIMEOUT_MAX.setTimeInMillis(properties,
           batchWriterConfig.getTimeout(TimeUnit.MILLISECONDS));
       setProperty(ClientProperty.BATCH_WRITER_THREADS_MAX, batchWriterConfig.getMaxWriteThreads());
+      setProperty(ClientProperty.BATCH_WRITER_SERVER_INFLIGHT_MAX,
+          batchWriterConfig.getMaxInFlightPerServer());
       setProperty(ClientProperty.BATCH_WRITER_DURABILITY,
           batchWriterConfig.getDurability().toString());
       return this;
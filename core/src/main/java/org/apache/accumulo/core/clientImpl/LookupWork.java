@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+
+/**
+ * Ranges the {@link TabletServerBatchReaderIterator} has binned to tablet servers, handed out to
+ * query threads in chunks as the threads become free. Rather than assigning all of a server's
+ * ranges to threads up front, each chunk is cut from the server with the most ranges remaining and
+ * is sized to the remaining work divided by the number of threads. Chunks shrink as the lookup
+ * drains, so a thread that finishes early takes over work that would otherwise have been queued
+ * behind a slow tablet. A tablet's ranges are split across chunks when needed.
+ *
+ * <p>
+ * This class is thread safe.
+ */
+class LookupWork {
+
+  /**
+   * Ranges for one or more tablets on a single tablet server.
+   */
+  static class Chunk {
+    final String server;
+    final Map<KeyExtent,List<Range>> tablets;
+
+    Chunk(String server, Map<KeyExtent,List<Range>> tablets) {
+      this.server = server;
+      this.tablets = tablets;
+    }
+  }
+
+  private static class TabletRanges {
+    final KeyExtent extent;
+    final List<Range> ranges;
+    int next = 0;
+
+    TabletRanges(KeyExtent extent, List<Range> ranges) {
+      this.extent = extent;
+      this.ranges = ranges;
+    }
+  }
+
+  private static class ServerWork {
+    final Deque<TabletRanges> tablets = new ArrayDeque<>();
+    int ranges = 0;
+  }
+
+  private final int numThreads;
+  private final Map<String,ServerWork> work = new LinkedHashMap<>();
+  private int remaining = 0;
+
+  LookupWork(Map<String,Map<KeyExtent,List<Range>>> binnedRanges, int numThreads) {
+    if (numThreads <= 0) {
+      throw new IllegalArgumentException("numThreads must be positive : " + numThreads);
+    }
+    this.numThreads = numThreads;
+
+    // randomize tabletserver order, servers with equal work are taken in this order... this will
+    // help when there are multiple batch readers and writers running against accumulo
+    List<String> locations = new ArrayList<>(binnedRanges.keySet());
+    Collections.shuffle(locations);
+
+    for (String location : locations) {
+      ServerWork serverWork = new ServerWork();
+      for (Entry<KeyExtent,List<Range>> entry : binnedRanges.get(location).entrySet()) {
+        if (!entry.getValue().isEmpty()) {
+          serverWork.tablets.add(new TabletRanges(entry.getKey(), entry.getValue()));
+          serverWork.ranges += entry.getValue().size();
+        }
+      }
+      if (serverWork.ranges > 0) {
+        work.put(location, serverWork);
+        remaining += serverWork.ranges;
+      }
+    }
+  }
+
+  /**
+   * @return the number of ranges that have not been handed out
+   */
+  synchronized int getRemaining() {
+    return remaining;
+  }
+
+  /**
+   * @return the next chunk of work, or null when all ranges have been handed out
+   */
+  synchronized Chunk take() {
+    if (remaining == 0) {
+      return null;
+    }
+
+    String server = null;
+    ServerWork serverWork = null;
+    for (Entry<String,ServerWork> entry : work.entrySet()) {
+      if (serverWork == null || entry.getValue().ranges > serverWork.ranges) {
+        server = entry.getKey();
+        serverWork = entry.getValue();
+      }
+    }
+
+    int target = Math.min(serverWork.ranges, (remaining + numThreads - 1) / numThreads);
+
+    Map<KeyExtent,List<Range>> tablets = new HashMap<>();
+    int taken = 0;
+    while (taken < target) {
+      TabletRanges tabletRanges = serverWork.tablets.peekFirst();
+      int end = Math.min(tabletRanges.ranges.size(), tabletRanges.next + target - taken);
+      tablets.put(tabletRanges.extent,
+          new ArrayList<>(tabletRanges.ranges.subList(tabletRanges.next, end)));
+      taken += end - tabletRanges.next;
+      tabletRanges.next = end;
+      if (end == tabletRanges.ranges.size()) {
+        serverWork.tablets.removeFirst();
+      }
+    }
+
+    serverWork.ranges -= taken;
+    remaining -= taken;
+    if (serverWork.ranges == 0) {
+      work.remove(server);
+    }
+
+    return new Chunk(server, tablets);
+  }
+}
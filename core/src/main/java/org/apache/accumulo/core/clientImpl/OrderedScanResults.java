@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+
+/**
+ * Returns entries in sorted order by merging the sorted runs that arrive from the tablet servers as
+ * they arrive. A priority queue holds the runs ordered by their next entry. It also tracks the
+ * tablet ranges that are still being scanned, including retried failures. Tablet ranges do not
+ * overlap, so an entry can be returned once it falls before or within the first tablet range still
+ * being scanned, because no entry that sorts before it can arrive later.
+ *
+ * <p>
+ * Adding is never blocked. Entries of the first unfinished tablet range are returned as they
+ * arrive, entries after it are held in memory until it completes.
+ */
+class OrderedScanResults implements ScanResultBuffer {
+
+  /**
+   * Sorted entries from one tablet range, consumed from the front.
+   */
+  private static class Run {
+    final List<Entry<Key,Value>> entries;
+    final int end;
+    int next;
+
+    Run(List<Entry<Key,Value>> entries, int start, int end) {
+      this.entries = entries;
+      this.next = start;
+      this.end = end;
+    }
+
+    Key head() {
+      return entries.get(next).getKey();
+    }
+  }
+
+  private final PriorityQueue<Run> runs = new PriorityQueue<>(Comparator.comparing(Run::head));
+  // tablet ranges being scanned, with the number of times each was passed to scanning()
+  private final TreeMap<Range,Integer> pending = new TreeMap<>();
+  private boolean finished = false;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+
+  @Override
+  public void add(String server, List<Entry<Key,Value>> entries) {
+    lock.lock();
+    try {
+      // a batch from a server holds a sorted run for each tablet range it read, in any order
+      int start = 0;
+      for (int i = 1; i <= entries.size(); i++) {
+        if (i == entries.size()
+            || entries.get(i).getKey().compareTo(entries.get(i - 1).getKey()) < 0) {
+          if (i > start) {
+            runs.add(new Run(entries, start, i));
+          }
+          start = i;
+        }
+      }
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void scanning(Map<KeyExtent,List<Range>> ranges) {
+    lock.lock();
+    try {
+      for (List<Range> tabletRanges : ranges.values()) {
+        for (Range range : tabletRanges) {
+          pending.merge(range, 1, Integer::sum);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void scanned(Map<KeyExtent,List<Range>> ranges) {
+    lock.lock();
+    try {
+      for (List<Range> tabletRanges : ranges.values()) {
+        for (Range range : tabletRanges) {
+          pending.computeIfPresent(range, (r, count) -> count == 1 ? null : count - 1);
+        }
+      }
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return true if no entry sorting before the key can still be added
+   */
+  private boolean canReturn(Key key) {
+    if (pending.isEmpty()) {
+      return true;
+    }
+    Range first = pending.firstKey();
+    return first.beforeStartKey(key) || first.contains(key);
+  }
+
+  private List<Entry<Key,Value>> takeSorted() {
+    List<Entry<Key,Value>> batch = new ArrayList<>();
+    while (!runs.isEmpty() && canReturn(runs.peek().head())) {
+      Run run = runs.poll();
+      Run other = runs.peek();
+      // take from this run until another run has a smaller entry
+      do {
+        batch.add(run.entries.get(run.next++));
+      } while (run.next < run.end && (other == null || run.head().compareTo(other.head()) <= 0)
+          && canReturn(run.head()));
+      if (run.next < run.end) {
+        runs.add(run);
+      }
+    }
+    return batch;
+  }
+
+  @Override
+  public List<Entry<Key,Value>> poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long remainingNanos = unit.toNanos(timeout);
+    lock.lock();
+    try {
+      while (true) {
+        List<Entry<Key,Value>> batch = takeSorted();
+        if (!batch.isEmpty()) {
+          return batch;
+        }
+
+        if (finished || (pending.isEmpty() && runs.isEmpty())) {
+          return LAST_BATCH;
+        }
+
+        if (remainingNanos <= 0) {
+          return null;
+        }
+        remainingNanos = changed.awaitNanos(remainingNanos);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void finish() {
+    lock.lock();
+    try {
+      finished = true;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+
+/**
+ * Hands batches of entries from the query threads of a {@link TabletServerBatchReaderIterator} to
+ * the thread consuming its iterator.
+ */
+interface ScanResultBuffer {
+
+  /**
+   * Returned by {@link #poll(long, TimeUnit)} once all results have been consumed.
+   */
+  List<Entry<Key,Value>> LAST_BATCH = new ArrayList<>();
+
+  /**
+   * Adds a batch of entries read from a tablet server, blocking if the buffer is full.
+   */
+  void add(String server, List<Entry<Key,Value>> entries) throws InterruptedException;
+
+  /**
+   * @return the next batch, {@link #LAST_BATCH} when there are no more, or null if the timeout
+   *         elapsed first
+   */
+  List<Entry<Key,Value>> poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+  /**
+   * Called before the given tablet ranges are scanned.
+   */
+  default void scanning(Map<KeyExtent,List<Range>> ranges) {}
+
+  /**
+   * Called after all entries for the given tablet ranges, passed to a previous call to
+   * {@link #scanning(Map)}, have been added. Ranges that failed must be passed to
+   * {@link #scanning(Map)} again before this is called.
+   */
+  default void scanned(Map<KeyExtent,List<Range>> ranges) {}
+
+  /**
+   * Called when no more entries will be added.
+   */
+  void finish();
+}
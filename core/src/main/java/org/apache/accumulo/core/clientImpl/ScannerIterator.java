@@ -19,8 +19,10 @@
 package org.apache.accumulo.core.clientImpl;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.OptionalInt;
@@ -89,7 +91,7 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
         new ScanState(context, tableId, authorizations, new Range(range), options.fetchedColumns,
             size, options.serverSideIteratorList, options.serverSideIteratorOptions, isolated,
             readaheadThreshold, options.getSamplerConfiguration(), options.batchTimeOut,
-            options.classLoaderContext, options.executionHints);
+            options.classLoaderContext, withPipelineWindow(context, options.executionHints));
 
     // If we want to start readahead immediately, don't wait for hasNext to be called
     if (readaheadThreshold == 0L) {
@@ -98,6 +100,17 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
     iter = null;
   }
 
+  private static Map<String,String> withPipelineWindow(ClientContext context,
+      Map<String,String> executionHints) {
+    int window = context.getScannerPipelineWindow();
+    if (window <= 1) {
+      return executionHints;
+    }
+    Map<String,String> hints = new HashMap<>(executionHints);
+    hints.put(ThriftScanner.PIPELINE_WINDOW_HINT, Integer.toString(window));
+    return hints;
+  }
+
   @Override
   public boolean hasNext() {
     if (finished)
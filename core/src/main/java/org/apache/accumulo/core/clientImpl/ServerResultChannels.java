@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * Returns batches in the order they arrive, with a separate channel per tablet server so query
+ * threads talking to different servers do not contend on a single queue. The consumer polls the
+ * channels round robin. The number of buffered batches across all channels is bounded.
+ */
+class ServerResultChannels implements ScanResultBuffer {
+
+  private final Map<String,Queue<List<Entry<Key,Value>>>> channels = new ConcurrentHashMap<>();
+  private final List<Queue<List<Entry<Key,Value>>>> channelList = new CopyOnWriteArrayList<>();
+  private final Semaphore space;
+  private final Semaphore available = new Semaphore(0);
+  private volatile boolean finished = false;
+  private int nextChannel = 0;
+
+  /**
+   * @param capacity
+   *          maximum number of batches buffered across all channels
+   */
+  ServerResultChannels(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive : " + capacity);
+    }
+    this.space = new Semaphore(capacity);
+  }
+
+  private Queue<List<Entry<Key,Value>>> getChannel(String server) {
+    return channels.computeIfAbsent(server, s -> {
+      Queue<List<Entry<Key,Value>>> channel = new ConcurrentLinkedQueue<>();
+      channelList.add(channel);
+      return channel;
+    });
+  }
+
+  @Override
+  public void add(String server, List<Entry<Key,Value>> entries) throws InterruptedException {
+    space.acquire();
+    getChannel(server).add(entries);
+    available.release();
+  }
+
+  @Override
+  public List<Entry<Key,Value>> poll(long timeout, TimeUnit unit) throws InterruptedException {
+    if (!available.tryAcquire(timeout, unit)) {
+      return null;
+    }
+
+    int numChannels = channelList.size();
+    for (int i = 0; i < numChannels; i++) {
+      nextChannel = (nextChannel + 1) % numChannels;
+      List<Entry<Key,Value>> batch = channelList.get(nextChannel).poll();
+      if (batch != null) {
+        space.release();
+        return batch;
+      }
+    }
+
+    // the permit came from finish(), put it back so later calls also see the end
+    available.release();
+    return LAST_BATCH;
+  }
+
+  @Override
+  public void finish() {
+    if (!finished) {
+      finished = true;
+      available.release();
+    }
+  }
+}
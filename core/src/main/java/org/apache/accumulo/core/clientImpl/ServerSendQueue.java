@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.accumulo.core.clientImpl.TabletLocator.TabletServerMutations;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+
+/**
+ * Mutations the {@link TabletServerBatchWriter} has binned for a single tablet server, split into
+ * those waiting to be sent and those in flight. At most {@code maxInFlight} batches may be in
+ * flight at once. A tablet whose mutations are in flight is left out of later batches until that
+ * batch completes, so mutations for a tablet always arrive in the order they were added.
+ *
+ * <p>
+ * This class is not thread safe, callers must synchronize.
+ */
+class ServerSendQueue {
+
+  private final int maxInFlight;
+  private final long maxBatchBytes;
+
+  private TabletServerMutations<Mutation> pending;
+  private long pendingBytes = 0;
+
+  private final Set<KeyExtent> inFlightExtents = new HashSet<>();
+  private int inFlight = 0;
+  private long inFlightBytes = 0;
+
+  /**
+   * @param maxInFlight
+   *          maximum number of batches that may be in flight to the server
+   * @param maxBatchBytes
+   *          once a batch reaches this many bytes no more tablets are added to it
+   */
+  ServerSendQueue(int maxInFlight, long maxBatchBytes) {
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("maxInFlight must be positive : " + maxInFlight);
+    }
+    this.maxInFlight = maxInFlight;
+    this.maxBatchBytes = Math.max(1, maxBatchBytes);
+  }
+
+  private static long bytes(List<Mutation> mutations) {
+    long bytes = 0;
+    for (Mutation m : mutations) {
+      bytes += m.estimatedMemoryUsed();
+    }
+    return bytes;
+  }
+
+  /**
+   * Queues binned mutations to be sent.
+   */
+  void add(TabletServerMutations<Mutation> tsm) {
+    if (pending == null) {
+      pending = new TabletServerMutations<>(tsm.getSession());
+    }
+    for (Entry<KeyExtent,List<Mutation>> entry : tsm.getMutations().entrySet()) {
+      for (Mutation m : entry.getValue()) {
+        pending.addMutation(entry.getKey(), m);
+        pendingBytes += m.estimatedMemoryUsed();
+      }
+    }
+  }
+
+  /**
+   * Removes the next batch to send from the pending mutations and marks it in flight. A batch
+   * contains whole tablets that are not already in flight, added until it reaches the batch size.
+   *
+   * @return the batch to send, or null if the window is full or no pending tablet can be sent
+   */
+  TabletServerMutations<Mutation> take() {
+    if (inFlight >= maxInFlight || pending == null) {
+      return null;
+    }
+
+    TabletServerMutations<Mutation> batch = new TabletServerMutations<>(pending.getSession());
+    long batchBytes = 0;
+
+    Iterator<Entry<KeyExtent,List<Mutation>>> iter = pending.getMutations().entrySet().iterator();
+    while (iter.hasNext() && batchBytes < maxBatchBytes) {
+      Entry<KeyExtent,List<Mutation>> entry = iter.next();
+      if (inFlightExtents.contains(entry.getKey())) {
+        continue;
+      }
+      batch.getMutations().put(entry.getKey(), entry.getValue());
+      batchBytes += bytes(entry.getValue());
+      iter.remove();
+    }
+
+    if (pending.getMutations().isEmpty()) {
+      pending = null;
+    }
+
+    if (batch.getMutations().isEmpty()) {
+      return null;
+    }
+
+    inFlight++;
+    inFlightExtents.addAll(batch.getMutations().keySet());
+    pendingBytes -= batchBytes;
+    inFlightBytes += batchBytes;
+    return batch;
+  }
+
+  /**
+   * Releases a batch previously returned by {@link #take()}, whether or not it was sent
+   * successfully.
+   */
+  void completed(TabletServerMutations<Mutation> batch) {
+    long batchBytes = 0;
+    for (Entry<KeyExtent,List<Mutation>> entry : batch.getMutations().entrySet()) {
+      inFlightExtents.remove(entry.getKey());
+      batchBytes += bytes(entry.getValue());
+    }
+    inFlight--;
+    inFlightBytes -= batchBytes;
+  }
+
+  /**
+   * @return true when nothing is pending or in flight
+   */
+  boolean isIdle() {
+    return pending == null && inFlight == 0;
+  }
+
+  int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * @return bytes of mutations waiting to be sent or in flight to the server
+   */
+  long getQueuedBytes() {
+    return pendingBytes + inFlightBytes;
+  }
+}
@@ -108,6 +108,8 @@ public abstract class TabletLocator {
   }
 
   private static HashMap<LocatorKey,TabletLocator> locators = new HashMap<>();
+  // kept when locators are cleared so the counts only increase
+  private static HashMap<String,TabletLocatorMetrics> metrics = new HashMap<>();
   private static boolean enabled = true;
 
   public static synchronized void clearLocators() {
@@ -138,15 +140,16 @@ public abstract class TabletLocator {
     TabletLocator tl = locators.get(key);
     if (tl == null) {
       MetadataLocationObtainer mlo = new MetadataLocationObtainer();
+      TabletLocatorMetrics tlm = getMetrics(context.getInstanceID());
 
       if (RootTable.ID.equals(tableId)) {
         tl = new RootTabletLocator(new ZookeeperLockChecker(context));
       } else if (MetadataTable.ID.equals(tableId)) {
         tl = new TabletLocatorImpl(MetadataTable.ID, getLocator(context, RootTable.ID), mlo,
-            new ZookeeperLockChecker(context));
+            new ZookeeperLockChecker(context), tlm);
       } else {
         tl = new TabletLocatorImpl(tableId, getLocator(context, MetadataTable.ID), mlo,
-            new ZookeeperLockChecker(context));
+            new ZookeeperLockChecker(context), tlm);
       }
       locators.put(key, tl);
     }
@@ -154,6 +157,13 @@ public abstract class TabletLocator {
     return tl;
   }
 
+  /**
+   * @return the counts shared by all locators of the instance
+   */
+  static synchronized TabletLocatorMetrics getMetrics(String instanceId) {
+    return metrics.computeIfAbsent(instanceId, k -> new TabletLocatorMetrics());
+  }
+
   static {
     SingletonManager.register(new SingletonService() {
 
@@ -83,6 +83,7 @@ public class TabletLocatorImpl extends TabletLocator {
   protected Text lastTabletRow;
 
   private TreeSet<KeyExtent> badExtents = new TreeSet<>();
+  private final TabletLocatorMetrics metrics;
   private ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
   private final Lock rLock = rwLock.readLock();
   private final Lock wLock = rwLock.writeLock();
@@ -145,10 +146,16 @@ public class TabletLocatorImpl extends TabletLocator {
 
   public TabletLocatorImpl(TableId tableId, TabletLocator parent, TabletLocationObtainer tlo,
       TabletServerLockChecker tslc) {
+    this(tableId, parent, tlo, tslc, new TabletLocatorMetrics());
+  }
+
+  public TabletLocatorImpl(TableId tableId, TabletLocator parent, TabletLocationObtainer tlo,
+      TabletServerLockChecker tslc, TabletLocatorMetrics metrics) {
     this.tableId = tableId;
     this.parent = parent;
     this.locationObtainer = tlo;
     this.lockChecker = tslc;
+    this.metrics = metrics;
 
     this.lastTabletRow = new Text(tableId.canonical());
     lastTabletRow.append(new byte[] {'<'}, 0, 1);
@@ -194,6 +201,8 @@ public class TabletLocatorImpl extends TabletLocator {
       rLock.unlock();
     }
 
+    metrics.addHits(mutations.size() - notInCache.size());
+
     if (!notInCache.isEmpty()) {
       notInCache.sort((o1, o2) -> WritableComparator.compareBytes(o1.getRow(), 0,
           o1.getRow().length, o2.getRow(), 0, o2.getRow().length));
@@ -356,6 +365,8 @@ public class TabletLocatorImpl extends TabletLocator {
       rLock.unlock();
     }
 
+    metrics.addHits(ranges.size() - failures.size());
+
     if (!failures.isEmpty()) {
       // sort failures by range start key
       Collections.sort(failures);
@@ -645,13 +656,21 @@ public class TabletLocatorImpl extends TabletLocator {
       if (lock) {
         wLock.lock();
         try {
-          tl = lookupTabletLocationAndCheckLock(context, row, retry, lcSession);
+          // another thread may have read the location while this one waited for the lock, when
+          // many threads miss on the same tablets only the first goes to the metadata table
+          tl = lcSession.checkLock(locateTabletInCache(row));
+          if (tl == null)
+            tl = lookupTabletLocationAndCheckLock(context, row, retry, lcSession);
+          else
+            metrics.addHits(1);
         } finally {
           wLock.unlock();
         }
       } else {
         tl = lookupTabletLocationAndCheckLock(context, row, retry, lcSession);
       }
+    } else {
+      metrics.addHits(1);
     }
 
     return tl;
@@ -660,6 +679,7 @@ public class TabletLocatorImpl extends TabletLocator {
   private TabletLocation lookupTabletLocationAndCheckLock(ClientContext context, Text row,
       boolean retry, LockCheckerSession lcSession)
       throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+    metrics.addMisses(1);
     lookupTabletLocation(context, row, retry, lcSession);
     return lcSession.checkLock(locateTabletInCache(row));
   }
@@ -679,45 +699,92 @@ public class TabletLocatorImpl extends TabletLocator {
     if (badExtents.isEmpty())
       return;
 
-    final boolean writeLockHeld = rwLock.isWriteLockedByCurrentThread();
+    if (rwLock.isWriteLockedByCurrentThread()) {
+      List<KeyExtent> refreshing = new ArrayList<>(badExtents);
+      List<TabletLocation> locations = lookupExtents(context, refreshing);
+      badExtents.clear();
+      updateRefreshed(refreshing, locations, lcSession);
+      return;
+    }
+
+    // The invalidated extents are read from the metadata table without holding a lock. Until this
+    // thread replaces them, other threads keep binning with the cached locations instead of
+    // waiting on the lock. Those locations may be stale, which the callers already handle by
+    // invalidating and retrying.
+    rLock.unlock();
     try {
-      if (!writeLockHeld) {
-        rLock.unlock();
-        wLock.lock();
+      List<KeyExtent> refreshing;
+      wLock.lock();
+      try {
         if (badExtents.isEmpty())
           return;
+        refreshing = new ArrayList<>(badExtents);
+        badExtents.clear();
+      } finally {
+        wLock.unlock();
       }
 
-      List<Range> lookups = new ArrayList<>(badExtents.size());
+      List<TabletLocation> locations;
+      try {
+        locations = lookupExtents(context, refreshing);
+      } catch (Exception e) {
+        // let a later call try again
+        wLock.lock();
+        try {
+          badExtents.addAll(refreshing);
+        } finally {
+          wLock.unlock();
+        }
+        throw e;
+      }
 
-      for (KeyExtent be : badExtents) {
-        lookups.add(be.toMetaRange());
-        removeOverlapping(metaCache, be);
+      wLock.lock();
+      try {
+        updateRefreshed(refreshing, locations, lcSession);
+      } finally {
+        wLock.unlock();
       }
+    } finally {
+      rLock.lock();
+    }
+  }
 
-      lookups = Range.mergeOverlapping(lookups);
+  private List<TabletLocation> lookupExtents(ClientContext context, List<KeyExtent> extents)
+      throws AccumuloSecurityException, AccumuloException, TableNotFoundException {
+    List<Range> lookups = new ArrayList<>(extents.size());
 
-      Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<>();
+    for (KeyExtent be : extents) {
+      lookups.add(be.toMetaRange());
+    }
 
-      parent.binRanges(context, lookups, binnedRanges);
+    lookups = Range.mergeOverlapping(lookups);
 
-      // randomize server order
-      ArrayList<String> tabletServers = new ArrayList<>(binnedRanges.keySet());
-      Collections.shuffle(tabletServers);
+    Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<>();
 
-      for (String tserver : tabletServers) {
-        List<TabletLocation> locations =
-            locationObtainer.lookupTablets(context, tserver, binnedRanges.get(tserver), parent);
+    parent.binRanges(context, lookups, binnedRanges);
 
-        for (TabletLocation tabletLocation : locations) {
-          updateCache(tabletLocation, lcSession);
-        }
-      }
-    } finally {
-      if (!writeLockHeld) {
-        rLock.lock();
-        wLock.unlock();
-      }
+    // randomize server order
+    ArrayList<String> tabletServers = new ArrayList<>(binnedRanges.keySet());
+    Collections.shuffle(tabletServers);
+
+    List<TabletLocation> locations = new ArrayList<>();
+    for (String tserver : tabletServers) {
+      locations.addAll(
+          locationObtainer.lookupTablets(context, tserver, binnedRanges.get(tserver), parent));
+    }
+
+    metrics.addRefreshes(extents.size());
+    return locations;
+  }
+
+  private void updateRefreshed(List<KeyExtent> refreshed, List<TabletLocation> locations,
+      LockCheckerSession lcSession) {
+    for (KeyExtent be : refreshed) {
+      removeOverlapping(metaCache, be);
+    }
+
+    for (TabletLocation tabletLocation : locations) {
+      updateCache(tabletLocation, lcSession);
     }
   }
 
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how tablet locations were found by the {@link TabletLocator}s of an instance.
+ */
+public class TabletLocatorMetrics {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder refreshes = new LongAdder();
+
+  void addHits(long count) {
+    hits.add(count);
+  }
+
+  void addMisses(long count) {
+    misses.add(count);
+  }
+
+  void addRefreshes(long count) {
+    refreshes.add(count);
+  }
+
+  /**
+   * @return the number of tablets located using cached locations
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of tablets that required reading the metadata table to locate
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of invalidated cache entries that were read again from the metadata table
+   */
+  public long getRefreshes() {
+    return refreshes.sum();
+  }
+}
@@ -54,6 +54,7 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
   private final Cleanable cleanable;
 
   private ArrayList<Range> ranges = null;
+  private boolean orderedResults = false;
 
   public TabletServerBatchReader(ClientContext context, TableId tableId,
       Authorizations authorizations, int numQueryThreads) {
@@ -104,6 +105,11 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
     this.ranges = new ArrayList<>(ranges);
   }
 
+  @Override
+  public void setOrderedResults(boolean orderedResults) {
+    this.orderedResults = orderedResults;
+  }
+
   @Override
   public Iterator<Entry<Key,Value>> iterator() {
     if (ranges == null) {
@@ -115,6 +121,6 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
     }
 
     return new TabletServerBatchReaderIterator(context, tableId, authorizations, ranges, numThreads,
-        queryThreadPool, this, timeOut);
+        queryThreadPool, this, timeOut, orderedResults);
   }
 }
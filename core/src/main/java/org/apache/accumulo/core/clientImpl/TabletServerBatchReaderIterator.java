@@ -32,7 +32,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -88,10 +87,11 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
   private final ExecutorService queryThreadPool;
   private final ScannerOptions options;
 
-  private ArrayBlockingQueue<List<Entry<Key,Value>>> resultsQueue;
+  private final boolean orderedResults;
+  private ScanResultBuffer results;
   private Iterator<Entry<Key,Value>> batchIterator;
   private List<Entry<Key,Value>> batch;
-  private static final List<Entry<Key,Value>> LAST_BATCH = new ArrayList<>();
+  private static final List<Entry<Key,Value>> LAST_BATCH = ScanResultBuffer.LAST_BATCH;
   private final Object nextLock = new Object();
 
   private long failSleepTime = 100;
@@ -111,6 +111,14 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
   public TabletServerBatchReaderIterator(ClientContext context, TableId tableId,
       Authorizations authorizations, ArrayList<Range> ranges, int numThreads,
       ExecutorService queryThreadPool, ScannerOptions scannerOptions, long timeout) {
+    this(context, tableId, authorizations, ranges, numThreads, queryThreadPool, scannerOptions,
+        timeout, false);
+  }
+
+  public TabletServerBatchReaderIterator(ClientContext context, TableId tableId,
+      Authorizations authorizations, ArrayList<Range> ranges, int numThreads,
+      ExecutorService queryThreadPool, ScannerOptions scannerOptions, long timeout,
+      boolean orderedResults) {
 
     this.context = context;
     this.tableId = tableId;
@@ -118,7 +126,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     this.numThreads = numThreads;
     this.queryThreadPool = queryThreadPool;
     this.options = new ScannerOptions(scannerOptions);
-    resultsQueue = new ArrayBlockingQueue<>(numThreads);
+    this.orderedResults = orderedResults;
 
     this.locator = new TimeoutTabletLocator(timeout, context, tableId);
 
@@ -135,22 +143,8 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
       ranges = ranges2;
     }
 
-    ResultReceiver rr = entries -> {
-      try {
-        resultsQueue.put(entries);
-      } catch (InterruptedException e) {
-        if (TabletServerBatchReaderIterator.this.queryThreadPool.isShutdown())
-          log.debug("Failed to add Batch Scan result", e);
-        else
-          log.warn("Failed to add Batch Scan result", e);
-        fatalException = e;
-        throw new RuntimeException(e);
-
-      }
-    };
-
     try {
-      lookup(ranges, rr);
+      lookup(ranges);
     } catch (RuntimeException re) {
       throw re;
     } catch (Exception e) {
@@ -171,7 +165,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
       try {
         batch = null;
         while (batch == null && fatalException == null && !queryThreadPool.isShutdown())
-          batch = resultsQueue.poll(1, TimeUnit.SECONDS);
+          batch = results.poll(1, TimeUnit.SECONDS);
 
         if (fatalException != null)
           if (fatalException instanceof RuntimeException)
@@ -213,16 +207,46 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     throw new UnsupportedOperationException();
   }
 
-  private synchronized void lookup(List<Range> ranges, ResultReceiver receiver)
+  private synchronized void lookup(List<Range> ranges)
       throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
     List<Column> columns = new ArrayList<>(options.fetchedColumns);
     ranges = Range.mergeOverlapping(ranges);
 
+    if (orderedResults)
+      results = new OrderedScanResults();
+    else
+      results = new ServerResultChannels(numThreads);
+
     Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<>();
 
     binRanges(locator, ranges, binnedRanges);
 
-    doLookups(binnedRanges, receiver, columns);
+    for (Map<KeyExtent,List<Range>> tabletRanges : binnedRanges.values())
+      results.scanning(tabletRanges);
+
+    doLookups(binnedRanges, columns);
+  }
+
+  private void addResults(String server, List<Entry<Key,Value>> entries) {
+    try {
+      results.add(server, entries);
+    } catch (InterruptedException e) {
+      if (queryThreadPool.isShutdown())
+        log.debug("Failed to add Batch Scan result", e);
+      else
+        log.warn("Failed to add Batch Scan result", e);
+      fatalException = e;
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void addFailures(Map<KeyExtent,List<Range>> failures,
+      Map<KeyExtent,List<Range>> newFailures) {
+    // a tablet's ranges may be split across lookups, so more than one may fail for it
+    synchronized (failures) {
+      for (Entry<KeyExtent,List<Range>> entry : newFailures.entrySet())
+        failures.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(entry.getValue());
+    }
   }
 
   private void binRanges(TabletLocator tabletLocator, List<Range> ranges,
@@ -286,8 +310,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     binnedRanges.putAll(binnedRanges2);
   }
 
-  private void processFailures(Map<KeyExtent,List<Range>> failures, ResultReceiver receiver,
-      List<Column> columns)
+  private void processFailures(Map<KeyExtent,List<Range>> failures, List<Column> columns)
       throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
     if (log.isTraceEnabled())
       log.trace("Failed to execute multiscans against {} tablets, retrying...", failures.size());
@@ -315,7 +338,11 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     // bin to the set of failed tablets
     binRanges(locator, allRanges, binnedRanges);
 
-    doLookups(binnedRanges, receiver, columns);
+    for (Map<KeyExtent,List<Range>> tabletRanges : binnedRanges.values())
+      results.scanning(tabletRanges);
+    results.scanned(failures);
+
+    doLookups(binnedRanges, columns);
   }
 
   private String getTableInfo() {
@@ -324,33 +351,23 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
 
   private class QueryTask implements Runnable {
 
-    private String tsLocation;
-    private Map<KeyExtent,List<Range>> tabletsRanges;
-    private ResultReceiver receiver;
-    private Semaphore semaphore = null;
+    private final LookupWork work;
     private final Map<KeyExtent,List<Range>> failures;
-    private List<Column> columns;
-    private int semaphoreSize;
-
-    QueryTask(String tsLocation, Map<KeyExtent,List<Range>> tabletsRanges,
-        Map<KeyExtent,List<Range>> failures, ResultReceiver receiver, List<Column> columns) {
-      this.tsLocation = tsLocation;
-      this.tabletsRanges = tabletsRanges;
-      this.receiver = receiver;
-      this.columns = columns;
-      this.failures = failures;
-    }
+    private final List<Column> columns;
+    private final Semaphore semaphore;
+    private final int semaphoreSize;
 
-    void setSemaphore(Semaphore semaphore, int semaphoreSize) {
+    QueryTask(LookupWork work, Map<KeyExtent,List<Range>> failures, List<Column> columns,
+        Semaphore semaphore, int semaphoreSize) {
+      this.work = work;
+      this.failures = failures;
+      this.columns = columns;
       this.semaphore = semaphore;
       this.semaphoreSize = semaphoreSize;
     }
 
-    @Override
-    public void run() {
-      String threadName = Thread.currentThread().getName();
-      Thread.currentThread()
-          .setName(threadName + " looking up " + tabletsRanges.size() + " ranges at " + tsLocation);
+    private void lookup(LookupWork.Chunk chunk) {
+      String tsLocation = chunk.server;
       Map<KeyExtent,List<Range>> unscanned = new HashMap<>();
       Map<KeyExtent,List<Range>> tsFailures = new HashMap<>();
       try {
@@ -359,21 +376,23 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
           timeoutTracker = new TimeoutTracker(tsLocation, timedoutServers, timeout);
           timeoutTrackers.put(tsLocation, timeoutTracker);
         }
-        doLookup(context, tsLocation, tabletsRanges, tsFailures, unscanned, receiver, columns,
-            options, authorizations, timeoutTracker);
+        doLookup(context, tsLocation, chunk.tablets, tsFailures, unscanned,
+            entries -> addResults(tsLocation, entries), columns, options, authorizations,
+            timeoutTracker);
         if (!tsFailures.isEmpty()) {
           locator.invalidateCache(tsFailures.keySet());
-          synchronized (failures) {
-            failures.putAll(tsFailures);
-          }
+          addFailures(failures, tsFailures);
+          results.scanning(tsFailures);
         }
+        results.scanned(chunk.tablets);
 
       } catch (IOException e) {
         if (!TabletServerBatchReaderIterator.this.queryThreadPool.isShutdown()) {
-          synchronized (failures) {
-            failures.putAll(tsFailures);
-            failures.putAll(unscanned);
-          }
+          addFailures(failures, tsFailures);
+          addFailures(failures, unscanned);
+          results.scanning(tsFailures);
+          results.scanning(unscanned);
+          results.scanned(chunk.tablets);
 
           locator.invalidateCache(context, tsLocation);
         }
@@ -395,6 +414,26 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
         else
           log.warn("Caught exception, but queryThreadPool is not shutdown", t);
         fatalException = t;
+      }
+    }
+
+    @Override
+    public void run() {
+      String threadName = Thread.currentThread().getName();
+      try {
+        LookupWork.Chunk chunk;
+        while (fatalException == null && !queryThreadPool.isShutdown()
+            && (chunk = work.take()) != null) {
+          if (timedoutServers.contains(chunk.server)) {
+            // the server timed out while this work was queued, fail it without contacting the
+            // server again
+            addFailures(failures, chunk.tablets);
+            continue;
+          }
+          Thread.currentThread().setName(
+              threadName + " looking up " + chunk.tablets.size() + " ranges at " + chunk.server);
+          lookup(chunk);
+        }
       } catch (Throwable t) {
         fatalException = t;
         throw t; // let uncaught exception handler deal with the Error
@@ -406,7 +445,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
           if (fatalException == null && !failures.isEmpty()) {
             // there were some failures
             try {
-              processFailures(failures, receiver, columns);
+              processFailures(failures, columns);
             } catch (TableNotFoundException | AccumuloException e) {
               log.debug("{}", e.getMessage(), e);
               fatalException = e;
@@ -421,30 +460,11 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
 
             if (fatalException != null) {
               // we are finished with this batch query
-              if (!resultsQueue.offer(LAST_BATCH)) {
-                log.debug(
-                    "Could not add to result queue after seeing fatalException in processFailures",
-                    fatalException);
-              }
+              results.finish();
             }
           } else {
             // we are finished with this batch query
-            if (fatalException != null) {
-              if (!resultsQueue.offer(LAST_BATCH)) {
-                log.debug("Could not add to result queue after seeing fatalException",
-                    fatalException);
-              }
-            } else {
-              try {
-                resultsQueue.put(LAST_BATCH);
-              } catch (InterruptedException e) {
-                fatalException = e;
-                if (!resultsQueue.offer(LAST_BATCH)) {
-                  log.debug("Could not add to result queue after seeing fatalException",
-                      fatalException);
-                }
-              }
-            }
+            results.finish();
           }
         }
       }
@@ -453,30 +473,13 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
   }
 
   private void doLookups(Map<String,Map<KeyExtent,List<Range>>> binnedRanges,
-      final ResultReceiver receiver, List<Column> columns) {
+      List<Column> columns) {
 
     if (timedoutServers.containsAll(binnedRanges.keySet())) {
       // all servers have timed out
       throw new TimedOutException(timedoutServers);
     }
 
-    // when there are lots of threads and a few tablet servers
-    // it is good to break request to tablet servers up, the
-    // following code determines if this is the case
-    int maxTabletsPerRequest = Integer.MAX_VALUE;
-    if (numThreads / binnedRanges.size() > 1) {
-      int totalNumberOfTablets = 0;
-      for (Entry<String,Map<KeyExtent,List<Range>>> entry : binnedRanges.entrySet()) {
-        totalNumberOfTablets += entry.getValue().size();
-      }
-
-      maxTabletsPerRequest = totalNumberOfTablets / numThreads;
-      if (maxTabletsPerRequest == 0) {
-        maxTabletsPerRequest = 1;
-      }
-
-    }
-
     Map<KeyExtent,List<Range>> failures = new HashMap<>();
 
     if (!timedoutServers.isEmpty()) {
@@ -485,51 +488,23 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
           binnedRanges.entrySet().iterator(); iterator.hasNext();) {
         Entry<String,Map<KeyExtent,List<Range>>> entry = iterator.next();
         if (timedoutServers.contains(entry.getKey())) {
-          failures.putAll(entry.getValue());
+          addFailures(failures, entry.getValue());
           iterator.remove();
         }
       }
     }
 
-    // randomize tabletserver order... this will help when there are multiple
-    // batch readers and writers running against accumulo
-    List<String> locations = new ArrayList<>(binnedRanges.keySet());
-    Collections.shuffle(locations);
-
-    List<QueryTask> queryTasks = new ArrayList<>();
-
-    for (final String tsLocation : locations) {
-
-      final Map<KeyExtent,List<Range>> tabletsRanges = binnedRanges.get(tsLocation);
-      if (maxTabletsPerRequest == Integer.MAX_VALUE || tabletsRanges.size() == 1) {
-        QueryTask queryTask = new QueryTask(tsLocation, tabletsRanges, failures, receiver, columns);
-        queryTasks.add(queryTask);
-      } else {
-        HashMap<KeyExtent,List<Range>> tabletSubset = new HashMap<>();
-        for (Entry<KeyExtent,List<Range>> entry : tabletsRanges.entrySet()) {
-          tabletSubset.put(entry.getKey(), entry.getValue());
-          if (tabletSubset.size() >= maxTabletsPerRequest) {
-            QueryTask queryTask =
-                new QueryTask(tsLocation, tabletSubset, failures, receiver, columns);
-            queryTasks.add(queryTask);
-            tabletSubset = new HashMap<>();
-          }
-        }
-
-        if (!tabletSubset.isEmpty()) {
-          QueryTask queryTask =
-              new QueryTask(tsLocation, tabletSubset, failures, receiver, columns);
-          queryTasks.add(queryTask);
-        }
-      }
-    }
+    // rather than binding ranges to threads up front, each thread takes chunks of work until
+    // none is left... this keeps threads busy when some tablets are slower to scan than others
+    LookupWork work = new LookupWork(binnedRanges, numThreads);
+    int numTasks = Math.max(1, Math.min(numThreads, work.getRemaining()));
 
-    final Semaphore semaphore = new Semaphore(queryTasks.size());
-    semaphore.acquireUninterruptibly(queryTasks.size());
+    final Semaphore semaphore = new Semaphore(numTasks);
+    semaphore.acquireUninterruptibly(numTasks);
 
-    for (QueryTask queryTask : queryTasks) {
-      queryTask.setSemaphore(semaphore, queryTasks.size());
-      queryThreadPool.execute(new TraceRunnable(queryTask));
+    for (int i = 0; i < numTasks; i++) {
+      queryThreadPool
+          .execute(new TraceRunnable(new QueryTask(work, failures, columns, semaphore, numTasks)));
     }
   }
 
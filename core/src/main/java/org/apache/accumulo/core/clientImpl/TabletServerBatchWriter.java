@@ -32,8 +32,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -93,10 +93,10 @@ import com.google.common.base.Joiner;
  *
  * Considerations
  *   + All background threads must catch and note Exception
- *   + mutations for a single tablet server are only processed by one thread
- *     concurrently (if new mutations come in for a tablet server while one
- *     thread is processing mutations for it, no other thread should
- *     start processing those mutations)
+ *   + a tablet server may have several batches in flight, up to the per server
+ *     window, but mutations for a single tablet are only in one batch at a time
+ *     (if new mutations come in for a tablet while a batch containing it is
+ *     in flight, they wait until that batch completes)
  *
  * Memory accounting
  *   + when a mutation enters the system memory is incremented
@@ -208,7 +208,7 @@ public class TabletServerBatchWriter implements AutoCloseable {
     this.lastProcessingStartTime = System.currentTimeMillis();
     this.durability = config.getDurability();
 
-    this.writer = new MutationWriter(config.getMaxWriteThreads());
+    this.writer = new MutationWriter(config.getMaxWriteThreads(), config.getMaxInFlightPerServer());
 
     if (this.maxLatency != Long.MAX_VALUE) {
       executor.scheduleWithFixedDelay(Threads.createNamedRunnable("BatchWriterLatencyTimer", () -> {
@@ -637,19 +637,22 @@ public class TabletServerBatchWriter implements AutoCloseable {
     private static final int MUTATION_BATCH_SIZE = 1 << 17;
     private final ThreadPoolExecutor sendThreadPool;
     private final ThreadPoolExecutor binningThreadPool;
-    private final Map<String,TabletServerMutations<Mutation>> serversMutations;
-    private final Set<String> queued;
+    private final Map<String,ServerSendQueue> serverQueues;
     private final Map<TableId,TabletLocator> locators;
+    private final int maxInFlightPerServer;
+    private final long maxBatchBytes;
 
-    public MutationWriter(int numSendThreads) {
-      serversMutations = new HashMap<>();
-      queued = new HashSet<>();
+    public MutationWriter(int numSendThreads, int maxInFlightPerServer) {
+      serverQueues = new HashMap<>();
       sendThreadPool =
           ThreadPools.createFixedThreadPool(numSendThreads, this.getClass().getName(), false);
       locators = new HashMap<>();
-      binningThreadPool =
-          ThreadPools.createFixedThreadPool(1, "BinMutations", new SynchronousQueue<>(), false);
-      binningThreadPool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+      // binning is queued rather than run by the caller, so that a thread adding mutations never
+      // does tablet location lookups while holding the batch writer lock
+      binningThreadPool = ThreadPools.createFixedThreadPool(1, "BinMutations", false);
+      this.maxInFlightPerServer = maxInFlightPerServer;
+      // half of max memory triggers processing, so spread that over the in flight window
+      this.maxBatchBytes = maxMem / (2L * maxInFlightPerServer);
     }
 
     private synchronized TabletLocator getLocator(TableId tableId) {
@@ -743,18 +746,9 @@ public class TabletServerBatchWriter implements AutoCloseable {
       for (Entry<String,TabletServerMutations<Mutation>> entry : binnedMutations.entrySet()) {
         String server = entry.getKey();
 
-        TabletServerMutations<Mutation> currentMutations = serversMutations.get(server);
-
-        if (currentMutations == null) {
-          serversMutations.put(server, entry.getValue());
-        } else {
-          for (Entry<KeyExtent,List<Mutation>> entry2 : entry.getValue().getMutations()
-              .entrySet()) {
-            for (Mutation m : entry2.getValue()) {
-              currentMutations.addMutation(entry2.getKey(), m);
-            }
-          }
-        }
+        serverQueues
+            .computeIfAbsent(server, k -> new ServerSendQueue(maxInFlightPerServer, maxBatchBytes))
+            .add(entry.getValue());
 
         if (log.isTraceEnabled())
           for (Entry<KeyExtent,List<Mutation>> entry2 : entry.getValue().getMutations().entrySet())
@@ -771,42 +765,65 @@ public class TabletServerBatchWriter implements AutoCloseable {
       Collections.shuffle(servers);
 
       for (String server : servers)
-        if (!queued.contains(server)) {
-          sendThreadPool.submit(Trace.wrap(new SendTask(server)));
-          queued.add(server);
-        }
+        startSending(server);
     }
 
-    private synchronized TabletServerMutations<Mutation> getMutationsToSend(String server) {
-      TabletServerMutations<Mutation> tsmuts = serversMutations.remove(server);
-      if (tsmuts == null)
-        queued.remove(server);
+    /**
+     * Starts sending batches to the server until its in flight window is full or it has nothing
+     * left that can be sent.
+     */
+    private synchronized void startSending(String server) {
+      ServerSendQueue serverQueue = serverQueues.get(server);
+      if (serverQueue == null)
+        return;
+
+      TabletServerMutations<Mutation> batch;
+      while ((batch = serverQueue.take()) != null) {
+        if (log.isTraceEnabled())
+          log.trace("{} batches in flight to {} with {} bytes queued", serverQueue.getInFlight(),
+              server, serverQueue.getQueuedBytes());
+        sendThreadPool.execute(Trace.wrap(new SendTask(server, batch)));
+      }
+    }
 
-      return tsmuts;
+    /**
+     * Called when a send task finishes with a batch, whether or not it was sent successfully. This
+     * is what moves a server's queue along, so send threads are not tied to a server while it has
+     * mutations queued.
+     */
+    private synchronized void sendCompleted(String server, TabletServerMutations<Mutation> batch) {
+      ServerSendQueue serverQueue = serverQueues.get(server);
+      serverQueue.completed(batch);
+      if (serverQueue.isIdle())
+        serverQueues.remove(server);
+      else
+        startSending(server);
     }
 
     class SendTask implements Runnable {
 
       private final String location;
+      private final TabletServerMutations<Mutation> batch;
 
-      SendTask(String server) {
+      SendTask(String server, TabletServerMutations<Mutation> batch) {
         this.location = server;
+        this.batch = batch;
       }
 
       @Override
       public void run() {
         try {
-          TabletServerMutations<Mutation> tsmuts = getMutationsToSend(location);
-
-          while (tsmuts != null) {
-            send(tsmuts);
-            tsmuts = getMutationsToSend(location);
-          }
-
-          return;
+          send(batch);
         } catch (Exception t) {
           updateUnknownErrors(
               "Failed to send tablet server " + location + " its batch : " + t.getMessage(), t);
+        } finally {
+          try {
+            sendCompleted(location, batch);
+          } catch (RejectedExecutionException e) {
+            // the send thread pool was shutdown by close
+            log.trace("Unable to send next batch to {}", location, e);
+          }
         }
       }
 
@@ -148,6 +148,12 @@ public class ThriftScanner {
     throw new AccumuloException("getBatchFromServer: failed");
   }
 
+  /**
+   * Execution hint used to advertise to the tablet server how many batches it may read ahead of a
+   * scanner. Tablet servers remove it before execution hints are passed to scan dispatchers.
+   */
+  public static final String PIPELINE_WINDOW_HINT = "scan.pipeline.window";
+
   public static class ScanState {
 
     boolean isolated;
@@ -31,6 +31,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
@@ -78,6 +80,19 @@ public class ThriftTransportPool {
      */
     Deque<CachedConnection> unreserved = new ArrayDeque<>(); // stack - LIFO
     Map<CachedTTransport,CachedConnection> reserved = new HashMap<>();
+    // connections being opened by callers of ConnectionPool.reserveAny(key, max, wait)
+    int opening = 0;
+    // signaled when a connection is returned or a connection slot is freed, belongs to the lock of
+    // this key so only waiters for this key are woken
+    final Condition returned;
+
+    CachedConnections(Condition returned) {
+      this.returned = returned;
+    }
+
+    int size() {
+      return unreserved.size() + reserved.size() + opening;
+    }
 
     public CachedConnection reserveAny() {
       CachedConnection cachedConnection = unreserved.pollFirst(); // safe pop
@@ -127,7 +142,8 @@ public class ThriftTransportPool {
     }
   }
 
-  private static class ConnectionPool {
+  @VisibleForTesting
+  static class ConnectionPool {
     final Lock[] locks;
     final ConcurrentHashMap<ThriftTransportKey,CachedConnections> connections =
         new ConcurrentHashMap<>();
@@ -167,6 +183,79 @@ public class ThriftTransportPool {
       return executeWithinLock(key, connections::reserveAny);
     }
 
+    /**
+     * Reserve and return an unreserved {@link CachedConnection} for the specified transport key.
+     * When there is none and the key already has maxConnections connections, wait up to
+     * maxWaitMillis for one to be returned. Many concurrent RPCs to a server then share a bounded
+     * number of connections instead of each opening its own. The limit is a soft one, when the wait
+     * runs out the caller is told to open a connection beyond it.
+     *
+     * <p>
+     *
+     * When null is returned the caller should open a new connection and must call
+     * {@link #openFinished(ThriftTransportKey)} afterwards, whether or not opening succeeded.
+     *
+     * @param key
+     *          the transport key
+     * @param maxConnections
+     *          the number of connections after which callers wait, 0 for no limit
+     * @param maxWaitMillis
+     *          how long to wait before opening a connection beyond the limit
+     * @return the reserved {@link CachedConnection}, or null if a new connection should be opened
+     */
+    CachedConnection reserveAny(final ThriftTransportKey key, final int maxConnections,
+        final long maxWaitMillis) {
+      // It's possible that multiple locks from executeWithinLock will overlap with a single lock
+      // inside the ConcurrentHashMap which can unnecessarily block threads. Access the
+      // ConcurrentHashMap outside of executeWithinLock to prevent this.
+      var connections = getOrCreateCachedConnections(key);
+      Lock lock = getLock(key);
+      try {
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (true) {
+          CachedConnection connection = connections.reserveAny();
+          if (connection != null) {
+            return connection;
+          }
+
+          // waiting is bounded so a thread that already holds connections to the server can not
+          // wait forever on itself
+          if (maxConnections <= 0 || connections.size() < maxConnections || waitNanos <= 0) {
+            connections.opening++;
+            return null;
+          }
+
+          try {
+            waitNanos = connections.returned.awaitNanos(waitNanos);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            waitNanos = 0;
+          }
+
+          if (shutdown) {
+            throw new TransportPoolShutdownException(
+                "The Accumulo singleton for connection pooling is disabled.  This is likely caused"
+                    + " by all AccumuloClients being closed or garbage collected.");
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Called after a caller of {@link #reserveAny(ThriftTransportKey, int, long)} that was told to
+     * open a connection has finished trying.
+     */
+    void openFinished(final ThriftTransportKey key) {
+      var connections = getOrCreateCachedConnections(key);
+      executeWithinLock(key, k -> {
+        connections.opening--;
+        // if opening failed a connection slot was freed
+        connections.returned.signal();
+      });
+    }
+
     /**
      * Reserve and return a new {@link CachedConnection} from the {@link CachedConnections} mapped
      * to the specified transport key. If a {@link CachedConnections} is not found, null will be
@@ -237,8 +326,17 @@ public class ThriftTransportPool {
       // inside the ConcurrentHashMap which can unnecessarily block threads. Access the
       // ConcurrentHashMap outside of executeWithinLock to prevent this.
       var connections = getOrCreateCachedConnections(transport.getCacheKey());
-      return executeWithinLock(transport.getCacheKey(),
-          () -> unreserveConnection(transport, connections, toBeClosed)); // inline
+      return executeWithinLock(transport.getCacheKey(), () -> {
+        int closing = toBeClosed.size();
+        boolean existed = unreserveConnection(transport, connections, toBeClosed);
+        if (toBeClosed.size() - closing > 1) {
+          // an error closed every idle connection, each freed slot can be used by a waiter
+          connections.returned.signalAll();
+        } else {
+          connections.returned.signal();
+        }
+        return existed;
+      });
     }
 
     @SuppressFBWarnings(value = "UL_UNRELEASED_LOCK",
@@ -257,6 +355,7 @@ public class ThriftTransportPool {
         }
         shutdown = true;
         connections.values().forEach(CachedConnections::closeAllTransports);
+        connections.values().forEach(c -> c.returned.signalAll());
       } finally {
         for (Lock lock : locks) {
           lock.unlock();
@@ -282,8 +381,12 @@ public class ThriftTransportPool {
       }
     }
 
+    Lock lockFor(final ThriftTransportKey key) {
+      return locks[(key.hashCode() & Integer.MAX_VALUE) % locks.length];
+    }
+
     Lock getLock(final ThriftTransportKey key) {
-      Lock lock = locks[(key.hashCode() & Integer.MAX_VALUE) % locks.length];
+      Lock lock = lockFor(key);
 
       lock.lock();
 
@@ -297,12 +400,22 @@ public class ThriftTransportPool {
       return lock;
     }
 
+    /**
+     * @return the connections open and being opened for the key
+     */
+    @VisibleForTesting
+    int getConnectionCount(final ThriftTransportKey key) {
+      var connections = getCachedConnections(key);
+      return connections == null ? 0 : executeWithinLock(key, connections::size);
+    }
+
     CachedConnections getCachedConnections(final ThriftTransportKey key) {
       return connections.get(key);
     }
 
     CachedConnections getOrCreateCachedConnections(final ThriftTransportKey key) {
-      return connections.computeIfAbsent(key, k -> new CachedConnections());
+      return connections.computeIfAbsent(key,
+          k -> new CachedConnections(lockFor(k).newCondition()));
     }
 
     boolean unreserveConnection(final CachedTTransport transport,
@@ -374,7 +487,8 @@ public class ThriftTransportPool {
   private static final Long ERROR_THRESHOLD = 20L;
   private static final int STUCK_THRESHOLD = 2 * 60 * 1000;
 
-  private static class CachedConnection {
+  @VisibleForTesting
+  static class CachedConnection {
 
     public CachedConnection(CachedTTransport t) {
       this.transport = t;
@@ -669,13 +783,18 @@ public class ThriftTransportPool {
     cacheKey.precomputeHashCode();
 
     ConnectionPool pool = getConnectionPool();
-    CachedConnection connection = pool.reserveAny(cacheKey);
+    CachedConnection connection = pool.reserveAny(cacheKey, context.getRpcConnectionsPerServer(),
+        context.getRpcConnectionWaitMillis());
 
     if (connection != null) {
       log.trace("Using existing connection to {}", cacheKey.getServer());
       return connection.transport;
     } else {
-      return createNewTransport(cacheKey);
+      try {
+        return createNewTransport(cacheKey);
+      } finally {
+        pool.openFinished(cacheKey);
+      }
     }
   }
 
@@ -68,6 +68,11 @@ public enum ClientProperty {
       "2.0.0", false),
   BATCH_WRITER_THREADS_MAX("batch.writer.threads.max", "3", PropertyType.COUNT,
       "Maximum number of threads to use for writing data to tablet servers.", "2.0.0", false),
+  BATCH_WRITER_SERVER_INFLIGHT_MAX("batch.writer.server.inflight.max", "2", PropertyType.COUNT,
+      "Maximum number of batches that may be in flight to a single tablet server at once. Batches"
+          + " in flight to the same server never contain mutations for the same tablet, so"
+          + " mutations for a tablet are still sent in order.",
+      "2.1.0", false),
   BATCH_WRITER_DURABILITY("batch.writer.durability", "default", PropertyType.DURABILITY,
       Property.TABLE_DURABILITY.getDescription() + " Setting this property will "
           + "change the durability for the BatchWriter session. A value of \"default\" will"
@@ -77,6 +82,12 @@ public enum ClientProperty {
   // Scanner
   SCANNER_BATCH_SIZE("scanner.batch.size", "1000", PropertyType.COUNT,
       "Number of key/value pairs that will be fetched at time from tablet server", "2.0.0", false),
+  SCANNER_PIPELINE_WINDOW("scanner.pipeline.window", "3", PropertyType.COUNT,
+      "Number of batches a tablet server may read ahead of a scanner once the scanner's read"
+          + " ahead threshold is reached, so batches are ready before they are requested. The"
+          + " tablet server limits this to tserver.scan.pipeline.window.max. Set to 1 to read"
+          + " ahead a single batch.",
+      "2.1.0", false),
 
   // BatchScanner
   BATCH_SCANNER_NUM_QUERY_THREADS("batch.scanner.num.query.threads", "3", PropertyType.COUNT,
@@ -90,6 +101,19 @@ public enum ClientProperty {
           + "system. This property is only used by the bulk import API introduced in 2.0.0.",
       "2.0.0", false),
 
+  // RPC
+  RPC_CONNECTIONS_PER_SERVER_MAX("rpc.connections.per.server.max", "0", PropertyType.COUNT,
+      "Maximum number of connections the client process keeps open to a single server. When all"
+          + " are in use, an RPC waits up to rpc.connections.wait.max for one to be returned"
+          + " before opening another. This is a soft limit, an RPC that is still waiting when"
+          + " rpc.connections.wait.max runs out opens a connection beyond it. Set to 0 for no"
+          + " limit.",
+      "2.1.0", false),
+  RPC_CONNECTIONS_WAIT_MAX("rpc.connections.wait.max", "1s", PropertyType.TIMEDURATION,
+      "Maximum time an RPC waits for a connection to be returned when a server already has"
+          + " rpc.connections.per.server.max connections open.",
+      "2.1.0", false),
+
   // SSL
   SSL_ENABLED("ssl.enabled", "false", "Enable SSL for client RPC"),
   SSL_KEYSTORE_PASSWORD("ssl.keystore.password", "", "Password used to encrypt keystore"),
@@ -339,8 +339,10 @@ public enum Property {
   TSERV_CACHE_MANAGER_IMPL("tserver.cache.manager.class",
       "org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager", PropertyType.STRING,
       "Specifies the class name of the block cache factory implementation."
-          + " Alternative implementation is"
-          + " org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCacheManager"),
+          + " Alternative implementations are"
+          + " org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCacheManager,"
+          + " org.apache.accumulo.core.file.blockfile.cache.sharded.ShardedLruBlockCacheManager"
+          + " and org.apache.accumulo.core.file.blockfile.cache.tiered.TieredBlockCacheManager"),
   TSERV_DATACACHE_SIZE("tserver.cache.data.size", "10%", PropertyType.MEMORY,
       "Specifies the size of the cache for RFile data blocks."),
   TSERV_INDEXCACHE_SIZE("tserver.cache.index.size", "25%", PropertyType.MEMORY,
@@ -384,6 +386,11 @@ public enum Property {
       "The maximum amount of time to wait after a failure to create or write a write-ahead log."),
   TSERV_SCAN_MAX_OPENFILES("tserver.scan.files.open.max", "100", PropertyType.COUNT,
       "Maximum total RFiles that all tablets in a tablet server can open for scans. "),
+  @Experimental
+  TSERV_FILE_PREFETCH_THREADS("tserver.file.prefetch.threads", "8", PropertyType.COUNT,
+      "The number of threads used to asynchronously read RFile data blocks ahead of scans and"
+          + " compactions. Read ahead is enabled per table using table.file.prefetch.scan and"
+          + " table.file.prefetch.compaction."),
   TSERV_MAX_IDLE("tserver.files.open.idle", "1m", PropertyType.TIMEDURATION,
       "Tablet servers leave previously used RFiles open for future queries."
           + " This setting determines how much time an unused RFile should be kept open"
@@ -391,6 +398,12 @@ public enum Property {
   TSERV_NATIVEMAP_ENABLED("tserver.memory.maps.native.enabled", "true", PropertyType.BOOLEAN,
       "An in-memory data store for accumulo implemented in c++ that increases"
           + " the amount of data accumulo can hold in memory and avoids Java GC" + " pauses."),
+  @Experimental
+  TSERV_OFFHEAPMAP_ENABLED("tserver.memory.maps.offheap.enabled", "false", PropertyType.BOOLEAN,
+      "An in-memory data store implemented in Java that keeps keys and values in direct"
+          + " memory outside of the Java heap, which avoids Java GC pauses without needing"
+          + " the native library. When enabled, it is used instead of the native map. The"
+          + " JVM option -XX:MaxDirectMemorySize must allow for tserver.memory.maps.max."),
   TSERV_MAXMEM("tserver.memory.maps.max", "33%", PropertyType.MEMORY,
       "Maximum amount of memory that can be used to buffer data written to a"
           + " tablet server. There are two other properties that can effectively limit"
@@ -405,6 +418,11 @@ public enum Property {
       "When a tablet server's SimpleTimer thread triggers to check idle"
           + " sessions, this configurable option will be used to evaluate update"
           + " sessions to determine if they can be closed due to inactivity"),
+  @Experimental
+  TSERV_SCAN_PIPELINE_WINDOW_MAX("tserver.scan.pipeline.window.max", "4", PropertyType.COUNT,
+      "The maximum number of batches a tablet server will read ahead of a single scanner. A"
+          + " scanner advertises the window it wants when the scan starts, using the client"
+          + " property scanner.pipeline.window, and the tablet server uses the smaller of the two."),
   TSERV_SCAN_EXECUTORS_PREFIX("tserver.scan.executors.", null, PropertyType.PREFIX,
       "Prefix for defining executors to service scans. See "
           + "[scan executors]({% durl administration/scan-executors %}) for an overview of why and"
@@ -446,6 +464,18 @@ public enum Property {
           + "{'name':'huge','numThreads':1}]".replaceAll("'", "\""),
       PropertyType.STRING,
       "See {% jlink -f org.apache.accumulo.core.spi.compaction.DefaultCompactionPlanner %} "),
+  @Experimental
+  TSERV_COMPACTION_RATE_POLICY("tserver.compaction.major.rate.policy",
+      "org.apache.accumulo.tserver.compactions.StaticCompactionRatePolicy", PropertyType.CLASSNAME,
+      "A class implementing org.apache.accumulo.tserver.compactions.CompactionRatePolicy that"
+          + " determines the number of bytes the major compactions of each compaction service"
+          + " may read or write per second. The default policy uses the rate limit configured"
+          + " for the service. The org.apache.accumulo.tserver.compactions."
+          + "FeedbackCompactionRatePolicy adjusts the rate based on scan and write-ahead log"
+          + " latencies. Changes take effect for new compaction services."),
+  @Experimental
+  TSERV_COMPACTION_RATE_POLICY_OPTS("tserver.compaction.major.rate.policy.opts.", null,
+      PropertyType.PREFIX, "Options passed to the compaction rate policy."),
   TSERV_COMPACTION_SERVICE_META_PLANNER("tserver.compaction.major.service.meta.planner",
       DefaultCompactionPlanner.class.getName(), PropertyType.CLASSNAME,
       "Compaction planner for metadata table"),
@@ -556,12 +586,27 @@ public enum Property {
       "The maximum number of threads to use to sort logs during" + " recovery"),
   TSERV_SORT_BUFFER_SIZE("tserver.sort.buffer.size", "10%", PropertyType.MEMORY,
       "The amount of memory to use when sorting logs during recovery."),
+  TSERV_WAL_SORT_MAX_CONCURRENT("tserver.wal.sort.concurrent.max", "2", PropertyType.COUNT,
+      "The maximum number of threads used to sort and write the buffers of write-ahead logs"
+          + " while they are sorted for recovery. The threads are shared by all the logs a"
+          + " tablet server sorts at once. Reading and decrypting a log continues while its"
+          + " earlier buffers are sorted and written, so one more than this many buffers of"
+          + " tserver.sort.buffer.size may be held in memory for each log being sorted."),
   TSERV_WORKQ_THREADS("tserver.workq.threads", "2", PropertyType.COUNT,
       "The number of threads for the distributed work queue. These threads are"
           + " used for copying failed bulk import RFiles."),
   TSERV_WAL_SYNC("tserver.wal.sync", "true", PropertyType.BOOLEAN,
       "Use the SYNC_BLOCK create flag to sync WAL writes to disk. Prevents"
           + " problems recovering from sudden system resets."),
+  @Experimental
+  TSERV_WAL_GROUP_COMMIT_WAIT("tserver.wal.group.commit.wait", "0ms", PropertyType.TIMEDURATION,
+      "The maximum amount of time a write-ahead log sync waits for more writes to arrive so"
+          + " they can share a single sync or flush. A value of zero disables waiting, and each"
+          + " sync covers only the writes already queued when it starts."),
+  @Experimental
+  TSERV_WAL_GROUP_COMMIT_BYTES("tserver.wal.group.commit.bytes", "1M", PropertyType.MEMORY,
+      "When tserver.wal.group.commit.wait is greater than zero, a write-ahead log"
+          + " sync stops waiting for more writes once this many bytes are pending."),
   TSERV_ASSIGNMENT_DURATION_WARNING("tserver.assignment.duration.warning", "10m",
       PropertyType.TIMEDURATION,
       "The amount of time an assignment can run before the server will print a"
@@ -706,6 +751,23 @@ public enum Property {
   TABLE_MAJC_RATIO("table.compaction.major.ratio", "3", PropertyType.FRACTION,
       "Minimum ratio of total input size to maximum input RFile size for"
           + " running a major compaction. "),
+  @Experimental
+  TABLE_MAJC_SUBCOMPACTIONS("table.compaction.major.subcompactions", "1", PropertyType.COUNT,
+      "The number of parts of a single major compaction that are run at once. A compaction is"
+          + " split into a part per locality group and, when its input files total at least"
+          + " table.compaction.major.subcompaction.min.size, each locality group is also split"
+          + " into this many key ranges using the indexes of the input files. Parts run on"
+          + " the sub-compaction threads of the compaction executor running the compaction and"
+          + " their output is written to the compaction's output file in order. A value of 1"
+          + " runs a compaction on a single thread. Each compaction executor has as many"
+          + " sub-compaction threads as compaction threads, shared by all of its compactions, so"
+          + " an executor with N threads runs up to 2N threads of compaction work when this is"
+          + " greater than 1."),
+  @Experimental
+  TABLE_MAJC_SUBCOMPACTION_MIN_SIZE("table.compaction.major.subcompaction.min.size", "1G",
+      PropertyType.BYTES,
+      "The minimum total size of a major compaction's input files for the compaction to be"
+          + " split into table.compaction.major.subcompactions key ranges."),
   @Deprecated(since = "2.1.0", forRemoval = true)
   TABLE_MAJC_COMPACTALL_IDLETIME("table.compaction.major.everything.idle", "1h",
       PropertyType.TIMEDURATION,
@@ -762,6 +824,25 @@ public enum Property {
   TABLE_SCAN_MAXMEM("table.scan.max.memory", "512k", PropertyType.BYTES,
       "The maximum amount of memory that will be used to cache results of a client query/scan. "
           + "Once this limit is reached, the buffered data is sent to the client."),
+  @Experimental
+  TABLE_SCAN_ADAPTIVE("table.scan.batch.adaptive", "true", PropertyType.BOOLEAN,
+      "When true, the size of the batches returned to a scanner adapts to how the scanner"
+          + " consumes them. Batches shrink when they sit unread or the tablet server heap is"
+          + " nearly full, and grow back when the scanner waits for them. Batches are never larger"
+          + " than the scanner's batch size or table.scan.max.memory, unless the scanner sets the"
+          + " execution hint scan.batch.grow=true, which lets batches hold more entries than its"
+          + " batch size but still no more than table.scan.max.memory."),
+  @Experimental
+  TABLE_SCAN_PARTITIONS("table.scan.partitions", "1", PropertyType.COUNT,
+      "The number of key ranges a scan of a single tablet is split into. The ranges are found"
+          + " using the indexes of the tablet's files and are read in parallel on the scan's"
+          + " executor, while results are still returned in sorted order. A value of 1 reads a"
+          + " tablet with a single thread. Only scans of tablets with at least"
+          + " table.scan.partition.min.size of files that are not isolated are split."),
+  @Experimental
+  TABLE_SCAN_PARTITION_MIN_SIZE("table.scan.partition.min.size", "1G", PropertyType.BYTES,
+      "The minimum total size of a tablet's files for a scan of the tablet to be split into"
+          + " table.scan.partitions key ranges."),
   TABLE_FILE_TYPE("table.file.type", RFile.EXTENSION, PropertyType.STRING,
       "Change the type of file a table writes"),
   TABLE_LOAD_BALANCER("table.balancer", "org.apache.accumulo.core.spi.balancer.SimpleLoadBalancer",
@@ -782,6 +863,22 @@ public enum Property {
   TABLE_FILE_REPLICATION("table.file.replication", "0", PropertyType.COUNT,
       "The number of replicas for a table's RFiles in HDFS. When set to 0, HDFS"
           + " defaults are used."),
+  @Experimental
+  TABLE_FILE_PREFETCH_SCAN("table.file.prefetch.scan", "0", PropertyType.COUNT,
+      "The number of RFile data blocks to read asynchronously ahead of the block a scan is"
+          + " currently consuming. When set to 0, blocks are only read when a scan reaches them."),
+  @Experimental
+  TABLE_FILE_PREFETCH_COMPACTION("table.file.prefetch.compaction", "0", PropertyType.COUNT,
+      "The number of RFile data blocks to read asynchronously ahead of the block a compaction is"
+          + " currently consuming. When set to 0, blocks are only read when a compaction reaches"
+          + " them."),
+  @Experimental
+  TABLE_FILE_COLUMNAR("table.file.columnar", "false", PropertyType.BOOLEAN,
+      "When true, RFile data blocks store the parts of their keys and their values in separate"
+          + " columns, using dictionary encoding for column families, qualifiers and visibilities"
+          + " and delta encoding for timestamps. This usually makes files smaller and seeks within"
+          + " a block faster. Files written this way can not be read by versions that do not"
+          + " support columnar data blocks."),
   TABLE_FILE_MAX("table.file.max", "15", PropertyType.COUNT,
       "The maximum number of RFiles each tablet in a table can have. When"
           + " adjusting this property you may want to consider adjusting"
@@ -823,6 +920,13 @@ public enum Property {
           + " none, which skips the write-ahead log; log, which sends the data to the"
           + " write-ahead log, but does nothing to make it durable; flush, which pushes"
           + " data to the file system; and sync, which ensures the data is written to disk."),
+  @Experimental
+  TABLE_MEMORY_MAP_SHARDS("table.memory.map.shards", "1", PropertyType.COUNT,
+      "The number of shards a tablet's in-memory map is split into. Each shard can be"
+          + " written by a different thread at the same time, while scans merge the shards."
+          + " Values greater than 1 let many update threads write to a hot tablet at once"
+          + " instead of one at a time. Changes take effect when a tablet starts a new"
+          + " in-memory map, for example after a minor compaction."),
 
   TABLE_FAILURES_IGNORE("table.failures.ignore", "false", PropertyType.BOOLEAN,
       "If you want queries for your table to hang or fail when data is missing"
@@ -1315,9 +1419,9 @@ public enum Property {
             || key.startsWith(TABLE_COMPACTION_SELECTOR_OPTS.getKey())));
   }
 
-  private static final EnumSet<Property> fixedProperties =
-      EnumSet.of(Property.TSERV_CLIENTPORT, Property.TSERV_NATIVEMAP_ENABLED,
-          Property.TSERV_SCAN_MAX_OPENFILES, Property.MANAGER_CLIENTPORT, Property.GC_PORT);
+  private static final EnumSet<Property> fixedProperties = EnumSet.of(Property.TSERV_CLIENTPORT,
+      Property.TSERV_NATIVEMAP_ENABLED, Property.TSERV_OFFHEAPMAP_ENABLED,
+      Property.TSERV_SCAN_MAX_OPENFILES, Property.MANAGER_CLIENTPORT, Property.GC_PORT);
 
   /**
    * Checks if the given property may be changed via Zookeeper, but not recognized until the restart
@@ -29,6 +29,7 @@ import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
 import org.apache.accumulo.core.file.blockfile.impl.CacheProvider;
 import org.apache.accumulo.core.file.rfile.RFile;
 import org.apache.accumulo.core.spi.crypto.CryptoService;
@@ -178,6 +179,8 @@ public abstract class FileOperations {
     public final CacheProvider cacheProvider;
     public final Cache<String,Long> fileLenCache;
     public final boolean seekToBeginning;
+    public final BlockPrefetcher prefetcher;
+    public final int prefetchDepth;
     public final CryptoService cryptoService;
     // scan reader only objects
     public final Range range;
@@ -187,8 +190,9 @@ public abstract class FileOperations {
     public FileOptions(AccumuloConfiguration tableConfiguration, String filename, FileSystem fs,
         Configuration fsConf, RateLimiter rateLimiter, String compression,
         FSDataOutputStream outputStream, boolean enableAccumuloStart, CacheProvider cacheProvider,
-        Cache<String,Long> fileLenCache, boolean seekToBeginning, CryptoService cryptoService,
-        Range range, Set<ByteSequence> columnFamilies, boolean inclusive) {
+        Cache<String,Long> fileLenCache, boolean seekToBeginning, BlockPrefetcher prefetcher,
+        int prefetchDepth, CryptoService cryptoService, Range range,
+        Set<ByteSequence> columnFamilies, boolean inclusive) {
       this.tableConfiguration = tableConfiguration;
       this.filename = filename;
       this.fs = fs;
@@ -200,6 +204,8 @@ public abstract class FileOperations {
       this.cacheProvider = cacheProvider;
       this.fileLenCache = fileLenCache;
       this.seekToBeginning = seekToBeginning;
+      this.prefetcher = prefetcher;
+      this.prefetchDepth = prefetchDepth;
       this.cryptoService = Objects.requireNonNull(cryptoService);
       this.range = range;
       this.columnFamilies = columnFamilies;
@@ -250,6 +256,14 @@ public abstract class FileOperations {
       return seekToBeginning;
     }
 
+    public BlockPrefetcher getPrefetcher() {
+      return prefetcher;
+    }
+
+    public int getPrefetchDepth() {
+      return prefetchDepth;
+    }
+
     public CryptoService getCryptoService() {
       return cryptoService;
     }
@@ -311,25 +325,28 @@ public abstract class FileOperations {
     protected FileOptions toWriterBuilderOptions(String compression,
         FSDataOutputStream outputStream, boolean startEnabled) {
       return new FileOptions(tableConfiguration, filename, fs, fsConf, rateLimiter, compression,
-          outputStream, startEnabled, NULL_PROVIDER, null, false, cryptoService, null, null, true);
+          outputStream, startEnabled, NULL_PROVIDER, null, false, null, 0, cryptoService, null,
+          null, true);
     }
 
     protected FileOptions toReaderBuilderOptions(CacheProvider cacheProvider,
-        Cache<String,Long> fileLenCache, boolean seekToBeginning) {
+        Cache<String,Long> fileLenCache, boolean seekToBeginning, BlockPrefetcher prefetcher,
+        int prefetchDepth) {
       return new FileOptions(tableConfiguration, filename, fs, fsConf, rateLimiter, null, null,
           false, cacheProvider == null ? NULL_PROVIDER : cacheProvider, fileLenCache,
-          seekToBeginning, cryptoService, null, null, true);
+          seekToBeginning, prefetcher, prefetchDepth, cryptoService, null, null, true);
     }
 
     protected FileOptions toIndexReaderBuilderOptions(Cache<String,Long> fileLenCache) {
       return new FileOptions(tableConfiguration, filename, fs, fsConf, rateLimiter, null, null,
-          false, NULL_PROVIDER, fileLenCache, false, cryptoService, null, null, true);
+          false, NULL_PROVIDER, fileLenCache, false, null, 0, cryptoService, null, null, true);
     }
 
     protected FileOptions toScanReaderBuilderOptions(Range range, Set<ByteSequence> columnFamilies,
         boolean inclusive) {
       return new FileOptions(tableConfiguration, filename, fs, fsConf, rateLimiter, null, null,
-          false, NULL_PROVIDER, null, false, cryptoService, range, columnFamilies, inclusive);
+          false, NULL_PROVIDER, null, false, null, 0, cryptoService, range, columnFamilies,
+          inclusive);
     }
 
     protected AccumuloConfiguration getTableConfiguration() {
@@ -395,6 +412,8 @@ public abstract class FileOperations {
     private CacheProvider cacheProvider;
     private Cache<String,Long> fileLenCache;
     private boolean seekToBeginning = false;
+    private BlockPrefetcher prefetcher = null;
+    private int prefetchDepth = 0;
 
     public ReaderTableConfiguration forFile(String filename, FileSystem fs, Configuration fsConf,
         CryptoService cs) {
@@ -427,6 +446,16 @@ public abstract class FileOperations {
       return this;
     }
 
+    /**
+     * (Optional) Read up to {@code prefetchDepth} data blocks ahead of the block being consumed,
+     * using the given prefetcher. A depth of 0 disables read ahead.
+     */
+    public ReaderBuilder withPrefetch(BlockPrefetcher prefetcher, int prefetchDepth) {
+      this.prefetcher = prefetcher;
+      this.prefetchDepth = prefetchDepth;
+      return this;
+    }
+
     /**
      * Seek the constructed iterator to the beginning of its domain before returning. Equivalent to
      * {@code seekToBeginning(true)}.
@@ -444,7 +473,8 @@ public abstract class FileOperations {
 
     /** Execute the operation, constructing the specified file reader. */
     public FileSKVIterator build() throws IOException {
-      return openReader(toReaderBuilderOptions(cacheProvider, fileLenCache, seekToBeginning));
+      return openReader(toReaderBuilderOptions(cacheProvider, fileLenCache, seekToBeginning,
+          prefetcher, prefetchDepth));
     }
   }
 
@@ -100,8 +100,7 @@ public class LruBlockCache extends SynchronousLoadingBlockCache implements Block
   private final EvictionThread evictionThread;
 
   /** Statistics thread schedule pool (for heavy debugging, could remove) */
-  private final ScheduledExecutorService scheduleThreadPool =
-      ThreadPools.createScheduledExecutorService(1, "LRUBlockCacheStats", false);
+  private final ScheduledExecutorService scheduleThreadPool;
 
   /** Current size of cache */
   private final AtomicLong size;
@@ -130,9 +129,22 @@ public class LruBlockCache extends SynchronousLoadingBlockCache implements Block
    * @param conf
    *          block cache configuration
    */
+  public LruBlockCache(final LruBlockCacheConfiguration conf) {
+    this(conf, true);
+  }
+
+  /**
+   * Create a cache that optionally does not periodically log its statistics. Caches that are used
+   * as part of a larger cache can disable this to avoid a statistics thread per cache.
+   *
+   * @param conf
+   *          block cache configuration
+   * @param logStats
+   *          if statistics should be periodically logged
+   */
   @SuppressFBWarnings(value = "SC_START_IN_CTOR",
       justification = "bad practice to start threads in constructor; probably needs rewrite")
-  public LruBlockCache(final LruBlockCacheConfiguration conf) {
+  public LruBlockCache(final LruBlockCacheConfiguration conf, boolean logStats) {
     super();
     this.conf = conf;
 
@@ -160,8 +172,14 @@ public class LruBlockCache extends SynchronousLoadingBlockCache implements Block
     } else {
       this.evictionThread = null;
     }
-    this.scheduleThreadPool.scheduleAtFixedRate(new StatisticsThread(this), statThreadPeriod,
-        statThreadPeriod, TimeUnit.SECONDS);
+    if (logStats) {
+      this.scheduleThreadPool =
+          ThreadPools.createScheduledExecutorService(1, "LRUBlockCacheStats", false);
+      this.scheduleThreadPool.scheduleAtFixedRate(new StatisticsThread(this), statThreadPeriod,
+          statThreadPeriod, TimeUnit.SECONDS);
+    } else {
+      this.scheduleThreadPool = null;
+    }
   }
 
   public long getOverhead() {
@@ -283,7 +301,7 @@ public class LruBlockCache extends SynchronousLoadingBlockCache implements Block
   }
 
   @Override
-  protected CacheEntry getBlockNoStats(String blockName) {
+  public CacheEntry getBlockNoStats(String blockName) {
     CachedBlock cb = map.get(blockName);
     if (cb != null) {
       cb.access(count.incrementAndGet());
@@ -709,6 +727,8 @@ public class LruBlockCache extends SynchronousLoadingBlockCache implements Block
   }
 
   public void shutdown() {
-    this.scheduleThreadPool.shutdown();
+    if (this.scheduleThreadPool != null) {
+      this.scheduleThreadPool.shutdown();
+    }
   }
 }
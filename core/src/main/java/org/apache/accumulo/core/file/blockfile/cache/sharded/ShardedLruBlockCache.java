@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.sharded;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.lru.SynchronousLoadingBlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A block cache that partitions blocks by the hash of their name into independent
+ * {@link LruBlockCache} shards. Each shard holds an equal share of the cache and tracks its own
+ * size, so lookups, inserts and eviction runs for blocks in different shards never contend on the
+ * same eviction lock and an eviction run only scans the blocks of one shard.
+ */
+public class ShardedLruBlockCache extends SynchronousLoadingBlockCache implements BlockCache {
+
+  private static final Logger log = LoggerFactory.getLogger(ShardedLruBlockCache.class);
+
+  /** Statistics thread period in seconds */
+  static final int statThreadPeriod = 60;
+
+  private final LruBlockCache[] shards;
+
+  private final ShardedLruBlockCacheConfiguration conf;
+
+  private final ShardedStats stats;
+
+  private final ScheduledExecutorService scheduleThreadPool =
+      ThreadPools.createScheduledExecutorService(1, "ShardedLruBlockCacheStats", false);
+
+  public ShardedLruBlockCache(ShardedLruBlockCacheConfiguration conf) {
+    this.conf = conf;
+    LruBlockCacheConfiguration shardConf = conf.getShardConfiguration();
+    this.shards = new LruBlockCache[conf.getShards()];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new LruBlockCache(shardConf, false);
+    }
+    this.stats = new ShardedStats(shards);
+    this.scheduleThreadPool.scheduleAtFixedRate(this::logStats, statThreadPeriod, statThreadPeriod,
+        TimeUnit.SECONDS);
+  }
+
+  private LruBlockCache shard(String blockName) {
+    int h = blockName.hashCode();
+    // mix the high bits into the low bits before picking a shard
+    h ^= (h >>> 16);
+    return shards[(h & 0x7fffffff) % shards.length];
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf) {
+    return shard(blockName).cacheBlock(blockName, buf);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    return shard(blockName).getBlock(blockName);
+  }
+
+  @Override
+  protected CacheEntry getBlockNoStats(String blockName) {
+    return shard(blockName).getBlockNoStats(blockName);
+  }
+
+  @Override
+  protected int getMaxEntrySize() {
+    return shards[0].getMaxEntrySize();
+  }
+
+  @Override
+  public long getMaxHeapSize() {
+    return getMaxSize();
+  }
+
+  @Override
+  public long getMaxSize() {
+    return conf.getMaxSize();
+  }
+
+  /**
+   * Get the current size of this cache, summed over all shards.
+   *
+   * @return current size in bytes
+   */
+  public long getCurrentSize() {
+    long size = 0;
+    for (LruBlockCache shard : shards) {
+      size += shard.getCurrentSize();
+    }
+    return size;
+  }
+
+  /**
+   * Get the number of cached blocks, summed over all shards.
+   */
+  public long size() {
+    long size = 0;
+    for (LruBlockCache shard : shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  /**
+   * Get the number of shards this cache is partitioned into.
+   */
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  /**
+   * Get the statistics of an individual shard.
+   */
+  public LruBlockCache.CacheStats getShardStats(int shard) {
+    return shards[shard].getStats();
+  }
+
+  @Override
+  public ShardedStats getStats() {
+    return stats;
+  }
+
+  /**
+   * Statistics of the whole cache, computed by summing the statistics of every shard.
+   */
+  public static class ShardedStats implements BlockCache.Stats {
+    private final LruBlockCache[] shards;
+
+    private ShardedStats(LruBlockCache[] shards) {
+      this.shards = shards;
+    }
+
+    @Override
+    public long hitCount() {
+      long count = 0;
+      for (LruBlockCache shard : shards) {
+        count += shard.getStats().hitCount();
+      }
+      return count;
+    }
+
+    @Override
+    public long requestCount() {
+      long count = 0;
+      for (LruBlockCache shard : shards) {
+        count += shard.getStats().requestCount();
+      }
+      return count;
+    }
+
+    public long getMissCount() {
+      long count = 0;
+      for (LruBlockCache shard : shards) {
+        count += shard.getStats().getMissCount();
+      }
+      return count;
+    }
+
+    public long getEvictionCount() {
+      long count = 0;
+      for (LruBlockCache shard : shards) {
+        count += shard.getStats().getEvictionCount();
+      }
+      return count;
+    }
+
+    public long getEvictedCount() {
+      long count = 0;
+      for (LruBlockCache shard : shards) {
+        count += shard.getStats().getEvictedCount();
+      }
+      return count;
+    }
+  }
+
+  public void logStats() {
+    long totalSize = getCurrentSize();
+    log.debug(
+        "Cache Stats: Shards={}, Sizes: Total={} Max={}, Counts: Blocks={}, Access={}, Hit={},"
+            + " Miss={}, Evictions={}, Evicted={}",
+        shards.length, totalSize, getMaxSize(), size(), stats.requestCount(), stats.hitCount(),
+        stats.getMissCount(), stats.getEvictionCount(), stats.getEvictedCount());
+  }
+
+  public void shutdown() {
+    this.scheduleThreadPool.shutdown();
+    for (LruBlockCache shard : shards) {
+      shard.shutdown();
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.sharded;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheConfiguration;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.spi.cache.CacheType;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Configuration for {@link ShardedLruBlockCache}. Besides the number of shards, every property
+ * supported by {@link LruBlockCacheConfiguration} may be set using the {@value #PROPERTY_PREFIX}
+ * prefix and is applied to each shard. Shards evict in the calling thread unless
+ * {@value LruBlockCacheConfiguration#EVICTION_THREAD_PROPERTY} is set, since each shard only scans
+ * its own portion of the cache.
+ */
+public final class ShardedLruBlockCacheConfiguration {
+
+  public static final String PROPERTY_PREFIX = "sharded";
+
+  public static final Integer DEFAULT_SHARDS = 16;
+
+  public static final String SHARDS_PROPERTY = "shards";
+
+  private final Configuration conf;
+
+  private final Map<String,String> props;
+
+  private final CacheType type;
+
+  private final int shards;
+
+  public ShardedLruBlockCacheConfiguration(Configuration conf, CacheType type) {
+    this.type = type;
+    this.conf = conf;
+    this.props = new HashMap<>(conf.getProperties(PROPERTY_PREFIX, type));
+    this.shards = Optional.ofNullable(props.remove(SHARDS_PROPERTY)).map(Integer::valueOf)
+        .filter(i -> i > 0).orElse(DEFAULT_SHARDS);
+    props.putIfAbsent(LruBlockCacheConfiguration.EVICTION_THREAD_PROPERTY, "false");
+  }
+
+  public int getShards() {
+    return shards;
+  }
+
+  public long getMaxSize() {
+    return conf.getMaxSize(type);
+  }
+
+  public long getBlockSize() {
+    return conf.getBlockSize();
+  }
+
+  /**
+   * Creates the configuration of a single shard, which holds an equal share of the cache.
+   */
+  LruBlockCacheConfiguration getShardConfiguration() {
+    return new LruBlockCacheConfiguration(new Configuration() {
+      @Override
+      public long getMaxSize(CacheType cacheType) {
+        return Math.max(1, conf.getMaxSize(cacheType) / shards);
+      }
+
+      @Override
+      public long getBlockSize() {
+        return conf.getBlockSize();
+      }
+
+      @Override
+      public Map<String,String> getProperties(String prefix, CacheType cacheType) {
+        return props;
+      }
+    }, type);
+  }
+
+  public static class Builder {
+    private Map<String,String> props = new HashMap<>();
+    private String prefix;
+
+    private Builder(String prefix) {
+      this.prefix = prefix;
+    }
+
+    public Builder shards(int shards) {
+      Preconditions.checkArgument(shards > 0);
+      props.put(prefix + SHARDS_PROPERTY, shards + "");
+      return this;
+    }
+
+    public Builder useEvictionThread(boolean uet) {
+      props.put(prefix + LruBlockCacheConfiguration.EVICTION_THREAD_PROPERTY, uet + "");
+      return this;
+    }
+
+    public Map<String,String> buildMap() {
+      return Map.copyOf(props);
+    }
+  }
+
+  public static Builder builder(CacheType ct) {
+    return new Builder(BlockCacheManager.getFullyQualifiedPropertyPrefix(PROPERTY_PREFIX, ct));
+  }
+
+  @Override
+  public String toString() {
+    return super.toString() + ", shards: " + getShards() + ", shardProperties: " + props;
+  }
+}
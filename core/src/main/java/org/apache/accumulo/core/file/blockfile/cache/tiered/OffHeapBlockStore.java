@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.tiered;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.util.CleanerUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores cache blocks outside of the Java heap in direct memory.
+ *
+ * <p>
+ * Memory is allocated in slabs, up to a fixed capacity, and each slab is divided into slots of a
+ * single size class. A block is copied into a free slot of the smallest size class that fits it.
+ * When a size class has no free slots and no more slabs can be allocated, the least recently used
+ * block of that size class is evicted. Every size class has its own lock, so blocks of different
+ * sizes are stored and retrieved concurrently.
+ *
+ * <p>
+ * When the sizes of the blocks being stored change, the slabs allocated to the old sizes would
+ * otherwise be kept forever. So when a size class has no blocks to evict, or has evicted a slab's
+ * worth of blocks, a slab is taken from the size class that evicted the least recently, relative to
+ * its slab size, and given to it. The blocks in the taken slab are evicted.
+ */
+final class OffHeapBlockStore {
+
+  private static final Logger log = LoggerFactory.getLogger(OffHeapBlockStore.class);
+
+  static final int SLAB_SIZE = 4 * 1024 * 1024;
+
+  static final int MIN_SLOT_SIZE = 4 * 1024;
+
+  private static final class Slot {
+    final SizeClass sizeClass;
+    final ByteBuffer slab;
+    final int offset;
+    int length;
+
+    Slot(SizeClass sizeClass, ByteBuffer slab, int offset) {
+      this.sizeClass = sizeClass;
+      this.slab = slab;
+      this.offset = offset;
+    }
+  }
+
+  private final class SizeClass {
+    final int slotSize;
+    final int slotsPerSlab;
+    final ReentrantLock lock = new ReentrantLock();
+    final List<ByteBuffer> slabs = new ArrayList<>();
+    // the number of slabs, read without the lock when looking for a slab to move
+    volatile int slabCount = 0;
+    // blocks evicted since the last time a slab was moved to this size class, halved whenever
+    // another size class is given a slab so old evictions count less
+    final AtomicLong evictions = new AtomicLong(0);
+    final ArrayDeque<Slot> free = new ArrayDeque<>();
+    // access ordered, so iteration starts at the least recently used block
+    final LinkedHashMap<String,Slot> blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+    SizeClass(int slotSize) {
+      this.slotSize = slotSize;
+      this.slotsPerSlab = Math.max(1, SLAB_SIZE / slotSize);
+    }
+
+    /**
+     * Finds a slot for a new block, allocating a slab or evicting a block if needed. Must be called
+     * while holding the lock.
+     */
+    Slot acquire() {
+      Slot slot = free.poll();
+      if (slot == null && allocateSlab()) {
+        slot = free.poll();
+      }
+      // a size class with nothing to evict asks for a slab every time, others once they have
+      // evicted a slab's worth of blocks
+      if (slot == null && (blocks.isEmpty() || evictions.get() >= slotsPerSlab)) {
+        evictions.set(0);
+        if (reassignSlab(this)) {
+          slot = free.poll();
+        }
+      }
+      if (slot == null) {
+        Iterator<Map.Entry<String,Slot>> iter = blocks.entrySet().iterator();
+        if (iter.hasNext()) {
+          Map.Entry<String,Slot> eldest = iter.next();
+          iter.remove();
+          index.remove(eldest.getKey(), eldest.getValue());
+          usedSize.addAndGet(-eldest.getValue().length);
+          evictedCount.incrementAndGet();
+          evictions.incrementAndGet();
+          slot = eldest.getValue();
+        }
+      }
+      return slot;
+    }
+
+    /**
+     * @return the fraction of a slab's slots evicted recently
+     */
+    double evictionRate() {
+      return (double) evictions.get() / slotsPerSlab;
+    }
+
+    /**
+     * Allocates a slab if there is capacity left. Must be called while holding the lock.
+     */
+    boolean allocateSlab() {
+      long slabSize = (long) slotSize * slotsPerSlab;
+      long current;
+      do {
+        current = allocatedSize.get();
+        if (current + slabSize > capacity) {
+          return false;
+        }
+      } while (!allocatedSize.compareAndSet(current, current + slabSize));
+
+      ByteBuffer slab = ByteBuffer.allocateDirect((int) slabSize);
+      slabs.add(slab);
+      slabCount = slabs.size();
+      for (int i = 0; i < slotsPerSlab; i++) {
+        free.add(new Slot(this, slab, i * slotSize));
+      }
+      return true;
+    }
+
+    /**
+     * Evicts every block of a slab and frees it, preferring the slab of the least recently used
+     * block. Must be called while holding the lock.
+     *
+     * @return false if this size class has no slabs
+     */
+    boolean releaseSlab() {
+      if (slabs.isEmpty()) {
+        return false;
+      }
+      Iterator<Slot> eldest = blocks.values().iterator();
+      ByteBuffer slab = eldest.hasNext() ? eldest.next().slab : slabs.get(0);
+
+      Iterator<Map.Entry<String,Slot>> iter = blocks.entrySet().iterator();
+      while (iter.hasNext()) {
+        Map.Entry<String,Slot> entry = iter.next();
+        if (entry.getValue().slab == slab) {
+          iter.remove();
+          index.remove(entry.getKey(), entry.getValue());
+          usedSize.addAndGet(-entry.getValue().length);
+          evictedCount.incrementAndGet();
+        }
+      }
+      free.removeIf(slot -> slot.slab == slab);
+      slabs.removeIf(s -> s == slab);
+      slabCount = slabs.size();
+      allocatedSize.addAndGet(-slab.capacity());
+      free(slab);
+      return true;
+    }
+  }
+
+  private final long capacity;
+  private final int maxBlockSize;
+  private final SizeClass[] sizeClasses;
+  private final ConcurrentHashMap<String,Slot> index = new ConcurrentHashMap<>();
+
+  private final AtomicLong allocatedSize = new AtomicLong(0);
+  private final AtomicLong usedSize = new AtomicLong(0);
+  private final AtomicLong hitCount = new AtomicLong(0);
+  private final AtomicLong requestCount = new AtomicLong(0);
+  private final AtomicLong storedCount = new AtomicLong(0);
+  private final AtomicLong evictedCount = new AtomicLong(0);
+  private final AtomicLong rejectedCount = new AtomicLong(0);
+  private final AtomicLong reassignedCount = new AtomicLong(0);
+
+  /**
+   * @param capacity
+   *          the maximum amount of direct memory to allocate
+   * @param maxBlockSize
+   *          the largest block that will be stored
+   */
+  OffHeapBlockStore(long capacity, int maxBlockSize) {
+    this.capacity = capacity;
+    this.maxBlockSize = maxBlockSize;
+
+    // size classes grow by alternating factors of 1.5 and 4/3, so a block wastes at most a third
+    // of its slot
+    List<SizeClass> classes = new ArrayList<>();
+    int size = MIN_SLOT_SIZE;
+    while (true) {
+      classes.add(new SizeClass(size));
+      if (size >= maxBlockSize) {
+        break;
+      }
+      size = Integer.bitCount(size) == 1 ? size + size / 2 : size / 3 * 4;
+    }
+    this.sizeClasses = classes.toArray(new SizeClass[0]);
+  }
+
+  /**
+   * Moves a slab to a size class that is evicting blocks from the size class evicting the least,
+   * if that one evicts less than half as much. Called while holding the lock of the size class
+   * that needs the slab. The lock of the other size class is only tried, so two size classes
+   * moving slabs at once can not deadlock.
+   *
+   * @return true if the needing size class was given a slab
+   */
+  private boolean reassignSlab(SizeClass needing) {
+    SizeClass victim = null;
+    for (SizeClass sizeClass : sizeClasses) {
+      if (sizeClass != needing) {
+        if (sizeClass.slabCount > 0
+            && (victim == null || sizeClass.evictionRate() < victim.evictionRate())) {
+          victim = sizeClass;
+        }
+        // decay, so only recent evictions protect a size class from losing slabs
+        sizeClass.evictions.updateAndGet(e -> e / 2);
+      }
+    }
+    if (victim == null || victim.evictionRate() >= 0.5 || !victim.lock.tryLock()) {
+      return false;
+    }
+
+    boolean released;
+    try {
+      released = victim.releaseSlab();
+    } finally {
+      victim.lock.unlock();
+    }
+    if (released) {
+      reassignedCount.incrementAndGet();
+    }
+    return released && needing.allocateSlab();
+  }
+
+  private static void free(ByteBuffer slab) {
+    if (!CleanerUtil.UNMAP_SUPPORTED) {
+      // the slab is freed when it is garbage collected
+      return;
+    }
+    try {
+      CleanerUtil.getCleaner().freeBuffer(slab);
+    } catch (IOException e) {
+      log.warn("Failed to free off heap cache slab, it will be freed when garbage collected", e);
+    }
+  }
+
+  private SizeClass sizeClassFor(int length) {
+    for (SizeClass sizeClass : sizeClasses) {
+      if (length <= sizeClass.slotSize) {
+        return sizeClass;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Copies a block into direct memory. The block is not stored if it is too large, or if there is
+   * no memory left for its size class and no block of its size class to evict.
+   */
+  void put(String blockName, byte[] buffer) {
+    SizeClass sizeClass = buffer.length <= maxBlockSize ? sizeClassFor(buffer.length) : null;
+    if (sizeClass == null) {
+      rejectedCount.incrementAndGet();
+      return;
+    }
+
+    sizeClass.lock.lock();
+    try {
+      if (index.containsKey(blockName)) {
+        return;
+      }
+      Slot slot = sizeClass.acquire();
+      if (slot == null) {
+        rejectedCount.incrementAndGet();
+        return;
+      }
+      ByteBuffer dup = slot.slab.duplicate();
+      dup.position(slot.offset);
+      dup.put(buffer);
+      slot.length = buffer.length;
+      sizeClass.blocks.put(blockName, slot);
+      index.put(blockName, slot);
+      usedSize.addAndGet(buffer.length);
+      storedCount.incrementAndGet();
+    } finally {
+      sizeClass.lock.unlock();
+    }
+  }
+
+  /**
+   * Removes a block from direct memory, returning its contents or null if it is not stored.
+   */
+  byte[] take(String blockName) {
+    requestCount.incrementAndGet();
+    Slot slot = index.get(blockName);
+    if (slot == null) {
+      return null;
+    }
+
+    SizeClass sizeClass = slot.sizeClass;
+    sizeClass.lock.lock();
+    try {
+      // the slot may have been evicted and reused since it was looked up
+      if (sizeClass.blocks.get(blockName) != slot) {
+        return null;
+      }
+      byte[] buffer = new byte[slot.length];
+      ByteBuffer dup = slot.slab.duplicate();
+      dup.position(slot.offset);
+      dup.get(buffer);
+
+      sizeClass.blocks.remove(blockName);
+      index.remove(blockName, slot);
+      usedSize.addAndGet(-slot.length);
+      sizeClass.free.push(slot);
+      hitCount.incrementAndGet();
+      return buffer;
+    } finally {
+      sizeClass.lock.unlock();
+    }
+  }
+
+  long getCapacity() {
+    return capacity;
+  }
+
+  long getAllocatedSize() {
+    return allocatedSize.get();
+  }
+
+  long getUsedSize() {
+    return usedSize.get();
+  }
+
+  long size() {
+    return index.size();
+  }
+
+  long getHitCount() {
+    return hitCount.get();
+  }
+
+  long getRequestCount() {
+    return requestCount.get();
+  }
+
+  long getStoredCount() {
+    return storedCount.get();
+  }
+
+  long getEvictedCount() {
+    return evictedCount.get();
+  }
+
+  long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  long getReassignedCount() {
+    return reassignedCount.get();
+  }
+}
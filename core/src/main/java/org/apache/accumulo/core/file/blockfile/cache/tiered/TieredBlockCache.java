@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.tiered;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.file.blockfile.cache.lru.CachedBlock;
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A two level block cache. Level one is an on-heap {@link LruBlockCache} or
+ * {@link TinyLfuBlockCache}. Level two stores blocks in direct memory, outside of the Java heap, so
+ * it can be much larger than level one without increasing garbage collection pauses.
+ *
+ * <p>
+ * Blocks are always added to level one. When level one evicts a block, the block is demoted to
+ * level two. When a lookup misses level one and hits level two, the block is removed from level two
+ * and promoted back into level one, so a block is normally held by only one of the levels.
+ */
+public class TieredBlockCache implements BlockCache {
+
+  private static final Logger log = LoggerFactory.getLogger(TieredBlockCache.class);
+
+  /** Statistics thread period in seconds */
+  static final int statThreadPeriod = 60;
+
+  private final BlockCache l1;
+
+  private final OffHeapBlockStore l2;
+
+  private final TieredStats stats = new TieredStats();
+
+  // Lookups are counted here rather than by level one, because a lookup that loads a block asks
+  // level one twice and the level one caches do not all support lookups without statistics.
+  private final AtomicLong requestCount = new AtomicLong(0);
+  private final AtomicLong l1HitCount = new AtomicLong(0);
+
+  private final ScheduledExecutorService scheduleThreadPool;
+
+  public TieredBlockCache(TieredBlockCacheConfiguration conf) {
+    if (conf.getL2Size() > 0) {
+      this.l2 = new OffHeapBlockStore(conf.getL2Size(), conf.getL2MaxBlockSize());
+    } else {
+      this.l2 = null;
+    }
+
+    switch (conf.getL1Type()) {
+      case TINYLFU:
+        this.l1 = new TinyLfuBlockCache(conf.getConfiguration(), conf.getType(),
+            l2 == null ? null : l2::put);
+        break;
+      case LRU:
+        this.l1 = new LruBlockCache(
+            new LruBlockCacheConfiguration(conf.getConfiguration(), conf.getType()), false) {
+          @Override
+          protected long evictBlock(CachedBlock block) {
+            long freed = super.evictBlock(block);
+            if (freed > 0 && l2 != null) {
+              l2.put(block.getName(), block.getBuffer());
+            }
+            return freed;
+          }
+        };
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown l1 cache type " + conf.getL1Type());
+    }
+
+    this.scheduleThreadPool =
+        ThreadPools.createScheduledExecutorService(1, "TieredBlockCacheStats", false);
+    this.scheduleThreadPool.scheduleAtFixedRate(this::logStats, statThreadPeriod, statThreadPeriod,
+        TimeUnit.SECONDS);
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf) {
+    return l1.cacheBlock(blockName, buf);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    requestCount.incrementAndGet();
+    return lookup(blockName);
+  }
+
+  private CacheEntry lookup(String blockName) {
+    CacheEntry ce = l1.getBlock(blockName);
+    if (ce != null) {
+      l1HitCount.incrementAndGet();
+      return ce;
+    }
+    if (l2 == null) {
+      return null;
+    }
+    byte[] buffer = l2.take(blockName);
+    if (buffer == null) {
+      return null;
+    }
+    return l1.cacheBlock(blockName, buffer);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName, Loader loader) {
+    requestCount.incrementAndGet();
+    CacheEntry ce = lookup(blockName);
+    if (ce != null) {
+      return ce;
+    }
+
+    // Resolve dependencies through both levels before loading, otherwise level one would load
+    // dependencies that are only present in level two.
+    Map<String,Loader> deps = loader.getDependencies();
+    if (deps.isEmpty()) {
+      return l1.getBlock(blockName, loader);
+    }
+
+    Map<String,byte[]> resolvedDeps = new HashMap<>();
+    for (Entry<String,Loader> entry : deps.entrySet()) {
+      CacheEntry dce = getBlock(entry.getKey(), entry.getValue());
+      if (dce == null) {
+        return null;
+      }
+      resolvedDeps.put(entry.getKey(), dce.getBuffer());
+    }
+
+    return l1.getBlock(blockName, new Loader() {
+      @Override
+      public Map<String,Loader> getDependencies() {
+        return Collections.emptyMap();
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        return loader.load(maxSize, resolvedDeps);
+      }
+    });
+  }
+
+  @Override
+  public long getMaxHeapSize() {
+    return l1.getMaxHeapSize();
+  }
+
+  @Override
+  public long getMaxSize() {
+    return l1.getMaxSize() + (l2 == null ? 0 : l2.getCapacity());
+  }
+
+  /**
+   * Get the on-heap level one cache.
+   */
+  public BlockCache getL1() {
+    return l1;
+  }
+
+  /**
+   * Get the number of blocks stored in the off-heap level two cache.
+   */
+  public long getL2BlockCount() {
+    return l2 == null ? 0 : l2.size();
+  }
+
+  /**
+   * Get the number of bytes of blocks stored in the off-heap level two cache.
+   */
+  public long getL2UsedSize() {
+    return l2 == null ? 0 : l2.getUsedSize();
+  }
+
+  @Override
+  public TieredStats getStats() {
+    return stats;
+  }
+
+  /**
+   * Statistics of the whole cache. Every lookup is counted once, and is a hit if either level has
+   * the block.
+   */
+  public class TieredStats implements BlockCache.Stats {
+
+    @Override
+    public long hitCount() {
+      return getL1HitCount() + getL2HitCount();
+    }
+
+    @Override
+    public long requestCount() {
+      return requestCount.get();
+    }
+
+    public long getL1HitCount() {
+      return l1HitCount.get();
+    }
+
+    public long getL2HitCount() {
+      return l2 == null ? 0 : l2.getHitCount();
+    }
+
+    public long getL2RequestCount() {
+      return l2 == null ? 0 : l2.getRequestCount();
+    }
+
+    public long getDemotedCount() {
+      return l2 == null ? 0 : l2.getStoredCount();
+    }
+
+    public long getL2EvictedCount() {
+      return l2 == null ? 0 : l2.getEvictedCount();
+    }
+
+    public long getL2RejectedCount() {
+      return l2 == null ? 0 : l2.getRejectedCount();
+    }
+
+    public long getL2ReassignedCount() {
+      return l2 == null ? 0 : l2.getReassignedCount();
+    }
+  }
+
+  public void logStats() {
+    if (l2 == null) {
+      return;
+    }
+    log.debug(
+        "Cache Stats: L2 Sizes: Used={}, Allocated={}, Max={}, Counts: Blocks={}, Access={},"
+            + " Hit={}, Demoted={}, Evicted={}, Rejected={}, Reassigned={}",
+        l2.getUsedSize(), l2.getAllocatedSize(), l2.getCapacity(), l2.size(), l2.getRequestCount(),
+        l2.getHitCount(), l2.getStoredCount(), l2.getEvictedCount(), l2.getRejectedCount(),
+        l2.getReassignedCount());
+  }
+
+  public void shutdown() {
+    this.scheduleThreadPool.shutdown();
+    if (l1 instanceof LruBlockCache) {
+      ((LruBlockCache) l1).shutdown();
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.tiered;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.spi.cache.CacheType;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Configuration for {@link TieredBlockCache}. The on-heap level one cache is sized by the existing
+ * cache size properties and configured by the properties of its own implementation. The off-heap
+ * level two cache is disabled unless {@value #L2_SIZE_PROPERTY} is set. Its size counts against the
+ * JVM's maximum direct memory, which may need to be raised with {@code -XX:MaxDirectMemorySize}.
+ */
+public final class TieredBlockCacheConfiguration {
+
+  public static final String PROPERTY_PREFIX = "tiered";
+
+  public enum L1Type {
+    LRU, TINYLFU
+  }
+
+  public static final L1Type DEFAULT_L1 = L1Type.LRU;
+  public static final long DEFAULT_L2_SIZE = 0;
+  public static final int DEFAULT_L2_MAX_BLOCK_SIZE = 4 * 1024 * 1024;
+
+  // property names
+  public static final String L1_PROPERTY = "l1";
+  public static final String L2_SIZE_PROPERTY = "l2.size";
+  public static final String L2_MAX_BLOCK_SIZE_PROPERTY = "l2.block.max";
+
+  private final Configuration conf;
+
+  private final CacheType type;
+
+  private final L1Type l1Type;
+
+  private final long l2Size;
+
+  private final int l2MaxBlockSize;
+
+  public TieredBlockCacheConfiguration(Configuration conf, CacheType type) {
+    this.conf = conf;
+    this.type = type;
+    Map<String,String> props = conf.getProperties(PROPERTY_PREFIX, type);
+
+    this.l1Type = Optional.ofNullable(props.get(L1_PROPERTY)).map(String::toUpperCase)
+        .map(L1Type::valueOf).orElse(DEFAULT_L1);
+    this.l2Size = Optional.ofNullable(props.get(L2_SIZE_PROPERTY))
+        .map(ConfigurationTypeHelper::getFixedMemoryAsBytes).orElse(DEFAULT_L2_SIZE);
+    this.l2MaxBlockSize = Optional.ofNullable(props.get(L2_MAX_BLOCK_SIZE_PROPERTY))
+        .map(ConfigurationTypeHelper::getFixedMemoryAsBytes).map(Math::toIntExact)
+        .orElse(DEFAULT_L2_MAX_BLOCK_SIZE);
+
+    if (l2Size < 0) {
+      throw new IllegalArgumentException("l2 size must be >= 0");
+    }
+    if (l2MaxBlockSize <= 0) {
+      throw new IllegalArgumentException("l2 max block size must be > 0");
+    }
+  }
+
+  public Configuration getConfiguration() {
+    return conf;
+  }
+
+  public CacheType getType() {
+    return type;
+  }
+
+  public L1Type getL1Type() {
+    return l1Type;
+  }
+
+  public long getL2Size() {
+    return l2Size;
+  }
+
+  public int getL2MaxBlockSize() {
+    return l2MaxBlockSize;
+  }
+
+  public static class Builder {
+    private Map<String,String> props = new HashMap<>();
+    private String prefix;
+
+    private Builder(String prefix) {
+      this.prefix = prefix;
+    }
+
+    public Builder l1(L1Type l1Type) {
+      props.put(prefix + L1_PROPERTY, l1Type.name().toLowerCase());
+      return this;
+    }
+
+    public Builder l2Size(long size) {
+      Preconditions.checkArgument(size >= 0);
+      props.put(prefix + L2_SIZE_PROPERTY, size + "");
+      return this;
+    }
+
+    public Builder l2MaxBlockSize(int size) {
+      Preconditions.checkArgument(size > 0);
+      props.put(prefix + L2_MAX_BLOCK_SIZE_PROPERTY, size + "");
+      return this;
+    }
+
+    public Map<String,String> buildMap() {
+      return Map.copyOf(props);
+    }
+  }
+
+  public static Builder builder(CacheType ct) {
+    return new Builder(BlockCacheManager.getFullyQualifiedPropertyPrefix(PROPERTY_PREFIX, ct));
+  }
+
+  @Override
+  public String toString() {
+    return super.toString() + ", l1: " + getL1Type() + ", l2Size: " + getL2Size()
+        + ", l2MaxBlockSize: " + getL2MaxBlockSize();
+  }
+}
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 import org.apache.accumulo.core.file.blockfile.cache.impl.ClassSize;
@@ -40,6 +41,7 @@ import org.slf4j.LoggerFactory;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 /**
@@ -61,12 +63,31 @@ public final class TinyLfuBlockCache implements BlockCache {
       ThreadPools.createScheduledExecutorService(1, "TinyLfuBlockCacheStatsExecutor", false);
 
   public TinyLfuBlockCache(Configuration conf, CacheType type) {
-    cache = Caffeine.newBuilder()
-        .initialCapacity((int) Math.ceil(1.2 * conf.getMaxSize(type) / conf.getBlockSize()))
-        .weigher((String blockName, Block block) -> {
-          int keyWeight = ClassSize.align(blockName.length()) + ClassSize.STRING;
-          return keyWeight + block.weight();
-        }).maximumWeight(conf.getMaxSize(type)).recordStats().build();
+    this(conf, type, null);
+  }
+
+  /**
+   * @param evictionListener
+   *          if not null, called asynchronously with the name and contents of every block the cache
+   *          evicts to stay within its maximum size
+   */
+  public TinyLfuBlockCache(Configuration conf, CacheType type,
+      BiConsumer<String,byte[]> evictionListener) {
+    Caffeine<String,
+        Block> builder = Caffeine.newBuilder()
+            .initialCapacity((int) Math.ceil(1.2 * conf.getMaxSize(type) / conf.getBlockSize()))
+            .weigher((String blockName, Block block) -> {
+              int keyWeight = ClassSize.align(blockName.length()) + ClassSize.STRING;
+              return keyWeight + block.weight();
+            }).maximumWeight(conf.getMaxSize(type)).recordStats();
+    if (evictionListener != null) {
+      builder = builder.removalListener((String blockName, Block block, RemovalCause cause) -> {
+        if (cause.wasEvicted() && blockName != null && block != null) {
+          evictionListener.accept(blockName, block.getBuffer());
+        }
+      });
+    }
+    cache = builder.build();
     policy = cache.policy().eviction().get();
     statsExecutor.scheduleAtFixedRate(this::logStats, STATS_PERIOD_SEC, STATS_PERIOD_SEC,
         TimeUnit.SECONDS);
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads file blocks on a shared executor ahead of the readers that will consume them, and keeps
+ * counts of how many of those reads were used. A single instance is normally shared by all of the
+ * files a server has open.
+ */
+public class BlockPrefetcher {
+
+  private final Executor executor;
+  private final LongAdder requested = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder wasted = new LongAdder();
+
+  // A read that is started or discarded first. Whichever claims the read first wins, so a read
+  // discarded before it starts never runs and one discarded after is known to be wasted.
+  private static class ReadTask<T> extends FutureTask<T> {
+    private final AtomicBoolean claimed;
+
+    ReadTask(Callable<T> read, AtomicBoolean claimed) {
+      super(() -> claimed.compareAndSet(false, true) ? read.call() : null);
+      this.claimed = claimed;
+    }
+  }
+
+  public BlockPrefetcher(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * @return a future for the block read or null if the executor would not accept the read
+   */
+  <T> Future<T> submit(Callable<T> read) {
+    ReadTask<T> task = new ReadTask<>(read, new AtomicBoolean(false));
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      return null;
+    }
+    requested.increment();
+    return task;
+  }
+
+  /**
+   * Records that a reader consumed a block that was read ahead.
+   */
+  public void hit() {
+    hits.increment();
+  }
+
+  /**
+   * Cancels a read submitted by this prefetcher whose block will not be consumed. The read is
+   * counted as wasted if it already started or completed.
+   */
+  public void discard(Future<?> read) {
+    read.cancel(false);
+    if (!(read instanceof ReadTask) || !((ReadTask<?>) read).claimed.compareAndSet(false, true)) {
+      wasted.increment();
+    }
+  }
+
+  /**
+   * @return the number of blocks submitted to be read ahead
+   */
+  public long getRequested() {
+    return requested.sum();
+  }
+
+  /**
+   * @return the number of blocks read ahead that were later consumed
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of blocks read, or being read, ahead that were discarded without being
+   *         consumed
+   */
+  public long getWasted() {
+    return wasted.sum();
+  }
+}
@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
@@ -76,6 +77,8 @@ public class CachableBlockFile {
     RateLimiter readLimiter = null;
     Configuration hadoopConf = null;
     CryptoService cryptoService = null;
+    BlockPrefetcher prefetcher = null;
+    int prefetchDepth = 0;
 
     public CachableBuilder cacheId(String id) {
       this.cacheId = id;
@@ -123,6 +126,12 @@ public class CachableBlockFile {
       this.cryptoService = cryptoService;
       return this;
     }
+
+    public CachableBuilder prefetch(BlockPrefetcher prefetcher, int prefetchDepth) {
+      this.prefetcher = prefetcher;
+      this.prefetchDepth = prefetchDepth;
+      return this;
+    }
   }
 
   /**
@@ -138,6 +147,8 @@ public class CachableBlockFile {
     private boolean closed = false;
     private final Configuration conf;
     private final CryptoService cryptoService;
+    private final BlockPrefetcher prefetcher;
+    private final int prefetchDepth;
 
     private final IoeSupplier<InputStream> inputSupplier;
     private final IoeSupplier<Long> lengthSupplier;
@@ -367,6 +378,8 @@ public class CachableBlockFile {
       this.readLimiter = b.readLimiter;
       this.conf = b.hadoopConf;
       this.cryptoService = Objects.requireNonNull(b.cryptoService);
+      this.prefetcher = b.prefetcher;
+      this.prefetchDepth = b.prefetcher == null ? 0 : b.prefetchDepth;
     }
 
     /**
@@ -451,6 +464,50 @@ public class CachableBlockFile {
       return new CachedBlockRead(_currBlock);
     }
 
+    /**
+     * @return the number of data blocks readers of this file should keep reading ahead, 0 when read
+     *         ahead is disabled
+     */
+    public int getPrefetchDepth() {
+      return prefetchDepth;
+    }
+
+    public BlockPrefetcher getPrefetcher() {
+      return prefetcher;
+    }
+
+    /**
+     * Starts reading a data block in the background. When a data cache is available the block is
+     * loaded into it, otherwise the block is read fully into memory. The returned future yields a
+     * block read that can be used in place of {@link #getDataBlock(long, long, long)} or null if
+     * the block could not be read ahead, in which case the caller should read it directly.
+     *
+     * @return null if read ahead is disabled or the block could not be queued
+     */
+    public Future<CachedBlockRead> prefetchDataBlock(long offset, long compressedSize,
+        long rawSize) {
+      if (prefetchDepth <= 0) {
+        return null;
+      }
+
+      BlockCache _dCache = cacheProvider.getDataCache();
+      return prefetcher.submit(() -> {
+        RawBlockLoader loader = new RawBlockLoader(offset, compressedSize, rawSize, false);
+        if (_dCache != null) {
+          CacheEntry ce = _dCache.getBlock(this.cacheId + "R" + offset, loader);
+          if (ce != null) {
+            return new CachedBlockRead(ce, ce.getBuffer());
+          }
+        }
+
+        byte[] block = loader.load(MAX_ARRAY_SIZE, Collections.emptyMap());
+        if (block == null) {
+          return null;
+        }
+        return new CachedBlockRead(new SeekableByteArrayInputStream(block));
+      });
+    }
+
     @Override
     public synchronized void close() throws IOException {
       if (closed)
@@ -181,15 +181,16 @@ public class BlockIndex implements Weighable {
 
     while (count < (indexEntry.getNumEntries() - interval + 1)) {
 
-      Key myPrevKey = rk.getKey();
       int pos = cacheBlock.getPosition();
-      rk.readFields(cacheBlock);
-      val.readFields(cacheBlock);
 
       if (count > 0 && count % interval == 0) {
-        index.add(new BlockIndexEntry(pos, indexEntry.getNumEntries() - count, myPrevKey));
+        // the key last read precedes the entry at pos, only create it when an entry is added
+        index.add(new BlockIndexEntry(pos, indexEntry.getNumEntries() - count, rk.getKey()));
       }
 
+      rk.readFields(cacheBlock);
+      val.readFields(cacheBlock);
+
       count++;
     }
 
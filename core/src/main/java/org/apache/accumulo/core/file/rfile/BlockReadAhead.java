@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachedBlockRead;
+import org.apache.accumulo.core.file.rfile.MultiLevelIndex.IndexEntry;
+import org.apache.accumulo.core.file.rfile.MultiLevelIndex.Reader.IndexIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a window of data blocks of one locality group being read in the background, ahead of the
+ * block its reader is consuming. The blocks to read are found by walking a second iterator over the
+ * locality group's {@link MultiLevelIndex}, so the reader's own index position is never disturbed.
+ */
+class BlockReadAhead {
+
+  private static final Logger log = LoggerFactory.getLogger(BlockReadAhead.class);
+
+  private static class PendingBlock {
+    final long offset;
+    final Future<CachedBlockRead> read;
+
+    PendingBlock(long offset, Future<CachedBlockRead> read) {
+      this.offset = offset;
+      this.read = read;
+    }
+  }
+
+  private final CachableBlockFile.Reader reader;
+  private final MultiLevelIndex.Reader index;
+  private final BlockPrefetcher prefetcher;
+  private final int depth;
+  private final ArrayDeque<PendingBlock> pending;
+
+  // positioned just after the last block queued, or the block consumed when nothing is queued
+  private IndexIterator lookahead;
+  private long lastOffset = -1;
+
+  BlockReadAhead(CachableBlockFile.Reader reader, MultiLevelIndex.Reader index) {
+    this.reader = reader;
+    this.index = index;
+    this.prefetcher = reader.getPrefetcher();
+    this.depth = reader.getPrefetchDepth();
+    this.pending = new ArrayDeque<>(depth);
+  }
+
+  /**
+   * Gets the data block for an index entry, using a block that was read ahead when one is
+   * available, and queues reads for the blocks that follow it.
+   */
+  CachedBlockRead getDataBlock(IndexEntry indexEntry) throws IOException {
+    CachedBlockRead block = take(indexEntry.getOffset());
+
+    // queue the next reads before any synchronous read below so the two overlap
+    fill(indexEntry);
+
+    if (block == null) {
+      block = reader.getDataBlock(indexEntry.getOffset(), indexEntry.getCompressedSize(),
+          indexEntry.getRawSize());
+    }
+
+    return block;
+  }
+
+  /**
+   * Discards all blocks being read ahead.
+   */
+  void clear() {
+    while (!pending.isEmpty()) {
+      discard(pending.removeFirst());
+    }
+    lookahead = null;
+  }
+
+  private CachedBlockRead take(long offset) throws IOException {
+    while (!pending.isEmpty()) {
+      PendingBlock head = pending.peekFirst();
+      if (head.offset > offset) {
+        // the reader moved backwards, so nothing queued follows the block it needs
+        clear();
+        return null;
+      }
+
+      pending.removeFirst();
+      if (head.offset == offset) {
+        CachedBlockRead block = await(head.read);
+        if (block != null) {
+          prefetcher.hit();
+        }
+        return block;
+      }
+
+      // the reader seeked past this block
+      discard(head);
+    }
+
+    return null;
+  }
+
+  private void fill(IndexEntry current) throws IOException {
+    if (pending.isEmpty() && (lookahead == null || lastOffset != current.getOffset())) {
+      lookahead = index.lookup(current.getKey());
+      // the index may contain the same key for multiple blocks
+      while (lookahead.hasPrevious()
+          && lookahead.peekPrevious().getKey().equals(current.getKey())) {
+        lookahead.previous();
+      }
+      while (lookahead.hasNext() && lookahead.peek().getOffset() <= current.getOffset()) {
+        lookahead.next();
+      }
+      lastOffset = current.getOffset();
+    }
+
+    while (pending.size() < depth && lookahead.hasNext()) {
+      IndexEntry next = lookahead.next();
+      Future<CachedBlockRead> read =
+          reader.prefetchDataBlock(next.getOffset(), next.getCompressedSize(), next.getRawSize());
+      if (read == null) {
+        lookahead.previous();
+        break;
+      }
+      pending.addLast(new PendingBlock(next.getOffset(), read));
+      lastOffset = next.getOffset();
+    }
+  }
+
+  private CachedBlockRead await(Future<CachedBlockRead> read) throws IOException {
+    try {
+      return read.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for block read ahead");
+    } catch (ExecutionException e) {
+      // let the synchronous read surface the failure, if it persists
+      log.debug("Failed to read block ahead, reading it directly", e.getCause());
+      return null;
+    }
+  }
+
+  private void discard(PendingBlock block) {
+    prefetcher.discard(block.read);
+  }
+}
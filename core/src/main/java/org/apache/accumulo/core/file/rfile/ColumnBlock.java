@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.cache.impl.ClassSize;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachedBlockRead;
+import org.apache.accumulo.core.spi.cache.CacheEntry.Weighable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * A data block that stores each part of its keys and its values in a separate column. Columns of
+ * byte arrays either store each run of equal consecutive values once, or store each distinct value
+ * once in a dictionary followed by an index per entry. Column families, qualifiers and visibilities
+ * usually repeat within a block and so are dictionary encoded, while rows are run length encoded.
+ * Timestamps are delta encoded. Values stored in a column compress better than values interleaved
+ * with keys.
+ *
+ * <p>
+ * A block is decoded all at once, after which seeking within the block is a binary search.
+ */
+public class ColumnBlock {
+
+  // each run of equal consecutive values is stored once followed by the length of the run
+  private static final byte RUNS = 0;
+  // each distinct value is stored once followed by the index of the value of each entry
+  private static final byte DICTIONARY = 1;
+
+  /**
+   * Buffers the entries of a block and writes them as columns when the block is closed.
+   */
+  static class Writer {
+
+    private final ByteColumn rows = new ByteColumn(false);
+    private final ByteColumn families = new ByteColumn(true);
+    private final ByteColumn qualifiers = new ByteColumn(true);
+    private final ByteColumn visibilities = new ByteColumn(true);
+    private final ByteColumn values = new ByteColumn(true);
+    private long[] timestamps = new long[64];
+    private int[] deletes = new int[0];
+    private int numDeletes = 0;
+    private int entries = 0;
+
+    void append(Key key, Value value) {
+      rows.add(key.getRowData());
+      families.add(key.getColumnFamilyData());
+      qualifiers.add(key.getColumnQualifierData());
+      visibilities.add(key.getColumnVisibilityData());
+      values.add(new ArrayByteSequence(value.get(), 0, value.getSize()));
+
+      if (entries == timestamps.length)
+        timestamps = Arrays.copyOf(timestamps, entries * 2);
+      timestamps[entries] = key.getTimestamp();
+
+      if (key.isDeleted()) {
+        if (numDeletes == deletes.length)
+          deletes = Arrays.copyOf(deletes, Math.max(16, numDeletes * 2));
+        deletes[numDeletes++] = entries;
+      }
+
+      entries++;
+    }
+
+    int getEntries() {
+      return entries;
+    }
+
+    /**
+     * @return an estimate of the size of the block when written
+     */
+    long getRawSize() {
+      return rows.getEncodedSize() + families.getEncodedSize() + qualifiers.getEncodedSize()
+          + visibilities.getEncodedSize() + values.getEncodedSize() + 2L * entries
+          + 2L * numDeletes;
+    }
+
+    void write(DataOutput out) throws IOException {
+      WritableUtils.writeVInt(out, entries);
+      rows.write(out);
+      families.write(out);
+      qualifiers.write(out);
+      visibilities.write(out);
+
+      long prevTs = 0;
+      for (int i = 0; i < entries; i++) {
+        WritableUtils.writeVLong(out, timestamps[i] - prevTs);
+        prevTs = timestamps[i];
+      }
+
+      WritableUtils.writeVInt(out, numDeletes);
+      int prevDelete = 0;
+      for (int i = 0; i < numDeletes; i++) {
+        WritableUtils.writeVInt(out, deletes[i] - prevDelete);
+        prevDelete = deletes[i];
+      }
+
+      values.write(out);
+    }
+  }
+
+  private static class ByteColumn {
+
+    private final boolean trackDistinct;
+    private final List<byte[]> runValues = new ArrayList<>();
+    private int[] runLengths = new int[16];
+    private int[] runIds = new int[16];
+    private long runBytes = 0;
+    private final List<byte[]> distinct = new ArrayList<>();
+    private final HashMap<ByteSequence,Integer> ids = new HashMap<>();
+    private long distinctBytes = 0;
+    private int entries = 0;
+
+    ByteColumn(boolean trackDistinct) {
+      this.trackDistinct = trackDistinct;
+    }
+
+    void add(ByteSequence bs) {
+      entries++;
+
+      int runs = runValues.size();
+      if (runs > 0) {
+        byte[] last = runValues.get(runs - 1);
+        if (Arrays.equals(last, 0, last.length, bs.getBackingArray(), bs.offset(),
+            bs.offset() + bs.length())) {
+          runLengths[runs - 1]++;
+          return;
+        }
+      }
+
+      if (runs == runLengths.length) {
+        runLengths = Arrays.copyOf(runLengths, runs * 2);
+        runIds = Arrays.copyOf(runIds, runs * 2);
+      }
+
+      byte[] value;
+      if (trackDistinct) {
+        Integer id = ids.get(bs);
+        if (id == null) {
+          id = distinct.size();
+          value = copy(bs);
+          distinct.add(value);
+          ids.put(new ArrayByteSequence(value), id);
+          distinctBytes += value.length;
+        } else {
+          value = distinct.get(id);
+        }
+        runIds[runs] = id;
+      } else {
+        value = copy(bs);
+      }
+
+      runValues.add(value);
+      runLengths[runs] = 1;
+      runBytes += value.length;
+    }
+
+    private static byte[] copy(ByteSequence bs) {
+      return Arrays.copyOfRange(bs.getBackingArray(), bs.offset(), bs.offset() + bs.length());
+    }
+
+    private long getRunsSize() {
+      return runBytes + 3L * runValues.size();
+    }
+
+    private long getDictionarySize() {
+      long idSize = distinct.size() > 1 ? WritableUtils.getVIntSize(distinct.size()) : 0;
+      return distinctBytes + 2L * distinct.size() + idSize * entries;
+    }
+
+    private boolean useDictionary() {
+      return trackDistinct && getDictionarySize() < getRunsSize();
+    }
+
+    long getEncodedSize() {
+      return useDictionary() ? getDictionarySize() : getRunsSize();
+    }
+
+    void write(DataOutput out) throws IOException {
+      if (useDictionary()) {
+        out.writeByte(DICTIONARY);
+        writeValues(out, distinct);
+        if (distinct.size() > 1) {
+          for (int r = 0; r < runValues.size(); r++) {
+            for (int i = 0; i < runLengths[r]; i++) {
+              WritableUtils.writeVInt(out, runIds[r]);
+            }
+          }
+        }
+      } else {
+        out.writeByte(RUNS);
+        writeValues(out, runValues);
+        for (int r = 0; r < runValues.size(); r++) {
+          WritableUtils.writeVInt(out, runLengths[r]);
+        }
+      }
+    }
+
+    // values are prefix compressed against the value before them
+    private static void writeValues(DataOutput out, List<byte[]> values) throws IOException {
+      WritableUtils.writeVInt(out, values.size());
+      byte[] prev = new byte[0];
+      for (byte[] value : values) {
+        int common =
+            RelativeKey.getCommonPrefix(new ArrayByteSequence(prev), new ArrayByteSequence(value));
+        if (common == -1)
+          common = value.length; // exact match
+        WritableUtils.writeVInt(out, common);
+        WritableUtils.writeVInt(out, value.length - common);
+        out.write(value, common, value.length - common);
+        prev = value;
+      }
+    }
+  }
+
+  private final int size;
+  private final byte[][] rows;
+  private final byte[][] families;
+  private final byte[][] qualifiers;
+  private final byte[][] visibilities;
+  private final long[] timestamps;
+  private final boolean[] deleted;
+  private final byte[][] values;
+  private long storedBytes = 0;
+
+  ColumnBlock(DataInput in) throws IOException {
+    size = WritableUtils.readVInt(in);
+    rows = readColumn(in);
+    families = readColumn(in);
+    qualifiers = readColumn(in);
+    visibilities = readColumn(in);
+
+    timestamps = new long[size];
+    long prevTs = 0;
+    for (int i = 0; i < size; i++) {
+      timestamps[i] = WritableUtils.readVLong(in) + prevTs;
+      prevTs = timestamps[i];
+    }
+
+    deleted = new boolean[size];
+    int numDeletes = WritableUtils.readVInt(in);
+    int delete = 0;
+    for (int i = 0; i < numDeletes; i++) {
+      delete += WritableUtils.readVInt(in);
+      deleted[delete] = true;
+    }
+
+    values = readColumn(in);
+  }
+
+  private byte[][] readColumn(DataInput in) throws IOException {
+    byte encoding = in.readByte();
+
+    byte[][] stored = new byte[WritableUtils.readVInt(in)][];
+    byte[] prev = new byte[0];
+    for (int i = 0; i < stored.length; i++) {
+      int common = WritableUtils.readVInt(in);
+      int remaining = WritableUtils.readVInt(in);
+      stored[i] = new byte[common + remaining];
+      System.arraycopy(prev, 0, stored[i], 0, common);
+      in.readFully(stored[i], common, remaining);
+      prev = stored[i];
+      storedBytes += ClassSize.ARRAY + stored[i].length;
+    }
+
+    byte[][] column = new byte[size][];
+    if (encoding == DICTIONARY) {
+      if (stored.length == 1) {
+        Arrays.fill(column, stored[0]);
+      } else {
+        for (int i = 0; i < size; i++) {
+          column[i] = stored[WritableUtils.readVInt(in)];
+        }
+      }
+    } else if (encoding == RUNS) {
+      int pos = 0;
+      for (byte[] value : stored) {
+        int len = WritableUtils.readVInt(in);
+        Arrays.fill(column, pos, pos + len, value);
+        pos += len;
+      }
+      if (pos != size)
+        throw new IOException("Expected " + size + " entries in column, saw " + pos);
+    } else {
+      throw new IOException("Unknown column encoding " + encoding);
+    }
+    return column;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * The key of an entry, it shares its arrays with the block.
+   */
+  Key getKey(int i) {
+    return new Key(rows[i], families[i], qualifiers[i], visibilities[i], timestamps[i], deleted[i],
+        false);
+  }
+
+  byte[] getValue(int i) {
+    return values[i];
+  }
+
+  private static int compare(byte[] a, ByteSequence b) {
+    return WritableComparator.compareBytes(a, 0, a.length, b.getBackingArray(), b.offset(),
+        b.length());
+  }
+
+  /**
+   * Compares the key of an entry to another key without creating it.
+   */
+  int compareTo(int i, Key other) {
+    int result = compare(rows[i], other.getRowData());
+    if (result != 0)
+      return result;
+    result = compare(families[i], other.getColumnFamilyData());
+    if (result != 0)
+      return result;
+    result = compare(qualifiers[i], other.getColumnQualifierData());
+    if (result != 0)
+      return result;
+    result = compare(visibilities[i], other.getColumnVisibilityData());
+    if (result != 0)
+      return result;
+    result = Long.compare(other.getTimestamp(), timestamps[i]);
+    if (result != 0)
+      return result;
+    if (deleted[i])
+      return other.isDeleted() ? 0 : -1;
+    return other.isDeleted() ? 1 : 0;
+  }
+
+  /**
+   * @return the first entry with a key greater than or equal to the given key, or the size of the
+   *         block when there is none
+   */
+  int seek(Key key) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (compareTo(mid, key) < 0)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
+  private int weight() {
+    long weight = ClassSize.OBJECT + 8L * ClassSize.REFERENCE + 8L * ClassSize.ARRAY + storedBytes
+        + (long) size * (6 * ClassSize.REFERENCE + Long.BYTES + 1);
+    return (int) Math.min(weight, Integer.MAX_VALUE);
+  }
+
+  // Holds the decoded block with a cached block so that it is only decoded once while cached
+  private static class Decoded implements Weighable {
+    private volatile ColumnBlock block;
+
+    ColumnBlock get(CachedBlockRead cacheBlock) throws IOException {
+      ColumnBlock decoded = block;
+      if (decoded == null) {
+        boolean decodedHere = false;
+        synchronized (this) {
+          if (block == null) {
+            cacheBlock.seek(0);
+            block = new ColumnBlock(cacheBlock);
+            decodedHere = true;
+          }
+          decoded = block;
+        }
+        if (decodedHere)
+          cacheBlock.indexWeightChanged();
+      }
+      return decoded;
+    }
+
+    @Override
+    public int weight() {
+      ColumnBlock decoded = block;
+      return ClassSize.OBJECT + ClassSize.REFERENCE + (decoded == null ? 0 : decoded.weight());
+    }
+  }
+
+  static ColumnBlock read(CachedBlockRead cacheBlock) throws IOException {
+    if (cacheBlock.isIndexable()) {
+      Decoded decoded = cacheBlock.getIndex(Decoded::new);
+      if (decoded != null)
+        return decoded.get(cacheBlock);
+    }
+    return new ColumnBlock(cacheBlock);
+  }
+}
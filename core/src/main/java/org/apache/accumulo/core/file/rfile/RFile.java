@@ -92,6 +92,12 @@ public class RFile {
 
   private static final int RINDEX_MAGIC = 0x20637474;
 
+  static final int RINDEX_VER_9 = 9; // Added optional columnar data blocks. When enabled every data
+                                     // block stores the parts of its keys and its values in
+                                     // separate columns, with dictionary encoding for column
+                                     // families, qualifiers and visibilities, and delta encoding
+                                     // for timestamps. Files without columnar data blocks are still
+                                     // written as version 8.
   static final int RINDEX_VER_8 = 8; // Added sample storage. There is a sample locality group for
                                      // each locality group. Sample are built using a Sampler and
                                      // sampler configuration. The Sampler and its configuration are
@@ -427,9 +433,12 @@ public class RFile {
 
     private BCFile.Writer fileWriter;
     private BlockAppender blockWriter;
+    // buffers the entries of the current block when writing columnar data blocks
+    private ColumnBlock.Writer columnBlock;
 
     private final long blockSize;
     private final long maxBlockSize;
+    private final boolean columnar;
     private int entries = 0;
 
     private LocalityGroupMetadata currentLocalityGroup = null;
@@ -445,10 +454,12 @@ public class RFile {
     private double averageKeySize = 0;
 
     LocalityGroupWriter(BCFile.Writer fileWriter, long blockSize, long maxBlockSize,
-        LocalityGroupMetadata currentLocalityGroup, SampleLocalityGroupWriter sample) {
+        boolean columnar, LocalityGroupMetadata currentLocalityGroup,
+        SampleLocalityGroupWriter sample) {
       this.fileWriter = fileWriter;
       this.blockSize = blockSize;
       this.maxBlockSize = maxBlockSize;
+      this.columnar = columnar;
       this.currentLocalityGroup = currentLocalityGroup;
       this.sample = sample;
     }
@@ -459,6 +470,16 @@ public class RFile {
       return k.getSize() > mean + Math.max(9 * mean, 4 * stddev);
     }
 
+    private void prepareDataBlock() throws IOException {
+      blockWriter = fileWriter.prepareDataBlock();
+      if (columnar)
+        columnBlock = new ColumnBlock.Writer();
+    }
+
+    private long getBlockRawSize() {
+      return columnar ? columnBlock.getRawSize() : blockWriter.getRawSize();
+    }
+
     public void append(Key key, Value value) throws IOException {
 
       if (key.compareTo(prevKey) < 0) {
@@ -477,8 +498,8 @@ public class RFile {
       }
 
       if (blockWriter == null) {
-        blockWriter = fileWriter.prepareDataBlock();
-      } else if (blockWriter.getRawSize() > blockSize) {
+        prepareDataBlock();
+      } else if (getBlockRawSize() > blockSize) {
 
         // Look for a key that's short to put in the index, defining short as average or below.
         if (averageKeySize == 0) {
@@ -490,28 +511,32 @@ public class RFile {
         // shortened, it may not be below average.
         Key closeKey = KeyShortener.shorten(prevKey, key);
 
-        if ((closeKey.getSize() <= averageKeySize || blockWriter.getRawSize() > maxBlockSize)
+        if ((closeKey.getSize() <= averageKeySize || getBlockRawSize() > maxBlockSize)
             && !isGiantKey(closeKey)) {
           closeBlock(closeKey, false);
-          blockWriter = fileWriter.prepareDataBlock();
+          prepareDataBlock();
           // set average to zero so its recomputed for the next block
           averageKeySize = 0;
           // To constrain the growth of data blocks, we limit our worst case scenarios to closing
           // blocks if they reach the maximum configurable block size of Integer.MAX_VALUE.
           // 128 bytes added for metadata overhead
-        } else if (((long) key.getSize() + (long) value.getSize() + blockWriter.getRawSize() + 128L)
+        } else if (((long) key.getSize() + (long) value.getSize() + getBlockRawSize() + 128L)
             >= Integer.MAX_VALUE) {
           closeBlock(closeKey, false);
-          blockWriter = fileWriter.prepareDataBlock();
+          prepareDataBlock();
           averageKeySize = 0;
 
         }
       }
 
-      RelativeKey rk = new RelativeKey(lastKeyInBlock, key);
+      if (columnar) {
+        columnBlock.append(key, value);
+      } else {
+        RelativeKey rk = new RelativeKey(lastKeyInBlock, key);
 
-      rk.write(blockWriter);
-      value.write(blockWriter);
+        rk.write(blockWriter);
+        value.write(blockWriter);
+      }
       entries++;
 
       keyLenStats.addValue(key.getSize());
@@ -522,6 +547,10 @@ public class RFile {
     }
 
     private void closeBlock(Key key, boolean lastBlock) throws IOException {
+      if (columnar) {
+        columnBlock.write(blockWriter);
+        columnBlock = null;
+      }
       blockWriter.close();
 
       if (lastBlock)
@@ -560,6 +589,7 @@ public class RFile {
     private final long blockSize;
     private final long maxBlockSize;
     private final int indexBlockSize;
+    private final boolean columnar;
 
     private ArrayList<LocalityGroupMetadata> localityGroups = new ArrayList<>();
     private ArrayList<LocalityGroupMetadata> sampleGroups = new ArrayList<>();
@@ -585,9 +615,20 @@ public class RFile {
 
     public Writer(BCFile.Writer bfw, int blockSize, int indexBlockSize,
         SamplerConfigurationImpl samplerConfig, Sampler sampler) {
+      this(bfw, blockSize, indexBlockSize, samplerConfig, sampler, false);
+    }
+
+    /**
+     * @param columnar
+     *          when true data blocks store keys and values in columns, producing a version 9 file
+     *          that older versions can not read
+     */
+    public Writer(BCFile.Writer bfw, int blockSize, int indexBlockSize,
+        SamplerConfigurationImpl samplerConfig, Sampler sampler, boolean columnar) {
       this.blockSize = blockSize;
       this.maxBlockSize = (long) (blockSize * MAX_BLOCK_MULTIPLIER);
       this.indexBlockSize = indexBlockSize;
+      this.columnar = columnar;
       this.fileWriter = bfw;
       previousColumnFamilies = new HashSet<>();
       this.samplerConfig = samplerConfig;
@@ -606,7 +647,7 @@ public class RFile {
       BlockAppender mba = fileWriter.prepareMetaBlock("RFile.index");
 
       mba.writeInt(RINDEX_MAGIC);
-      mba.writeInt(RINDEX_VER_8);
+      mba.writeInt(columnar ? RINDEX_VER_9 : RINDEX_VER_8);
 
       if (currentLocalityGroup != null) {
         localityGroups.add(currentLocalityGroup);
@@ -710,12 +751,11 @@ public class RFile {
 
       SampleLocalityGroupWriter sampleWriter = null;
       if (sampler != null) {
-        sampleWriter = new SampleLocalityGroupWriter(
-            new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, sampleLocalityGroup, null),
-            sampler);
+        sampleWriter = new SampleLocalityGroupWriter(new LocalityGroupWriter(fileWriter, blockSize,
+            maxBlockSize, columnar, sampleLocalityGroup, null), sampler);
       }
-      lgWriter = new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, currentLocalityGroup,
-          sampleWriter);
+      lgWriter = new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, columnar,
+          currentLocalityGroup, sampleWriter);
     }
 
     @Override
@@ -756,6 +796,7 @@ public class RFile {
     private boolean closed = false;
     private int version;
     private boolean checkRange = true;
+    private BlockReadAhead readAhead = null;
 
     private LocalityGroupReader(CachableBlockFile.Reader reader, LocalityGroupMetadata lgm,
         int version) {
@@ -767,7 +808,7 @@ public class RFile {
       this.version = version;
 
       this.reader = reader;
-
+      initReadAhead();
     }
 
     public LocalityGroupReader(LocalityGroupReader lgr) {
@@ -778,6 +819,13 @@ public class RFile {
       this.blockCount = lgr.blockCount;
       this.reader = lgr.reader;
       this.version = lgr.version;
+      initReadAhead();
+    }
+
+    private void initReadAhead() {
+      if (reader.getPrefetchDepth() > 0 && version != RINDEX_VER_3 && version != RINDEX_VER_4) {
+        readAhead = new BlockReadAhead(reader, index);
+      }
     }
 
     Iterator<IndexEntry> getIndex() throws IOException {
@@ -788,6 +836,8 @@ public class RFile {
     public void close() throws IOException {
       closed = true;
       hasTop = false;
+      if (readAhead != null)
+        readAhead.clear();
       if (currBlock != null)
         currBlock.close();
 
@@ -798,16 +848,33 @@ public class RFile {
     private CachableBlockFile.CachedBlockRead currBlock;
     private RelativeKey rk;
     private Value val;
+    // null after next() until needed, then obtained from rk
     private Key prevKey = null;
     private Range range = null;
     private boolean hasTop = false;
     private AtomicBoolean interruptFlag;
 
+    // the decoded block, and the position and key of the top entry in it, for columnar files
+    private ColumnBlock columnBlock;
+    private int columnPos;
+    private Key columnKey;
+
     @Override
     public Key getTopKey() {
+      if (columnBlock != null) {
+        if (columnKey == null)
+          columnKey = columnBlock.getKey(columnPos);
+        return columnKey;
+      }
       return rk.getKey();
     }
 
+    private Key getPrevKey() {
+      if (prevKey == null)
+        prevKey = rk.getPrevKey();
+      return prevKey;
+    }
+
     @Override
     public Value getTopValue() {
       return val;
@@ -833,6 +900,11 @@ public class RFile {
       if (!hasTop)
         throw new IllegalStateException();
 
+      if (version == RINDEX_VER_9) {
+        nextColumnar();
+        return;
+      }
+
       if (entriesLeft == 0) {
         currBlock.close();
         if (metricsGatherer != null)
@@ -855,7 +927,7 @@ public class RFile {
         }
       }
 
-      prevKey = rk.getKey();
+      prevKey = null;
       rk.readFields(currBlock);
       val.readFields(currBlock);
 
@@ -864,7 +936,118 @@ public class RFile {
 
       entriesLeft--;
       if (checkRange)
-        hasTop = !range.afterEndKey(rk.getKey());
+        hasTop = !rk.afterEndKey(range);
+    }
+
+    private void nextColumnar() throws IOException {
+      if (!positionColumnar(columnPos + 1)) {
+        hasTop = false;
+        return;
+      }
+
+      if (metricsGatherer != null)
+        metricsGatherer.addMetric(getTopKey(), val);
+
+      if (checkRange)
+        hasTop = !columnAfterEndKey();
+    }
+
+    private ColumnBlock readColumnBlock(IndexEntry indexEntry) throws IOException {
+      try (CachableBlockFile.CachedBlockRead block = getDataBlock(indexEntry)) {
+        return ColumnBlock.read(block);
+      }
+    }
+
+    /**
+     * Positions at an entry of the current column block, moving on to the following blocks when the
+     * position is past the end of the block.
+     *
+     * @return false if there are no more entries
+     */
+    private boolean positionColumnar(int pos) throws IOException {
+      while (pos >= columnBlock.size()) {
+        if (!iiter.hasNext()) {
+          columnBlock = null;
+          columnKey = null;
+          val = null;
+          return false;
+        }
+
+        if (metricsGatherer != null)
+          metricsGatherer.startBlock();
+
+        IndexEntry indexEntry = iiter.next();
+        columnBlock = readColumnBlock(indexEntry);
+        checkRange = range.afterEndKey(indexEntry.getKey());
+        pos = 0;
+      }
+
+      columnPos = pos;
+      columnKey = null;
+      val = new Value(columnBlock.getValue(pos), true);
+      return true;
+    }
+
+    private boolean columnAfterEndKey() {
+      if (range.isInfiniteStopKey())
+        return false;
+      int cmp = columnBlock.compareTo(columnPos, range.getEndKey());
+      return range.isEndKeyInclusive() ? cmp > 0 : cmp >= 0;
+    }
+
+    private boolean columnBeforeStartKey() {
+      if (range.isInfiniteStartKey())
+        return false;
+      int cmp = columnBlock.compareTo(columnPos, range.getStartKey());
+      return range.isStartKeyInclusive() ? cmp < 0 : cmp <= 0;
+    }
+
+    private void seekColumnar(Key startKey) throws IOException {
+      boolean reseek = true;
+
+      if (range.afterEndKey(firstKey)) {
+        // range is before first key in rfile, so there is nothing to do
+        reset();
+        reseek = false;
+      }
+
+      if (columnBlock != null && columnBlock.compareTo(0, startKey) <= 0
+          && startKey.compareTo(iiter.peekPrevious().getKey()) <= 0) {
+        // the start key falls in the current block, which is decoded and can be searched
+        positionColumnar(columnBlock.seek(startKey));
+        reseek = false;
+      }
+
+      if (reseek) {
+        iiter = index.lookup(startKey);
+
+        reset();
+
+        if (iiter.hasNext()) {
+          // if the index contains the same key multiple times, then go to the
+          // earliest index entry containing the key
+          while (iiter.hasPrevious()
+              && iiter.peekPrevious().getKey().equals(iiter.peek().getKey())) {
+            iiter.previous();
+          }
+
+          IndexEntry indexEntry = iiter.next();
+          columnBlock = readColumnBlock(indexEntry);
+          checkRange = range.afterEndKey(indexEntry.getKey());
+          positionColumnar(columnBlock.seek(startKey));
+        }
+      }
+
+      hasTop = columnBlock != null && !columnAfterEndKey();
+
+      while (hasTop() && columnBeforeStartKey()) {
+        next();
+      }
+
+      if (metricsGatherer != null && hasTop) {
+        metricsGatherer.startLocalityGroup(getTopKey().getColumnFamily());
+        metricsGatherer.addMetric(getTopKey(), val);
+      }
     }
 
     private CachableBlockFile.CachedBlockRead getDataBlock(IndexEntry indexEntry)
@@ -874,6 +1057,8 @@ public class RFile {
 
       if (version == RINDEX_VER_3 || version == RINDEX_VER_4)
         return reader.getDataBlock(startBlock + iiter.previousIndex());
+      else if (readAhead != null)
+        return readAhead.getDataBlock(indexEntry);
       else
         return reader.getDataBlock(indexEntry.getOffset(), indexEntry.getCompressedSize(),
             indexEntry.getRawSize());
@@ -904,6 +1089,8 @@ public class RFile {
 
     private void reset() {
       rk = null;
+      columnBlock = null;
+      columnKey = null;
       hasTop = false;
       if (currBlock != null) {
         try {
@@ -933,6 +1120,11 @@ public class RFile {
       if (startKey == null)
         startKey = new Key();
 
+      if (version == RINDEX_VER_9) {
+        seekColumnar(startKey);
+        return;
+      }
+
       boolean reseek = true;
 
       if (range.afterEndKey(firstKey)) {
@@ -942,14 +1134,14 @@ public class RFile {
       }
 
       if (rk != null) {
-        if (range.beforeStartKey(prevKey) && range.afterEndKey(getTopKey())) {
+        if (range.beforeStartKey(getPrevKey()) && rk.afterEndKey(range)) {
           // range is between the two keys in the file where the last range seeked to stopped, so
           // there is
           // nothing to do
           reseek = false;
         }
 
-        if (startKey.compareTo(getTopKey()) <= 0 && startKey.compareTo(prevKey) > 0) {
+        if (rk.compareTo(startKey) >= 0 && startKey.compareTo(getPrevKey()) > 0) {
           // current location in file can satisfy this request, no need to seek
           reseek = false;
         }
@@ -965,8 +1157,8 @@ public class RFile {
           // and speed up others.
 
           MutableByteSequence valbs = new MutableByteSequence(new byte[64], 0, 0);
-          SkippR skippr =
-              RelativeKey.fastSkip(currBlock, startKey, valbs, prevKey, getTopKey(), entriesLeft);
+          SkippR skippr = RelativeKey.fastSkip(currBlock, startKey, valbs, getPrevKey(),
+              getTopKey(), entriesLeft);
           if (skippr.skipped > 0) {
             entriesLeft -= skippr.skipped;
             val = new Value(valbs.toArray());
@@ -1064,9 +1256,9 @@ public class RFile {
         }
       }
 
-      hasTop = rk != null && !range.afterEndKey(rk.getKey());
+      hasTop = rk != null && !rk.afterEndKey(range);
 
-      while (hasTop() && range.beforeStartKey(getTopKey())) {
+      while (hasTop() && rk.beforeStartKey(range)) {
         next();
       }
 
@@ -1168,8 +1360,8 @@ public class RFile {
 
         if (magic != RINDEX_MAGIC)
           throw new IOException("Did not see expected magic number, saw " + magic);
-        if (ver != RINDEX_VER_8 && ver != RINDEX_VER_7 && ver != RINDEX_VER_6 && ver != RINDEX_VER_4
-            && ver != RINDEX_VER_3)
+        if (ver != RINDEX_VER_9 && ver != RINDEX_VER_8 && ver != RINDEX_VER_7 && ver != RINDEX_VER_6
+            && ver != RINDEX_VER_4 && ver != RINDEX_VER_3)
           throw new IOException("Did not see expected version, saw " + ver);
 
         int size = mb.readInt();
@@ -1187,7 +1379,7 @@ public class RFile {
 
         readers = currentReaders;
 
-        if (ver == RINDEX_VER_8 && mb.readBoolean()) {
+        if ((ver == RINDEX_VER_8 || ver == RINDEX_VER_9) && mb.readBoolean()) {
           sampleReaders = new LocalityGroupReader[size];
 
           for (int i = 0; i < size; i++) {
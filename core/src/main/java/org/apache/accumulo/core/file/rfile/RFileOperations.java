@@ -51,7 +51,8 @@ public class RFileOperations extends FileOperations {
         new CachableBuilder().fsPath(options.getFileSystem(), new Path(options.getFilename()))
             .conf(options.getConfiguration()).fileLen(options.getFileLenCache())
             .cacheProvider(options.cacheProvider).readLimiter(options.getRateLimiter())
-            .cryptoService(options.getCryptoService());
+            .cryptoService(options.getCryptoService())
+            .prefetch(options.getPrefetcher(), options.getPrefetchDepth());
     return new RFile.Reader(cb);
   }
 
@@ -134,6 +135,7 @@ public class RFileOperations extends FileOperations {
     BCFile.Writer _cbw = new BCFile.Writer(outputStream, options.getRateLimiter(), compression,
         conf, options.cryptoService);
 
-    return new RFile.Writer(_cbw, (int) blockSize, (int) indexBlockSize, samplerConfig, sampler);
+    return new RFile.Writer(_cbw, (int) blockSize, (int) indexBlockSize, samplerConfig, sampler,
+        acuconf.getBoolean(Property.TABLE_FILE_COLUMNAR));
   }
 }
@@ -21,9 +21,11 @@ package org.apache.accumulo.core.file.rfile;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.util.MutableByteSequence;
 import org.apache.accumulo.core.util.UnsynchronizedBuffer;
 import org.apache.hadoop.io.Writable;
@@ -60,6 +62,11 @@ public class RelativeKey implements Writable {
   // private static final byte UNUSED_2_6 = BIT << 6;
   // private static final byte UNUSED_2_7 = (byte) (BIT << 7);
 
+  // The row, cf, cq and cv flags above use the same bit in both bytes, so field i of a key can be
+  // tested with (1 << i). The bits of the first byte are also used to track changed fields.
+  private static final int NUM_FIELDS = 4;
+  private static final int ALL_FIELDS = ROW_SAME | CF_SAME | CQ_SAME | CV_SAME | TS_SAME;
+
   // Values for prefix compression
   int rowCommonPrefixLen;
   int cfCommonPrefixLen;
@@ -67,6 +74,23 @@ public class RelativeKey implements Writable {
   int cvCommonPrefixLen;
   long tsDiff;
 
+  // When reading, the fields of each key are decoded into reusable buffers and a Key is only
+  // created
+  // when asked for. The previous buffers hold the fields of the previous entry that differ from the
+  // current entry, they are swapped with the current buffers when a field changes.
+  private boolean decoding = false;
+  private final MutableByteSequence[] fields = new MutableByteSequence[NUM_FIELDS];
+  private final MutableByteSequence[] prevFields = new MutableByteSequence[NUM_FIELDS];
+  private long ts;
+  private long prevTs;
+  private boolean deleted;
+  private boolean prevDeleted;
+  // the fields changed by the last call to readFields
+  private int lastChanged;
+  // the field arrays of the last key created, fields not changed since then are shared with it
+  private final byte[][] keyFields = new byte[NUM_FIELDS][];
+  private int changedSinceKey;
+
   /**
    * This constructor is used when one needs to read from an input stream
    */
@@ -163,10 +187,47 @@ public class RelativeKey implements Writable {
 
   public void setPrevKey(Key pk) {
     this.prevKey = pk;
+    this.decoding = false;
+  }
+
+  private void startDecoding(Key pk) {
+    for (int i = 0; i < NUM_FIELDS; i++) {
+      prevFields[i] = new MutableByteSequence(new byte[64], 0, 0);
+    }
+
+    if (pk == null) {
+      for (int i = 0; i < NUM_FIELDS; i++) {
+        fields[i] = new MutableByteSequence(new byte[64], 0, 0);
+        keyFields[i] = null;
+      }
+      ts = 0;
+      deleted = false;
+      changedSinceKey = ALL_FIELDS;
+    } else {
+      ByteSequence[] pkFields = {pk.getRowData(), pk.getColumnFamilyData(),
+          pk.getColumnQualifierData(), pk.getColumnVisibilityData()};
+      for (int i = 0; i < NUM_FIELDS; i++) {
+        fields[i] = new MutableByteSequence(pkFields[i]);
+        keyFields[i] = pkFields[i].toArray();
+      }
+      ts = pk.getTimestamp();
+      deleted = pk.isDeleted();
+      changedSinceKey = 0;
+    }
+
+    key = pk;
+    decoding = true;
   }
 
   @Override
   public void readFields(DataInput in) throws IOException {
+    if (!decoding)
+      startDecoding(prevKey);
+
+    // null when the current entry was never asked for, it is then created by getPrevKey()
+    prevKey = key;
+    key = null;
+
     fieldsSame = in.readByte();
     if ((fieldsSame & PREFIX_COMPRESSION_ENABLED) == PREFIX_COMPRESSION_ENABLED) {
       fieldsPrefixed = in.readByte();
@@ -174,51 +235,85 @@ public class RelativeKey implements Writable {
       fieldsPrefixed = 0;
     }
 
-    byte[] row, cf, cq, cv;
-    long ts;
+    int changed = 0;
 
-    if ((fieldsSame & ROW_SAME) == ROW_SAME) {
-      row = prevKey.getRowData().toArray();
-    } else if ((fieldsPrefixed & ROW_COMMON_PREFIX) == ROW_COMMON_PREFIX) {
-      row = readPrefix(in, prevKey.getRowData());
-    } else {
-      row = read(in);
-    }
+    for (int i = 0; i < NUM_FIELDS; i++) {
+      int bit = 1 << i;
+      if ((fieldsSame & bit) != bit) {
+        MutableByteSequence tmp = prevFields[i];
+        prevFields[i] = fields[i];
+        fields[i] = tmp;
 
-    if ((fieldsSame & CF_SAME) == CF_SAME) {
-      cf = prevKey.getColumnFamilyData().toArray();
-    } else if ((fieldsPrefixed & CF_COMMON_PREFIX) == CF_COMMON_PREFIX) {
-      cf = readPrefix(in, prevKey.getColumnFamilyData());
-    } else {
-      cf = read(in);
-    }
+        if ((fieldsPrefixed & bit) == bit)
+          readPrefix(in, fields[i], prevFields[i]);
+        else
+          read(in, fields[i]);
 
-    if ((fieldsSame & CQ_SAME) == CQ_SAME) {
-      cq = prevKey.getColumnQualifierData().toArray();
-    } else if ((fieldsPrefixed & CQ_COMMON_PREFIX) == CQ_COMMON_PREFIX) {
-      cq = readPrefix(in, prevKey.getColumnQualifierData());
-    } else {
-      cq = read(in);
+        changed |= bit;
+      }
     }
 
-    if ((fieldsSame & CV_SAME) == CV_SAME) {
-      cv = prevKey.getColumnVisibilityData().toArray();
-    } else if ((fieldsPrefixed & CV_COMMON_PREFIX) == CV_COMMON_PREFIX) {
-      cv = readPrefix(in, prevKey.getColumnVisibilityData());
-    } else {
-      cv = read(in);
+    prevTs = ts;
+    if ((fieldsSame & TS_SAME) != TS_SAME) {
+      if ((fieldsPrefixed & TS_DIFF) == TS_DIFF)
+        ts = WritableUtils.readVLong(in) + prevTs;
+      else
+        ts = WritableUtils.readVLong(in);
+      changed |= TS_SAME;
     }
 
-    if ((fieldsSame & TS_SAME) == TS_SAME) {
-      ts = prevKey.getTimestamp();
-    } else if ((fieldsPrefixed & TS_DIFF) == TS_DIFF) {
-      ts = WritableUtils.readVLong(in) + prevKey.getTimestamp();
-    } else {
-      ts = WritableUtils.readVLong(in);
-    }
+    prevDeleted = deleted;
+    deleted = (fieldsSame & DELETED) == DELETED;
+
+    lastChanged = changed;
+    changedSinceKey |= changed;
+  }
 
-    this.key = new Key(row, cf, cq, cv, ts, (fieldsSame & DELETED) == DELETED, false);
-    this.prevKey = this.key;
+  /**
+   * Compares the key last read to another key without creating it.
+   */
+  int compareTo(Key other) {
+    if (!decoding || key != null)
+      return getKey().compareTo(other);
+
+    int result = fields[0].compareTo(other.getRowData());
+    if (result != 0)
+      return result;
+    result = fields[1].compareTo(other.getColumnFamilyData());
+    if (result != 0)
+      return result;
+    result = fields[2].compareTo(other.getColumnQualifierData());
+    if (result != 0)
+      return result;
+    result = fields[3].compareTo(other.getColumnVisibilityData());
+    if (result != 0)
+      return result;
+    result = Long.compare(other.getTimestamp(), ts);
+    if (result != 0)
+      return result;
+    if (deleted)
+      return other.isDeleted() ? 0 : -1;
+    return other.isDeleted() ? 1 : 0;
+  }
+
+  /**
+   * Same as {@link Range#beforeStartKey(Key)} for the key last read, without creating it.
+   */
+  boolean beforeStartKey(Range range) {
+    if (range.isInfiniteStartKey())
+      return false;
+    int cmp = compareTo(range.getStartKey());
+    return range.isStartKeyInclusive() ? cmp < 0 : cmp <= 0;
+  }
+
+  /**
+   * Same as {@link Range#afterEndKey(Key)} for the key last read, without creating it.
+   */
+  boolean afterEndKey(Range range) {
+    if (range.isInfiniteStopKey())
+      return false;
+    int cmp = compareTo(range.getEndKey());
+    return range.isEndKeyInclusive() ? cmp > 0 : cmp >= 0;
   }
 
   public static class SkippR {
@@ -430,12 +525,21 @@ public class RelativeKey implements Writable {
       throw new IllegalStateException();
     }
 
+    // hand the buffers used for skipping to the result, its key is only created if asked for
     RelativeKey result = new RelativeKey();
-    result.key = new Key(row.getBackingArray(), row.offset(), row.length(), cf.getBackingArray(),
-        cf.offset(), cf.length(), cq.getBackingArray(), cq.offset(), cq.length(),
-        cv.getBackingArray(), cv.offset(), cv.length(), ts);
-    result.key.setDeleted((fieldsSame & DELETED) != 0);
-    result.prevKey = result.key;
+    result.fields[0] = row;
+    result.fields[1] = cf;
+    result.fields[2] = cq;
+    result.fields[3] = cv;
+    result.prevFields[0] = prow;
+    result.prevFields[1] = pcf;
+    result.prevFields[2] = pcq;
+    result.prevFields[3] = pcv;
+    result.ts = ts;
+    result.deleted = (fieldsSame & DELETED) != 0;
+    result.changedSinceKey = ALL_FIELDS;
+    result.decoding = true;
+    result.prevKey = newPrevKey;
 
     return new SkippR(result, count, newPrevKey);
   }
@@ -460,21 +564,6 @@ public class RelativeKey implements Writable {
     mbseqDestination.setLength(len);
   }
 
-  private static byte[] readPrefix(DataInput in, ByteSequence prefixSource) throws IOException {
-    int prefixLen = WritableUtils.readVInt(in);
-    int remainingLen = WritableUtils.readVInt(in);
-    byte[] data = new byte[prefixLen + remainingLen];
-    if (prefixSource.isBackedByArray()) {
-      System.arraycopy(prefixSource.getBackingArray(), prefixSource.offset(), data, 0, prefixLen);
-    } else {
-      byte[] prefixArray = prefixSource.toArray();
-      System.arraycopy(prefixArray, 0, data, 0, prefixLen);
-    }
-    // read remaining
-    in.readFully(data, prefixLen, remainingLen);
-    return data;
-  }
-
   private static void readPrefix(DataInput in, MutableByteSequence dest, ByteSequence prefixSource)
       throws IOException {
     int prefixLen = WritableUtils.readVInt(in);
@@ -495,17 +584,41 @@ public class RelativeKey implements Writable {
     dest.setLength(len);
   }
 
-  private static byte[] read(DataInput in) throws IOException {
-    int len = WritableUtils.readVInt(in);
-    byte[] data = new byte[len];
-    in.readFully(data);
-    return data;
+  private static byte[] copy(MutableByteSequence field) {
+    return Arrays.copyOf(field.getBackingArray(), field.length());
   }
 
+  /**
+   * Returns the key last read, creating it if needed. Fields that did not change since the last key
+   * was created share that key's arrays.
+   */
   public Key getKey() {
+    if (key == null && decoding) {
+      for (int i = 0; i < NUM_FIELDS; i++) {
+        if ((changedSinceKey & (1 << i)) != 0)
+          keyFields[i] = copy(fields[i]);
+      }
+      key = new Key(keyFields[0], keyFields[1], keyFields[2], keyFields[3], ts, deleted, false);
+      changedSinceKey = 0;
+    }
     return key;
   }
 
+  /**
+   * Returns the key read before the current one, or the key passed to {@link #setPrevKey(Key)} if
+   * nothing was read since.
+   */
+  Key getPrevKey() {
+    if (prevKey == null && decoding) {
+      byte[][] prev = new byte[NUM_FIELDS][];
+      for (int i = 0; i < NUM_FIELDS; i++) {
+        prev[i] = copy((lastChanged & (1 << i)) != 0 ? prevFields[i] : fields[i]);
+      }
+      prevKey = new Key(prev[0], prev[1], prev[2], prev[3], prevTs, prevDeleted, false);
+    }
+    return prevKey;
+  }
+
   private static void write(DataOutput out, ByteSequence bs) throws IOException {
     WritableUtils.writeVInt(out, bs.length());
     out.write(bs.getBackingArray(), bs.offset(), bs.length());
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iterators;
+
+import java.io.IOException;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * An iterator that can hand its consumer many key/value pairs per call, instead of one pair per
+ * {@link #getTopKey()}, {@link #getTopValue()} and {@link #next()}. Iterators that do not implement
+ * this interface are read one pair at a time by {@link KeyValueBatch#fill(SortedKeyValueIterator)},
+ * so an iterator stack may mix both kinds.
+ *
+ * <p>
+ * A subclass of an implementing iterator that overrides any of the per pair methods without also
+ * overriding {@link #nextBatch(KeyValueBatch)} is read one pair at a time.
+ *
+ * @since 2.1.0
+ */
+public interface BatchIterator extends SortedKeyValueIterator<Key,Value> {
+
+  /**
+   * Appends key/value pairs to the batch, starting with the current top, until the batch is full or
+   * this iterator has no more data. This iterator is left positioned on the first pair that was not
+   * appended, exactly as if {@link #next()} had been called once for each appended pair.
+   */
+  void nextBatch(KeyValueBatch batch) throws IOException;
+}
@@ -75,7 +75,7 @@ import com.google.common.collect.Lists;
  * WARNING : Using deletes with Combiners may not work as intended. See
  * {@link #setReduceOnFullCompactionOnly(IteratorSetting, boolean)}
  */
-public abstract class Combiner extends WrappingIterator implements OptionDescriber {
+public abstract class Combiner extends WrappingIterator implements OptionDescriber, BatchIterator {
 
   static final Logger sawDeleteLog =
       LoggerFactory.getLogger(Combiner.class.getName() + ".SawDelete");
@@ -180,6 +180,17 @@ public abstract class Combiner extends WrappingIterator implements OptionDescrib
     findTop();
   }
 
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    // combining a key reads all of its versions from the source before it becomes the top, so
+    // pairs are produced one at a time; a batch still saves the iterators above this one from
+    // making a call per pair
+    while (!batch.isFull() && hasTop()) {
+      batch.add(getTopKey(), getTopValue());
+      next();
+    }
+  }
+
   private Key workKey = new Key();
 
   @VisibleForTesting
@@ -39,7 +39,7 @@ import org.apache.accumulo.core.data.Value;
  * "negate" boolean parameter that defaults to false. If negate is set to true, this class instead
  * omits entries that match its filter, thus iterating over entries that do not match its filter.
  */
-public abstract class Filter extends WrappingIterator implements OptionDescriber {
+public abstract class Filter extends WrappingIterator implements OptionDescriber, BatchIterator {
   @Override
   public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
     Filter newInstance;
@@ -69,6 +69,19 @@ public abstract class Filter extends WrappingIterator implements OptionDescriber
     findTop();
   }
 
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    if (batch.isFull() || !hasTop())
+      return;
+
+    // the top was accepted when it was found
+    batch.add(getTopKey(), getTopValue());
+    SortedKeyValueIterator<Key,Value> source = getSource();
+    source.next();
+    batch.fill(source, (k, v) -> k.isDeleted() || negate != accept(k, v));
+    findTop();
+  }
+
   /**
    * Iterates over the source until an acceptable key/value pair is found.
    */
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iterators;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A bounded buffer of key/value pairs read from an iterator by a single call. Pairs are copied as
+ * they are added, so they remain valid after the source advances and after the batch is cleared.
+ *
+ * @see BatchIterator
+ * @since 2.1.0
+ */
+public final class KeyValueBatch {
+
+  private static final Set<String> PER_PAIR_METHODS =
+      Set.of("next", "hasTop", "getTopKey", "getTopValue", "findTop", "consume");
+
+  /**
+   * True when the nearest declaration of nextBatch in a class hierarchy is at least as specific as
+   * every per pair method, so nextBatch observes the same pairs as the per pair methods would.
+   */
+  private static final ClassValue<Boolean> BATCH_SAFE = new ClassValue<>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+        boolean overridesPerPair = false;
+        for (Method m : c.getDeclaredMethods()) {
+          if (m.getName().equals("nextBatch") && m.getParameterCount() == 1
+              && m.getParameterTypes()[0] == KeyValueBatch.class) {
+            return true;
+          }
+          if (m.getParameterCount() == 0 && PER_PAIR_METHODS.contains(m.getName())) {
+            overridesPerPair = true;
+          }
+        }
+        if (overridesPerPair) {
+          return false;
+        }
+      }
+      return false;
+    }
+  };
+
+  private final Key[] keys;
+  private final Value[] values;
+  private int size = 0;
+  private int limit;
+  private long bytes = 0;
+  private long byteLimit = Long.MAX_VALUE;
+
+  // used to read unfiltered pairs from a source; created lazily, once per level of iterator stack
+  private KeyValueBatch scratch = null;
+
+  public KeyValueBatch(int capacity) {
+    Preconditions.checkArgument(capacity > 0, "capacity must be positive : %s", capacity);
+    this.keys = new Key[capacity];
+    this.values = new Value[capacity];
+    this.limit = capacity;
+  }
+
+  public int capacity() {
+    return keys.length;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean isFull() {
+    return size >= limit || bytes >= byteLimit;
+  }
+
+  /**
+   * @return the number of pairs that can be added before the batch is full
+   */
+  public int remaining() {
+    return isFull() ? 0 : limit - size;
+  }
+
+  /**
+   * @return the total size of the keys and values in the batch
+   */
+  public long bytes() {
+    return bytes;
+  }
+
+  public Key getKey(int index) {
+    Objects.checkIndex(index, size);
+    return keys[index];
+  }
+
+  public Value getValue(int index) {
+    Objects.checkIndex(index, size);
+    return values[index];
+  }
+
+  /**
+   * Empties the batch, restoring its full capacity.
+   */
+  public void clear() {
+    clear(keys.length);
+  }
+
+  /**
+   * Empties the batch and limits the number of pairs that may be added until it is next cleared.
+   */
+  public void clear(int limit) {
+    clear(limit, Long.MAX_VALUE);
+  }
+
+  /**
+   * Empties the batch and limits the pairs that may be added until it is next cleared, both by
+   * number and by the total size of their keys and values. The batch is full once that size
+   * reaches the byte limit, so the pair that crosses it is the last one added.
+   */
+  public void clear(int limit, long byteLimit) {
+    Preconditions.checkArgument(limit > 0 && limit <= keys.length, "bad limit %s", limit);
+    Preconditions.checkArgument(byteLimit > 0, "bad byte limit %s", byteLimit);
+    for (int i = 0; i < size; i++) {
+      keys[i] = null;
+      values[i] = null;
+    }
+    this.size = 0;
+    this.limit = limit;
+    this.bytes = 0;
+    this.byteLimit = byteLimit;
+  }
+
+  /**
+   * Adds a copy of a key/value pair.
+   */
+  public void add(Key key, Value value) {
+    put(new Key(key), new Value(value));
+  }
+
+  private void put(Key key, Value value) {
+    Preconditions.checkState(size < limit, "batch is full");
+    keys[size] = key;
+    values[size] = value;
+    size++;
+    bytes += key.getSize() + value.getSize();
+  }
+
+  /**
+   * Reads pairs from the source until this batch is full or the source has no more data. Uses
+   * {@link BatchIterator#nextBatch(KeyValueBatch)} when the source supports it and one pair at a
+   * time otherwise.
+   */
+  public void fill(SortedKeyValueIterator<Key,Value> source) throws IOException {
+    if (source instanceof BatchIterator && BATCH_SAFE.get(source.getClass())) {
+      ((BatchIterator) source).nextBatch(this);
+    } else {
+      while (!isFull() && source.hasTop()) {
+        add(source.getTopKey(), source.getTopValue());
+        source.next();
+      }
+    }
+  }
+
+  /**
+   * Reads pairs from the source until this batch is full or the source has no more data, adding
+   * only the pairs accepted by the predicate. The source is read in batches no larger than the room
+   * left in this one, so the source is never advanced past a pair that did not fit.
+   */
+  public void fill(SortedKeyValueIterator<Key,Value> source, BiPredicate<Key,Value> accept)
+      throws IOException {
+    if (scratch == null) {
+      scratch = new KeyValueBatch(keys.length);
+    }
+
+    while (!isFull() && source.hasTop()) {
+      scratch.clear(remaining(), byteLimit - bytes);
+      scratch.fill(source);
+      if (scratch.isEmpty()) {
+        break;
+      }
+      for (int i = 0; i < scratch.size; i++) {
+        if (accept.test(scratch.keys[i], scratch.values[i])) {
+          put(scratch.keys[i], scratch.values[i]);
+        }
+      }
+    }
+    scratch.clear();
+  }
+}
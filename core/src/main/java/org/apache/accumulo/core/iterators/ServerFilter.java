@@ -37,7 +37,7 @@ import org.apache.accumulo.core.data.Value;
  *
  * @since 2.0
  */
-public abstract class ServerFilter extends ServerWrappingIterator {
+public abstract class ServerFilter extends ServerWrappingIterator implements BatchIterator {
 
   public ServerFilter(SortedKeyValueIterator<Key,Value> source) {
     super(source);
@@ -59,6 +59,18 @@ public abstract class ServerFilter extends ServerWrappingIterator {
     findTop();
   }
 
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    if (batch.isFull() || !source.hasTop())
+      return;
+
+    // the top was accepted when it was found
+    batch.add(source.getTopKey(), source.getTopValue());
+    source.next();
+    batch.fill(source, (k, v) -> k.isDeleted() || accept(k, v));
+    findTop();
+  }
+
   /**
    * Iterates over the source until an acceptable key/value pair is found.
    */
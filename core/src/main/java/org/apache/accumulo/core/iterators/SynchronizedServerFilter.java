@@ -35,7 +35,7 @@ import org.apache.accumulo.core.data.Value;
  *
  * @since 2.0
  */
-public abstract class SynchronizedServerFilter implements SortedKeyValueIterator<Key,Value> {
+public abstract class SynchronizedServerFilter implements BatchIterator {
 
   protected final SortedKeyValueIterator<Key,Value> source;
 
@@ -59,6 +59,18 @@ public abstract class SynchronizedServerFilter implements SortedKeyValueIterator
     findTop();
   }
 
+  @Override
+  public synchronized void nextBatch(KeyValueBatch batch) throws IOException {
+    if (batch.isFull() || !source.hasTop())
+      return;
+
+    // the top was accepted when it was found
+    batch.add(source.getTopKey(), source.getTopValue());
+    source.next();
+    batch.fill(source, (k, v) -> k.isDeleted() || accept(k, v));
+    findTop();
+  }
+
   @Override
   public synchronized Key getTopKey() {
     return source.getTopKey();
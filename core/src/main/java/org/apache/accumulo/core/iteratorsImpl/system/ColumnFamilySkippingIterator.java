@@ -30,12 +30,14 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.BatchIterator;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.KeyValueBatch;
 import org.apache.accumulo.core.iterators.ServerSkippingIterator;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
 public class ColumnFamilySkippingIterator extends ServerSkippingIterator
-    implements InterruptibleIterator {
+    implements InterruptibleIterator, BatchIterator {
 
   protected Set<ByteSequence> colFamSet = null;
   protected TreeSet<ByteSequence> sortedColFams = null;
@@ -92,6 +94,21 @@ public class ColumnFamilySkippingIterator extends ServerSkippingIterator
       }
   }
 
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    if (!inclusive && (colFamSet == null || colFamSet.isEmpty())) {
+      // nothing is skipped, so the batch can be read straight from the source
+      batch.fill(source);
+    } else {
+      // keep consuming one pair at a time so large runs of unwanted families are seeked over
+      while (!batch.isFull() && source.hasTop()) {
+        batch.add(source.getTopKey(), source.getTopValue());
+        source.next();
+        consume();
+      }
+    }
+  }
+
   private void reseek(Key key) throws IOException {
     if (range.afterEndKey(key)) {
       range = new Range(range.getEndKey(), true, range.getEndKey(), range.isEndKeyInclusive());
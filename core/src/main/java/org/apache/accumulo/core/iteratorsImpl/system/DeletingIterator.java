@@ -21,6 +21,7 @@ package org.apache.accumulo.core.iteratorsImpl.system;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.BiPredicate;
 
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
@@ -29,12 +30,14 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.BatchIterator;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.IteratorUtil;
+import org.apache.accumulo.core.iterators.KeyValueBatch;
 import org.apache.accumulo.core.iterators.ServerWrappingIterator;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
-public class DeletingIterator extends ServerWrappingIterator {
+public class DeletingIterator extends ServerWrappingIterator implements BatchIterator {
   private boolean propogateDeletes;
   private Key workKey = new Key();
 
@@ -66,6 +69,68 @@ public class DeletingIterator extends ServerWrappingIterator {
     findTop();
   }
 
+  /**
+   * Accepts the pairs {@link #next()} would return, remembering the last delete so the versions it
+   * hides can be dropped, even when they arrive in a later batch.
+   */
+  private class DeleteSkipper implements BiPredicate<Key,Value> {
+    private final Key deleted = new Key();
+    private boolean skipping = false;
+
+    void sawDelete(Key key) {
+      deleted.set(key);
+      skipping = true;
+    }
+
+    boolean hides(Key key) {
+      return skipping && key.equals(deleted, PartialKey.ROW_COLFAM_COLQUAL_COLVIS);
+    }
+
+    @Override
+    public boolean test(Key k, Value v) {
+      if (hides(k))
+        return false;
+
+      skipping = false;
+      if (k.isDeleted()) {
+        sawDelete(k);
+        return propogateDeletes;
+      }
+      return true;
+    }
+  }
+
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    if (batch.isFull() || !source.hasTop())
+      return;
+
+    if (propogateDeletes) {
+      // deletes are returned to be compacted or scanned by the iterators above, read them one pair
+      // at a time so the batch holds exactly what next() would return
+      while (!batch.isFull() && hasTop()) {
+        batch.add(getTopKey(), getTopValue());
+        next();
+      }
+      return;
+    }
+
+    DeleteSkipper skipper = new DeleteSkipper();
+
+    Key top = source.getTopKey();
+    batch.add(top, source.getTopValue());
+    if (top.isDeleted())
+      skipper.sawDelete(top);
+    source.next();
+
+    batch.fill(source, skipper);
+
+    while (source.hasTop() && skipper.hides(source.getTopKey())) {
+      source.next();
+    }
+    findTop();
+  }
+
   @Override
   public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
       throws IOException {
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iteratorsImpl.system;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.security.Authorizations;
+
+/**
+ * A bounded cache of column visibility evaluation results for a single set of authorizations. A
+ * cache is intended to be shared by all of the {@link VisibilityFilter} instances created for a
+ * scan session, so that an expression evaluated while reading one tablet or range does not need to
+ * be parsed and evaluated again for the next.
+ *
+ * <p>
+ * The cache is a direct mapped table indexed by a hash of the raw visibility bytes. Lookups hash
+ * and compare the bytes in place and do not allocate. A colliding insert simply replaces the
+ * previous entry. Entries are immutable, so the table may be read and written by multiple threads
+ * without locking; a lost race only costs a re-evaluation.
+ */
+public class VisibilityCache {
+
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private static class Entry {
+    final byte[] visibility;
+    final int hash;
+    final boolean accepted;
+
+    Entry(byte[] visibility, int hash, boolean accepted) {
+      this.visibility = visibility;
+      this.hash = hash;
+      this.accepted = accepted;
+    }
+  }
+
+  private final Authorizations authorizations;
+  private final Entry[] table;
+  private final int mask;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public VisibilityCache(Authorizations authorizations) {
+    this(authorizations, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity
+   *          number of slots in the cache, rounded up to a power of two
+   */
+  public VisibilityCache(Authorizations authorizations, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive : " + capacity);
+    }
+    this.authorizations = authorizations;
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.table = new Entry[size];
+    this.mask = size - 1;
+  }
+
+  /**
+   * @return the authorizations the cached results were computed against
+   */
+  public Authorizations getAuthorizations() {
+    return authorizations;
+  }
+
+  private static int hash(ByteSequence bs) {
+    int h = 1;
+    if (bs.isBackedByArray()) {
+      byte[] data = bs.getBackingArray();
+      int end = bs.offset() + bs.length();
+      for (int i = bs.offset(); i < end; i++) {
+        h = 31 * h + data[i];
+      }
+    } else {
+      for (int i = 0; i < bs.length(); i++) {
+        h = 31 * h + bs.byteAt(i);
+      }
+    }
+    // spread the high bits so that the mask does not discard them
+    return h ^ (h >>> 16);
+  }
+
+  private static boolean matches(Entry e, ByteSequence bs) {
+    if (e.visibility.length != bs.length()) {
+      return false;
+    }
+    if (bs.isBackedByArray()) {
+      return Arrays.equals(e.visibility, 0, e.visibility.length, bs.getBackingArray(), bs.offset(),
+          bs.offset() + bs.length());
+    }
+    for (int i = 0; i < e.visibility.length; i++) {
+      if (e.visibility[i] != bs.byteAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the cached evaluation result for the visibility, or null if it is not cached
+   */
+  public Boolean get(ByteSequence visibility) {
+    int h = hash(visibility);
+    Entry e = table[h & mask];
+    if (e != null && e.hash == h && matches(e, visibility)) {
+      hits.increment();
+      return e.accepted;
+    }
+    misses.increment();
+    return null;
+  }
+
+  public void put(ByteSequence visibility, boolean accepted) {
+    int h = hash(visibility);
+    // toArray() may return the backing array, which belongs to the key
+    byte[] copy = new byte[visibility.length()];
+    for (int i = 0; i < copy.length; i++) {
+      copy[i] = visibility.byteAt(i);
+    }
+    table[h & mask] = new Entry(copy, h, accepted);
+  }
+
+  public int capacity() {
+    return table.length;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+}
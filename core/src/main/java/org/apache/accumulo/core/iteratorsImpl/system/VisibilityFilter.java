@@ -30,7 +30,6 @@ import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.accumulo.core.security.VisibilityEvaluator;
 import org.apache.accumulo.core.security.VisibilityParseException;
 import org.apache.accumulo.core.util.BadArgumentException;
-import org.apache.commons.collections4.map.LRUMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,23 +44,24 @@ import org.slf4j.LoggerFactory;
 public class VisibilityFilter extends SynchronizedServerFilter {
   protected VisibilityEvaluator ve;
   protected ByteSequence defaultVisibility;
-  protected LRUMap<ByteSequence,Boolean> cache;
+  protected VisibilityCache cache;
   protected Authorizations authorizations;
 
   private static final Logger log = LoggerFactory.getLogger(VisibilityFilter.class);
 
   private VisibilityFilter(SortedKeyValueIterator<Key,Value> iterator,
-      Authorizations authorizations, byte[] defaultVisibility) {
+      Authorizations authorizations, byte[] defaultVisibility, VisibilityCache cache) {
     super(iterator);
     this.ve = new VisibilityEvaluator(authorizations);
     this.authorizations = authorizations;
     this.defaultVisibility = new ArrayByteSequence(defaultVisibility);
-    this.cache = new LRUMap<>(1000);
+    this.cache = cache;
   }
 
   @Override
   public synchronized SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
-    return new VisibilityFilter(source.deepCopy(env), authorizations, defaultVisibility.toArray());
+    return new VisibilityFilter(source.deepCopy(env), authorizations, defaultVisibility.toArray(),
+        cache);
   }
 
   @Override
@@ -109,10 +109,26 @@ public class VisibilityFilter extends SynchronizedServerFilter {
 
   public static SortedKeyValueIterator<Key,Value> wrap(SortedKeyValueIterator<Key,Value> source,
       Authorizations authorizations, byte[] defaultVisibility) {
+    return wrap(source, authorizations, defaultVisibility, null);
+  }
+
+  /**
+   * Wraps the source with a visibility filter that stores evaluation results in the given cache.
+   * Sharing a cache across the filters created for a scan session avoids re-evaluating the same
+   * expressions for every tablet and range read by the session.
+   *
+   * @param cache
+   *          cache computed against the same authorizations, or null to use a private cache
+   */
+  public static SortedKeyValueIterator<Key,Value> wrap(SortedKeyValueIterator<Key,Value> source,
+      Authorizations authorizations, byte[] defaultVisibility, VisibilityCache cache) {
     if (authorizations.isEmpty() && defaultVisibility.length == 0) {
       return new EmptyAuthsVisibilityFilter(source);
     } else {
-      return new VisibilityFilter(source, authorizations, defaultVisibility);
+      if (cache == null || !cache.getAuthorizations().equals(authorizations)) {
+        cache = new VisibilityCache(authorizations);
+      }
+      return new VisibilityFilter(source, authorizations, defaultVisibility, cache);
     }
   }
 }
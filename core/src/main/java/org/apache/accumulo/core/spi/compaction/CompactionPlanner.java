@@ -118,6 +118,17 @@ public interface CompactionPlanner {
      */
     Map<String,String> getExecutionHints();
 
+    /**
+     * @return the recent rate, in key values per second, at which scans read the tablet. Each scan
+     *         reads from every file of the tablet, so this rate times the number of files is a
+     *         measure of the work that compacting the tablet would save. Returns 0 when the rate is
+     *         not known.
+     * @since 2.1.0
+     */
+    default double getScanRate() {
+      return 0;
+    }
+
     /**
      * @return A compaction plan builder that must be used to create a compaction plan.
      */
@@ -61,7 +61,12 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  * field should look like
  * {@code [{"name":"executor1","maxSize":"100M","numThreads":3},{"name":"executor2","maxSize":"500M","numThreads":3},{"executor3":"huge","numThreads":3}]}.
  * This configuration would run compactions less than 100M on executor1, compactions less than 500M
- * on executor2, and all other on executor3.
+ * on executor2, and all other on executor3. An executor may also have a queue field, its
+ * compactions then run in compactor processes started for that queue instead of in the tablet
+ * server. For example {@code {"name":"huge","numThreads":2,"queue":"q1"}}. A compactor limits the
+ * reads and writes of each job to the service's {@code rate.limit}, as adjusted by the tablet
+ * server's compaction rate policy when the job was queued. Later changes to the rate do not reach a
+ * running job, and the limit applies to each job rather than to all of the service's jobs.
  * <li>{@code tserver.compaction.major.service.<service>.opts.maxOpen} This determines the maximum
  * number of files that will be included in a single compaction.
  * </ul>
@@ -78,6 +83,7 @@ public class DefaultCompactionPlanner implements CompactionPlanner {
     String name;
     String maxSize;
     int numThreads;
+    String queue;
   }
 
   private static class Executor {
@@ -112,8 +118,14 @@ public class DefaultCompactionPlanner implements CompactionPlanner {
     List<Executor> tmpExec = new ArrayList<>();
 
     for (ExecutorConfig executorConfig : execConfigs) {
-      var ceid = params.getExecutorManager().createExecutor(executorConfig.name,
-          executorConfig.numThreads);
+      CompactionExecutorId ceid;
+      if (executorConfig.queue == null) {
+        ceid = params.getExecutorManager().createExecutor(executorConfig.name,
+            executorConfig.numThreads);
+      } else {
+        ceid = params.getExecutorManager().createExternalExecutor(executorConfig.name,
+            executorConfig.numThreads, executorConfig.queue);
+      }
       Long maxSize = executorConfig.maxSize == null ? null
           : ConfigurationTypeHelper.getFixedMemoryAsBytes(executorConfig.maxSize);
       tmpExec.add(new Executor(ceid, maxSize));
@@ -157,12 +169,13 @@ public class DefaultCompactionPlanner implements CompactionPlanner {
 
       Set<CompactableFile> filesCopy = new HashSet<>(params.getCandidates());
 
+      double ratio = getRatio(params);
+
       long maxSizeToCompact = getMaxSizeToCompact(params.getKind());
 
       Collection<CompactableFile> group;
       if (params.getRunningCompactions().isEmpty()) {
-        group = findMapFilesToCompact(filesCopy, params.getRatio(), maxFilesToCompact,
-            maxSizeToCompact);
+        group = findMapFilesToCompact(filesCopy, ratio, maxFilesToCompact, maxSizeToCompact);
 
         if (!group.isEmpty() && group.size() < params.getCandidates().size()
             && params.getCandidates().size() <= maxFilesToCompact
@@ -176,8 +189,8 @@ public class DefaultCompactionPlanner implements CompactionPlanner {
           filesCopy.removeAll(group);
           filesCopy.add(getExpected(group, 0));
 
-          if (findMapFilesToCompact(filesCopy, params.getRatio(), maxFilesToCompact,
-              maxSizeToCompact).isEmpty()) {
+          if (findMapFilesToCompact(filesCopy, ratio, maxFilesToCompact, maxSizeToCompact)
+              .isEmpty()) {
             // The next possible compaction does not meet the compaction ratio, so compact
             // everything.
             group = Set.copyOf(params.getCandidates());
@@ -199,8 +212,7 @@ public class DefaultCompactionPlanner implements CompactionPlanner {
 
         filesCopy.addAll(expectedFiles);
 
-        group = findMapFilesToCompact(filesCopy, params.getRatio(), maxFilesToCompact,
-            maxSizeToCompact);
+        group = findMapFilesToCompact(filesCopy, ratio, maxFilesToCompact, maxSizeToCompact);
 
         if (!Collections.disjoint(group, expectedFiles)) {
           // file produced by running compaction will eventually compact with existing files, so
@@ -232,7 +244,18 @@ public class DefaultCompactionPlanner implements CompactionPlanner {
     }
   }
 
-  private static long createPriority(PlanningParameters params) {
+  /**
+   * @return the compaction ratio used to find files to compact. Subclasses may override this to
+   *         compact some tablets more or less aggressively than the table's ratio.
+   */
+  protected double getRatio(PlanningParameters params) {
+    return params.getRatio();
+  }
+
+  /**
+   * @return the priority of a job planned for a tablet, jobs with a higher priority run first.
+   */
+  protected long createPriority(PlanningParameters params) {
     return CompactionJobPrioritizer.createPriority(params.getKind(), params.getAll().size());
   }
 
@@ -31,4 +31,14 @@ public interface ExecutorManager {
    * Create a thread pool executor within a compaction service.
    */
   public CompactionExecutorId createExecutor(String name, int threads);
+
+  /**
+   * Create an executor within a compaction service whose compactions run in compactor processes
+   * that take work from the named queue, instead of in the tablet server. The threads only wait on
+   * compactors, they determine how many of the executor's compactions a tablet server hands to the
+   * queue at once.
+   *
+   * @since 2.1.0
+   */
+  CompactionExecutorId createExternalExecutor(String name, int threads, String queue);
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.spi.compaction;
+
+import java.util.Map;
+
+import org.apache.accumulo.core.util.compaction.CompactionJobPrioritizer;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A {@link DefaultCompactionPlanner} that weighs compactions by how much they would reduce the work
+ * of scans. Every scan of a tablet merges all of its files, so the read cost of a tablet is
+ * estimated as its scan rate times its number of files.
+ *
+ * <ul>
+ * <li>Jobs for tablets that are scanned are prioritized by read cost instead of only by file count,
+ * so read hot tablets with many files are compacted first.
+ * <li>Tablets scanned at or above the hot scan rate are compacted using the smaller of the table's
+ * compaction ratio and the hot ratio, keeping their file count lower.
+ * <li>System compactions of tablets scanned below the cold scan rate, like tablets that are only
+ * written, are deferred until the tablet has the cold max files. Deferred tablets are planned again
+ * periodically, so they are compacted once scans start reading them. User, selector, and chop
+ * compactions are never deferred.
+ * </ul>
+ *
+ * <p>
+ * In addition to the options of {@link DefaultCompactionPlanner}, the following options are
+ * supported. Replace {@code <service>} with the name of the compaction service you are configuring.
+ *
+ * <ul>
+ * <li>{@code tserver.compaction.major.service.<service>.opts.hotScanRate} The number of key values
+ * per second scans must read from a tablet for it to be hot. Defaults to 1000.
+ * <li>{@code tserver.compaction.major.service.<service>.opts.hotRatio} The compaction ratio used
+ * for hot tablets when it is smaller than the table's ratio. Defaults to 2.
+ * <li>{@code tserver.compaction.major.service.<service>.opts.coldScanRate} The number of key values
+ * per second scans read from a tablet below which it is cold. Defaults to 1.
+ * <li>{@code tserver.compaction.major.service.<service>.opts.coldMaxFiles} The number of files a
+ * cold tablet can have before its system compactions are no longer deferred. Defaults to 20.
+ * </ul>
+ *
+ * @since 2.1.0
+ * @see org.apache.accumulo.core.spi.compaction
+ */
+public class ReadCostCompactionPlanner extends DefaultCompactionPlanner {
+
+  private double hotScanRate;
+  private double hotRatio;
+  private double coldScanRate;
+  private int coldMaxFiles;
+
+  @Override
+  public void init(InitParameters params) {
+    super.init(params);
+
+    Map<String,String> options = params.getOptions();
+    hotScanRate = Double.parseDouble(options.getOrDefault("hotScanRate", "1000"));
+    hotRatio = Double.parseDouble(options.getOrDefault("hotRatio", "2"));
+    coldScanRate = Double.parseDouble(options.getOrDefault("coldScanRate", "1"));
+    coldMaxFiles = Integer.parseInt(options.getOrDefault("coldMaxFiles", "20"));
+
+    Preconditions.checkArgument(hotScanRate > 0, "hotScanRate must be positive : %s", hotScanRate);
+    Preconditions.checkArgument(hotRatio >= 1, "hotRatio must be at least 1 : %s", hotRatio);
+    Preconditions.checkArgument(coldScanRate <= hotScanRate,
+        "coldScanRate %s must not be larger than hotScanRate %s", coldScanRate, hotScanRate);
+  }
+
+  @Override
+  public CompactionPlan makePlan(PlanningParameters params) {
+    if (params.getKind() == CompactionKind.SYSTEM && params.getScanRate() < coldScanRate
+        && params.getAll().size() < coldMaxFiles) {
+      // nothing reads the tablet, so extra files cost nothing yet
+      return params.createPlanBuilder().build();
+    }
+
+    return super.makePlan(params);
+  }
+
+  @Override
+  protected double getRatio(PlanningParameters params) {
+    if (params.getScanRate() >= hotScanRate) {
+      return Math.min(params.getRatio(), hotRatio);
+    }
+    return params.getRatio();
+  }
+
+  @Override
+  protected long createPriority(PlanningParameters params) {
+    // the number of files, weighed by how often scans have to merge them
+    double readCost = params.getAll().size() * (1 + params.getScanRate() / hotScanRate);
+    return CompactionJobPrioritizer.createPriority(params.getKind(),
+        (int) Math.min(Integer.MAX_VALUE, Math.round(readCost)));
+  }
+}
@@ -41,6 +41,7 @@ public class BatchWriterConfigTest {
     long expectedMaxLatency = 120000L;
     long expectedTimeout = Long.MAX_VALUE;
     int expectedMaxWriteThreads = 3;
+    int expectedMaxInFlightPerServer = 2;
     Durability expectedDurability = Durability.DEFAULT;
 
     BatchWriterConfig defaults = new BatchWriterConfig();
@@ -48,6 +49,7 @@ public class BatchWriterConfigTest {
     assertEquals(expectedMaxLatency, defaults.getMaxLatency(TimeUnit.MILLISECONDS));
     assertEquals(expectedTimeout, defaults.getTimeout(TimeUnit.MILLISECONDS));
     assertEquals(expectedMaxWriteThreads, defaults.getMaxWriteThreads());
+    assertEquals(expectedMaxInFlightPerServer, defaults.getMaxInFlightPerServer());
     assertEquals(expectedDurability, defaults.getDurability());
   }
 
@@ -58,12 +60,14 @@ public class BatchWriterConfigTest {
     bwConfig.setMaxLatency(22, TimeUnit.HOURS);
     bwConfig.setTimeout(33, TimeUnit.DAYS);
     bwConfig.setMaxWriteThreads(42);
+    bwConfig.setMaxInFlightPerServer(5);
     bwConfig.setDurability(Durability.NONE);
 
     assertEquals(1123581321L, bwConfig.getMaxMemory());
     assertEquals(22 * 60 * 60 * 1000L, bwConfig.getMaxLatency(TimeUnit.MILLISECONDS));
     assertEquals(33 * 24 * 60 * 60 * 1000L, bwConfig.getTimeout(TimeUnit.MILLISECONDS));
     assertEquals(42, bwConfig.getMaxWriteThreads());
+    assertEquals(5, bwConfig.getMaxInFlightPerServer());
     assertEquals(Durability.NONE, bwConfig.getDurability());
   }
 
@@ -130,6 +134,12 @@ public class BatchWriterConfigTest {
     bwConfig.setMaxWriteThreads(-1);
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroMaxInFlightPerServer() {
+    BatchWriterConfig bwConfig = new BatchWriterConfig();
+    bwConfig.setMaxInFlightPerServer(0);
+  }
+
   @Test
   public void testSerialize() throws IOException {
     // make sure we aren't testing defaults
@@ -137,6 +147,7 @@ public class BatchWriterConfigTest {
     assertNotEquals(7654321L, bwDefaults.getMaxLatency(TimeUnit.MILLISECONDS));
     assertNotEquals(9898989L, bwDefaults.getTimeout(TimeUnit.MILLISECONDS));
     assertNotEquals(42, bwDefaults.getMaxWriteThreads());
+    assertNotEquals(7, bwDefaults.getMaxInFlightPerServer());
     assertNotEquals(1123581321L, bwDefaults.getMaxMemory());
     assertNotEquals(Durability.FLUSH, bwDefaults.getDurability());
 
@@ -145,6 +156,7 @@ public class BatchWriterConfigTest {
     bwConfig.setMaxLatency(7654321L, TimeUnit.MILLISECONDS);
     bwConfig.setTimeout(9898989L, TimeUnit.MILLISECONDS);
     bwConfig.setMaxWriteThreads(42);
+    bwConfig.setMaxInFlightPerServer(7);
     bwConfig.setMaxMemory(1123581321L);
     bwConfig.setDurability(Durability.FLUSH);
     byte[] bytes = createBytes(bwConfig);
@@ -170,6 +182,13 @@ public class BatchWriterConfigTest {
     bwConfig.setDurability(Durability.LOG);
     bytes = createBytes(bwConfig);
     assertEquals("     e#durability=LOG", new String(bytes, UTF_8));
+
+    // test human-readable max in flight per server
+    bwConfig = new BatchWriterConfig();
+    bwConfig.setMaxInFlightPerServer(7);
+    bytes = createBytes(bwConfig);
+    assertEquals("     m#maxInFlightPerServer=7", new String(bytes, UTF_8));
+    checkBytes(bwConfig, bytes);
   }
 
   @Test
@@ -183,6 +202,10 @@ public class BatchWriterConfigTest {
     cfg2.setDurability(Durability.FLUSH);
     assertNotEquals(cfg1, cfg2);
     assertNotEquals(cfg1.hashCode(), cfg2.hashCode());
+    cfg2 = new BatchWriterConfig();
+    cfg2.setMaxInFlightPerServer(4);
+    assertNotEquals(cfg1, cfg2);
+    assertNotEquals(cfg1.hashCode(), cfg2.hashCode());
   }
 
   @Test
@@ -209,6 +232,7 @@ public class BatchWriterConfigTest {
     cfg2.setMaxMemory(5858);
     cfg2.setDurability(Durability.LOG);
     cfg2.setMaxLatency(456, TimeUnit.MILLISECONDS);
+    cfg2.setMaxInFlightPerServer(4);
 
     assertEquals(Durability.DEFAULT, cfg1.getDurability());
 
@@ -218,6 +242,7 @@ public class BatchWriterConfigTest {
     assertEquals(Durability.LOG, merged.getDurability());
     assertEquals(456, merged.getMaxLatency(TimeUnit.MILLISECONDS));
     assertEquals(3, merged.getMaxWriteThreads());
+    assertEquals(4, merged.getMaxInFlightPerServer());
   }
 
   private byte[] createBytes(BatchWriterConfig bwConfig) throws IOException {
@@ -237,6 +262,8 @@ public class BatchWriterConfigTest {
     assertEquals(bwConfig.getTimeout(TimeUnit.MILLISECONDS),
         createdConfig.getTimeout(TimeUnit.MILLISECONDS));
     assertEquals(bwConfig.getMaxWriteThreads(), createdConfig.getMaxWriteThreads());
+    assertEquals(bwConfig.getMaxInFlightPerServer(), createdConfig.getMaxInFlightPerServer());
+    assertEquals(bwConfig, createdConfig);
   }
 
   @Test
@@ -244,7 +271,7 @@ public class BatchWriterConfigTest {
     // count the number in case one gets added to in one place but not the other
     ClientProperty[] bwProps = Arrays.stream(ClientProperty.values())
         .filter(c -> c.name().startsWith("BATCH_WRITER")).toArray(ClientProperty[]::new);
-    assertEquals(5, bwProps.length);
+    assertEquals(6, bwProps.length);
   }
 
 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class LookupWorkTest {
+
+  private static final KeyExtent E1 = new KeyExtent(TableId.of("1"), new Text("m"), null);
+  private static final KeyExtent E2 = new KeyExtent(TableId.of("1"), null, new Text("m"));
+
+  private static List<Range> ranges(String... rows) {
+    List<Range> ranges = new ArrayList<>();
+    for (String row : rows) {
+      ranges.add(new Range(row));
+    }
+    return ranges;
+  }
+
+  private static int count(LookupWork.Chunk chunk) {
+    return TabletServerBatchReaderIterator.sumSizes(chunk.tablets.values());
+  }
+
+  @Test
+  public void testChunksShrink() {
+    Map<String,Map<KeyExtent,List<Range>>> binned = new HashMap<>();
+    binned.put("s1", Map.of(E1, ranges("a", "b", "c", "d", "e", "f", "g", "h")));
+
+    LookupWork work = new LookupWork(binned, 2);
+    assertEquals(8, work.getRemaining());
+
+    // each chunk is half of what remains
+    LookupWork.Chunk c1 = work.take();
+    assertEquals("s1", c1.server);
+    assertEquals(ranges("a", "b", "c", "d"), c1.tablets.get(E1));
+    assertEquals(ranges("e", "f"), work.take().tablets.get(E1));
+    assertEquals(ranges("g"), work.take().tablets.get(E1));
+    assertEquals(ranges("h"), work.take().tablets.get(E1));
+    assertEquals(0, work.getRemaining());
+    assertNull(work.take());
+  }
+
+  @Test
+  public void testLargestServerFirst() {
+    Map<String,Map<KeyExtent,List<Range>>> binned = new HashMap<>();
+    binned.put("s1", Map.of(E1, ranges("a")));
+    binned.put("s2", Map.of(E2, ranges("n", "o", "p"), E1, ranges("b", "c", "d")));
+
+    LookupWork work = new LookupWork(binned, 4);
+    LookupWork.Chunk chunk = work.take();
+    assertEquals("s2", chunk.server);
+    assertEquals(2, count(chunk));
+    chunk = work.take();
+    assertEquals("s2", chunk.server);
+    assertEquals(2, count(chunk));
+    assertEquals(3, work.getRemaining());
+  }
+
+  @Test
+  public void testSingleThread() {
+    Map<String,Map<KeyExtent,List<Range>>> binned = new HashMap<>();
+    binned.put("s1", Map.of(E1, ranges("a")));
+    binned.put("s2", Map.of(E2, ranges("n", "o", "p"), E1, ranges("b", "c", "d")));
+
+    // with one thread each server is looked up with a single request, as before work stealing
+    LookupWork work = new LookupWork(binned, 1);
+    LookupWork.Chunk chunk = work.take();
+    assertEquals("s2", chunk.server);
+    assertEquals(binned.get("s2"), chunk.tablets);
+    chunk = work.take();
+    assertEquals("s1", chunk.server);
+    assertEquals(binned.get("s1"), chunk.tablets);
+    assertNull(work.take());
+  }
+}
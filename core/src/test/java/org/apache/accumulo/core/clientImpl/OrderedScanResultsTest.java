@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class OrderedScanResultsTest {
+
+  private static final KeyExtent E1 = new KeyExtent(TableId.of("1"), new Text("m"), null);
+  private static final KeyExtent E2 = new KeyExtent(TableId.of("1"), null, new Text("m"));
+
+  private static List<Entry<Key,Value>> entries(String... rows) {
+    List<Entry<Key,Value>> entries = new ArrayList<>();
+    for (String row : rows) {
+      entries.add(new SimpleImmutableEntry<>(new Key(row), new Value(row)));
+    }
+    return entries;
+  }
+
+  private static List<String> rows(List<Entry<Key,Value>> entries) {
+    List<String> rows = new ArrayList<>();
+    for (Entry<Key,Value> entry : entries) {
+      rows.add(entry.getKey().getRow().toString());
+    }
+    return rows;
+  }
+
+  @Test
+  public void testOrder() throws Exception {
+    Range r1 = new Range("a", "f");
+    Range r2 = new Range("g", "z");
+    OrderedScanResults results = new OrderedScanResults();
+
+    // r2 spans two tablets
+    Range r2a = new Range("g", "m");
+    Range r2b = new Range(new Key("m").followingKey(PartialKey.ROW), true,
+        new Key("z").followingKey(PartialKey.ROW), false);
+    results.scanning(Map.of(E1, List.of(r1, r2a)));
+    results.scanning(Map.of(E2, List.of(r2b)));
+
+    // entries in the first range being scanned are returned as they arrive
+    results.add("s2", entries("n", "p"));
+    results.add("s1", entries("h", "b", "c"));
+    assertEquals(List.of("b", "c"), rows(results.poll(0, TimeUnit.MILLISECONDS)));
+    assertNull(results.poll(0, TimeUnit.MILLISECONDS));
+
+    // r2b completes first, but nothing after r1 is returned until r1 does
+    results.scanned(Map.of(E2, List.of(r2b)));
+    results.add("s1", entries("d"));
+    assertEquals(List.of("d"), rows(results.poll(0, TimeUnit.MILLISECONDS)));
+    results.add("s1", entries("i"));
+    assertNull(results.poll(0, TimeUnit.MILLISECONDS));
+    results.scanned(Map.of(E1, List.of(r1, r2a)));
+
+    assertEquals(List.of("h", "i", "n", "p"), rows(results.poll(0, TimeUnit.MILLISECONDS)));
+    assertSame(ScanResultBuffer.LAST_BATCH, results.poll(0, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testMergeRuns() throws Exception {
+    // one tablet range spanning the table, read in batches that each hold a sorted run
+    Range r1 = new Range();
+    OrderedScanResults results = new OrderedScanResults();
+    results.scanning(Map.of(E1, List.of(r1)));
+
+    results.add("s1", entries("a", "c"));
+    assertEquals(List.of("a", "c"), rows(results.poll(0, TimeUnit.MILLISECONDS)));
+    results.add("s1", entries("d", "e", "g"));
+    results.add("s1", entries("h"));
+    assertEquals(List.of("d", "e", "g", "h"), rows(results.poll(0, TimeUnit.MILLISECONDS)));
+    results.scanned(Map.of(E1, List.of(r1)));
+    assertSame(ScanResultBuffer.LAST_BATCH, results.poll(0, TimeUnit.MILLISECONDS));
+
+    // runs for ranges of several tablets are merged once the earlier ranges complete
+    Range ra = new Range("a", "f");
+    Range rb = new Range("g", "m");
+    Range rc = new Range("n", "z");
+    results = new OrderedScanResults();
+    results.scanning(Map.of(E1, List.of(ra, rb, rc)));
+    results.add("s1", entries("o", "q", "h", "j", "b"));
+    results.add("s2", entries("p", "i", "k"));
+    assertEquals(List.of("b"), rows(results.poll(0, TimeUnit.MILLISECONDS)));
+    results.scanned(Map.of(E1, List.of(ra, rb, rc)));
+    assertEquals(List.of("h", "i", "j", "k", "o", "p", "q"),
+        rows(results.poll(0, TimeUnit.MILLISECONDS)));
+    assertSame(ScanResultBuffer.LAST_BATCH, results.poll(0, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testRetry() throws Exception {
+    Range r1 = new Range("a", "f");
+    Range r2 = new Range("g", "m");
+    OrderedScanResults results = new OrderedScanResults();
+
+    results.scanning(Map.of(E1, List.of(r1, r2)));
+    results.add("s1", entries("a", "b", "h"));
+    assertEquals(List.of("a", "b"), rows(results.poll(0, TimeUnit.MILLISECONDS)));
+
+    // the lookup failed part way, the rest of the range is retried
+    Range rest = new Range(new Key("b"), false, new Key("f").followingKey(PartialKey.ROW), false);
+    results.scanning(Map.of(E1, List.of(rest)));
+    results.scanned(Map.of(E1, List.of(r1, r2)));
+    assertNull(results.poll(0, TimeUnit.MILLISECONDS));
+
+    results.add("s2", entries("e"));
+    assertEquals(List.of("e"), rows(results.poll(0, TimeUnit.MILLISECONDS)));
+    results.scanned(Map.of(E1, List.of(rest)));
+    assertEquals(List.of("h"), rows(results.poll(0, TimeUnit.MILLISECONDS)));
+    assertSame(ScanResultBuffer.LAST_BATCH, results.poll(0, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testFinishEarly() throws Exception {
+    Range r1 = new Range("a", "f");
+    OrderedScanResults results = new OrderedScanResults();
+    results.scanning(Map.of(E1, List.of(r1)));
+    results.finish();
+    assertSame(ScanResultBuffer.LAST_BATCH, results.poll(1, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+public class ServerResultChannelsTest {
+
+  private static List<Entry<Key,Value>> batch(String row) {
+    return List.of(new SimpleImmutableEntry<>(new Key(row), new Value(row)));
+  }
+
+  @Test
+  public void testChannels() throws Exception {
+    ServerResultChannels results = new ServerResultChannels(4);
+    assertNull(results.poll(0, TimeUnit.MILLISECONDS));
+
+    List<Entry<Key,Value>> a1 = batch("a1");
+    List<Entry<Key,Value>> a2 = batch("a2");
+    List<Entry<Key,Value>> b1 = batch("b1");
+    results.add("s1", a1);
+    results.add("s1", a2);
+    results.add("s2", b1);
+    results.finish();
+
+    // batches from a server are returned in order, servers are polled round robin
+    List<Entry<Key,Value>> first = results.poll(0, TimeUnit.MILLISECONDS);
+    List<Entry<Key,Value>> second = results.poll(0, TimeUnit.MILLISECONDS);
+    List<Entry<Key,Value>> third = results.poll(0, TimeUnit.MILLISECONDS);
+    assertEquals(Set.of(a1, b1), new HashSet<>(List.of(first, second)));
+    assertSame(a2, third);
+
+    assertSame(ScanResultBuffer.LAST_BATCH, results.poll(0, TimeUnit.MILLISECONDS));
+    assertSame(ScanResultBuffer.LAST_BATCH, results.poll(0, TimeUnit.MILLISECONDS));
+  }
+}
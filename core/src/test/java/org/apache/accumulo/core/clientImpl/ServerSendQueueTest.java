@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.apache.accumulo.core.clientImpl.TabletLocator.TabletServerMutations;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class ServerSendQueueTest {
+
+  private static final KeyExtent E1 = new KeyExtent(TableId.of("1"), new Text("m"), null);
+  private static final KeyExtent E2 = new KeyExtent(TableId.of("1"), null, new Text("m"));
+
+  private static TabletServerMutations<Mutation> binned(KeyExtent extent, String... rows) {
+    TabletServerMutations<Mutation> tsm = new TabletServerMutations<>("session");
+    for (String row : rows) {
+      Mutation m = new Mutation(row);
+      m.put("cf", "cq", "v");
+      tsm.addMutation(extent, m);
+    }
+    return tsm;
+  }
+
+  @Test
+  public void testWindow() {
+    ServerSendQueue queue = new ServerSendQueue(2, 1);
+
+    queue.add(binned(E1, "a"));
+    queue.add(binned(E2, "n"));
+    long queued = queue.getQueuedBytes();
+    assertTrue(queued > 0);
+
+    TabletServerMutations<Mutation> b1 = queue.take();
+    TabletServerMutations<Mutation> b2 = queue.take();
+    assertEquals(1, b1.getMutations().size());
+    assertEquals(1, b2.getMutations().size());
+    assertEquals(2, queue.getInFlight());
+    assertEquals(queued, queue.getQueuedBytes());
+
+    // window is full
+    queue.add(binned(E1, "b"));
+    assertNull(queue.take());
+
+    TabletServerMutations<Mutation> withE1 = b1.getMutations().containsKey(E1) ? b1 : b2;
+    TabletServerMutations<Mutation> withE2 = withE1 == b1 ? b2 : b1;
+
+    queue.completed(withE2);
+    // the only pending tablet is still in flight
+    assertNull(queue.take());
+
+    queue.completed(withE1);
+    TabletServerMutations<Mutation> b3 = queue.take();
+    assertEquals(Set.of(E1), b3.getMutations().keySet());
+    assertEquals("b", new String(b3.getMutations().get(E1).get(0).getRow()));
+
+    assertFalse(queue.isIdle());
+    queue.completed(b3);
+    assertTrue(queue.isIdle());
+    assertEquals(0, queue.getQueuedBytes());
+  }
+
+  @Test
+  public void testBatchSize() {
+    ServerSendQueue queue = new ServerSendQueue(1, Long.MAX_VALUE);
+
+    queue.add(binned(E1, "a", "b"));
+    queue.add(binned(E2, "n"));
+    queue.add(binned(E1, "c"));
+
+    TabletServerMutations<Mutation> batch = queue.take();
+    assertEquals(Set.of(E1, E2), batch.getMutations().keySet());
+    assertEquals(3, batch.getMutations().get(E1).size());
+    assertNull(queue.take());
+
+    queue.completed(batch);
+    assertTrue(queue.isIdle());
+  }
+}
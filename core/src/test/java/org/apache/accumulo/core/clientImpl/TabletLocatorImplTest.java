@@ -1413,4 +1413,38 @@ public class TabletLocatorImplTest {
     runTest(ranges, metaCache, expected);
   }
 
+  @Test
+  public void testMetrics() throws Exception {
+    TServers tservers = new TServers();
+    TestTabletLocationObtainer ttlo = new TestTabletLocationObtainer(tservers);
+    TabletLocatorMetrics metrics = new TabletLocatorMetrics();
+
+    TabletLocatorImpl rootTabletCache = new TabletLocatorImpl(MetadataTable.ID,
+        new TestRootTabletLocator(), ttlo, new YesLockChecker());
+    TabletLocatorImpl tab1TabletCache = new TabletLocatorImpl(TableId.of("foo"), rootTabletCache,
+        ttlo, new YesLockChecker(), metrics);
+
+    KeyExtent ke1 = nke("foo", "m", null);
+    KeyExtent ke2 = nke("foo", null, "m");
+
+    setLocation(tservers, "tserver1", RTE, MTE, "tserver2");
+    setLocation(tservers, "tserver2", MTE, ke1, "L1");
+    setLocation(tservers, "tserver2", MTE, ke2, "L2");
+
+    // the lookup for the first tablet also caches the tablet after it
+    locateTabletTest(tab1TabletCache, "a", ke1, "L1");
+    locateTabletTest(tab1TabletCache, "r", ke2, "L2");
+    assertEquals(1, metrics.getHits());
+    assertEquals(1, metrics.getMisses());
+    assertEquals(0, metrics.getRefreshes());
+
+    setLocation(tservers, "tserver2", MTE, ke1, "L3");
+    tab1TabletCache.invalidateCache(ke1);
+
+    locateTabletTest(tab1TabletCache, "a", ke1, "L3");
+    locateTabletTest(tab1TabletCache, "r", ke2, "L2");
+    assertEquals(3, metrics.getHits());
+    assertEquals(1, metrics.getMisses());
+    assertEquals(1, metrics.getRefreshes());
+  }
 }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import static org.easymock.EasyMock.createMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.clientImpl.ThriftTransportPool.CachedConnection;
+import org.apache.accumulo.core.clientImpl.ThriftTransportPool.CachedTTransport;
+import org.apache.accumulo.core.clientImpl.ThriftTransportPool.ConnectionPool;
+import org.apache.accumulo.core.util.HostAndPort;
+import org.apache.thrift.transport.TTransport;
+import org.junit.Test;
+
+public class ThriftTransportPoolTest {
+
+  private static final long LONG_WAIT = TimeUnit.SECONDS.toMillis(60);
+
+  private static ThriftTransportKey newKey(int port) {
+    return new ThriftTransportKey(HostAndPort.fromParts("localhost", port), 1000, null, null);
+  }
+
+  // does what ThriftTransportPool does after reserveAny tells it to open a connection
+  private static CachedTTransport open(ConnectionPool pool, ThriftTransportKey key) {
+    CachedConnection connection =
+        new CachedConnection(new CachedTTransport(createMock(TTransport.class), key));
+    connection.reserve();
+    pool.putReserved(key, connection);
+    pool.openFinished(key);
+    return connection.transport;
+  }
+
+  @Test
+  public void testLimitReached() {
+    ConnectionPool pool = new ConnectionPool();
+    ThriftTransportKey key = newKey(9997);
+
+    assertNull(pool.reserveAny(key, 2, 0));
+    assertNull(pool.reserveAny(key, 2, 0));
+    // connections being opened count toward the limit
+    assertEquals(2, pool.getConnectionCount(key));
+    open(pool, key);
+    CachedTTransport transport = open(pool, key);
+    assertEquals(2, pool.getConnectionCount(key));
+
+    // a returned connection is reused
+    pool.returnTransport(transport, new ArrayList<>());
+    CachedConnection reused = pool.reserveAny(key, 2, LONG_WAIT);
+    assertNotNull(reused);
+    assertSame(transport, reused.transport);
+
+    // other keys have their own limit
+    assertNull(pool.reserveAny(newKey(9998), 2, LONG_WAIT));
+  }
+
+  @Test(timeout = 30_000)
+  public void testWaitTimesOut() {
+    ConnectionPool pool = new ConnectionPool();
+    ThriftTransportKey key = newKey(9997);
+
+    assertNull(pool.reserveAny(key, 1, 0));
+    open(pool, key);
+
+    // the limit is soft, after waiting the caller is told to open a connection beyond it
+    long start = System.nanoTime();
+    assertNull(pool.reserveAny(key, 1, 200));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+    assertEquals(2, pool.getConnectionCount(key));
+  }
+
+  @Test(timeout = 30_000)
+  public void testWaiterWokenByReturn() throws Exception {
+    ConnectionPool pool = new ConnectionPool();
+    ThriftTransportKey key = newKey(9997);
+
+    assertNull(pool.reserveAny(key, 1, 0));
+    CachedTTransport transport = open(pool, key);
+
+    CompletableFuture<CachedConnection> waiter =
+        CompletableFuture.supplyAsync(() -> pool.reserveAny(key, 1, LONG_WAIT));
+    Thread.sleep(100);
+    assertFalse(waiter.isDone());
+
+    pool.returnTransport(transport, new ArrayList<>());
+    CachedConnection connection = waiter.get();
+    assertNotNull(connection);
+    assertSame(transport, connection.transport);
+  }
+
+  @Test(timeout = 30_000)
+  public void testWaiterWokenByOpenFinished() throws Exception {
+    ConnectionPool pool = new ConnectionPool();
+    ThriftTransportKey key = newKey(9997);
+
+    assertNull(pool.reserveAny(key, 1, 0));
+
+    CompletableFuture<CachedConnection> waiter =
+        CompletableFuture.supplyAsync(() -> pool.reserveAny(key, 1, LONG_WAIT));
+    Thread.sleep(100);
+    assertFalse(waiter.isDone());
+
+    // opening the connection failed, so the waiter may open one
+    pool.openFinished(key);
+    assertNull(waiter.get());
+    assertEquals(1, pool.getConnectionCount(key));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.sharded.ShardedLruBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.sharded.ShardedLruBlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.sharded.ShardedLruBlockCacheManager;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.junit.Test;
+
+public class TestShardedLruBlockCache {
+
+  private BlockCacheManager startManager(long maxSize, long blockSize, int shards)
+      throws Exception {
+    DefaultConfiguration dc = DefaultConfiguration.getInstance();
+    ConfigurationCopy cc = new ConfigurationCopy(dc);
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, ShardedLruBlockCacheManager.class.getName());
+    BlockCacheManager manager = BlockCacheManagerFactory.getInstance(cc);
+    cc.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(blockSize));
+    cc.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(maxSize));
+    ShardedLruBlockCacheConfiguration.builder(CacheType.INDEX).shards(shards).buildMap()
+        .forEach(cc::set);
+    manager.start(new BlockCacheConfiguration(cc));
+    return manager;
+  }
+
+  @Test
+  public void testConfiguration() {
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(1019));
+    cc.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(1000023));
+
+    ShardedLruBlockCacheConfiguration.builder(CacheType.INDEX).shards(7).buildMap()
+        .forEach(cc::set);
+    String prefix = BlockCacheManager.getFullyQualifiedPropertyPrefix(
+        ShardedLruBlockCacheConfiguration.PROPERTY_PREFIX, CacheType.INDEX);
+    cc.set(prefix + LruBlockCacheConfiguration.MIN_FACTOR_PROPERTY, "0.5");
+
+    ShardedLruBlockCacheConfiguration sbcc =
+        new ShardedLruBlockCacheConfiguration(new BlockCacheConfiguration(cc), CacheType.INDEX);
+    assertEquals(7, sbcc.getShards());
+    assertEquals(1000023, sbcc.getMaxSize());
+
+    ShardedLruBlockCache cache = new ShardedLruBlockCache(sbcc);
+    assertEquals(7, cache.getShardCount());
+    assertEquals(1000023, cache.getMaxSize());
+    cache.shutdown();
+  }
+
+  @Test
+  public void testCacheSimple() throws Exception {
+    BlockCacheManager manager = startManager(1000000, 1000, 8);
+    ShardedLruBlockCache cache = (ShardedLruBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    for (int i = 0; i < 100; i++) {
+      assertNull(cache.getBlock("block" + i));
+    }
+    for (int i = 0; i < 100; i++) {
+      cache.cacheBlock("block" + i, new byte[] {(byte) i});
+    }
+    for (int i = 0; i < 100; i++) {
+      CacheEntry ce = cache.getBlock("block" + i);
+      assertNotNull(ce);
+      assertArrayEquals(new byte[] {(byte) i}, ce.getBuffer());
+    }
+
+    assertEquals(100, cache.size());
+    assertEquals(200, cache.getStats().requestCount());
+    assertEquals(100, cache.getStats().hitCount());
+
+    // blocks should be spread over more than one shard
+    int usedShards = 0;
+    long requests = 0;
+    for (int i = 0; i < cache.getShardCount(); i++) {
+      long shardRequests = cache.getShardStats(i).requestCount();
+      if (shardRequests > 0) {
+        usedShards++;
+      }
+      requests += shardRequests;
+    }
+    assertTrue(usedShards > 1);
+    assertEquals(cache.getStats().requestCount(), requests);
+
+    manager.stop();
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    long maxSize = 1000000;
+    BlockCacheManager manager = startManager(maxSize, 1000, 4);
+    ShardedLruBlockCache cache = (ShardedLruBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    for (int i = 0; i < 1000; i++) {
+      cache.cacheBlock("block" + i, new byte[10000]);
+    }
+
+    assertTrue(cache.getStats().getEvictionCount() > 0);
+    assertTrue(cache.getStats().getEvictedCount() > 0);
+    assertTrue(cache.getCurrentSize() < maxSize);
+    assertTrue(cache.size() < 1000);
+
+    manager.stop();
+  }
+
+  @Test
+  public void testLoaderDependencies() throws Exception {
+    BlockCacheManager manager = startManager(1000000, 1000, 8);
+    ShardedLruBlockCache cache = (ShardedLruBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    BlockCache.Loader depLoader = new BlockCache.Loader() {
+      @Override
+      public Map<String,BlockCache.Loader> getDependencies() {
+        return Map.of();
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        return new byte[] {1};
+      }
+    };
+
+    BlockCache.Loader loader = new BlockCache.Loader() {
+      @Override
+      public Map<String,BlockCache.Loader> getDependencies() {
+        return Map.of("dep", depLoader);
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        return new byte[] {(byte) (dependencies.get("dep")[0] + 1)};
+      }
+    };
+
+    assertArrayEquals(new byte[] {2}, cache.getBlock("block", loader).getBuffer());
+    // the dependency is cached in its own shard and can be found by name
+    assertArrayEquals(new byte[] {1}, cache.getBlock("dep").getBuffer());
+    assertEquals(2, cache.size());
+    assertFalse(cache.getStats().hitCount() == 0);
+
+    manager.stop();
+  }
+}
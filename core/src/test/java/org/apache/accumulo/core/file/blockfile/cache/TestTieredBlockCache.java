@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.tiered.TieredBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.tiered.TieredBlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.tiered.TieredBlockCacheConfiguration.L1Type;
+import org.apache.accumulo.core.file.blockfile.cache.tiered.TieredBlockCacheManager;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.junit.Test;
+
+public class TestTieredBlockCache {
+
+  private static final int BLOCK_SIZE = 10000;
+
+  private BlockCacheManager startManager(L1Type l1, long l1Size, long l2Size) throws Exception {
+    DefaultConfiguration dc = DefaultConfiguration.getInstance();
+    ConfigurationCopy cc = new ConfigurationCopy(dc);
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, TieredBlockCacheManager.class.getName());
+    BlockCacheManager manager = BlockCacheManagerFactory.getInstance(cc);
+    cc.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(BLOCK_SIZE));
+    cc.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(l1Size));
+    TieredBlockCacheConfiguration.builder(CacheType.INDEX).l1(l1).l2Size(l2Size).buildMap()
+        .forEach(cc::set);
+    LruBlockCacheConfiguration.builder(CacheType.INDEX).useEvictionThread(false).buildMap()
+        .forEach(cc::set);
+    manager.start(new BlockCacheConfiguration(cc));
+    return manager;
+  }
+
+  private static byte[] block(int i) {
+    byte[] buf = new byte[BLOCK_SIZE];
+    buf[0] = (byte) i;
+    buf[BLOCK_SIZE - 1] = (byte) (i >> 8);
+    return buf;
+  }
+
+  private void testDemoteAndPromote(L1Type l1) throws Exception {
+    BlockCacheManager manager = startManager(l1, 200000, 10000000);
+    TieredBlockCache cache = (TieredBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    // much more than level one can hold
+    for (int i = 0; i < 100; i++) {
+      cache.cacheBlock("block" + i, block(i));
+    }
+
+    // level two should eventually hold the evicted blocks, tinylfu demotes asynchronously
+    long deadline = System.currentTimeMillis() + 10000;
+    while (cache.getStats().getDemotedCount() < 80 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(cache.getStats().getDemotedCount() >= 80);
+    assertTrue(cache.getL2BlockCount() > 0);
+
+    // every block should be found in one of the levels
+    for (int i = 0; i < 100; i++) {
+      CacheEntry ce = cache.getBlock("block" + i);
+      assertNotNull("block" + i, ce);
+      assertArrayEquals(block(i), ce.getBuffer());
+    }
+
+    assertTrue(cache.getStats().getL2HitCount() > 0);
+    assertEquals(100, cache.getStats().requestCount());
+    assertEquals(100, cache.getStats().hitCount());
+    assertNull(cache.getBlock("missing"));
+
+    manager.stop();
+  }
+
+  @Test
+  public void testLruDemoteAndPromote() throws Exception {
+    testDemoteAndPromote(L1Type.LRU);
+  }
+
+  @Test
+  public void testTinyLfuDemoteAndPromote() throws Exception {
+    testDemoteAndPromote(L1Type.TINYLFU);
+  }
+
+  @Test
+  public void testL2Eviction() throws Exception {
+    // level two only has room for one slab of 12K slots
+    BlockCacheManager manager = startManager(L1Type.LRU, 200000, 4 * 1024 * 1024);
+    TieredBlockCache cache = (TieredBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    for (int i = 0; i < 2000; i++) {
+      cache.cacheBlock("block" + i, block(i));
+    }
+
+    assertTrue(cache.getStats().getL2EvictedCount() > 0);
+    assertTrue(cache.getL2UsedSize() <= 4 * 1024 * 1024);
+    // the most recently added blocks are in one of the levels
+    assertArrayEquals(block(1999), cache.getBlock("block1999").getBuffer());
+    // the oldest blocks are gone
+    assertNull(cache.getBlock("block0"));
+
+    manager.stop();
+  }
+
+  @Test
+  public void testL2ReassignsSlabs() throws Exception {
+    // level two only has room for two slabs
+    BlockCacheManager manager = startManager(L1Type.LRU, 200000, 8 * 1024 * 1024);
+    TieredBlockCache cache = (TieredBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    for (int i = 0; i < 2000; i++) {
+      cache.cacheBlock("block" + i, block(i));
+    }
+    assertEquals(0, cache.getStats().getL2ReassignedCount());
+
+    // the block size changes, so the slabs holding the large blocks are needed for small ones
+    for (int i = 0; i < 2000; i++) {
+      cache.cacheBlock("small" + i, new byte[3000]);
+    }
+    assertTrue(cache.getStats().getL2ReassignedCount() > 0);
+    assertNotNull(cache.getBlock("small1500"));
+    assertTrue(cache.getStats().getL2HitCount() > 0);
+
+    manager.stop();
+  }
+
+  @Test
+  public void testLoaderStats() throws Exception {
+    BlockCacheManager manager = startManager(L1Type.LRU, 200000, 10000000);
+    TieredBlockCache cache = (TieredBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    BlockCache.Loader loader = new BlockCache.Loader() {
+      @Override
+      public Map<String,BlockCache.Loader> getDependencies() {
+        return Map.of();
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        return block(3);
+      }
+    };
+
+    // a load is a single request that misses
+    assertArrayEquals(block(3), cache.getBlock("block", loader).getBuffer());
+    assertEquals(1, cache.getStats().requestCount());
+    assertEquals(0, cache.getStats().hitCount());
+
+    assertArrayEquals(block(3), cache.getBlock("block", loader).getBuffer());
+    assertEquals(2, cache.getStats().requestCount());
+    assertEquals(1, cache.getStats().hitCount());
+    assertEquals(1, cache.getStats().getL1HitCount());
+
+    manager.stop();
+  }
+
+  @Test
+  public void testNoL2() throws Exception {
+    BlockCacheManager manager = startManager(L1Type.LRU, 200000, 0);
+    TieredBlockCache cache = (TieredBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    for (int i = 0; i < 100; i++) {
+      cache.cacheBlock("block" + i, block(i));
+    }
+    assertEquals(0, cache.getL2BlockCount());
+    assertEquals(200000, cache.getMaxSize());
+    assertNull(cache.getBlock("block0"));
+
+    manager.stop();
+  }
+
+  @Test
+  public void testLoaderDependenciesFromL2() throws Exception {
+    BlockCacheManager manager = startManager(L1Type.LRU, 200000, 10000000);
+    TieredBlockCache cache = (TieredBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    cache.cacheBlock("dep", block(7));
+    // push the dependency out of level one
+    for (int i = 0; i < 100; i++) {
+      cache.cacheBlock("block" + i, block(i));
+    }
+
+    BlockCache.Loader depLoader = new BlockCache.Loader() {
+      @Override
+      public Map<String,BlockCache.Loader> getDependencies() {
+        return Map.of();
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        throw new IllegalStateException("dependency should be found in level two");
+      }
+    };
+
+    BlockCache.Loader loader = new BlockCache.Loader() {
+      @Override
+      public Map<String,BlockCache.Loader> getDependencies() {
+        return Map.of("dep", depLoader);
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        return new byte[] {dependencies.get("dep")[0]};
+      }
+    };
+
+    assertArrayEquals(new byte[] {7}, cache.getBlock("block", loader).getBuffer());
+
+    manager.stop();
+  }
+}
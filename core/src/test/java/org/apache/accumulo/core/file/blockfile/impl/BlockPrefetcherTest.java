@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class BlockPrefetcherTest {
+
+  @Test
+  public void testDiscardQueuedRead() {
+    List<Runnable> queued = new ArrayList<>();
+    BlockPrefetcher prefetcher = new BlockPrefetcher(queued::add);
+    AtomicInteger reads = new AtomicInteger();
+
+    Future<Integer> read = prefetcher.submit(reads::incrementAndGet);
+    prefetcher.discard(read);
+    queued.forEach(Runnable::run);
+
+    // the read never started, so nothing was wasted
+    assertEquals(0, reads.get());
+    assertEquals(1, prefetcher.getRequested());
+    assertEquals(0, prefetcher.getWasted());
+  }
+
+  @Test
+  public void testDiscardCompletedRead() {
+    BlockPrefetcher prefetcher = new BlockPrefetcher(Runnable::run);
+    Future<Integer> read = prefetcher.submit(() -> 1);
+    assertTrue(read.isDone());
+    prefetcher.discard(read);
+    assertEquals(1, prefetcher.getWasted());
+  }
+
+  @Test
+  public void testDiscardRunningRead() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    BlockPrefetcher prefetcher = new BlockPrefetcher(r -> new Thread(r).start());
+    Future<Integer> read = prefetcher.submit(() -> {
+      started.countDown();
+      finish.await();
+      return 1;
+    });
+
+    started.await();
+    prefetcher.discard(read);
+    finish.countDown();
+    assertEquals(1, prefetcher.getWasted());
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+public class ColumnBlockTest {
+
+  private static ColumnBlock writeAndRead(List<Key> keys, List<Value> values) throws IOException {
+    ColumnBlock.Writer writer = new ColumnBlock.Writer();
+    for (int i = 0; i < keys.size(); i++) {
+      writer.append(keys.get(i), values.get(i));
+    }
+    assertEquals(keys.size(), writer.getEntries());
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    writer.write(new DataOutputStream(baos));
+    return new ColumnBlock(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    List<Key> keys = new ArrayList<>();
+    List<Value> values = new ArrayList<>();
+    for (int r = 0; r < 100; r++) {
+      for (int c = 0; c < 3; c++) {
+        Key key = new Key(String.format("row%04d", r), "cf" + c, "cq" + (r * 3 + c),
+            "vis" + (r % 2), 1000L - r);
+        key.setDeleted(c == 1 && r % 10 == 0);
+        keys.add(key);
+        values.add(new Value(c == 0 ? "" : "value" + r));
+      }
+    }
+
+    ColumnBlock block = writeAndRead(keys, values);
+
+    assertEquals(keys.size(), block.size());
+    for (int i = 0; i < keys.size(); i++) {
+      Key key = block.getKey(i);
+      assertEquals(keys.get(i), key);
+      assertEquals(keys.get(i).isDeleted(), key.isDeleted());
+      assertArrayEquals(values.get(i).get(), block.getValue(i));
+      assertEquals(0, block.compareTo(i, keys.get(i)));
+    }
+
+    // equal fields are stored once and shared by the keys created from the block
+    assertSame(block.getKey(0).getRowData().getBackingArray(),
+        block.getKey(2).getRowData().getBackingArray());
+    assertSame(block.getKey(0).getColumnFamilyData().getBackingArray(),
+        block.getKey(3).getColumnFamilyData().getBackingArray());
+  }
+
+  @Test
+  public void testSeek() throws IOException {
+    List<Key> keys = new ArrayList<>();
+    List<Value> values = new ArrayList<>();
+    for (int r = 0; r < 50; r++) {
+      keys.add(new Key(String.format("row%04d", r * 2), "cf", "cq", 5));
+      values.add(new Value("v"));
+    }
+
+    ColumnBlock block = writeAndRead(keys, values);
+
+    assertEquals(0, block.seek(new Key()));
+    assertEquals(0, block.seek(keys.get(0)));
+    assertEquals(10, block.seek(keys.get(10)));
+    // a key between two entries finds the later one
+    assertEquals(11, block.seek(new Key(String.format("row%04d", 21))));
+    // a later timestamp sorts first so finds the same entry
+    assertEquals(10, block.seek(new Key(String.format("row%04d", 20), "cf", "cq", 6)));
+    assertEquals(11, block.seek(new Key(String.format("row%04d", 20), "cf", "cq", 4)));
+    assertEquals(50, block.seek(new Key("zzz")));
+
+    assertTrue(block.compareTo(10, keys.get(11)) < 0);
+    assertTrue(block.compareTo(10, keys.get(9)) > 0);
+  }
+
+  @Test
+  public void testEmptyAndLargeFields() throws IOException {
+    List<Key> keys = new ArrayList<>();
+    List<Value> values = new ArrayList<>();
+    byte[] big = new byte[100_000];
+    big[big.length - 1] = 1;
+    keys.add(new Key(new byte[0], new byte[0], new byte[0], new byte[0], Long.MIN_VALUE));
+    values.add(new Value(big));
+    keys.add(new Key(big, big, big, big, Long.MAX_VALUE));
+    values.add(new Value(new byte[0]));
+
+    ColumnBlock block = writeAndRead(keys, values);
+
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(keys.get(i), block.getKey(i));
+      assertArrayEquals(values.get(i).get(), block.getValue(i));
+    }
+  }
+}
@@ -47,6 +47,8 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.accumulo.core.client.sample.RowSampler;
 import org.apache.accumulo.core.client.sample.Sampler;
@@ -70,6 +72,7 @@ import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFacto
 import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCache;
 import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager;
 import org.apache.accumulo.core.file.blockfile.impl.BasicCacheProvider;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachableBuilder;
 import org.apache.accumulo.core.file.rfile.RFile.Reader;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
@@ -233,6 +236,8 @@ public class RFileTest {
     public Reader reader;
     public SortedKeyValueIterator<Key,Value> iter;
     private BlockCacheManager manager;
+    public BlockPrefetcher prefetcher = null;
+    public int prefetchDepth = 0;
 
     public TestRFile(AccumuloConfiguration accumuloConfiguration) {
       this.accumuloConfiguration = accumuloConfiguration;
@@ -258,7 +263,8 @@ public class RFileTest {
         sampler = SamplerFactory.newSampler(samplerConfig, accumuloConfiguration);
       }
 
-      writer = new RFile.Writer(_cbw, blockSize, 1000, samplerConfig, sampler);
+      writer = new RFile.Writer(_cbw, blockSize, 1000, samplerConfig, sampler,
+          accumuloConfiguration.getBoolean(Property.TABLE_FILE_COLUMNAR));
 
       if (startDLG)
         writer.startDefaultLocalityGroup();
@@ -310,8 +316,10 @@ public class RFileTest {
       LruBlockCache dataCache = (LruBlockCache) manager.getBlockCache(CacheType.DATA);
 
       CachableBuilder cb = new CachableBuilder().cacheId("source-1").input(in).length(fileLength)
-          .conf(conf).cacheProvider(new BasicCacheProvider(indexCache, dataCache)).cryptoService(
-              CryptoServiceFactory.newInstance(accumuloConfiguration, ClassloaderType.JAVA));
+          .conf(conf).cacheProvider(new BasicCacheProvider(indexCache, dataCache))
+          .cryptoService(
+              CryptoServiceFactory.newInstance(accumuloConfiguration, ClassloaderType.JAVA))
+          .prefetch(prefetcher, prefetchDepth);
       reader = new RFile.Reader(cb);
       if (cfsi)
         iter = new ColumnFamilySkippingIterator(reader);
@@ -556,7 +564,11 @@ public class RFileTest {
       count++;
       iiter.next();
     }
-    assertEquals(20, count);
+    // columnar blocks encode the same entries in fewer bytes, so fewer blocks are written
+    if (!trf.accumuloConfiguration.getBoolean(Property.TABLE_FILE_COLUMNAR))
+      assertEquals(20, count);
+    else
+      assertTrue(count > 1 && count < 20);
 
     trf.closeReader();
   }
@@ -1705,6 +1717,58 @@ public class RFileTest {
     trf.closeReader();
   }
 
+  @Test
+  public void testPrefetch() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      TestRFile trf = new TestRFile(conf);
+      trf.prefetcher = new BlockPrefetcher(executor);
+      trf.prefetchDepth = 3;
+
+      trf.openWriter(500);
+      for (int i = 0; i < 5000; i++) {
+        trf.writer.append(newKey(formatString("r_", i), "cf1", "cq1", "L1", 42),
+            newValue("foo" + i));
+      }
+      trf.closeWriter();
+      trf.openReader();
+
+      Set<ByteSequence> cfs = Collections.emptySet();
+
+      trf.reader.seek(new Range(), cfs, false);
+      for (int i = 0; i < 5000; i++) {
+        assertTrue(trf.reader.hasTop());
+        assertEquals(newKey(formatString("r_", i), "cf1", "cq1", "L1", 42), trf.reader.getTopKey());
+        assertEquals(newValue("foo" + i), trf.reader.getTopValue());
+        trf.reader.next();
+      }
+      assertFalse(trf.reader.hasTop());
+      assertTrue(trf.prefetcher.getHits() > 0);
+
+      // seek forwards and backwards, abandoning blocks that were read ahead
+      Random rand = new SecureRandom();
+      for (int count = 0; count < 50; count++) {
+        int start = rand.nextInt(4500);
+        trf.reader.seek(new Range(newKey(formatString("r_", start), "cf1", "cq1", "L1", 42), null),
+            cfs, false);
+        int numToScan = rand.nextInt(500);
+        for (int j = 0; j < numToScan; j++) {
+          assertTrue(trf.reader.hasTop());
+          assertEquals(newKey(formatString("r_", start + j), "cf1", "cq1", "L1", 42),
+              trf.reader.getTopKey());
+          trf.reader.next();
+        }
+      }
+
+      trf.closeReader();
+
+      BlockPrefetcher prefetcher = trf.prefetcher;
+      assertTrue(prefetcher.getHits() + prefetcher.getWasted() <= prefetcher.getRequested());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Test(expected = NullPointerException.class)
   public void testMissingUnreleasedVersions() throws Exception {
     runVersionTest(5, getAccumuloConfig(CryptoTest.CRYPTO_OFF_CONF));
@@ -2241,6 +2305,74 @@ public class RFileTest {
     conf = null;
   }
 
+  @Test
+  public void testColumnarRFiles() throws Exception {
+    ConfigurationCopy columnarConf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    columnarConf.set(Property.TABLE_FILE_COLUMNAR, "true");
+    conf = columnarConf;
+    test1();
+    test2();
+    test3();
+    test4();
+    test5();
+    test6();
+    test7();
+    test8();
+    test9();
+    test10();
+    test11();
+    test12();
+    test13();
+    test14();
+    test16();
+    test17();
+    test18();
+    test19();
+    testReseekUnconsumed();
+    testSample();
+    testSampleLG();
+    testBigKeys();
+    conf = null;
+  }
+
+  @Test
+  public void testColumnarIsSmaller() throws IOException {
+    ConfigurationCopy columnarConf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    columnarConf.set(Property.TABLE_FILE_COLUMNAR, "true");
+
+    int[] sizes = new int[2];
+    AccumuloConfiguration[] confs = {DefaultConfiguration.getInstance(), columnarConf};
+    for (int c = 0; c < confs.length; c++) {
+      TestRFile trf = new TestRFile(confs[c]);
+      trf.openWriter(false, 100_000);
+      trf.writer.startDefaultLocalityGroup();
+      for (int r = 0; r < 5000; r++) {
+        for (int q = 0; q < 4; q++) {
+          trf.writer.append(newKey(formatString("r_", r), "cf" + (r % 3), "cq" + q, "A&B", r * 7L),
+              newValue("v" + (q % 2)));
+        }
+      }
+      trf.closeWriter();
+      sizes[c] = trf.baos.size();
+
+      trf.openReader();
+      trf.iter.seek(new Range(), Collections.emptySet(), false);
+      for (int r = 0; r < 5000; r++) {
+        for (int q = 0; q < 4; q++) {
+          assertTrue(trf.iter.hasTop());
+          assertEquals(newKey(formatString("r_", r), "cf" + (r % 3), "cq" + q, "A&B", r * 7L),
+              trf.iter.getTopKey());
+          assertEquals(newValue("v" + (q % 2)), trf.iter.getTopValue());
+          trf.iter.next();
+        }
+      }
+      assertFalse(trf.iter.hasTop());
+      trf.closeReader();
+    }
+
+    assertTrue("columnar " + sizes[1] + " row " + sizes[0], sizes[1] < sizes[0]);
+  }
+
   @Test
   public void testBigKeys() throws IOException {
     // this test ensures that big keys do not end up index
@@ -19,6 +19,9 @@
 package org.apache.accumulo.core.file.rfile;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -31,6 +34,7 @@ import java.util.ArrayList;
 import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.rfile.RelativeKey.SkippR;
 import org.apache.accumulo.core.util.MutableByteSequence;
@@ -90,6 +94,50 @@ public class RelativeKeyTest {
     assertEquals(expected.getKey(), actual.getKey());
   }
 
+  @Test
+  public void testReadWithoutCreatingKeys() throws IOException {
+    Key[] keys = {new Key("r1", "cf1", "cq1", "cv", 5), new Key("r1", "cf1", "cq2", "cv", 5),
+        new Key("r1", "cf2", "cq2", "cv", 4), new Key("r2", "cf2", "cq2", "cv", 4)};
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    Key prev = null;
+    for (Key key : keys) {
+      new RelativeKey(prev, key).write(out);
+      prev = key;
+    }
+
+    RelativeKey rk = new RelativeKey();
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+
+    rk.readFields(in);
+    Key first = rk.getKey();
+    assertEquals(keys[0], first);
+
+    // read the second and third key without creating them
+    rk.readFields(in);
+    assertEquals(0, rk.compareTo(keys[1]));
+    assertTrue(rk.compareTo(keys[0]) > 0);
+    assertTrue(rk.compareTo(keys[2]) < 0);
+    rk.readFields(in);
+    assertEquals(keys[1], rk.getPrevKey());
+    assertTrue(rk.afterEndKey(new Range(keys[0], keys[1])));
+    assertFalse(rk.afterEndKey(new Range(keys[0], keys[2])));
+    assertFalse(rk.beforeStartKey(new Range(keys[2], keys[3])));
+    assertTrue(rk.beforeStartKey(new Range(keys[2], false, keys[3], true)));
+
+    Key third = rk.getKey();
+    assertEquals(keys[2], third);
+    // the row and visibility did not change since the first key was created, so are shared
+    assertSame(first.getRowData().getBackingArray(), third.getRowData().getBackingArray());
+    assertSame(first.getColumnVisibilityData().getBackingArray(),
+        third.getColumnVisibilityData().getBackingArray());
+
+    rk.readFields(in);
+    assertSame(third, rk.getPrevKey());
+    assertEquals(keys[3], rk.getKey());
+  }
+
   private static ArrayList<Key> expectedKeys;
   private static ArrayList<Value> expectedValues;
   private static ArrayList<Integer> expectedPositions;
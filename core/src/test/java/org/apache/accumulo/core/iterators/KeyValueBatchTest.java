@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iterators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.KeyValue;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iteratorsImpl.system.ColumnFamilySkippingIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.DeletingIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.DeletingIterator.Behavior;
+import org.apache.accumulo.core.iteratorsImpl.system.VisibilityFilter;
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.Test;
+
+public class KeyValueBatchTest {
+
+  private static final Collection<ByteSequence> EMPTY_COL_FAMS = List.of();
+
+  public static class EvenValueFilter extends Filter {
+    @Override
+    public boolean accept(Key k, Value v) {
+      return Integer.parseInt(v.toString()) % 2 == 0;
+    }
+  }
+
+  public static class CountingFilter extends EvenValueFilter {
+    int nextCalls = 0;
+
+    @Override
+    public void next() throws IOException {
+      nextCalls++;
+      super.next();
+    }
+  }
+
+  private static TreeMap<Key,Value> createData(long seed) {
+    Random rand = new Random(seed);
+    TreeMap<Key,Value> data = new TreeMap<>();
+    String[] vis = {"", "A", "B", "A&B"};
+    for (int i = 0; i < 2000; i++) {
+      Key k = new Key(String.format("r%03d", rand.nextInt(100)), "cf" + rand.nextInt(4),
+          "cq" + rand.nextInt(3), vis[rand.nextInt(vis.length)], rand.nextInt(10));
+      k.setDeleted(rand.nextInt(10) == 0);
+      data.put(k, new Value(Integer.toString(rand.nextInt(1000))));
+    }
+    return data;
+  }
+
+  private static SortedKeyValueIterator<Key,Value> createStack(TreeMap<Key,Value> data,
+      boolean propogateDeletes, Set<ByteSequence> families) throws IOException {
+    SortedKeyValueIterator<Key,Value> iter = new SortedMapIterator(data);
+    iter = DeletingIterator.wrap(iter, propogateDeletes, Behavior.PROCESS);
+    iter = new ColumnFamilySkippingIterator(iter);
+    iter = VisibilityFilter.wrap(iter, new Authorizations("A"), new byte[0]);
+    EvenValueFilter filter = new EvenValueFilter();
+    filter.init(iter, Map.of(), null);
+    filter.seek(new Range(), families, !families.isEmpty());
+    return filter;
+  }
+
+  private static List<Entry<Key,Value>> readOneAtATime(SortedKeyValueIterator<Key,Value> iter)
+      throws IOException {
+    List<Entry<Key,Value>> entries = new ArrayList<>();
+    while (iter.hasTop()) {
+      entries.add(new KeyValue(new Key(iter.getTopKey()), new Value(iter.getTopValue())));
+      iter.next();
+    }
+    return entries;
+  }
+
+  private static List<Entry<Key,Value>> readBatches(SortedKeyValueIterator<Key,Value> iter,
+      int capacity) throws IOException {
+    List<Entry<Key,Value>> entries = new ArrayList<>();
+    KeyValueBatch batch = new KeyValueBatch(capacity);
+    while (iter.hasTop()) {
+      batch.clear();
+      batch.fill(iter);
+      assertFalse(batch.isEmpty());
+      for (int i = 0; i < batch.size(); i++) {
+        entries.add(new KeyValue(batch.getKey(i), batch.getValue(i)));
+      }
+    }
+    return entries;
+  }
+
+  @Test
+  public void testBatchesMatchSingleEntries() throws IOException {
+    TreeMap<Key,Value> data = createData(42);
+    Set<ByteSequence> families = Set.of(new ArrayByteSequence("cf1"), new ArrayByteSequence("cf3"));
+
+    for (boolean propogate : new boolean[] {false, true}) {
+      for (Set<ByteSequence> fams : List.of(Set.<ByteSequence>of(), families)) {
+        List<Entry<Key,Value>> expected = readOneAtATime(createStack(data, propogate, fams));
+        assertFalse(expected.isEmpty());
+        for (int capacity : new int[] {1, 3, 64, 5000}) {
+          assertEquals(expected, readBatches(createStack(data, propogate, fams), capacity));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOverriddenNextIsUsed() throws IOException {
+    TreeMap<Key,Value> data = createData(7);
+    CountingFilter filter = new CountingFilter();
+    filter.init(new SortedMapIterator(data), Map.of(), null);
+    filter.seek(new Range(), EMPTY_COL_FAMS, false);
+
+    List<Entry<Key,Value>> entries = readBatches(filter, 10);
+    assertEquals(entries.size(), filter.nextCalls);
+  }
+
+  @Test
+  public void testLimit() throws IOException {
+    TreeMap<Key,Value> data = createData(3);
+    SortedMapIterator source = new SortedMapIterator(data);
+    source.seek(new Range(), EMPTY_COL_FAMS, false);
+
+    KeyValueBatch batch = new KeyValueBatch(10);
+    batch.clear(4);
+    batch.fill(source);
+    assertEquals(4, batch.size());
+    assertTrue(batch.isFull());
+    assertEquals(0, batch.remaining());
+    assertEquals(data.keySet().stream().skip(4).findFirst().get(), source.getTopKey());
+
+    batch.clear();
+    assertTrue(batch.isEmpty());
+    assertEquals(10, batch.remaining());
+  }
+
+  @Test
+  public void testByteLimit() throws IOException {
+    TreeMap<Key,Value> data = createData(5);
+    SortedMapIterator source = new SortedMapIterator(data);
+    source.seek(new Range(), EMPTY_COL_FAMS, false);
+
+    Entry<Key,Value> first = data.firstEntry();
+    long pairSize = first.getKey().getSize() + first.getValue().getSize();
+
+    // the pair that reaches the byte limit is the last one added
+    KeyValueBatch batch = new KeyValueBatch(10);
+    batch.clear(10, 1);
+    batch.fill(source);
+    assertEquals(1, batch.size());
+    assertEquals(pairSize, batch.bytes());
+    assertTrue(batch.isFull());
+    assertEquals(0, batch.remaining());
+
+    // filtered reads are limited the same way, so the source is not read past the last pair added
+    EvenValueFilter filter = new EvenValueFilter();
+    filter.init(new SortedMapIterator(data), Map.of(), null);
+    filter.seek(new Range(), EMPTY_COL_FAMS, false);
+    List<Entry<Key,Value>> expected = readOneAtATime(filter);
+    filter.seek(new Range(), EMPTY_COL_FAMS, false);
+    List<Entry<Key,Value>> actual = new ArrayList<>();
+    while (filter.hasTop()) {
+      batch.clear(10, 100);
+      batch.fill(filter);
+      assertTrue(batch.size() < 10);
+      assertTrue(batch.bytes() - batch.getKey(batch.size() - 1).getSize()
+          - batch.getValue(batch.size() - 1).getSize() < 100);
+      for (int i = 0; i < batch.size(); i++) {
+        actual.add(new KeyValue(batch.getKey(i), batch.getValue(i)));
+      }
+    }
+    assertEquals(expected, actual);
+  }
+}
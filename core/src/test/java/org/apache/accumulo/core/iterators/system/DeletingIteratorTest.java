@@ -26,13 +26,18 @@ import static org.junit.Assert.fail;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.TreeMap;
 
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.KeyValue;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.BatchIterator;
+import org.apache.accumulo.core.iterators.KeyValueBatch;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.SortedMapIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.DeletingIterator;
@@ -253,6 +258,47 @@ public class DeletingIteratorTest {
     } catch (IllegalStateException e) {}
   }
 
+  @Test
+  public void testNextBatchMatchesNext() throws IOException {
+    Random rand = new Random(11);
+    TreeMap<Key,Value> tm = new TreeMap<>();
+    for (int i = 0; i < 1000; i++) {
+      Key k = new Key(String.format("r%02d", rand.nextInt(20)), "cf", "cq" + rand.nextInt(3),
+          rand.nextInt(20));
+      k.setDeleted(rand.nextInt(4) == 0);
+      tm.put(k, new Value(Integer.toString(i)));
+    }
+
+    for (boolean propogateDeletes : new boolean[] {false, true}) {
+      SortedKeyValueIterator<Key,Value> it =
+          DeletingIterator.wrap(new SortedMapIterator(tm), propogateDeletes, Behavior.PROCESS);
+      it.seek(new Range(), EMPTY_COL_FAMS, false);
+      List<Entry<Key,Value>> expected = new ArrayList<>();
+      while (it.hasTop()) {
+        expected.add(new KeyValue(new Key(it.getTopKey()), new Value(it.getTopValue())));
+        it.next();
+      }
+      assertEquals(propogateDeletes, expected.stream().anyMatch(e -> e.getKey().isDeleted()));
+
+      for (int capacity : new int[] {1, 2, 7, 100}) {
+        it = DeletingIterator.wrap(new SortedMapIterator(tm), propogateDeletes, Behavior.PROCESS);
+        it.seek(new Range(), EMPTY_COL_FAMS, false);
+        List<Entry<Key,Value>> actual = new ArrayList<>();
+        KeyValueBatch batch = new KeyValueBatch(capacity);
+        while (it.hasTop()) {
+          batch.clear();
+          ((BatchIterator) it).nextBatch(batch);
+          assertFalse(batch.isEmpty());
+          for (int i = 0; i < batch.size(); i++) {
+            actual.add(new KeyValue(batch.getKey(i), batch.getValue(i)));
+          }
+        }
+        assertEquals("propogateDeletes=" + propogateDeletes + " capacity=" + capacity, expected,
+            actual);
+      }
+    }
+  }
+
   private Range newRange(String row, long ts, boolean inclusive) {
     return new Range(newKey(row, ts), inclusive, null, true);
   }
@@ -20,17 +20,20 @@ package org.apache.accumulo.core.iterators.system;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.TreeMap;
 
+import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.VisibilityCache;
 import org.apache.accumulo.core.iteratorsImpl.system.VisibilityFilter;
 import org.apache.accumulo.core.security.Authorizations;
 import org.junit.Test;
@@ -69,4 +72,47 @@ public class VisibilityFilterTest {
     filter.next();
     assertFalse(filter.hasTop());
   }
+
+  @Test
+  public void testSharedCache() throws IOException {
+    TreeMap<Key,Value> tm = new TreeMap<>();
+
+    tm.put(new Key("r1", "cf1", "cq1", "A"), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq2", "B"), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq3", "A|B"), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq4", "A"), new Value(new byte[0]));
+
+    Authorizations auths = new Authorizations("A");
+    VisibilityCache cache = new VisibilityCache(auths);
+
+    for (int i = 0; i < 2; i++) {
+      SortedKeyValueIterator<Key,Value> filter =
+          VisibilityFilter.wrap(new SortedMapIterator(tm), auths, "".getBytes(), cache);
+      filter.seek(new Range(), new HashSet<>(), false);
+      int count = 0;
+      while (filter.hasTop()) {
+        count++;
+        filter.next();
+      }
+      assertEquals(3, count);
+    }
+
+    // three distinct expressions evaluated once, every other lookup answered by the cache
+    assertEquals(3, cache.getMisses());
+    assertEquals(5, cache.getHits());
+  }
+
+  @Test
+  public void testCacheCollisions() {
+    VisibilityCache cache = new VisibilityCache(new Authorizations("A"), 1);
+    assertEquals(1, cache.capacity());
+
+    cache.put(new ArrayByteSequence("A"), true);
+    assertEquals(Boolean.TRUE, cache.get(new ArrayByteSequence("xAx".getBytes(), 1, 1)));
+
+    // a colliding put replaces the previous entry
+    cache.put(new ArrayByteSequence("B"), false);
+    assertNull(cache.get(new ArrayByteSequence("A")));
+    assertEquals(Boolean.FALSE, cache.get(new ArrayByteSequence("B")));
+  }
 }
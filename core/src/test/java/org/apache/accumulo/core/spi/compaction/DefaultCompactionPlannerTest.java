@@ -213,6 +213,18 @@ public class DefaultCompactionPlannerTest {
 
   }
 
+  @Test
+  public void testExternalExecutor() {
+    var planner = createPlanner(true, true);
+    var all = createCFs("F1", "1G", "F2", "1G", "F3", "1G");
+    var params = createPlanningParams(all, all, Set.of(), 2, CompactionKind.SYSTEM);
+    var plan = planner.makePlan(params);
+
+    var job = Iterables.getOnlyElement(plan.getJobs());
+    assertEquals(all, job.getFiles());
+    assertEquals(CompactionExecutorId.of("huge.q1"), job.getExecutor());
+  }
+
   @Test
   public void testMaxSize() {
     var planner = createPlanner(false);
@@ -240,7 +252,7 @@ public class DefaultCompactionPlannerTest {
         .next();
   }
 
-  private static Set<CompactableFile> createCFs(String... namesSizePairs) {
+  static Set<CompactableFile> createCFs(String... namesSizePairs) {
     Set<CompactableFile> files = new HashSet<>();
 
     for (int i = 0; i < namesSizePairs.length; i += 2) {
@@ -334,6 +346,11 @@ public class DefaultCompactionPlannerTest {
   }
 
   private static DefaultCompactionPlanner createPlanner(boolean withHugeExecutor) {
+    return createPlanner(withHugeExecutor, false);
+  }
+
+  private static DefaultCompactionPlanner createPlanner(boolean withHugeExecutor,
+      boolean hugeIsExternal) {
     DefaultCompactionPlanner planner = new DefaultCompactionPlanner();
     Configuration conf = EasyMock.createMock(Configuration.class);
     EasyMock.expect(conf.isSet(EasyMock.anyString())).andReturn(false).anyTimes();
@@ -347,7 +364,9 @@ public class DefaultCompactionPlannerTest {
         + "{'name':'medium','maxSize':'128M','numThreads':2},"
         + "{'name':'large','maxSize':'512M','numThreads':3}");
 
-    if (withHugeExecutor) {
+    if (withHugeExecutor && hugeIsExternal) {
+      execBldr.append(",{'name':'huge','numThreads':4,'queue':'q1'}]");
+    } else if (withHugeExecutor) {
       execBldr.append(",{'name':'huge','numThreads':4}]");
     } else {
       execBldr.append("]");
@@ -397,6 +416,14 @@ public class DefaultCompactionPlannerTest {
             }
             return CompactionExecutorId.of(name);
           }
+
+          @Override
+          public CompactionExecutorId createExternalExecutor(String name, int threads,
+              String queue) {
+            assertEquals("huge", name);
+            assertEquals(4, threads);
+            return CompactionExecutorId.of(name + "." + queue);
+          }
         };
       }
     });
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.spi.compaction;
+
+import static org.apache.accumulo.core.spi.compaction.DefaultCompactionPlannerTest.createCFs;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.admin.compaction.CompactableFile;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.spi.common.ServiceEnvironment;
+import org.apache.accumulo.core.spi.common.ServiceEnvironment.Configuration;
+import org.apache.accumulo.core.spi.compaction.CompactionPlan.Builder;
+import org.apache.accumulo.core.util.compaction.CompactionPlanImpl;
+import org.apache.hadoop.shaded.com.google.common.collect.Iterables;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class ReadCostCompactionPlannerTest {
+
+  @Test
+  public void testColdTabletDeferred() {
+    var planner = createPlanner();
+
+    var all = createCFs("F1", "1M", "F2", "1M", "F3", "1M", "F4", "1M");
+    var plan = planner.makePlan(createPlanningParams(all, 3, 0, CompactionKind.SYSTEM));
+    assertTrue(plan.getJobs().isEmpty());
+
+    // a user compaction of a cold tablet is not deferred
+    plan = planner.makePlan(createPlanningParams(all, 3, 0, CompactionKind.USER));
+    assertEquals(all, Iterables.getOnlyElement(plan.getJobs()).getFiles());
+
+    // once a tablet is scanned its files are compacted
+    plan = planner.makePlan(createPlanningParams(all, 3, 10, CompactionKind.SYSTEM));
+    assertEquals(all, Iterables.getOnlyElement(plan.getJobs()).getFiles());
+
+    // a cold tablet with too many files is compacted
+    all = createCFs("F1", "1M", "F2", "1M", "F3", "1M", "F4", "1M", "F5", "1M", "F6", "1M");
+    plan = planner.makePlan(createPlanningParams(all, 3, 0, CompactionKind.SYSTEM));
+    assertEquals(all, Iterables.getOnlyElement(plan.getJobs()).getFiles());
+  }
+
+  @Test
+  public void testHotTabletRatio() {
+    var planner = createPlanner();
+
+    // does not meet the table's ratio of 3, but does meet the hot ratio of 2
+    var all = createCFs("F1", "4M", "F2", "4M", "F3", "4M", "F4", "10M");
+
+    var plan = planner.makePlan(createPlanningParams(all, 3, 10, CompactionKind.SYSTEM));
+    assertTrue(plan.getJobs().isEmpty());
+
+    plan = planner.makePlan(createPlanningParams(all, 3, 1000, CompactionKind.SYSTEM));
+    assertEquals(all, Iterables.getOnlyElement(plan.getJobs()).getFiles());
+  }
+
+  @Test
+  public void testPriority() {
+    var planner = createPlanner();
+
+    var all = createCFs("F1", "1M", "F2", "1M", "F3", "1M", "F4", "1M");
+    var warmJob = Iterables.getOnlyElement(
+        planner.makePlan(createPlanningParams(all, 3, 10, CompactionKind.SYSTEM)).getJobs());
+    var hotJob = Iterables.getOnlyElement(
+        planner.makePlan(createPlanningParams(all, 3, 5000, CompactionKind.SYSTEM)).getJobs());
+    assertTrue(hotJob.getPriority() > warmJob.getPriority());
+
+    // a hot tablet with fewer files can have a higher read cost than a warm tablet with more files
+    var moreFiles =
+        createCFs("F1", "1M", "F2", "1M", "F3", "1M", "F4", "1M", "F5", "1M", "F6", "1M");
+    var warmerJob = Iterables.getOnlyElement(
+        planner.makePlan(createPlanningParams(moreFiles, 3, 10, CompactionKind.SYSTEM)).getJobs());
+    assertTrue(hotJob.getPriority() > warmerJob.getPriority());
+
+    // user compactions are still prioritized over system compactions
+    var userJob = Iterables.getOnlyElement(
+        planner.makePlan(createPlanningParams(all, 3, 0, CompactionKind.USER)).getJobs());
+    assertTrue(userJob.getPriority() > hotJob.getPriority());
+  }
+
+  private static CompactionPlanner.PlanningParameters createPlanningParams(Set<CompactableFile> all,
+      double ratio, double scanRate, CompactionKind kind) {
+    return new CompactionPlanner.PlanningParameters() {
+
+      @Override
+      public TableId getTableId() {
+        return TableId.of("42");
+      }
+
+      @Override
+      public ServiceEnvironment getServiceEnvironment() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Collection<CompactionJob> getRunningCompactions() {
+        return Set.of();
+      }
+
+      @Override
+      public double getRatio() {
+        return ratio;
+      }
+
+      @Override
+      public CompactionKind getKind() {
+        return kind;
+      }
+
+      @Override
+      public Map<String,String> getExecutionHints() {
+        return Map.of();
+      }
+
+      @Override
+      public Collection<CompactableFile> getCandidates() {
+        return all;
+      }
+
+      @Override
+      public Collection<CompactableFile> getAll() {
+        return all;
+      }
+
+      @Override
+      public double getScanRate() {
+        return scanRate;
+      }
+
+      @Override
+      public Builder createPlanBuilder() {
+        return new CompactionPlanImpl.BuilderImpl(kind, all, all);
+      }
+    };
+  }
+
+  private static ReadCostCompactionPlanner createPlanner() {
+    ReadCostCompactionPlanner planner = new ReadCostCompactionPlanner();
+    Configuration conf = EasyMock.createMock(Configuration.class);
+    EasyMock.expect(conf.isSet(EasyMock.anyString())).andReturn(false).anyTimes();
+
+    ServiceEnvironment senv = EasyMock.createMock(ServiceEnvironment.class);
+    EasyMock.expect(senv.getConfiguration()).andReturn(conf).anyTimes();
+
+    EasyMock.replay(conf, senv);
+
+    planner.init(new CompactionPlanner.InitParameters() {
+
+      @Override
+      public ServiceEnvironment getServiceEnvironment() {
+        return senv;
+      }
+
+      @Override
+      public Map<String,String> getOptions() {
+        return Map.of("executors", "[{\"name\":\"small\",\"numThreads\":1}]", "maxOpen", "15",
+            "hotScanRate", "1000", "coldMaxFiles", "6");
+      }
+
+      @Override
+      public String getFullyQualifiedOption(String key) {
+        return Property.TSERV_COMPACTION_SERVICE_PREFIX.getKey() + "cs1.planner.opts." + key;
+      }
+
+      @Override
+      public ExecutorManager getExecutorManager() {
+        return new ExecutorManager() {
+          @Override
+          public CompactionExecutorId createExecutor(String name, int threads) {
+            return CompactionExecutorId.of(name);
+          }
+
+          @Override
+          public CompactionExecutorId createExternalExecutor(String name, int threads,
+              String queue) {
+            return CompactionExecutorId.of(name + "." + queue);
+          }
+        };
+      }
+    });
+
+    return planner;
+  }
+}
@@ -32,7 +32,11 @@ public enum ServerType {
   TABLET_SERVER("TServer"),
   GARBAGE_COLLECTOR("GC"),
   TRACER("Tracer"),
-  MONITOR("Monitor");
+  MONITOR("Monitor"),
+  /**
+   * @since 2.1.0
+   */
+  COMPACTOR("Compactor");
 
   private final String prettyPrint;
 
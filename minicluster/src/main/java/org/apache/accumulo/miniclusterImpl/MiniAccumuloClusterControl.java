@@ -39,6 +39,7 @@ import org.apache.accumulo.monitor.Monitor;
 import org.apache.accumulo.server.util.Admin;
 import org.apache.accumulo.tracer.TraceServer;
 import org.apache.accumulo.tserver.TabletServer;
+import org.apache.accumulo.tserver.compactions.CompactorServer;
 import org.apache.zookeeper.server.ZooKeeperServerMain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +59,7 @@ public class MiniAccumuloClusterControl implements ClusterControl {
   Process monitor = null;
   Process tracer = null;
   final List<Process> tabletServerProcesses = new ArrayList<>();
+  final List<Process> compactorProcesses = new ArrayList<>();
 
   public MiniAccumuloClusterControl(MiniAccumuloClusterImpl cluster) {
     requireNonNull(cluster);
@@ -141,6 +143,16 @@ public class MiniAccumuloClusterControl implements ClusterControl {
           }
         }
         break;
+      case COMPACTOR:
+        synchronized (compactorProcesses) {
+          int count = 0;
+          for (int i = compactorProcesses.size();
+              count < limit && i < cluster.getConfig().getNumCompactors(); i++, ++count) {
+            compactorProcesses.add(cluster._exec(CompactorServer.class, server, configOverrides,
+                "-q", cluster.getConfig().getCompactorQueue()).getProcess());
+          }
+        }
+        break;
       case MASTER:
       case MANAGER:
         if (managerProcess == null) {
@@ -244,6 +256,23 @@ public class MiniAccumuloClusterControl implements ClusterControl {
           }
         }
         break;
+      case COMPACTOR:
+        synchronized (compactorProcesses) {
+          try {
+            for (Process compactor : compactorProcesses) {
+              try {
+                cluster.stopProcessWithTimeout(compactor, 30, TimeUnit.SECONDS);
+              } catch (ExecutionException | TimeoutException e) {
+                log.warn("Compactor did not fully stop after 30 seconds", e);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            }
+          } finally {
+            compactorProcesses.clear();
+          }
+        }
+        break;
       case MONITOR:
         if (monitor != null) {
           try {
@@ -324,6 +353,22 @@ public class MiniAccumuloClusterControl implements ClusterControl {
           }
         }
         break;
+      case COMPACTOR:
+        synchronized (compactorProcesses) {
+          for (Process compactor : compactorProcesses) {
+            if (procRef.getProcess().equals(compactor)) {
+              compactorProcesses.remove(compactor);
+              try {
+                cluster.stopProcessWithTimeout(compactor, 30, TimeUnit.SECONDS);
+              } catch (ExecutionException | TimeoutException e) {
+                log.warn("Compactor did not fully stop after 30 seconds", e);
+              }
+              found = true;
+              break;
+            }
+          }
+        }
+        break;
       case ZOOKEEPER:
         if (procRef.getProcess().equals(zooKeeperProcess)) {
           try {
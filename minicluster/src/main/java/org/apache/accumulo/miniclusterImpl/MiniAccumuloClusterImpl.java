@@ -596,6 +596,7 @@ public class MiniAccumuloClusterImpl implements AccumuloCluster {
 
     control.start(ServerType.MANAGER);
     control.start(ServerType.GARBAGE_COLLECTOR);
+    control.start(ServerType.COMPACTOR);
 
     if (executor == null) {
       executor = Executors.newSingleThreadExecutor();
@@ -635,6 +636,10 @@ public class MiniAccumuloClusterImpl implements AccumuloCluster {
     if (control.gcProcess != null) {
       result.put(ServerType.GARBAGE_COLLECTOR, references(control.gcProcess));
     }
+    if (!control.compactorProcesses.isEmpty()) {
+      result.put(ServerType.COMPACTOR,
+          references(control.compactorProcesses.toArray(new Process[0])));
+    }
     return result;
   }
 
@@ -675,6 +680,7 @@ public class MiniAccumuloClusterImpl implements AccumuloCluster {
 
     MiniAccumuloClusterControl control = getClusterControl();
 
+    control.stop(ServerType.COMPACTOR, null);
     control.stop(ServerType.GARBAGE_COLLECTOR, null);
     control.stop(ServerType.MANAGER, null);
     control.stop(ServerType.TABLET_SERVER, null);
@@ -56,6 +56,8 @@ public class MiniAccumuloConfigImpl {
   private Map<String,String> configuredSiteConig = new HashMap<>();
   private Map<String,String> clientProps = new HashMap<>();
   private int numTservers = 2;
+  private int numCompactors = 0;
+  private String compactorQueue = "default";
   private Map<ServerType,Long> memoryConfig = new HashMap<>();
   private boolean jdwpEnabled = false;
   private Map<String,String> systemProperties = new HashMap<>();
@@ -526,6 +528,40 @@ public class MiniAccumuloConfigImpl {
     return numTservers;
   }
 
+  /**
+   * Calling this method is optional. If not set, no compactors are started.
+   *
+   * @param numCompactors
+   *          the number of compactor processes that mini accumulo cluster should start
+   * @param queue
+   *          the compaction queue the compactors take jobs from
+   * @since 2.1.0
+   */
+  public MiniAccumuloConfigImpl setNumCompactors(int numCompactors, String queue) {
+    if (numCompactors < 0) {
+      throw new IllegalArgumentException("Number of compactors can not be negative");
+    }
+    this.numCompactors = numCompactors;
+    this.compactorQueue = queue;
+    return this;
+  }
+
+  /**
+   * @return the number of compactors configured for this cluster
+   * @since 2.1.0
+   */
+  public int getNumCompactors() {
+    return numCompactors;
+  }
+
+  /**
+   * @return the compaction queue the compactors of this cluster take jobs from
+   * @since 2.1.0
+   */
+  public String getCompactorQueue() {
+    return compactorQueue;
+  }
+
   /**
    * @return is the current configuration in jdwpEnabled mode?
    *
@@ -23,23 +23,26 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import org.apache.accumulo.core.client.SampleNotPresentException;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
 import org.apache.accumulo.core.file.blockfile.impl.CacheProvider;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
@@ -69,43 +72,18 @@ public class FileManager {
 
   private int maxOpen;
 
-  private static class OpenReader implements Comparable<OpenReader> {
-    long releaseTime;
-    FileSKVIterator reader;
-    String fileName;
-
-    public OpenReader(String fileName, FileSKVIterator reader) {
-      this.fileName = fileName;
-      this.reader = reader;
-      this.releaseTime = System.currentTimeMillis();
-    }
-
-    @Override
-    public int compareTo(OpenReader o) {
-      return Long.compare(releaseTime, o.releaseTime);
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-      if (obj instanceof OpenReader) {
-        return compareTo((OpenReader) obj) == 0;
-      }
-      return false;
-    }
-
-    @Override
-    public int hashCode() {
-      return fileName.hashCode();
-    }
-  }
-
-  private Map<String,List<OpenReader>> openFiles;
-  private HashMap<FileSKVIterator,String> reservedReaders;
+  private final ReaderPool readerPool = new ReaderPool();
+  private final Map<FileSKVIterator,String> reservedReaders = new ConcurrentHashMap<>();
 
   private Semaphore filePermits;
 
+  private final LongAdder reservations = new LongAdder();
+  private final LongAdder reservationWaitMillis = new LongAdder();
+
   private Cache<String,Long> fileLenCache;
 
+  private final BlockPrefetcher prefetcher;
+
   private long maxIdleTime;
   private long slowFilePermitMillis;
 
@@ -115,54 +93,25 @@ public class FileManager {
 
     @Override
     public void run() {
-
-      long curTime = System.currentTimeMillis();
-
-      ArrayList<FileSKVIterator> filesToClose = new ArrayList<>();
-
-      // determine which files to close in a sync block, and then close the
-      // files outside of the sync block
-      synchronized (FileManager.this) {
-        Iterator<Entry<String,List<OpenReader>>> iter = openFiles.entrySet().iterator();
-        while (iter.hasNext()) {
-          Entry<String,List<OpenReader>> entry = iter.next();
-          List<OpenReader> ofl = entry.getValue();
-
-          for (Iterator<OpenReader> oflIter = ofl.iterator(); oflIter.hasNext();) {
-            OpenReader openReader = oflIter.next();
-
-            if (curTime - openReader.releaseTime > maxIdleTime) {
-
-              filesToClose.add(openReader.reader);
-              oflIter.remove();
-            }
-          }
-
-          if (ofl.isEmpty()) {
-            iter.remove();
-          }
-        }
-      }
-
-      closeReaders(filesToClose);
-
+      closeReaders(readerPool.takeIdle(maxIdleTime, System.currentTimeMillis()));
     }
 
   }
 
-  public FileManager(ServerContext context, int maxOpen, Cache<String,Long> fileLenCache) {
+  public FileManager(ServerContext context, int maxOpen, Cache<String,Long> fileLenCache,
+      BlockPrefetcher prefetcher) {
 
     if (maxOpen <= 0)
       throw new IllegalArgumentException("maxOpen <= 0");
     this.context = context;
     this.fileLenCache = fileLenCache;
+    this.prefetcher = prefetcher;
 
-    this.filePermits = new Semaphore(maxOpen, false);
+    // permits are handed out first come first served, so a tablet needing many files is not
+    // starved by tablets needing few
+    this.filePermits = new Semaphore(maxOpen, true);
     this.maxOpen = maxOpen;
 
-    this.openFiles = new HashMap<>();
-    this.reservedReaders = new HashMap<>();
-
     this.maxIdleTime = context.getConfiguration().getTimeInMillis(Property.TSERV_MAX_IDLE);
     ThreadPools.createGeneralScheduledExecutorService(context.getConfiguration())
         .scheduleWithFixedDelay(new IdleFileCloser(), maxIdleTime, maxIdleTime / 2,
@@ -172,46 +121,6 @@ public class FileManager {
         context.getConfiguration().getTimeInMillis(Property.TSERV_SLOW_FILEPERMIT_MILLIS);
   }
 
-  private static int countReaders(Map<String,List<OpenReader>> files) {
-    int count = 0;
-
-    for (List<OpenReader> list : files.values()) {
-      count += list.size();
-    }
-
-    return count;
-  }
-
-  private List<FileSKVIterator> takeLRUOpenFiles(int numToTake) {
-
-    ArrayList<OpenReader> openReaders = new ArrayList<>();
-
-    for (Entry<String,List<OpenReader>> entry : openFiles.entrySet()) {
-      openReaders.addAll(entry.getValue());
-    }
-
-    Collections.sort(openReaders);
-
-    ArrayList<FileSKVIterator> ret = new ArrayList<>();
-
-    for (int i = 0; i < numToTake && i < openReaders.size(); i++) {
-      OpenReader or = openReaders.get(i);
-
-      List<OpenReader> ofl = openFiles.get(or.fileName);
-      if (!ofl.remove(or)) {
-        throw new RuntimeException("Failed to remove open reader that should have been there");
-      }
-
-      if (ofl.isEmpty()) {
-        openFiles.remove(or.fileName);
-      }
-
-      ret.add(or.reader);
-    }
-
-    return ret;
-  }
-
   private void closeReaders(Collection<FileSKVIterator> filesToClose) {
     for (FileSKVIterator reader : filesToClose) {
       try {
@@ -226,13 +135,9 @@ public class FileManager {
       Map<FileSKVIterator,String> readersReserved) {
     List<String> filesToOpen = Collections.emptyList();
     for (String file : files) {
-      List<OpenReader> ofl = openFiles.get(file);
-      if (ofl != null && !ofl.isEmpty()) {
-        OpenReader openReader = ofl.remove(ofl.size() - 1);
-        readersReserved.put(openReader.reader, file);
-        if (ofl.isEmpty()) {
-          openFiles.remove(file);
-        }
+      FileSKVIterator reader = readerPool.take(file);
+      if (reader != null) {
+        readersReserved.put(reader, file);
       } else {
         if (filesToOpen.isEmpty()) {
           filesToOpen = new ArrayList<>(files.size());
@@ -263,6 +168,9 @@ public class FileManager {
       filePermits.acquireUninterruptibly(files.size());
       long waitTime = System.currentTimeMillis() - start;
 
+      reservations.increment();
+      reservationWaitMillis.add(waitTime);
+
       if (waitTime >= slowFilePermitMillis) {
         log.info("Slow file permits request: {} ms, files requested: {}, tablet: {}", waitTime,
             files.size(), tablet);
@@ -272,21 +180,10 @@ public class FileManager {
     // now that the we are past the semaphore, we have the authority
     // to open files.size() files
 
-    // determine what work needs to be done in sync block
-    // but do the work of opening and closing files outside
-    // a synch block
-    synchronized (this) {
+    filesToOpen = takeOpenFiles(files, readersReserved);
 
-      filesToOpen = takeOpenFiles(files, readersReserved);
-
-      if (!filesToOpen.isEmpty()) {
-        int numOpen = countReaders(openFiles);
-
-        if (filesToOpen.size() + numOpen + reservedReaders.size() > maxOpen) {
-          filesToClose =
-              takeLRUOpenFiles((filesToOpen.size() + numOpen + reservedReaders.size()) - maxOpen);
-        }
-      }
+    if (!filesToOpen.isEmpty()) {
+      filesToClose = readerPool.opening(filesToOpen.size(), maxOpen);
     }
 
     readersReserved.forEach((k, v) -> k.setCacheProvider(cacheProvider));
@@ -296,17 +193,21 @@ public class FileManager {
     closeReaders(filesToClose);
 
     // open any files that need to be opened
-    for (String file : filesToOpen) {
+    for (int i = 0; i < filesToOpen.size(); i++) {
+      String file = filesToOpen.get(i);
       try {
         if (!file.contains(":"))
           throw new IllegalArgumentException("Expected uri, got : " + file);
         Path path = new Path(file);
         FileSystem ns = context.getVolumeManager().getFileSystemByPath(path);
         // log.debug("Opening "+file + " path " + path);
+        AccumuloConfiguration tableConf = context.getTableConfiguration(tablet.tableId());
         FileSKVIterator reader = FileOperations.getInstance().newReaderBuilder()
             .forFile(path.toString(), ns, ns.getConf(), context.getCryptoService())
-            .withTableConfiguration(context.getTableConfiguration(tablet.tableId()))
-            .withCacheProvider(cacheProvider).withFileLenCache(fileLenCache).build();
+            .withTableConfiguration(tableConf).withCacheProvider(cacheProvider)
+            .withFileLenCache(fileLenCache)
+            .withPrefetch(prefetcher, tableConf.getCount(Property.TABLE_FILE_PREFETCH_SCAN))
+            .build();
         readersReserved.put(reader, file);
       } catch (Exception e) {
 
@@ -318,10 +219,12 @@ public class FileManager {
           if (!tablet.isMeta()) {
             filePermits.release(1);
           }
+          readerPool.closed(1);
           log.warn("Failed to open file {} {} continuing...", file, e.getMessage(), e);
         } else {
-          // close whatever files were opened
+          // close whatever files were opened, and account for the files not yet opened
           closeReaders(readersReserved.keySet());
+          readerPool.closed(readersReserved.size() + filesToOpen.size() - i);
 
           if (!tablet.isMeta()) {
             filePermits.release(files.size());
@@ -333,45 +236,41 @@ public class FileManager {
       }
     }
 
-    synchronized (this) {
-      // update set of reserved readers
-      reservedReaders.putAll(readersReserved);
-    }
+    // update set of reserved readers
+    reservedReaders.putAll(readersReserved);
 
     return readersReserved;
   }
 
   private void releaseReaders(KeyExtent tablet, List<FileSKVIterator> readers,
       boolean sawIOException) {
-    // put files in openFiles
-
-    synchronized (this) {
-
-      // check that readers were actually reserved ... want to make sure a thread does
-      // not try to release readers they never reserved
-      if (!reservedReaders.keySet().containsAll(readers)) {
-        throw new IllegalArgumentException("Asked to release readers that were never reserved ");
-      }
+    // check that readers were actually reserved ... want to make sure a thread does
+    // not try to release readers they never reserved
+    if (!reservedReaders.keySet().containsAll(readers)) {
+      throw new IllegalArgumentException("Asked to release readers that were never reserved ");
+    }
 
-      for (FileSKVIterator reader : readers) {
-        try {
-          reader.closeDeepCopies();
-        } catch (IOException e) {
-          log.warn("{}", e.getMessage(), e);
-          sawIOException = true;
-        }
+    for (FileSKVIterator reader : readers) {
+      try {
+        reader.closeDeepCopies();
+      } catch (IOException e) {
+        log.warn("{}", e.getMessage(), e);
+        sawIOException = true;
       }
+    }
 
-      for (FileSKVIterator reader : readers) {
-        String fileName = reservedReaders.remove(reader);
-        if (!sawIOException)
-          openFiles.computeIfAbsent(fileName, k -> new ArrayList<>())
-              .add(new OpenReader(fileName, reader));
-      }
+    // put files in the reader pool
+    long releaseTime = System.currentTimeMillis();
+    for (FileSKVIterator reader : readers) {
+      String fileName = reservedReaders.remove(reader);
+      if (!sawIOException)
+        readerPool.release(fileName, reader, releaseTime);
     }
 
-    if (sawIOException)
+    if (sawIOException) {
       closeReaders(readers);
+      readerPool.closed(readers.size());
+    }
 
     // decrement the semaphore
     if (!tablet.isMeta()) {
@@ -380,6 +279,34 @@ public class FileManager {
 
   }
 
+  /**
+   * @return the number of times file permits were reserved for a scan
+   */
+  public long getReservations() {
+    return reservations.sum();
+  }
+
+  /**
+   * @return the total time scans spent waiting for file permits
+   */
+  public long getReservationWaitMillis() {
+    return reservationWaitMillis.sum();
+  }
+
+  /**
+   * @return the number of open file readers, reserved or idle
+   */
+  public int getOpenReaders() {
+    return readerPool.getOpenCount();
+  }
+
+  /**
+   * @return the number of open file readers not reserved by a scan
+   */
+  public int getIdleReaders() {
+    return readerPool.getIdleCount();
+  }
+
   static class FileDataSource implements DataSource {
 
     private SortedKeyValueIterator<Key,Value> iter;
@@ -22,6 +22,7 @@ import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -36,6 +37,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import org.apache.accumulo.core.client.SampleNotPresentException;
 import org.apache.accumulo.core.client.sample.Sampler;
@@ -57,6 +60,7 @@ import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.WrappingIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.EmptyIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.HeapIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleMapIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.LocalityGroupIterator;
@@ -88,6 +92,8 @@ public class InMemoryMap {
   private volatile String memDumpFile = null;
   private final String memDumpDir;
   private final String mapType;
+  // when the map is sharded, writers fill it in parallel and only wait on each other to publish
+  private final boolean concurrentWrites;
 
   private Map<String,Set<ByteSequence>> lggroups;
 
@@ -108,6 +114,8 @@ public class InMemoryMap {
   public static final String TYPE_DEFAULT_MAP = "DefaultMap";
   public static final String TYPE_LOCALITY_GROUP_MAP = "LocalityGroupMap";
   public static final String TYPE_LOCALITY_GROUP_MAP_NATIVE = "LocalityGroupMap with native";
+  public static final String TYPE_OFF_HEAP_MAP_WRAPPER = "OffHeapMapWrapper";
+  public static final String TYPE_LOCALITY_GROUP_MAP_OFF_HEAP = "LocalityGroupMap with off heap";
 
   private AtomicReference<Pair<SamplerConfigurationImpl,Sampler>> samplerRef =
       new AtomicReference<>(null);
@@ -131,7 +139,9 @@ public class InMemoryMap {
 
   public InMemoryMap(AccumuloConfiguration config, ServerContext serverContext, TableId tableId) {
 
-    boolean useNativeMap = config.getBoolean(Property.TSERV_NATIVEMAP_ENABLED);
+    boolean useOffHeapMap = config.getBoolean(Property.TSERV_OFFHEAPMAP_ENABLED);
+    // the off heap map is opted into explicitly, so it takes precedence over the native map
+    boolean useNativeMap = !useOffHeapMap && config.getBoolean(Property.TSERV_NATIVEMAP_ENABLED);
 
     this.memDumpDir = config.get(Property.TSERV_MEMDUMP_DIR);
     this.lggroups = LocalityGroupUtil.getLocalityGroupsIgnoringErrors(config, tableId);
@@ -139,23 +149,40 @@ public class InMemoryMap {
     this.config = config;
     this.context = serverContext;
 
+    int shards = config.getCount(Property.TABLE_MEMORY_MAP_SHARDS);
+    this.concurrentWrites = shards > 1;
+
     SimpleMap allMap;
     SimpleMap sampleMap;
 
     if (lggroups.isEmpty()) {
-      allMap = newMap(useNativeMap);
-      sampleMap = newMap(useNativeMap);
-      mapType = useNativeMap ? TYPE_NATIVE_MAP_WRAPPER : TYPE_DEFAULT_MAP;
+      allMap = newShardedMap(shards, () -> newMap(useNativeMap, useOffHeapMap));
+      sampleMap = newShardedMap(shards, () -> newMap(useNativeMap, useOffHeapMap));
+      if (useOffHeapMap) {
+        mapType = TYPE_OFF_HEAP_MAP_WRAPPER;
+      } else {
+        mapType = useNativeMap ? TYPE_NATIVE_MAP_WRAPPER : TYPE_DEFAULT_MAP;
+      }
     } else {
-      allMap = new LocalityGroupMap(lggroups, useNativeMap);
-      sampleMap = new LocalityGroupMap(lggroups, useNativeMap);
-      mapType = useNativeMap ? TYPE_LOCALITY_GROUP_MAP_NATIVE : TYPE_LOCALITY_GROUP_MAP;
+      allMap =
+          newShardedMap(shards, () -> new LocalityGroupMap(lggroups, useNativeMap, useOffHeapMap));
+      sampleMap =
+          newShardedMap(shards, () -> new LocalityGroupMap(lggroups, useNativeMap, useOffHeapMap));
+      if (useOffHeapMap) {
+        mapType = TYPE_LOCALITY_GROUP_MAP_OFF_HEAP;
+      } else {
+        mapType = useNativeMap ? TYPE_LOCALITY_GROUP_MAP_NATIVE : TYPE_LOCALITY_GROUP_MAP;
+      }
     }
 
     map = new SampleMap(allMap, sampleMap);
   }
 
-  private static SimpleMap newMap(boolean useNativeMap) {
+  private static SimpleMap newMap(boolean useNativeMap, boolean useOffHeapMap) {
+    if (useOffHeapMap) {
+      return new OffHeapMapWrapper();
+    }
+
     if (useNativeMap && NativeMap.isLoaded()) {
       try {
         return new NativeMapWrapper();
@@ -167,13 +194,28 @@ public class InMemoryMap {
     return new DefaultMap();
   }
 
+  private static SimpleMap newShardedMap(int shards, Supplier<SimpleMap> mapFactory) {
+    if (shards <= 1) {
+      return mapFactory.get();
+    }
+
+    SimpleMap[] maps = new SimpleMap[shards];
+    for (int i = 0; i < maps.length; i++) {
+      maps[i] = mapFactory.get();
+    }
+    return new ShardedMap(maps);
+  }
+
   /**
    * Description of the type of SimpleMap that is created.
    * <p>
-   * If no locality groups are present, the SimpleMap is either TYPE_DEFAULT_MAP or
-   * TYPE_NATIVE_MAP_WRAPPER. If there is one more locality groups, then the InMemoryMap has an
-   * array for simple maps that either contain either TYPE_LOCALITY_GROUP_MAP which contains
-   * DefaultMaps or TYPE_LOCALITY_GROUP_MAP_NATIVE which contains NativeMapWrappers.
+   * If no locality groups are present, the SimpleMap is either TYPE_DEFAULT_MAP,
+   * TYPE_NATIVE_MAP_WRAPPER or TYPE_OFF_HEAP_MAP_WRAPPER. If there is one more locality groups,
+   * then the InMemoryMap has an array for simple maps that either contain either
+   * TYPE_LOCALITY_GROUP_MAP which contains DefaultMaps, TYPE_LOCALITY_GROUP_MAP_NATIVE which
+   * contains NativeMapWrappers or TYPE_LOCALITY_GROUP_MAP_OFF_HEAP which contains
+   * OffHeapMapWrappers. When table.memory.map.shards is greater than one, each of these maps is
+   * split into that many shards that are merged when read.
    *
    * @return String that describes the Map type
    */
@@ -283,15 +325,23 @@ public class InMemoryMap {
     // the last map in the array is the default locality group
     private SimpleMap[] maps;
     private Partitioner partitioner;
-    private PreAllocatedArray<List<Mutation>> partitioned;
+    // each writing thread partitions into its own lists, so writers do not block each other
+    private ThreadLocal<PreAllocatedArray<List<Mutation>>> partitioned;
 
-    LocalityGroupMap(Map<String,Set<ByteSequence>> groups, boolean useNativeMap) {
+    LocalityGroupMap(Map<String,Set<ByteSequence>> groups, boolean useNativeMap,
+        boolean useOffHeapMap) {
       this.groupFams = new PreAllocatedArray<>(groups.size());
       this.maps = new SimpleMap[groups.size() + 1];
-      this.partitioned = new PreAllocatedArray<>(groups.size() + 1);
+      this.partitioned = ThreadLocal.withInitial(() -> {
+        PreAllocatedArray<List<Mutation>> lists = new PreAllocatedArray<>(maps.length);
+        for (int i = 0; i < lists.length; i++) {
+          lists.set(i, new ArrayList<>());
+        }
+        return lists;
+      });
 
       for (int i = 0; i < maps.length; i++) {
-        maps[i] = newMap(useNativeMap);
+        maps[i] = newMap(useNativeMap, useOffHeapMap);
       }
 
       int count = 0;
@@ -303,10 +353,6 @@ public class InMemoryMap {
       }
 
       partitioner = new LocalityGroupUtil.Partitioner(this.groupFams);
-
-      for (int i = 0; i < partitioned.length; i++) {
-        partitioned.set(i, new ArrayList<>());
-      }
     }
 
     @Override
@@ -348,10 +394,9 @@ public class InMemoryMap {
     }
 
     @Override
-    public synchronized void mutate(List<Mutation> mutations, int kvCount) {
-      // this method is synchronized because it reuses objects to avoid allocation,
-      // currently, the method that calls this is synchronized so there is no
-      // loss in parallelism.... synchronization was added here for future proofing
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      // reuses per thread objects to avoid allocation, the partitioner only reads shared state
+      PreAllocatedArray<List<Mutation>> partitioned = this.partitioned.get();
 
       try {
         partitioner.partition(mutations, partitioned);
@@ -373,6 +418,123 @@ public class InMemoryMap {
 
   }
 
+  /**
+   * A map split into shards that can be written by different threads at the same time. A writer
+   * takes the first shard that no other writer holds, starting at a shard picked by its thread, and
+   * only waits for a shard when all of them are busy. Iterators merge the shards on the fly, the
+   * kvCount in each MemKey keeps entries for the same key in write order across shards.
+   */
+  private static class ShardedMap implements SimpleMap {
+    private final SimpleMap[] shards;
+    private final ReentrantLock[] locks;
+
+    ShardedMap(SimpleMap[] shards) {
+      this.shards = shards;
+      this.locks = new ReentrantLock[shards.length];
+      for (int i = 0; i < locks.length; i++) {
+        locks[i] = new ReentrantLock();
+      }
+    }
+
+    @Override
+    public int size() {
+      int sum = 0;
+      for (SimpleMap shard : shards)
+        sum += shard.size();
+      return sum;
+    }
+
+    @Override
+    public InterruptibleIterator skvIterator(SamplerConfigurationImpl samplerConfig) {
+      if (samplerConfig != null)
+        throw new SampleNotPresentException();
+
+      InterruptibleIterator[] iters = new InterruptibleIterator[shards.length];
+      for (int i = 0; i < iters.length; i++) {
+        iters[i] = shards[i].skvIterator(null);
+      }
+      return new ShardMergingIterator(iters);
+    }
+
+    @Override
+    public void delete() {
+      for (SimpleMap shard : shards)
+        shard.delete();
+    }
+
+    @Override
+    public long getMemoryUsed() {
+      long sum = 0;
+      for (SimpleMap shard : shards)
+        sum += shard.getMemoryUsed();
+      return sum;
+    }
+
+    @Override
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      int home = (int) (Thread.currentThread().getId() % shards.length);
+      for (int i = 0; i < shards.length; i++) {
+        int shard = (home + i) % shards.length;
+        if (locks[shard].tryLock()) {
+          try {
+            shards[shard].mutate(mutations, kvCount);
+          } finally {
+            locks[shard].unlock();
+          }
+          return;
+        }
+      }
+
+      locks[home].lock();
+      try {
+        shards[home].mutate(mutations, kvCount);
+      } finally {
+        locks[home].unlock();
+      }
+    }
+  }
+
+  private static class ShardMergingIterator extends HeapIterator implements InterruptibleIterator {
+    private final InterruptibleIterator[] iters;
+
+    ShardMergingIterator(InterruptibleIterator[] iters) {
+      super(iters.length);
+      this.iters = iters;
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
+        throws IOException {
+      clear();
+      for (InterruptibleIterator iter : iters) {
+        iter.seek(range, columnFamilies, inclusive);
+        addSource(iter);
+      }
+    }
+
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options,
+        IteratorEnvironment env) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+      InterruptibleIterator[] copies = new InterruptibleIterator[iters.length];
+      for (int i = 0; i < copies.length; i++) {
+        copies[i] = (InterruptibleIterator) iters[i].deepCopy(env);
+      }
+      return new ShardMergingIterator(copies);
+    }
+
+    @Override
+    public void setInterruptFlag(AtomicBoolean flag) {
+      for (InterruptibleIterator iter : iters) {
+        iter.setInterruptFlag(flag);
+      }
+    }
+  }
+
   private static class DefaultMap implements SimpleMap {
     private ConcurrentSkipListMap<Key,Value> map =
         new ConcurrentSkipListMap<>(new MemKeyComparator());
@@ -470,6 +632,37 @@ public class InMemoryMap {
     }
   }
 
+  private static class OffHeapMapWrapper implements SimpleMap {
+    private OffHeapMap offHeapMap = new OffHeapMap();
+
+    @Override
+    public int size() {
+      return offHeapMap.size();
+    }
+
+    @Override
+    public InterruptibleIterator skvIterator(SamplerConfigurationImpl samplerConfig) {
+      if (samplerConfig != null)
+        throw new SampleNotPresentException();
+      return offHeapMap.skvIterator();
+    }
+
+    @Override
+    public void delete() {
+      offHeapMap.delete();
+    }
+
+    @Override
+    public long getMemoryUsed() {
+      return offHeapMap.getMemoryUsed();
+    }
+
+    @Override
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      offHeapMap.mutate(mutations, kvCount);
+    }
+  }
+
   private AtomicInteger nextKVCount = new AtomicInteger(1);
   private AtomicInteger kvCount = new AtomicInteger(0);
 
@@ -480,6 +673,11 @@ public class InMemoryMap {
    *
    */
   public void mutate(List<Mutation> mutations, int numKVs) {
+    if (concurrentWrites) {
+      mutateConcurrently(mutations, numKVs);
+      return;
+    }
+
     // Can not update mutationCount while writes that started before
     // are in progress, this would cause partial mutations to be seen.
     // Also, can not continue until mutation count is updated, because
@@ -497,6 +695,38 @@ public class InMemoryMap {
     }
   }
 
+  private void mutateConcurrently(List<Mutation> mutations, int numKVs) {
+    // The shards let writes proceed in parallel, however mutationCount still can not move past a
+    // write until every write that started before it has finished. So only publishing the count is
+    // ordered, each writer waits for the writer that started just before it to publish.
+    int kv = nextKVCount.getAndAdd(numKVs);
+    try {
+      map.mutate(mutations, kv);
+    } finally {
+      publishKVCount(kv, numKVs);
+    }
+  }
+
+  private void publishKVCount(int kv, int numKVs) {
+    boolean interrupted = false;
+    synchronized (writeSerializer) {
+      // every later writer waits on this one, so it must publish even when interrupted
+      while (kvCount.get() != kv - 1) {
+        try {
+          writeSerializer.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      kvCount.set(kv + numKVs - 1);
+      writeSerializer.notifyAll();
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   /**
    * Returns a long representing the size of the InMemoryMap
    *
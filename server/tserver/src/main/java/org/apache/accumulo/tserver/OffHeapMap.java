@@ -0,0 +1,575 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.accumulo.core.client.SampleNotPresentException;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IterationInterruptedException;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleIterator;
+import org.apache.hadoop.util.CleanerUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in-memory map that keeps its keys and values outside of the Java heap, as an alternative to
+ * {@link NativeMap} that does not need a native library.
+ *
+ * <p>
+ * Entries are appended to direct {@link ByteBuffer} chunks that make up an arena, and are indexed
+ * by a skip list whose nodes live in the same chunks. Nodes are referenced by their address in the
+ * arena, so the Java heap only holds the chunk objects regardless of how many entries the map
+ * holds. Nothing is ever removed from the arena, all of it is freed at once when the map is
+ * deleted.
+ *
+ * <p>
+ * Like {@link NativeMap}, writers hold a write lock and readers copy small batches of entries onto
+ * the heap while holding a read lock.
+ */
+public class OffHeapMap {
+
+  private static final Logger log = LoggerFactory.getLogger(OffHeapMap.class);
+
+  private static final int MAX_LEVEL = 24;
+
+  // addresses of nodes are the chunk index in the high 32 bits and the offset in the low 32 bits
+  private static final long NIL = -1;
+  private static final long HEAD = -2;
+
+  // layout of a node, the next pointers are followed by the row, cf, cq, cv and value bytes
+  private static final int LEVEL_OFFSET = 0;
+  private static final int KV_COUNT_OFFSET = 4;
+  private static final int TIMESTAMP_OFFSET = 8;
+  private static final int ROW_LEN_OFFSET = 16;
+  private static final int CF_LEN_OFFSET = 20;
+  private static final int CQ_LEN_OFFSET = 24;
+  private static final int CV_LEN_OFFSET = 28;
+  private static final int VALUE_LEN_OFFSET = 32;
+  private static final int DELETED_OFFSET = 36;
+  private static final int NEXT_OFFSET = 40;
+
+  // chunks start small so that maps of idle tablets do not reserve much memory, and double in size
+  // as the map grows
+  static final int MIN_CHUNK_SIZE = 64 * 1024;
+  static final int MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+
+  private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+  private final Lock rlock = rwLock.readLock();
+  private final Lock wlock = rwLock.writeLock();
+
+  // all of the following are guarded by rwLock
+  private ByteBuffer[] chunks = new ByteBuffer[4];
+  private int numChunks = 0;
+  private int chunkPosition = 0;
+  private final long[] head = new long[MAX_LEVEL];
+  private final long[] update = new long[MAX_LEVEL];
+  private int level = 1;
+  private int size = 0;
+  private long allocated = 0;
+  private boolean deleted = false;
+
+  public OffHeapMap() {
+    Arrays.fill(head, NIL);
+  }
+
+  private static int chunkIndex(long address) {
+    return (int) (address >>> 32);
+  }
+
+  private static int chunkOffset(long address) {
+    return (int) address;
+  }
+
+  private ByteBuffer chunk(long address) {
+    return chunks[chunkIndex(address)];
+  }
+
+  private long allocate(int length) {
+    // keep nodes 8 byte aligned
+    length = (length + 7) & ~7;
+
+    ByteBuffer current = numChunks == 0 ? null : chunks[numChunks - 1];
+    if (current == null || current.capacity() - chunkPosition < length) {
+      int chunkSize = current == null ? MIN_CHUNK_SIZE
+          : Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, current.capacity() * 2));
+      chunkSize = Math.max(chunkSize, length);
+      if (numChunks == chunks.length) {
+        chunks = Arrays.copyOf(chunks, chunks.length * 2);
+      }
+      chunks[numChunks++] = ByteBuffer.allocateDirect(chunkSize);
+      chunkPosition = 0;
+      allocated += chunkSize;
+    }
+
+    long address = ((long) (numChunks - 1) << 32) | chunkPosition;
+    chunkPosition += length;
+    return address;
+  }
+
+  private long getNext(long node, int lvl) {
+    if (node == HEAD) {
+      return head[lvl];
+    }
+    return chunk(node).getLong(chunkOffset(node) + NEXT_OFFSET + 8 * lvl);
+  }
+
+  private void setNext(long node, int lvl, long next) {
+    if (node == HEAD) {
+      head[lvl] = next;
+    } else {
+      chunk(node).putLong(chunkOffset(node) + NEXT_OFFSET + 8 * lvl, next);
+    }
+  }
+
+  private static int dataOffset(ByteBuffer buf, int off) {
+    return off + NEXT_OFFSET + 8 * buf.getInt(off + LEVEL_OFFSET);
+  }
+
+  private static int compareBytes(ByteBuffer b1, int o1, int l1, ByteBuffer b2, int o2, int l2) {
+    int min = Math.min(l1, l2);
+    int i = 0;
+    // buffers are big endian, so comparing longs as unsigned compares 8 bytes at a time
+    for (; i + 8 <= min; i += 8) {
+      long v1 = b1.getLong(o1 + i);
+      long v2 = b2.getLong(o2 + i);
+      if (v1 != v2) {
+        return Long.compareUnsigned(v1, v2);
+      }
+    }
+    for (; i < min; i++) {
+      int v1 = b1.get(o1 + i) & 0xff;
+      int v2 = b2.get(o2 + i) & 0xff;
+      if (v1 != v2) {
+        return v1 - v2;
+      }
+    }
+    return l1 - l2;
+  }
+
+  /**
+   * Compares two nodes in the same order as {@link MemKeyComparator}.
+   */
+  private static int compare(ByteBuffer b1, int o1, ByteBuffer b2, int o2) {
+    int d1 = dataOffset(b1, o1);
+    int d2 = dataOffset(b2, o2);
+
+    for (int lenOffset = ROW_LEN_OFFSET; lenOffset <= CV_LEN_OFFSET; lenOffset += 4) {
+      int l1 = b1.getInt(o1 + lenOffset);
+      int l2 = b2.getInt(o2 + lenOffset);
+      int cmp = compareBytes(b1, d1, l1, b2, d2, l2);
+      if (cmp != 0) {
+        return cmp;
+      }
+      d1 += l1;
+      d2 += l2;
+    }
+
+    // newer timestamps sort first
+    int cmp = Long.compare(b2.getLong(o2 + TIMESTAMP_OFFSET), b1.getLong(o1 + TIMESTAMP_OFFSET));
+    if (cmp != 0) {
+      return cmp;
+    }
+
+    // deletes sort first
+    cmp = Byte.compare(b2.get(o2 + DELETED_OFFSET), b1.get(o1 + DELETED_OFFSET));
+    if (cmp != 0) {
+      return cmp;
+    }
+
+    // newer updates sort first
+    return Integer.compare(b2.getInt(o2 + KV_COUNT_OFFSET), b1.getInt(o1 + KV_COUNT_OFFSET));
+  }
+
+  private int compare(long node, ByteBuffer other, int otherOffset) {
+    return compare(chunk(node), chunkOffset(node), other, otherOffset);
+  }
+
+  private static void putHeader(ByteBuffer buf, int off, int lvl, byte[] row, byte[] cf, byte[] cq,
+      byte[] cv, long ts, boolean del, int kvCount, int valueLen) {
+    buf.putInt(off + LEVEL_OFFSET, lvl);
+    buf.putInt(off + KV_COUNT_OFFSET, kvCount);
+    buf.putLong(off + TIMESTAMP_OFFSET, ts);
+    buf.putInt(off + ROW_LEN_OFFSET, row.length);
+    buf.putInt(off + CF_LEN_OFFSET, cf.length);
+    buf.putInt(off + CQ_LEN_OFFSET, cq.length);
+    buf.putInt(off + CV_LEN_OFFSET, cv.length);
+    buf.putInt(off + VALUE_LEN_OFFSET, valueLen);
+    buf.put(off + DELETED_OFFSET, (byte) (del ? 1 : 0));
+  }
+
+  /**
+   * Encodes a key in the node layout with no next pointers, so it can be compared with nodes.
+   */
+  private static ByteBuffer encodeSearchKey(Key key) {
+    byte[] row = key.getRowData().toArray();
+    byte[] cf = key.getColumnFamilyData().toArray();
+    byte[] cq = key.getColumnQualifierData().toArray();
+    byte[] cv = key.getColumnVisibilityData().toArray();
+    // a key that is not a MemKey sorts before all MemKeys with the same fields
+    int kvCount = key instanceof MemKey ? ((MemKey) key).getKVCount() : Integer.MAX_VALUE;
+
+    ByteBuffer buf =
+        ByteBuffer.allocate(NEXT_OFFSET + row.length + cf.length + cq.length + cv.length);
+    putHeader(buf, 0, 0, row, cf, cq, cv, key.getTimestamp(), key.isDeleted(), kvCount, 0);
+    buf.position(NEXT_OFFSET);
+    buf.put(row).put(cf).put(cq).put(cv);
+    return buf;
+  }
+
+  private static int randomLevel() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int lvl = 1;
+    while (lvl < MAX_LEVEL && (random.nextInt() & 3) == 0) {
+      lvl++;
+    }
+    return lvl;
+  }
+
+  // must hold the write lock
+  private void put(byte[] row, byte[] cf, byte[] cq, byte[] cv, long ts, boolean del, int kvCount,
+      byte[] value) {
+    int lvl = randomLevel();
+    long node = allocate(
+        NEXT_OFFSET + 8 * lvl + row.length + cf.length + cq.length + cv.length + value.length);
+    ByteBuffer buf = chunk(node);
+    int off = chunkOffset(node);
+
+    putHeader(buf, off, lvl, row, cf, cq, cv, ts, del, kvCount, value.length);
+    buf.position(off + NEXT_OFFSET + 8 * lvl);
+    buf.put(row).put(cf).put(cq).put(cv).put(value);
+
+    // find the last node at each level that sorts before the new node
+    long x = HEAD;
+    for (int i = level - 1; i >= 0; i--) {
+      long next = getNext(x, i);
+      while (next != NIL && compare(next, buf, off) < 0) {
+        x = next;
+        next = getNext(x, i);
+      }
+      update[i] = x;
+    }
+
+    if (lvl > level) {
+      for (int i = level; i < lvl; i++) {
+        update[i] = HEAD;
+      }
+      level = lvl;
+    }
+
+    for (int i = 0; i < lvl; i++) {
+      setNext(node, i, getNext(update[i], i));
+      setNext(update[i], i, node);
+    }
+
+    size++;
+  }
+
+  // must hold the read lock, returns the first node greater than or equal to the key
+  private long ceiling(Key key) {
+    if (key == null) {
+      return head[0];
+    }
+
+    ByteBuffer searchKey = encodeSearchKey(key);
+    long x = HEAD;
+    for (int i = level - 1; i >= 0; i--) {
+      long next = getNext(x, i);
+      while (next != NIL && compare(next, searchKey, 0) < 0) {
+        x = next;
+        next = getNext(x, i);
+      }
+    }
+    return getNext(x, 0);
+  }
+
+  public void mutate(List<Mutation> mutations, int kvCount) {
+    wlock.lock();
+    try {
+      if (deleted) {
+        throw new IllegalStateException("Off heap map was deleted");
+      }
+
+      for (Mutation m : mutations) {
+        byte[] row = m.getRow();
+        for (ColumnUpdate cvp : m.getUpdates()) {
+          put(row, cvp.getColumnFamily(), cvp.getColumnQualifier(), cvp.getColumnVisibility(),
+              cvp.getTimestamp(), cvp.isDeleted(), kvCount++, cvp.getValue());
+        }
+      }
+    } finally {
+      wlock.unlock();
+    }
+  }
+
+  public int size() {
+    rlock.lock();
+    try {
+      return size;
+    } finally {
+      rlock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of bytes of off heap memory reserved by this map
+   */
+  public long getMemoryUsed() {
+    rlock.lock();
+    try {
+      return allocated;
+    } finally {
+      rlock.unlock();
+    }
+  }
+
+  /**
+   * Frees all of the memory used by this map. The chunks are freed explicitly, so the memory is
+   * returned immediately rather than when the chunks are garbage collected, unless the JVM does not
+   * support freeing direct buffers. Iterators that are not exhausted will fail on their next read.
+   */
+  public void delete() {
+    wlock.lock();
+    try {
+      if (deleted) {
+        throw new IllegalStateException("Double delete");
+      }
+      deleted = true;
+      // iterators check for deletion under the read lock before reading a chunk, so no view of a
+      // chunk is read after it is freed
+      for (int i = 0; i < numChunks; i++) {
+        free(chunks[i]);
+      }
+      chunks = null;
+      numChunks = 0;
+      Arrays.fill(head, NIL);
+      allocated = 0;
+    } finally {
+      wlock.unlock();
+    }
+  }
+
+  private static void free(ByteBuffer chunk) {
+    if (!CleanerUtil.UNMAP_SUPPORTED) {
+      // the chunk is freed when it is garbage collected
+      return;
+    }
+    try {
+      CleanerUtil.getCleaner().freeBuffer(chunk);
+    } catch (IOException e) {
+      log.warn("Failed to free off heap map chunk, it will be freed when garbage collected", e);
+    }
+  }
+
+  private class OffHeapIterator implements InterruptibleIterator {
+
+    // same read ahead limits as NativeMap, which balance concurrent readers and writers
+    private static final int MAX_READ_AHEAD_ENTRIES = 16;
+    private static final int READ_AHEAD_BYTES = 4096;
+
+    private Range range = new Range();
+    private AtomicBoolean interruptFlag;
+    private int interruptCheckCount = 0;
+
+    // per iterator views of the chunks, so that bulk reads can use their own positions
+    private ByteBuffer[] views = new ByteBuffer[0];
+
+    private Key[] keys = new Key[1];
+    private Value[] values = new Value[1];
+    private int index;
+    private int end;
+    // the node after the last entry in the current batch
+    private long nextNode = NIL;
+
+    OffHeapIterator(AtomicBoolean interruptFlag) {
+      this.interruptFlag = interruptFlag;
+      seekNode(null);
+    }
+
+    private ByteBuffer view(long address) {
+      int ci = chunkIndex(address);
+      if (ci >= views.length) {
+        views = Arrays.copyOf(views, numChunks);
+      }
+      if (views[ci] == null) {
+        views[ci] = chunks[ci].duplicate();
+      }
+      return views[ci];
+    }
+
+    private byte[] read(ByteBuffer buf, int len) {
+      byte[] data = new byte[len];
+      buf.get(data);
+      return data;
+    }
+
+    // must hold the read lock
+    private int readEntry(long node, int pos) {
+      ByteBuffer buf = view(node);
+      int off = chunkOffset(node);
+
+      buf.position(dataOffset(buf, off));
+      byte[] row = read(buf, buf.getInt(off + ROW_LEN_OFFSET));
+      byte[] cf = read(buf, buf.getInt(off + CF_LEN_OFFSET));
+      byte[] cq = read(buf, buf.getInt(off + CQ_LEN_OFFSET));
+      byte[] cv = read(buf, buf.getInt(off + CV_LEN_OFFSET));
+      byte[] val = read(buf, buf.getInt(off + VALUE_LEN_OFFSET));
+
+      keys[pos] = new MemKey(row, cf, cq, cv, buf.getLong(off + TIMESTAMP_OFFSET),
+          buf.get(off + DELETED_OFFSET) != 0, false, buf.getInt(off + KV_COUNT_OFFSET));
+      values[pos] = new Value(val, false);
+      return row.length + cf.length + cq.length + cv.length + val.length;
+    }
+
+    // must hold the read lock
+    private void fill(long node) {
+      if (deleted) {
+        throw new IllegalStateException("Off heap map was deleted");
+      }
+
+      index = 0;
+      end = 0;
+
+      // as we keep filling, increase the read ahead buffer
+      if (keys.length < MAX_READ_AHEAD_ENTRIES) {
+        keys = new Key[Math.min(keys.length * 2, MAX_READ_AHEAD_ENTRIES)];
+        values = new Value[keys.length];
+      }
+
+      int amountRead = 0;
+      while (node != NIL && end < keys.length && amountRead <= READ_AHEAD_BYTES) {
+        amountRead += readEntry(node, end);
+        if (range.afterEndKey(keys[end])) {
+          node = NIL;
+          break;
+        }
+        end++;
+        node = getNext(node, 0);
+      }
+
+      nextNode = node;
+    }
+
+    private void seekNode(Key key) {
+      rlock.lock();
+      try {
+        if (deleted) {
+          throw new IllegalStateException("Off heap map was deleted");
+        }
+        fill(ceiling(key));
+      } finally {
+        rlock.unlock();
+      }
+    }
+
+    @Override
+    public Key getTopKey() {
+      return keys[index];
+    }
+
+    @Override
+    public Value getTopValue() {
+      return values[index];
+    }
+
+    @Override
+    public boolean hasTop() {
+      return index < end;
+    }
+
+    @Override
+    public void next() {
+      if (index >= end) {
+        throw new NoSuchElementException();
+      }
+
+      // checking the interrupt flag for every call to next had a bad performance impact
+      // so check it every 100th time
+      if (interruptFlag != null && interruptCheckCount++ % 100 == 0 && interruptFlag.get())
+        throw new IterationInterruptedException();
+
+      keys[index] = null;
+      values[index] = null;
+      index++;
+
+      if (index == end && nextNode != NIL) {
+        rlock.lock();
+        try {
+          fill(nextNode);
+        } finally {
+          rlock.unlock();
+        }
+      }
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) {
+      if (interruptFlag != null && interruptFlag.get())
+        throw new IterationInterruptedException();
+
+      this.range = range;
+      seekNode(range.getStartKey());
+
+      while (hasTop() && range.beforeStartKey(getTopKey())) {
+        next();
+      }
+    }
+
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options,
+        IteratorEnvironment env) {
+      throw new UnsupportedOperationException("init");
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+      if (env != null && env.isSamplingEnabled()) {
+        throw new SampleNotPresentException();
+      }
+      return new OffHeapIterator(interruptFlag);
+    }
+
+    @Override
+    public void setInterruptFlag(AtomicBoolean flag) {
+      this.interruptFlag = flag;
+    }
+  }
+
+  public InterruptibleIterator skvIterator() {
+    return new OffHeapIterator(null);
+  }
+}
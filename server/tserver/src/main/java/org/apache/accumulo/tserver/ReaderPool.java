@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.file.FileSKVIterator;
+
+/**
+ * Open file readers that are not reserved by a scan, kept so later scans of the same file can reuse
+ * them. Readers are pooled by file name, so tablets that share a file after a split also share its
+ * readers. Idle readers for a file are kept in release order, a scan takes the most recently
+ * released one and the least recently released ones are closed first. All operations are lock free,
+ * a reader belongs to whichever thread removes it from its file's deque.
+ *
+ * <p>
+ * The pool also counts all open readers, reserved or idle, so callers can keep the number under a
+ * limit. Concurrent reservations may briefly exceed the limit when there are not enough idle
+ * readers to close.
+ */
+class ReaderPool {
+
+  private static class OpenReader {
+    final String fileName;
+    final FileSKVIterator reader;
+    final long releaseTime;
+
+    OpenReader(String fileName, FileSKVIterator reader, long releaseTime) {
+      this.fileName = fileName;
+      this.reader = reader;
+      this.releaseTime = releaseTime;
+    }
+  }
+
+  private final Map<String,Deque<OpenReader>> idleReaders = new ConcurrentHashMap<>();
+  private final AtomicInteger idleCount = new AtomicInteger(0);
+  private final AtomicInteger openCount = new AtomicInteger(0);
+
+  private void removeIfEmpty(String fileName) {
+    // readers are only added inside compute(), so a deque removed here can not gain readers
+    idleReaders.computeIfPresent(fileName, (k, deque) -> deque.isEmpty() ? null : deque);
+  }
+
+  private boolean claim(Deque<OpenReader> deque, OpenReader openReader) {
+    if (deque.removeFirstOccurrence(openReader)) {
+      idleCount.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return the most recently released idle reader for the file, or null if there is none
+   */
+  FileSKVIterator take(String fileName) {
+    Deque<OpenReader> deque = idleReaders.get(fileName);
+    if (deque == null) {
+      return null;
+    }
+
+    OpenReader openReader = deque.pollLast();
+    if (deque.isEmpty()) {
+      removeIfEmpty(fileName);
+    }
+
+    if (openReader == null) {
+      return null;
+    }
+    idleCount.decrementAndGet();
+    return openReader.reader;
+  }
+
+  /**
+   * Returns a reader that is no longer reserved to the pool.
+   */
+  void release(String fileName, FileSKVIterator reader, long time) {
+    OpenReader openReader = new OpenReader(fileName, reader, time);
+    idleCount.incrementAndGet();
+    idleReaders.compute(fileName, (k, deque) -> {
+      if (deque == null) {
+        deque = new ConcurrentLinkedDeque<>();
+      }
+      deque.addLast(openReader);
+      return deque;
+    });
+  }
+
+  /**
+   * Accounts for readers that are about to be opened, taking idle readers out of the pool if that
+   * would exceed the limit. The caller must close the returned readers.
+   */
+  List<FileSKVIterator> opening(int numToOpen, int maxOpen) {
+    int excess = Math.min(numToOpen, openCount.addAndGet(numToOpen) - maxOpen);
+    List<FileSKVIterator> toClose = new ArrayList<>();
+    while (toClose.size() < excess) {
+      OpenReader lru = null;
+      Deque<OpenReader> lruDeque = null;
+      for (Deque<OpenReader> deque : idleReaders.values()) {
+        OpenReader first = deque.peekFirst();
+        if (first != null && (lru == null || first.releaseTime < lru.releaseTime)) {
+          lru = first;
+          lruDeque = deque;
+        }
+      }
+
+      if (lru == null) {
+        break;
+      }
+
+      if (claim(lruDeque, lru)) {
+        toClose.add(lru.reader);
+        removeIfEmpty(lru.fileName);
+      }
+    }
+    openCount.addAndGet(-toClose.size());
+    return toClose;
+  }
+
+  /**
+   * Accounts for readers that were closed, or that failed to open after {@link #opening(int, int)}
+   * was called.
+   */
+  void closed(int numClosed) {
+    openCount.addAndGet(-numClosed);
+  }
+
+  /**
+   * Takes readers that have been idle longer than the given time out of the pool. The caller must
+   * close the returned readers.
+   */
+  List<FileSKVIterator> takeIdle(long maxIdleTime, long currentTime) {
+    List<FileSKVIterator> toClose = new ArrayList<>();
+    for (Map.Entry<String,Deque<OpenReader>> entry : idleReaders.entrySet()) {
+      Deque<OpenReader> deque = entry.getValue();
+      OpenReader first;
+      while ((first = deque.peekFirst()) != null && currentTime - first.releaseTime > maxIdleTime) {
+        if (claim(deque, first)) {
+          toClose.add(first.reader);
+        }
+      }
+      if (deque.isEmpty()) {
+        removeIfEmpty(entry.getKey());
+      }
+    }
+    openCount.addAndGet(-toClose.size());
+    return toClose;
+  }
+
+  /**
+   * @return the number of open readers, both reserved and idle
+   */
+  int getOpenCount() {
+    return openCount.get();
+  }
+
+  /**
+   * @return the number of open readers that are not reserved
+   */
+  int getIdleCount() {
+    return idleCount.get();
+  }
+}
@@ -130,6 +130,7 @@ import org.apache.accumulo.tserver.TabletServerResourceManager.TabletResourceMan
 import org.apache.accumulo.tserver.TabletStatsKeeper.Operation;
 import org.apache.accumulo.tserver.compactions.Compactable;
 import org.apache.accumulo.tserver.compactions.CompactionManager;
+import org.apache.accumulo.tserver.compactions.CompactionRateSignals;
 import org.apache.accumulo.tserver.log.DfsLogger;
 import org.apache.accumulo.tserver.log.LogSorter;
 import org.apache.accumulo.tserver.log.MutationReceiver;
@@ -137,10 +138,13 @@ import org.apache.accumulo.tserver.log.TabletServerLogger;
 import org.apache.accumulo.tserver.managermessage.ManagerMessage;
 import org.apache.accumulo.tserver.managermessage.SplitReportMessage;
 import org.apache.accumulo.tserver.metrics.CompactionExecutorsMetrics;
+import org.apache.accumulo.tserver.metrics.CompactionRateMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerMinCMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerScanMetrics;
+import org.apache.accumulo.tserver.metrics.TabletServerSessionMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerUpdateMetrics;
+import org.apache.accumulo.tserver.metrics.TabletServerWalMetrics;
 import org.apache.accumulo.tserver.replication.ReplicationServicerHandler;
 import org.apache.accumulo.tserver.replication.ReplicationWorker;
 import org.apache.accumulo.tserver.scan.ScanRunState;
@@ -181,6 +185,9 @@ public class TabletServer extends AbstractServer {
   final TabletServerScanMetrics scanMetrics;
   final TabletServerMinCMetrics mincMetrics;
   final CompactionExecutorsMetrics ceMetrics;
+  final CompactionRateSignals compactionRateSignals;
+  final CompactionRateMetrics compactionRateMetrics;
+  final TabletServerWalMetrics walMetrics;
 
   public TabletServerScanMetrics getScanMetrics() {
     return scanMetrics;
@@ -331,15 +338,19 @@ public class TabletServer extends AbstractServer {
         .maxWait(walFailureRetryMax, TimeUnit.MILLISECONDS).backOffFactor(1.5)
         .logInterval(3, TimeUnit.MINUTES).createFactory();
 
-    logger = new TabletServerLogger(this, walogMaxSize, syncCounter, flushCounter,
+    walMetrics = new TabletServerWalMetrics();
+    logger = new TabletServerLogger(this, walogMaxSize, syncCounter, flushCounter, walMetrics,
         walCreationRetryFactory, walWritingRetryFactory, walogMaxAge);
     this.resourceManager = new TabletServerResourceManager(context);
     this.security = AuditedSecurityOperation.getInstance(context);
 
     updateMetrics = new TabletServerUpdateMetrics();
-    scanMetrics = new TabletServerScanMetrics();
+    scanMetrics = new TabletServerScanMetrics(resourceManager.getBlockPrefetcher(),
+        resourceManager.getFileManager());
     mincMetrics = new TabletServerMinCMetrics();
     ceMetrics = new CompactionExecutorsMetrics();
+    compactionRateSignals = new CompactionRateSignals();
+    compactionRateMetrics = new CompactionRateMetrics(compactionRateSignals);
     ThreadPools.createGeneralScheduledExecutorService(aconf).scheduleWithFixedDelay(
         TabletLocator::clearLocators, jitter(), jitter(), TimeUnit.MILLISECONDS);
     walMarker = new WalStateManager(context);
@@ -704,8 +715,11 @@ public class TabletServer extends AbstractServer {
       new TabletServerMetrics(this).register(metricsSystem);
       mincMetrics.register(metricsSystem);
       scanMetrics.register(metricsSystem);
+      new TabletServerSessionMetrics(sessionManager).register(metricsSystem);
       updateMetrics.register(metricsSystem);
       ceMetrics.register(metricsSystem);
+      compactionRateMetrics.register(metricsSystem);
+      walMetrics.register(metricsSystem);
     } catch (Exception e) {
       log.error("Error registering metrics", e);
     }
@@ -730,7 +744,7 @@ public class TabletServer extends AbstractServer {
         return Iterators.transform(onlineTablets.snapshot().values().iterator(),
             Tablet::asCompactable);
       }
-    }, getContext(), ceMetrics);
+    }, getContext(), ceMetrics, compactionRateSignals, compactionRateMetrics);
     compactionManager.start();
 
     try {
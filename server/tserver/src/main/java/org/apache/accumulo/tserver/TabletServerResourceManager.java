@@ -36,6 +36,7 @@ import java.util.OptionalInt;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
@@ -52,6 +53,7 @@ import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
 import org.apache.accumulo.core.file.blockfile.impl.ScanCacheProvider;
 import org.apache.accumulo.core.spi.cache.BlockCache;
 import org.apache.accumulo.core.spi.cache.BlockCacheManager;
@@ -108,6 +110,8 @@ public class TabletServerResourceManager {
 
   private final FileManager fileManager;
 
+  private final BlockPrefetcher blockPrefetcher;
+
   private final LargestFirstMemoryManager memoryManager;
 
   private final MemoryManagementFramework memMgmt;
@@ -268,8 +272,9 @@ public class TabletServerResourceManager {
     final AccumuloConfiguration acuConf = context.getConfiguration();
 
     long maxMemory = acuConf.getAsBytes(Property.TSERV_MAXMEM);
-    boolean usingNativeMap =
-        acuConf.getBoolean(Property.TSERV_NATIVEMAP_ENABLED) && NativeMap.isLoaded();
+    // the off heap map, like the native map, does not hold map memory on the Java heap
+    boolean usingNativeMap = acuConf.getBoolean(Property.TSERV_OFFHEAPMAP_ENABLED)
+        || (acuConf.getBoolean(Property.TSERV_NATIVEMAP_ENABLED) && NativeMap.isLoaded());
 
     long totalQueueSize = acuConf.getAsBytes(Property.TSERV_TOTAL_MUTATION_QUEUE_MAX);
 
@@ -381,7 +386,14 @@ public class TabletServerResourceManager {
     fileLenCache =
         CacheBuilder.newBuilder().maximumSize(Math.min(maxOpenFiles * 1000L, 100_000)).build();
 
-    fileManager = new FileManager(context, maxOpenFiles, fileLenCache);
+    ThreadPoolExecutor prefetchPool = ThreadPools.createFixedThreadPool(
+        acuConf.getCount(Property.TSERV_FILE_PREFETCH_THREADS), "file block prefetch", false);
+    modifyThreadPoolSizesAtRuntime(
+        () -> context.getConfiguration().getCount(Property.TSERV_FILE_PREFETCH_THREADS),
+        "file block prefetch", prefetchPool);
+    blockPrefetcher = new BlockPrefetcher(prefetchPool);
+
+    fileManager = new FileManager(context, maxOpenFiles, fileLenCache, blockPrefetcher);
 
     memoryManager = new LargestFirstMemoryManager();
     memoryManager.init(context);
@@ -666,6 +678,17 @@ public class TabletServerResourceManager {
       lastReportedCommitTime = System.currentTimeMillis();
     }
 
+    /**
+     * @return the executor that runs scans dispatched with the given preferences
+     */
+    public Executor getScanExecutor(ScanDispatch scanDispatch) {
+      ExecutorService executor = scanExecutors.get(scanDispatch.getExecutorName());
+      if (executor == null || "meta".equals(scanDispatch.getExecutorName())) {
+        executor = scanExecutors.get(SimpleScanDispatcher.DEFAULT_SCAN_EXECUTOR_NAME);
+      }
+      return executor;
+    }
+
     public synchronized ScanFileManager newScanFileManager(ScanDispatch scanDispatch) {
       if (closed) {
         throw new IllegalStateException("closed");
@@ -854,6 +877,14 @@ public class TabletServerResourceManager {
     return fileLenCache;
   }
 
+  public BlockPrefetcher getBlockPrefetcher() {
+    return blockPrefetcher;
+  }
+
+  public FileManager getFileManager() {
+    return fileManager;
+  }
+
   public ExecutorService getSummaryRetrievalExecutor() {
     return summaryRetrievalPool;
   }
@@ -52,6 +52,7 @@ import org.apache.accumulo.core.clientImpl.CompressedIterators;
 import org.apache.accumulo.core.clientImpl.DurabilityImpl;
 import org.apache.accumulo.core.clientImpl.Tables;
 import org.apache.accumulo.core.clientImpl.TabletType;
+import org.apache.accumulo.core.clientImpl.ThriftScanner;
 import org.apache.accumulo.core.clientImpl.thrift.SecurityErrorCode;
 import org.apache.accumulo.core.clientImpl.thrift.TableOperationExceptionType;
 import org.apache.accumulo.core.clientImpl.thrift.ThriftSecurityException;
@@ -85,6 +86,7 @@ import org.apache.accumulo.core.dataImpl.thrift.TSummaries;
 import org.apache.accumulo.core.dataImpl.thrift.TSummaryRequest;
 import org.apache.accumulo.core.dataImpl.thrift.UpdateErrors;
 import org.apache.accumulo.core.iterators.IterationInterruptedException;
+import org.apache.accumulo.core.iteratorsImpl.system.VisibilityCache;
 import org.apache.accumulo.core.logging.TabletLogger;
 import org.apache.accumulo.core.master.thrift.BulkImportState;
 import org.apache.accumulo.core.master.thrift.TabletServerStatus;
@@ -128,9 +130,12 @@ import org.apache.accumulo.tserver.RowLocks.RowLock;
 import org.apache.accumulo.tserver.data.ServerConditionalMutation;
 import org.apache.accumulo.tserver.scan.LookupTask;
 import org.apache.accumulo.tserver.scan.NextBatchTask;
+import org.apache.accumulo.tserver.scan.ScanBatchSizer;
 import org.apache.accumulo.tserver.scan.ScanParameters;
+import org.apache.accumulo.tserver.scan.ScanTask;
 import org.apache.accumulo.tserver.session.ConditionalSession;
 import org.apache.accumulo.tserver.session.MultiScanSession;
+import org.apache.accumulo.tserver.session.ScanSession;
 import org.apache.accumulo.tserver.session.SingleScanSession;
 import org.apache.accumulo.tserver.session.SummarySession;
 import org.apache.accumulo.tserver.session.UpdateSession;
@@ -325,14 +330,38 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
     ScanParameters scanParams = new ScanParameters(batchSize, new Authorizations(authorizations),
         columnSet, ssiList, ssio, isolated, SamplerConfigurationImpl.fromThrift(tSamplerConfig),
         batchTimeOut, contextArg);
+    if (executionHints != null
+        && Boolean.parseBoolean(executionHints.get(ScanBatchSizer.GROW_HINT))) {
+      scanParams.getBatchSizer().allowGrowth();
+    }
+
+    int pipelineWindow = 1;
+    if (executionHints != null && executionHints.containsKey(ThriftScanner.PIPELINE_WINDOW_HINT)) {
+      // the window is advertised by the client, it is not a hint for scan dispatchers
+      executionHints = new HashMap<>(executionHints);
+      String window = executionHints.remove(ThriftScanner.PIPELINE_WINDOW_HINT);
+      if (!extent.isRootTablet()) {
+        try {
+          pipelineWindow = Math.min(Integer.parseInt(window),
+              server.getConfiguration().getCount(Property.TSERV_SCAN_PIPELINE_WINDOW_MAX));
+        } catch (NumberFormatException e) {
+          log.debug("Ignoring invalid scan pipeline window {} from {}", window,
+              TServerUtils.clientAddress.get());
+        }
+      }
+    }
 
-    final SingleScanSession scanSession =
-        new SingleScanSession(credentials, extent, scanParams, readaheadThreshold, executionHints);
+    final SingleScanSession scanSession = new SingleScanSession(credentials, extent, scanParams,
+        readaheadThreshold, pipelineWindow, executionHints);
     scanSession.scanner =
         tablet.createScanner(new Range(range), scanParams, scanSession.interruptFlag);
 
     long sid = server.sessionManager.createSession(scanSession, true);
 
+    scanSession.batchTaskFactory = () -> new NextBatchTask(server, sid, scanSession.interruptFlag);
+    scanSession.batchTaskExecutor = task -> server.resourceManager.executeReadAhead(extent,
+        getScanDispatcher(extent), scanSession, task);
+
     ScanResult scanResult;
     try {
       scanResult = continueScan(tinfo, sid, scanSession);
@@ -368,17 +397,22 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
       org.apache.accumulo.core.tabletserver.thrift.TooManyFilesException,
       TSampleNotPresentException {
 
-    if (scanSession.nextBatchTask == null) {
-      scanSession.nextBatchTask = new NextBatchTask(server, scanID, scanSession.interruptFlag);
-      server.resourceManager.executeReadAhead(scanSession.extent,
-          getScanDispatcher(scanSession.extent), scanSession, scanSession.nextBatchTask);
-    }
+    scanSession.startNextBatch();
+
+    ScanTask<ScanBatch> batchTask = scanSession.nextBatchTask;
+    boolean batchReady = batchTask.isDone();
 
     ScanBatch bresult;
     try {
-      bresult = scanSession.nextBatchTask.get(MAX_TIME_TO_WAIT_FOR_SCAN_RESULT_MILLIS,
-          TimeUnit.MILLISECONDS);
-      scanSession.nextBatchTask = null;
+      long waitStart = System.nanoTime();
+      try {
+        bresult = batchTask.get(MAX_TIME_TO_WAIT_FOR_SCAN_RESULT_MILLIS, TimeUnit.MILLISECONDS);
+      } finally {
+        // waits that time out are the slowest, so they are recorded too
+        server.compactionRateSignals.addScanWait(System.nanoTime() - waitStart);
+      }
+      scanSession.nextBatchTaken();
+      adjustBatchSize(scanSession, batchTask, batchReady);
     } catch (ExecutionException e) {
       server.sessionManager.removeSession(scanID);
       if (e.getCause() instanceof NotServingTabletException) {
@@ -392,7 +426,7 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
         sleepUninterruptibly(MAX_TIME_TO_WAIT_FOR_SCAN_RESULT_MILLIS, TimeUnit.MILLISECONDS);
         List<KVEntry> empty = Collections.emptyList();
         bresult = new ScanBatch(empty, true);
-        scanSession.nextBatchTask = null;
+        scanSession.nextBatchTaken();
       } else {
         throw new RuntimeException(e);
       }
@@ -423,10 +457,8 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
 
     if (scanResult.more && scanSession.batchCount > scanSession.readaheadThreshold) {
       // start reading next batch while current batch is transmitted
-      // to client
-      scanSession.nextBatchTask = new NextBatchTask(server, scanID, scanSession.interruptFlag);
-      server.resourceManager.executeReadAhead(scanSession.extent,
-          getScanDispatcher(scanSession.extent), scanSession, scanSession.nextBatchTask);
+      // to client, if the pipeline is not already reading it
+      scanSession.startNextBatch();
     }
 
     if (!scanResult.more) {
@@ -436,6 +468,26 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
     return scanResult;
   }
 
+  /**
+   * Scales the size of later batches for the scan based on whether the client had to wait for the
+   * batch it just took, and reports the limits the batch was read with.
+   */
+  private void adjustBatchSize(SingleScanSession scanSession, ScanTask<ScanBatch> batchTask,
+      boolean batchReady) {
+    TableConfiguration tableConf = context.getTableConfiguration(scanSession.extent.tableId());
+    ScanBatchSizer batchSizer = scanSession.scanParams.getBatchSizer();
+
+    server.scanMetrics.addBatchLimits(
+        batchSizer.scaleEntries(scanSession.scanParams.getMaxEntries()),
+        batchSizer.scaleBytes(tableConf.getAsBytes(Property.TABLE_SCAN_MAXMEM)));
+
+    if (batchTask instanceof NextBatchTask && tableConf.getBoolean(Property.TABLE_SCAN_ADAPTIVE)) {
+      NextBatchTask nbt = (NextBatchTask) batchTask;
+      long idleNanos = batchReady ? System.nanoTime() - nbt.getFinishedNanos() : 0;
+      batchSizer.batchTaken(!batchReady, idleNanos, nbt.getReadNanos(), ScanBatchSizer.heapUsed());
+    }
+  }
+
   @Override
   public void closeScan(TInfo tinfo, long scanID) {
     final SingleScanSession ss = (SingleScanSession) server.sessionManager.removeSession(scanID);
@@ -450,9 +502,15 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
 
       server.scanMetrics.addScan(t2 - ss.startTime);
       server.scanMetrics.addResult(ss.entriesReturned);
+      addVisibilityCacheMetrics(ss);
     }
   }
 
+  private void addVisibilityCacheMetrics(ScanSession session) {
+    VisibilityCache visCache = session.scanParams.getVisibilityCache();
+    server.scanMetrics.addVisibilityCacheLookups(visCache.getHits(), visCache.getMisses());
+  }
+
   @Override
   public InitialMultiScan startMultiScan(TInfo tinfo, TCredentials credentials,
       Map<TKeyExtent,List<TRange>> tbatch, List<TColumn> tcolumns, List<IterInfo> ssiList,
@@ -558,8 +616,15 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
     }
 
     try {
-      MultiScanResult scanResult =
-          session.lookupTask.get(MAX_TIME_TO_WAIT_FOR_SCAN_RESULT_MILLIS, TimeUnit.MILLISECONDS);
+      long waitStart = System.nanoTime();
+      MultiScanResult scanResult;
+      try {
+        scanResult =
+            session.lookupTask.get(MAX_TIME_TO_WAIT_FOR_SCAN_RESULT_MILLIS, TimeUnit.MILLISECONDS);
+      } finally {
+        // waits that time out are the slowest, so they are recorded too
+        server.compactionRateSignals.addScanWait(System.nanoTime() - waitStart);
+      }
       session.lookupTask = null;
       return scanResult;
     } catch (ExecutionException e) {
@@ -600,6 +665,8 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
           TServerUtils.clientAddress.get(), session.numEntries, (t2 - session.startTime) / 1000.0,
           session.totalLookupTime / 1000.0, session.numTablets, session.numRanges));
     }
+
+    addVisibilityCacheMetrics(session);
   }
 
   @Override
@@ -851,6 +918,7 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
 
   private void updateWalogWriteTime(long time) {
     server.updateMetrics.addWalogWriteTime(time);
+    server.compactionRateSignals.addWalSync(TimeUnit.MILLISECONDS.toNanos(time));
   }
 
   private void updateAvgCommitTime(long time, int size) {
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.apache.accumulo.core.client.admin.compaction.CompactableFile;
@@ -82,10 +83,22 @@ public interface Compactable {
 
   Optional<Files> getFiles(CompactionServiceId service, CompactionKind kind);
 
+  /**
+   * @param subCompactionExecutor
+   *          executor the compaction may run parts of itself on in parallel
+   * @param externalQueue
+   *          when not null, the compaction runs in a compactor process taking jobs from this queue
+   */
   void compact(CompactionServiceId service, CompactionJob job, RateLimiter readLimiter,
-      RateLimiter writeLimiter, long queuedTime);
+      RateLimiter writeLimiter, Executor subCompactionExecutor,
+      ExternalCompactionQueue externalQueue, long queuedTime);
 
   CompactionServiceId getConfiguredService(CompactionKind kind);
 
   double getCompactionRatio();
+
+  /**
+   * @return the recent rate at which scans read key values from the tablet
+   */
+  double getScanRate();
 }
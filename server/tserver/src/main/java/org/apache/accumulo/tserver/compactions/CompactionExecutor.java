@@ -51,6 +51,8 @@ public class CompactionExecutor {
   private final CompactionExecutorId ceid;
   private AtomicLong cancelCount = new AtomicLong();
   private ThreadPoolExecutor threadPool;
+  // runs the parts of compactions that are split into sub-compactions
+  private ThreadPoolExecutor subCompactionPool;
 
   // This exist to provide an accurate count of queued compactions for metrics. The PriorityQueue is
   // not used because its size may be off due to it containing cancelled compactions. The collection
@@ -63,6 +65,9 @@ public class CompactionExecutor {
   private RateLimiter readLimiter;
   private RateLimiter writeLimiter;
 
+  // when set, compactions run in compactor processes and the threads wait on them
+  private final ExternalCompactionQueue externalQueue;
+
   private class CompactionTask extends SubmittedJob implements Runnable {
 
     private AtomicReference<Status> status = new AtomicReference<>(Status.QUEUED);
@@ -87,7 +92,8 @@ public class CompactionExecutor {
       try {
         if (status.compareAndSet(Status.QUEUED, Status.RUNNING)) {
           queuedTask.remove(this);
-          compactable.compact(csid, getJob(), readLimiter, writeLimiter, queuedTime);
+          compactable.compact(csid, getJob(), readLimiter, writeLimiter, subCompactionPool,
+              externalQueue, queuedTime);
           completionCallback.accept(compactable);
         }
       } catch (Exception e) {
@@ -151,8 +157,9 @@ public class CompactionExecutor {
   }
 
   CompactionExecutor(CompactionExecutorId ceid, int threads, CompactionExecutorsMetrics ceMetrics,
-      RateLimiter readLimiter, RateLimiter writeLimiter) {
+      RateLimiter readLimiter, RateLimiter writeLimiter, ExternalCompactionQueue externalQueue) {
     this.ceid = ceid;
+    this.externalQueue = externalQueue;
     var comparator =
         Comparator.comparing(CompactionExecutor::getJob, CompactionJobPrioritizer.JOB_COMPARATOR);
 
@@ -161,13 +168,31 @@ public class CompactionExecutor {
     threadPool = ThreadPools.createThreadPool(threads, threads, 60, TimeUnit.SECONDS,
         "compaction." + ceid, queue, OptionalInt.empty(), true);
 
-    metricCloser =
-        ceMetrics.addExecutor(ceid, () -> threadPool.getActiveCount(), () -> queuedTask.size());
+    // as large as the executor, so its compactions may use up to twice its threads, see
+    // Property.TABLE_MAJC_SUBCOMPACTIONS
+    subCompactionPool = ThreadPools.createThreadPool(threads, threads, 60, TimeUnit.SECONDS,
+        "compaction." + ceid + ".sub", false);
+
+    metricCloser = ceMetrics.addExecutor(ceid, () -> getCompactionsRunning(),
+        () -> queuedTask.size(), () -> subCompactionPool.getActiveCount());
 
     this.readLimiter = readLimiter;
     this.writeLimiter = writeLimiter;
 
-    log.debug("Created compaction executor {} with {} threads", ceid, threads);
+    if (externalQueue == null) {
+      log.debug("Created compaction executor {} with {} threads", ceid, threads);
+    } else {
+      log.debug("Created compaction executor {} with {} threads for compactor queue {}", ceid,
+          threads, externalQueue.getQueue());
+    }
+  }
+
+  /**
+   * @return the compactor queue the executor's compactions run on, or null if they run in the
+   *         tablet server
+   */
+  public String getExternalQueue() {
+    return externalQueue == null ? null : externalQueue.getQueue();
   }
 
   public SubmittedJob submit(CompactionServiceId csid, CompactionJob job, Compactable compactable,
@@ -182,13 +207,8 @@ public class CompactionExecutor {
 
     int coreSize = threadPool.getCorePoolSize();
 
-    if (numThreads < coreSize) {
-      threadPool.setCorePoolSize(numThreads);
-      threadPool.setMaximumPoolSize(numThreads);
-    } else if (numThreads > coreSize) {
-      threadPool.setMaximumPoolSize(numThreads);
-      threadPool.setCorePoolSize(numThreads);
-    }
+    resize(threadPool, numThreads);
+    resize(subCompactionPool, numThreads);
 
     if (numThreads != coreSize) {
       log.debug("Adjusted compaction executor {} threads from {} to {}", ceid, coreSize,
@@ -196,8 +216,23 @@ public class CompactionExecutor {
     }
   }
 
+  private static void resize(ThreadPoolExecutor pool, int numThreads) {
+    int coreSize = pool.getCorePoolSize();
+
+    if (numThreads < coreSize) {
+      pool.setCorePoolSize(numThreads);
+      pool.setMaximumPoolSize(numThreads);
+    } else if (numThreads > coreSize) {
+      pool.setMaximumPoolSize(numThreads);
+      pool.setCorePoolSize(numThreads);
+    }
+  }
+
+  /**
+   * @return the number of threads running compactions, including threads running sub-compactions
+   */
   public int getCompactionsRunning() {
-    return threadPool.getActiveCount();
+    return threadPool.getActiveCount() + subCompactionPool.getActiveCount();
   }
 
   public int getCompactionsQueued() {
@@ -206,6 +241,7 @@ public class CompactionExecutor {
 
   public void stop() {
     threadPool.shutdownNow();
+    subCompactionPool.shutdownNow();
     log.debug("Stopped compaction executor {}", ceid);
     try {
       metricCloser.close();
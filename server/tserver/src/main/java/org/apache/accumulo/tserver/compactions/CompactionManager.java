@@ -37,6 +37,7 @@ import org.apache.accumulo.core.util.threads.Threads;
 import org.apache.accumulo.fate.util.Retry;
 import org.apache.accumulo.server.ServerContext;
 import org.apache.accumulo.tserver.metrics.CompactionExecutorsMetrics;
+import org.apache.accumulo.tserver.metrics.CompactionRateMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +61,8 @@ public class CompactionManager {
   private long lastConfigCheckTime = System.nanoTime();
 
   private CompactionExecutorsMetrics ceMetrics;
+  private CompactionRateSignals rateSignals;
+  private CompactionRateMetrics rateMetrics;
 
   public static final CompactionServiceId DEFAULT_SERVICE = CompactionServiceId.of("default");
 
@@ -277,7 +280,8 @@ public class CompactionManager {
   }
 
   public CompactionManager(Iterable<Compactable> compactables, ServerContext ctx,
-      CompactionExecutorsMetrics ceMetrics) {
+      CompactionExecutorsMetrics ceMetrics, CompactionRateSignals rateSignals,
+      CompactionRateMetrics rateMetrics) {
     this.compactables = compactables;
 
     this.currentCfg = new Config(ctx.getConfiguration());
@@ -285,6 +289,8 @@ public class CompactionManager {
     this.ctx = ctx;
 
     this.ceMetrics = ceMetrics;
+    this.rateSignals = rateSignals;
+    this.rateMetrics = rateMetrics;
 
     Map<CompactionServiceId,CompactionService> tmpServices = new HashMap<>();
 
@@ -293,7 +299,8 @@ public class CompactionManager {
         tmpServices.put(CompactionServiceId.of(serviceName),
             new CompactionService(serviceName, plannerClassName,
                 currentCfg.getRateLimit(serviceName),
-                currentCfg.options.getOrDefault(serviceName, Map.of()), ctx, ceMetrics));
+                currentCfg.options.getOrDefault(serviceName, Map.of()), ctx, ceMetrics, rateSignals,
+                rateMetrics));
       } catch (RuntimeException e) {
         log.error("Failed to create compaction service {} with planner:{} options:{}", serviceName,
             plannerClassName, currentCfg.options.getOrDefault(serviceName, Map.of()));
@@ -331,7 +338,8 @@ public class CompactionManager {
               tmpServices.put(csid,
                   new CompactionService(serviceName, plannerClassName,
                       tmpCfg.getRateLimit(serviceName),
-                      tmpCfg.options.getOrDefault(serviceName, Map.of()), ctx, ceMetrics));
+                      tmpCfg.options.getOrDefault(serviceName, Map.of()), ctx, ceMetrics,
+                      rateSignals, rateMetrics));
             } else {
               service.configurationChanged(plannerClassName, tmpCfg.getRateLimit(serviceName),
                   tmpCfg.options.getOrDefault(serviceName, Map.of()));
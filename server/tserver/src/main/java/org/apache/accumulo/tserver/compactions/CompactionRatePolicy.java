@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.compactions;
+
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.Property;
+
+/**
+ * Determines the number of bytes the major compactions of a compaction service may read or write
+ * per second. Each compaction service creates its own policy using the class configured by
+ * {@link Property#TSERV_COMPACTION_RATE_POLICY}, and asks it for a rate about once a second.
+ */
+public interface CompactionRatePolicy {
+
+  /**
+   * What the tablet server observed since the policy was last asked for a rate.
+   */
+  interface Signals {
+
+    /**
+     * @return the rate limit configured for the compaction service in bytes per second, or 0 when
+     *         it is not limited
+     */
+    long getConfiguredRate();
+
+    /**
+     * @return the average time, in milliseconds, scans waited for a batch of results. Returns 0
+     *         when no scans waited.
+     */
+    double getScanWaitMillis();
+
+    /**
+     * @return the average time, in milliseconds, to write and sync mutations to the write-ahead
+     *         log. Returns 0 when nothing was written.
+     */
+    double getWalSyncMillis();
+
+    /**
+     * @return the bytes per second read by the compactions of the compaction service
+     */
+    long getReadThroughput();
+
+    /**
+     * @return the bytes per second written by the compactions of the compaction service
+     */
+    long getWriteThroughput();
+
+    /**
+     * Reads and writes are each limited to the rate, so this is the throughput to compare with it.
+     *
+     * @return the larger of the read and write throughput
+     */
+    default long getCompactionThroughput() {
+      return Math.max(getReadThroughput(), getWriteThroughput());
+    }
+  }
+
+  /**
+   * @param options
+   *          the options set with the {@link Property#TSERV_COMPACTION_RATE_POLICY_OPTS} prefix,
+   *          without the prefix
+   */
+  void init(Map<String,String> options);
+
+  /**
+   * @return the bytes per second the compactions of the service may read or write, a non-positive
+   *         rate means compactions are not limited
+   */
+  long getRate(Signals signals);
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.compactions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the latencies of the tablet server operations that compete with compactions for I/O. The
+ * counts only grow, users average the latencies over an interval by keeping a {@link Snapshot} from
+ * the start of the interval.
+ */
+public class CompactionRateSignals {
+
+  private final LongAdder scanWaitNanos = new LongAdder();
+  private final LongAdder scanWaits = new LongAdder();
+  private final LongAdder walSyncNanos = new LongAdder();
+  private final LongAdder walSyncs = new LongAdder();
+
+  /**
+   * Records the time a scan waited for a batch of results.
+   */
+  public void addScanWait(long nanos) {
+    scanWaitNanos.add(nanos);
+    scanWaits.increment();
+  }
+
+  /**
+   * Records the time taken to write and sync mutations to the write-ahead log.
+   */
+  public void addWalSync(long nanos) {
+    walSyncNanos.add(nanos);
+    walSyncs.increment();
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(scanWaitNanos.sum(), scanWaits.sum(), walSyncNanos.sum(), walSyncs.sum());
+  }
+
+  public static class Snapshot {
+    private final long scanWaitNanos;
+    private final long scanWaits;
+    private final long walSyncNanos;
+    private final long walSyncs;
+
+    private Snapshot(long scanWaitNanos, long scanWaits, long walSyncNanos, long walSyncs) {
+      this.scanWaitNanos = scanWaitNanos;
+      this.scanWaits = scanWaits;
+      this.walSyncNanos = walSyncNanos;
+      this.walSyncs = walSyncs;
+    }
+
+    /**
+     * @return the average time in milliseconds scans waited since the earlier snapshot
+     */
+    public double getScanWaitMillis(Snapshot earlier) {
+      return averageMillis(scanWaitNanos - earlier.scanWaitNanos, scanWaits - earlier.scanWaits);
+    }
+
+    /**
+     * @return the average time in milliseconds write-ahead log writes took since the earlier
+     *         snapshot
+     */
+    public double getWalSyncMillis(Snapshot earlier) {
+      return averageMillis(walSyncNanos - earlier.walSyncNanos, walSyncs - earlier.walSyncs);
+    }
+
+    private static double averageMillis(long nanos, long count) {
+      return count == 0 ? 0 : (double) nanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+  }
+}
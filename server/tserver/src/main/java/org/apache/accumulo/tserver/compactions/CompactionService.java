@@ -35,6 +35,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 import org.apache.accumulo.core.client.admin.compaction.CompactableFile;
@@ -59,11 +60,11 @@ import org.apache.accumulo.server.ServerContext;
 import org.apache.accumulo.server.ServiceEnvironmentImpl;
 import org.apache.accumulo.tserver.compactions.SubmittedJob.Status;
 import org.apache.accumulo.tserver.metrics.CompactionExecutorsMetrics;
+import org.apache.accumulo.tserver.metrics.CompactionRateMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Sets;
 
 public class CompactionService {
   private CompactionPlanner planner;
@@ -80,6 +81,10 @@ public class CompactionService {
   private RateLimiter readLimiter;
   private RateLimiter writeLimiter;
   private AtomicLong rateLimit = new AtomicLong(0);
+  private final LongAdder readBytes = new LongAdder();
+  private final LongAdder writeBytes = new LongAdder();
+  private final RateController rateController;
+  private final AutoCloseable rateMetricsCloser;
 
   private static final Logger log = LoggerFactory.getLogger(CompactionService.class);
 
@@ -87,10 +92,12 @@ public class CompactionService {
 
     private final Map<String,String> plannerOpts;
     private final Map<CompactionExecutorId,Integer> requestedExecutors;
+    private final Map<CompactionExecutorId,String> requestedQueues;
 
     CpInitParams(Map<String,String> plannerOpts) {
       this.plannerOpts = plannerOpts;
       this.requestedExecutors = new HashMap<>();
+      this.requestedQueues = new HashMap<>();
     }
 
     @Override
@@ -120,13 +127,127 @@ public class CompactionService {
           requestedExecutors.put(ceid, threads);
           return ceid;
         }
+
+        @Override
+        public CompactionExecutorId createExternalExecutor(String executorName, int threads,
+            String queue) {
+          Preconditions.checkArgument(queue != null && !queue.isEmpty(), "Queue name required");
+          var ceid = createExecutor(executorName, threads);
+          requestedQueues.put(ceid, queue);
+          return ceid;
+        }
       };
     }
 
   }
 
+  /**
+   * Asks the rate policy for a new rate at most once per update interval, giving it what was
+   * observed since the last time.
+   */
+  private class RateController
+      implements SharedRateLimiterFactory.RateProvider, CompactionRatePolicy.Signals {
+
+    private static final long UPDATE_NANOS = 900_000_000L;
+
+    private final CompactionRatePolicy policy;
+    private final CompactionRateSignals signals;
+
+    private long lastUpdate = System.nanoTime();
+    private CompactionRateSignals.Snapshot lastSnapshot;
+    private long lastReadBytes = 0;
+    private long lastWriteBytes = 0;
+
+    private double scanWaitMillis;
+    private double walSyncMillis;
+    private volatile long readThroughput;
+    private volatile long writeThroughput;
+    private volatile long rate;
+
+    RateController(CompactionRatePolicy policy, CompactionRateSignals signals) {
+      this.policy = policy;
+      this.signals = signals;
+      this.lastSnapshot = signals.snapshot();
+      this.rate = policy.getRate(this);
+    }
+
+    @Override
+    public synchronized long getDesiredRate() {
+      long now = System.nanoTime();
+      if (now - lastUpdate >= UPDATE_NANOS) {
+        var snapshot = signals.snapshot();
+        long read = readBytes.sum();
+        long written = writeBytes.sum();
+        long elapsed = now - lastUpdate;
+
+        scanWaitMillis = snapshot.getScanWaitMillis(lastSnapshot);
+        walSyncMillis = snapshot.getWalSyncMillis(lastSnapshot);
+        readThroughput = (read - lastReadBytes) * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        writeThroughput = (written - lastWriteBytes) * TimeUnit.SECONDS.toNanos(1) / elapsed;
+
+        lastUpdate = now;
+        lastSnapshot = snapshot;
+        lastReadBytes = read;
+        lastWriteBytes = written;
+
+        rate = policy.getRate(this);
+      }
+      return rate;
+    }
+
+    @Override
+    public long getConfiguredRate() {
+      return rateLimit.get();
+    }
+
+    @Override
+    public double getScanWaitMillis() {
+      return scanWaitMillis;
+    }
+
+    @Override
+    public double getWalSyncMillis() {
+      return walSyncMillis;
+    }
+
+    @Override
+    public long getReadThroughput() {
+      return readThroughput;
+    }
+
+    @Override
+    public long getWriteThroughput() {
+      return writeThroughput;
+    }
+  }
+
+  /**
+   * Counts the bytes passing through one of the rate limiters of this service.
+   */
+  private static class CountingRateLimiter implements RateLimiter {
+    private final RateLimiter limiter;
+    private final LongAdder bytes;
+
+    CountingRateLimiter(RateLimiter limiter, LongAdder bytes) {
+      this.limiter = limiter;
+      this.bytes = bytes;
+    }
+
+    @Override
+    public long getRate() {
+      return limiter.getRate();
+    }
+
+    @Override
+    public void acquire(long permits) {
+      limiter.acquire(permits);
+      bytes.add(permits);
+    }
+  }
+
   public CompactionService(String serviceName, String plannerClass, Long maxRate,
-      Map<String,String> plannerOptions, ServerContext sctx, CompactionExecutorsMetrics ceMetrics) {
+      Map<String,String> plannerOptions, ServerContext sctx, CompactionExecutorsMetrics ceMetrics,
+      CompactionRateSignals rateSignals, CompactionRateMetrics rateMetrics) {
 
     Preconditions.checkArgument(maxRate >= 0);
 
@@ -144,14 +265,21 @@ public class CompactionService {
 
     this.rateLimit.set(maxRate);
 
-    this.readLimiter = SharedRateLimiterFactory.getInstance(this.serverCtx.getConfiguration())
-        .create("CS_" + serviceName + "_read", () -> rateLimit.get());
-    this.writeLimiter = SharedRateLimiterFactory.getInstance(this.serverCtx.getConfiguration())
-        .create("CS_" + serviceName + "_write", () -> rateLimit.get());
+    this.rateController = new RateController(createRatePolicy(), rateSignals);
+    this.readLimiter = new CountingRateLimiter(
+        SharedRateLimiterFactory.getInstance(this.serverCtx.getConfiguration())
+            .create("CS_" + serviceName + "_read", rateController),
+        readBytes);
+    this.writeLimiter = new CountingRateLimiter(
+        SharedRateLimiterFactory.getInstance(this.serverCtx.getConfiguration())
+            .create("CS_" + serviceName + "_write", rateController),
+        writeBytes);
+    this.rateMetricsCloser = rateMetrics.addService(myId, () -> rateController.rate,
+        () -> rateController.readThroughput, () -> rateController.writeThroughput);
 
     initParams.requestedExecutors.forEach((ceid, numThreads) -> {
       tmpExecutors.put(ceid,
-          new CompactionExecutor(ceid, numThreads, ceMetrics, readLimiter, writeLimiter));
+          createExecutor(ceid, numThreads, initParams.requestedQueues.get(ceid)));
     });
 
     this.executors = Map.copyOf(tmpExecutors);
@@ -168,6 +296,26 @@ public class CompactionService {
         myId, maxRate, plannerClass, plannerOptions);
   }
 
+  private CompactionExecutor createExecutor(CompactionExecutorId ceid, int numThreads,
+      String queue) {
+    var externalQueue = queue == null ? null : new ExternalCompactionQueue(serverCtx, queue);
+    return new CompactionExecutor(ceid, numThreads, ceMetrics, readLimiter, writeLimiter,
+        externalQueue);
+  }
+
+  private CompactionRatePolicy createRatePolicy() {
+    var conf = serverCtx.getConfiguration();
+    try {
+      var policy = ConfigurationTypeHelper.getClassInstance(null,
+          conf.get(Property.TSERV_COMPACTION_RATE_POLICY), CompactionRatePolicy.class);
+      policy.init(
+          conf.getAllPropertiesWithPrefixStripped(Property.TSERV_COMPACTION_RATE_POLICY_OPTS));
+      return policy;
+    } catch (IOException | ReflectiveOperationException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   private CompactionPlanner createPlanner(String plannerClass) {
     try {
       return ConfigurationTypeHelper.getClassInstance(null, plannerClass, CompactionPlanner.class);
@@ -244,6 +392,11 @@ public class CompactionService {
         return compactable.getCompactionRatio();
       }
 
+      @Override
+      public double getScanRate() {
+        return compactable.getScanRate();
+      }
+
       @Override
       public CompactionKind getKind() {
         return kind;
@@ -363,20 +516,25 @@ public class CompactionService {
 
     Map<CompactionExecutorId,CompactionExecutor> tmpExecutors = new HashMap<>();
 
+    // stop executors that are removed or replaced before creating their replacements
+    executors.forEach((ceid, executor) -> {
+      if (!initParams.requestedExecutors.containsKey(ceid)
+          || !Objects.equals(initParams.requestedQueues.get(ceid), executor.getExternalQueue())) {
+        executor.stop();
+      }
+    });
+
     initParams.requestedExecutors.forEach((ceid, numThreads) -> {
       var executor = executors.get(ceid);
-      if (executor == null) {
-        executor = new CompactionExecutor(ceid, numThreads, ceMetrics, readLimiter, writeLimiter);
+      String queue = initParams.requestedQueues.get(ceid);
+      if (executor == null || !Objects.equals(queue, executor.getExternalQueue())) {
+        executor = createExecutor(ceid, numThreads, queue);
       } else {
         executor.setThreads(numThreads);
       }
       tmpExecutors.put(ceid, executor);
     });
 
-    Sets.difference(executors.keySet(), tmpExecutors.keySet()).forEach(ceid -> {
-      executors.get(ceid).stop();
-    });
-
     this.plannerClassName = plannerClassName;
     this.plannerOpts = plannerOptions;
     this.executors = Map.copyOf(tmpExecutors);
@@ -389,6 +547,11 @@ public class CompactionService {
 
   public void stop() {
     executors.values().forEach(CompactionExecutor::stop);
+    try {
+      rateMetricsCloser.close();
+    } catch (Exception e) {
+      log.warn("Failed to close rate metrics {}", myId, e);
+    }
   }
 
   int getCompactionsRunning() {
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.compactions;
+
+import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.util.ratelimit.GuavaRateLimiter;
+import org.apache.accumulo.core.util.ratelimit.RateLimiter;
+import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.apache.accumulo.fate.zookeeper.ZooUtil;
+import org.apache.accumulo.server.AbstractServer;
+import org.apache.accumulo.server.ServerOpts;
+import org.apache.accumulo.server.zookeeper.DistributedWorkQueue;
+import org.apache.accumulo.server.zookeeper.DistributedWorkQueue.Processor;
+import org.apache.accumulo.tserver.tablet.CompactionStats;
+import org.apache.accumulo.tserver.tablet.Compactor.CompactionCanceledException;
+import org.apache.accumulo.tserver.tablet.Compactor.CompactionEnv;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * A process that runs major compactions outside of tablet servers. It takes jobs from one queue of
+ * an {@link ExternalCompactionQueue}, so heavy compactions do not compete with scans and ingest for
+ * the memory and CPU of tablet servers. The tablet server that queued a job commits its result.
+ */
+public class CompactorServer extends AbstractServer {
+
+  private static final Logger log = LoggerFactory.getLogger(CompactorServer.class);
+
+  // how often a running job checks whether it was canceled
+  private static final long CANCEL_CHECK_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  // tablet servers read a result within a second of it being written, older ones are orphaned
+  private static final long STALE_RESULT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+  static class CompactorOpts extends ServerOpts {
+    @Parameter(names = {"-q", "--queue"}, required = true,
+        description = "the compaction queue to take jobs from")
+    String queue;
+
+    @Parameter(names = {"-t", "--threads"}, description = "the number of jobs to run at once")
+    int threads = 1;
+  }
+
+  private final String queue;
+  private final int threads;
+
+  CompactorServer(CompactorOpts opts, String[] args) {
+    super("compactor", opts, args);
+    getContext().setupCrypto();
+    this.queue = opts.queue;
+    this.threads = opts.threads;
+  }
+
+  public static void main(String[] args) throws Exception {
+    try (CompactorServer compactor = new CompactorServer(new CompactorOpts(), args)) {
+      compactor.runServer();
+    }
+  }
+
+  /**
+   * The environment of a job, it is canceled once the tablet server that queued it removes it. Its
+   * reads and writes are each limited to the rate its compaction service had when it was queued.
+   */
+  private class JobEnv implements CompactionEnv {
+    private final String jobPath;
+    private final RateLimiter readLimiter;
+    private final RateLimiter writeLimiter;
+    private long lastCheck = System.nanoTime();
+    private boolean enabled = true;
+
+    JobEnv(String jobPath, long rateLimit) {
+      this.jobPath = jobPath;
+      this.readLimiter = new GuavaRateLimiter(rateLimit);
+      this.writeLimiter = new GuavaRateLimiter(rateLimit);
+    }
+
+    @Override
+    public boolean isCompactionEnabled() {
+      long now = System.nanoTime();
+      if (enabled && now - lastCheck > CANCEL_CHECK_NANOS) {
+        lastCheck = now;
+        try {
+          enabled = getContext().getZooReaderWriter().exists(jobPath);
+        } catch (KeeperException e) {
+          log.debug("Failed to check if {} was canceled", jobPath, e);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          enabled = false;
+        }
+      }
+      return enabled;
+    }
+
+    @Override
+    public IteratorScope getIteratorScope() {
+      return IteratorScope.majc;
+    }
+
+    @Override
+    public RateLimiter getReadLimiter() {
+      return readLimiter;
+    }
+
+    @Override
+    public RateLimiter getWriteLimiter() {
+      return writeLimiter;
+    }
+
+    @Override
+    public BlockPrefetcher getPrefetcher() {
+      return null;
+    }
+
+    @Override
+    public Executor getSubCompactionExecutor() {
+      return null;
+    }
+  }
+
+  private class JobProcessor implements Processor {
+
+    @Override
+    public Processor newProcessor() {
+      return new JobProcessor();
+    }
+
+    @Override
+    public void process(String workID, byte[] data) {
+      String jobPath = ExternalCompactionQueue.getQueuePath(getContext(), queue) + "/" + workID;
+
+      byte[] result;
+      try {
+        ExternalCompactionJob job = ExternalCompactionJob.decode(data);
+        log.info("Compacting {} into {} for job {}", job.getExtent(), job.getOutputFile(), workID);
+        CompactionStats stats =
+            job.createCompactor(getContext(), new JobEnv(jobPath, job.getRateLimit())).call();
+        log.info("Compacted {} for job {}, read {} entries and wrote {}", job.getExtent(), workID,
+            stats.getEntriesRead(), stats.getEntriesWritten());
+        result = ExternalCompactionQueue.encodeResult(stats, job.getOutputFile());
+      } catch (CompactionCanceledException e) {
+        // nothing waits on the result of a canceled job
+        log.info("Compaction job {} was canceled", workID);
+        return;
+      } catch (Exception e) {
+        log.warn("Compaction job {} failed", workID, e);
+        result = ExternalCompactionQueue.encodeFailure(e);
+      }
+
+      // the result is only written while the job is queued, nothing reads it once it is canceled
+      String resultPath = ExternalCompactionQueue.getResultPath(getContext(), workID);
+      try {
+        getContext().getZooReaderWriter().getZooKeeper().multi(List.of(Op.check(jobPath, -1),
+            Op.create(resultPath, result, ZooUtil.PUBLIC, CreateMode.PERSISTENT)));
+      } catch (KeeperException.NoNodeException e) {
+        log.info("Compaction job {} was canceled after it finished", workID);
+        ExternalCompactionQueue.deleteOutputFile(getContext(), result);
+      } catch (KeeperException.NodeExistsException e) {
+        log.debug("Result of compaction job {} was written by an earlier attempt", workID);
+      } catch (KeeperException | InterruptedException e) {
+        // leaves the job queued, so it is run again
+        throw new IllegalStateException("Failed to write result of compaction job " + workID, e);
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    ThreadPoolExecutor jobThreads =
+        ThreadPools.createFixedThreadPool(threads, "compactor." + queue, true);
+    try {
+      // a result can not be written when its parent is missing
+      getContext().getZooReaderWriter()
+          .mkdirs(ExternalCompactionQueue.getResultsPath(getContext()));
+      new DistributedWorkQueue(ExternalCompactionQueue.getQueuePath(getContext(), queue),
+          getConfiguration()).startProcessing(new JobProcessor(), jobThreads);
+    } catch (KeeperException | InterruptedException e) {
+      throw new IllegalStateException("Failed to start taking jobs from " + queue, e);
+    }
+
+    log.info("Compactor started, taking jobs from {} with {} threads", queue, threads);
+
+    while (true) {
+      sleepUninterruptibly(1, TimeUnit.MINUTES);
+      try {
+        ExternalCompactionQueue.removeStaleResults(getContext(), STALE_RESULT_MILLIS);
+      } catch (KeeperException | RuntimeException e) {
+        log.warn("Failed to remove stale compaction results", e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.compactions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.clientImpl.UserCompactionUtils;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.metadata.StoredTabletFile;
+import org.apache.accumulo.core.metadata.TabletFile;
+import org.apache.accumulo.core.metadata.schema.DataFileValue;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.tserver.tablet.Compactor;
+import org.apache.accumulo.tserver.tablet.Compactor.CompactionEnv;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Everything a compactor process needs to run a compaction of a tablet's files, the result is
+ * written to the output file and committed by the tablet server that queued the job.
+ */
+public class ExternalCompactionJob {
+
+  private static final int MAGIC = 0x3c0a7e51;
+  private static final int VERSION = 2;
+
+  private final KeyExtent extent;
+  private final Map<StoredTabletFile,DataFileValue> files;
+  private final TabletFile outputFile;
+  private final boolean propagateDeletes;
+  private final List<IteratorSetting> iterators;
+  private final int reason;
+  private final Map<String,String> tableProperties;
+  private final long rateLimit;
+
+  private ExternalCompactionJob(KeyExtent extent, Map<StoredTabletFile,DataFileValue> files,
+      TabletFile outputFile, boolean propagateDeletes, List<IteratorSetting> iterators, int reason,
+      Map<String,String> tableProperties, long rateLimit) {
+    this.extent = extent;
+    this.files = files;
+    this.outputFile = outputFile;
+    this.propagateDeletes = propagateDeletes;
+    this.iterators = iterators;
+    this.reason = reason;
+    this.tableProperties = tableProperties;
+    this.rateLimit = rateLimit;
+  }
+
+  /**
+   * @param rateLimit
+   *          the bytes per second the compactor may read and may write for this job, non-positive
+   *          for no limit
+   */
+  public ExternalCompactionJob(KeyExtent extent, Map<StoredTabletFile,DataFileValue> files,
+      TabletFile outputFile, boolean propagateDeletes, List<IteratorSetting> iterators, int reason,
+      AccumuloConfiguration tableConfig, long rateLimit) {
+    this(extent, files, outputFile, propagateDeletes, iterators, reason,
+        tableConfig.getAllPropertiesWithPrefix(Property.TABLE_PREFIX), rateLimit);
+  }
+
+  public KeyExtent getExtent() {
+    return extent;
+  }
+
+  public TabletFile getOutputFile() {
+    return outputFile;
+  }
+
+  /**
+   * @return the rate of the compaction service when the job was queued, in bytes per second, or a
+   *         non-positive value for no limit
+   */
+  public long getRateLimit() {
+    return rateLimit;
+  }
+
+  /**
+   * Creates the compactor that runs this job. Table properties are layered over the configuration
+   * of the process running the job, only table properties travel with a job.
+   */
+  public Compactor createCompactor(ServerContext context, CompactionEnv env) {
+    ConfigurationCopy tableConfig = new ConfigurationCopy(context.getConfiguration());
+    tableProperties.forEach(tableConfig::set);
+    return new Compactor(context, extent, files, null, outputFile, propagateDeletes, env, iterators,
+        reason, tableConfig);
+  }
+
+  public byte[] encode() {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataOutputStream dos = new DataOutputStream(baos)) {
+      dos.writeInt(MAGIC);
+      dos.writeByte(VERSION);
+      extent.writeTo(dos);
+      dos.writeInt(files.size());
+      for (Entry<StoredTabletFile,DataFileValue> entry : files.entrySet()) {
+        dos.writeUTF(entry.getKey().getMetaUpdateDelete());
+        dos.writeUTF(entry.getValue().encodeAsString());
+      }
+      dos.writeUTF(outputFile.getPathStr());
+      dos.writeBoolean(propagateDeletes);
+      dos.writeInt(iterators.size());
+      for (IteratorSetting iterator : iterators) {
+        iterator.write(dos);
+      }
+      dos.writeInt(reason);
+      UserCompactionUtils.encode(dos, tableProperties);
+      dos.writeLong(rateLimit);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return baos.toByteArray();
+  }
+
+  public static ExternalCompactionJob decode(byte[] data) {
+    try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data))) {
+      if (dis.readInt() != MAGIC) {
+        throw new IllegalArgumentException("Unexpected data in external compaction job");
+      }
+      if (dis.readByte() != VERSION) {
+        throw new IllegalArgumentException("Unexpected version of external compaction job");
+      }
+      KeyExtent extent = KeyExtent.readFrom(dis);
+      int numFiles = dis.readInt();
+      Map<StoredTabletFile,DataFileValue> files = new HashMap<>();
+      for (int i = 0; i < numFiles; i++) {
+        files.put(new StoredTabletFile(dis.readUTF()), new DataFileValue(dis.readUTF()));
+      }
+      TabletFile outputFile = new TabletFile(new Path(dis.readUTF()));
+      boolean propagateDeletes = dis.readBoolean();
+      int numIterators = dis.readInt();
+      List<IteratorSetting> iterators = new ArrayList<>(numIterators);
+      for (int i = 0; i < numIterators; i++) {
+        iterators.add(new IteratorSetting(dis));
+      }
+      int reason = dis.readInt();
+      Map<String,String> tableProperties = UserCompactionUtils.decodeMap(dis);
+      long rateLimit = dis.readLong();
+      return new ExternalCompactionJob(extent, files, outputFile, propagateDeletes, iterators,
+          reason, tableProperties, rateLimit);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
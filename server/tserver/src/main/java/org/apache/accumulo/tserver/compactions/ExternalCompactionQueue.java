@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.compactions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.accumulo.core.Constants;
+import org.apache.accumulo.core.metadata.TabletFile;
+import org.apache.accumulo.fate.zookeeper.ZooReaderWriter;
+import org.apache.accumulo.fate.zookeeper.ZooUtil.NodeMissingPolicy;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.server.zookeeper.DistributedWorkQueue;
+import org.apache.accumulo.tserver.tablet.CompactionStats;
+import org.apache.accumulo.tserver.tablet.Compactor.CompactionCanceledException;
+import org.apache.accumulo.tserver.tablet.Compactor.CompactionEnv;
+import org.apache.hadoop.fs.Path;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands compaction jobs to the compactor processes of a queue and waits for their results. Jobs are
+ * queued in zookeeper using a {@link DistributedWorkQueue}, a compactor that takes a job writes its
+ * result to a node of its own before the job is removed from the queue. When a compactor dies while
+ * running a job, the job stays queued and is run by another compactor.
+ *
+ * <p>
+ * A job is canceled by removing it from the queue, the compactor running it checks for that
+ * periodically. A result is only written while its job is still queued, results left behind by a
+ * tablet server that died waiting on them are removed by {@link #removeStaleResults}.
+ */
+public class ExternalCompactionQueue {
+
+  private static final Logger log = LoggerFactory.getLogger(ExternalCompactionQueue.class);
+
+  // the longest time between checks for a result
+  private static final long MAX_WAIT_MILLIS = 1000;
+
+  private static final byte SUCCEEDED = 0;
+  private static final byte FAILED = 1;
+
+  private final ServerContext context;
+  private final String queue;
+  private final DistributedWorkQueue workQueue;
+
+  public ExternalCompactionQueue(ServerContext context, String queue) {
+    this.context = context;
+    this.queue = queue;
+    this.workQueue =
+        new DistributedWorkQueue(getQueuePath(context, queue), context.getConfiguration());
+  }
+
+  public String getQueue() {
+    return queue;
+  }
+
+  static String getQueuePath(ServerContext context, String queue) {
+    return context.getZooKeeperRoot() + Constants.ZCOMPACTORS + "/queues/" + queue;
+  }
+
+  static String getResultsPath(ServerContext context) {
+    return context.getZooKeeperRoot() + Constants.ZCOMPACTORS + "/results";
+  }
+
+  static String getResultPath(ServerContext context, String jobId) {
+    return getResultsPath(context) + "/" + jobId;
+  }
+
+  /**
+   * Queues a job and waits for a compactor to run it.
+   *
+   * @param env
+   *          checked while waiting, the job is canceled when compaction is no longer enabled
+   */
+  public CompactionStats compact(ExternalCompactionJob job, CompactionEnv env)
+      throws IOException, CompactionCanceledException {
+    String jobId = UUID.randomUUID().toString();
+    String jobPath = getQueuePath(context, queue) + "/" + jobId;
+    String resultPath = getResultPath(context, jobId);
+    ZooReaderWriter zoo = context.getZooReaderWriter();
+
+    boolean done = false;
+    try {
+      workQueue.addWork(jobId, job.encode());
+      log.debug("Queued compaction of {} as job {} on {}", job.getExtent(), jobId, queue);
+
+      long waitMillis = 10;
+      while (!zoo.exists(resultPath)) {
+        if (!env.isCompactionEnabled()) {
+          throw new CompactionCanceledException();
+        }
+        Thread.sleep(waitMillis);
+        waitMillis = Math.min(MAX_WAIT_MILLIS, waitMillis * 2);
+      }
+
+      byte[] result = zoo.getData(resultPath);
+      zoo.recursiveDelete(resultPath, NodeMissingPolicy.SKIP);
+      done = true;
+      return decodeResult(result);
+    } catch (KeeperException e) {
+      throw new IOException("Failed to run compaction job " + jobId + " on " + queue, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted waiting for compaction job " + jobId, e);
+    } finally {
+      if (!done) {
+        // a compactor running the job stops once it sees the job is gone, one that finished
+        // before that wrote a result whose output file is no longer needed
+        try {
+          zoo.recursiveDelete(jobPath, NodeMissingPolicy.SKIP);
+          if (zoo.exists(resultPath)) {
+            deleteOutputFile(context, zoo.getData(resultPath));
+            zoo.recursiveDelete(resultPath, NodeMissingPolicy.SKIP);
+          }
+        } catch (KeeperException | InterruptedException e) {
+          log.warn("Failed to remove compaction job {} from {}", jobId, queue, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes the results, and their output files, that were not read within the given time.
+   */
+  static void removeStaleResults(ServerContext context, long maxAgeMillis)
+      throws KeeperException, InterruptedException {
+    ZooReaderWriter zoo = context.getZooReaderWriter();
+    String resultsPath = getResultsPath(context);
+    List<String> jobIds = zoo.getChildren(resultsPath);
+    for (String jobId : jobIds) {
+      String resultPath = resultsPath + "/" + jobId;
+      Stat stat = new Stat();
+      byte[] result;
+      try {
+        result = zoo.getData(resultPath, stat);
+      } catch (KeeperException.NoNodeException e) {
+        continue;
+      }
+      if (System.currentTimeMillis() - stat.getMtime() > maxAgeMillis) {
+        log.info("Removing stale result of compaction job {}", jobId);
+        deleteOutputFile(context, result);
+        zoo.recursiveDelete(resultPath, NodeMissingPolicy.SKIP);
+      }
+    }
+  }
+
+  /**
+   * Deletes the output file of a successful result, the file of a failed job was already deleted by
+   * the compactor.
+   */
+  static void deleteOutputFile(ServerContext context, byte[] result) {
+    String outputFile = decodeOutputFile(result);
+    if (outputFile != null) {
+      try {
+        context.getVolumeManager().deleteRecursively(new Path(outputFile));
+      } catch (IOException e) {
+        log.warn("Failed to delete compaction output file {}", outputFile, e);
+      }
+    }
+  }
+
+  static byte[] encodeResult(CompactionStats stats, TabletFile outputFile) {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataOutputStream dos = new DataOutputStream(baos)) {
+      dos.writeByte(SUCCEEDED);
+      dos.writeLong(stats.getEntriesRead());
+      dos.writeLong(stats.getEntriesWritten());
+      dos.writeLong(stats.getFileSize());
+      dos.writeUTF(outputFile.getPathStr());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return baos.toByteArray();
+  }
+
+  static byte[] encodeFailure(Exception failure) {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataOutputStream dos = new DataOutputStream(baos)) {
+      dos.writeByte(FAILED);
+      dos.writeUTF(String.valueOf(failure));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return baos.toByteArray();
+  }
+
+  static CompactionStats decodeResult(byte[] result) throws IOException {
+    try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(result))) {
+      if (dis.readByte() == FAILED) {
+        throw new IOException("Compactor failed : " + dis.readUTF());
+      }
+      CompactionStats stats = new CompactionStats(dis.readLong(), dis.readLong());
+      stats.setFileSize(dis.readLong());
+      return stats;
+    }
+  }
+
+  /**
+   * @return the output file of a successful result, or null for a failed one
+   */
+  static String decodeOutputFile(byte[] result) {
+    try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(result))) {
+      if (dis.readByte() == FAILED) {
+        return null;
+      }
+      dis.skipBytes(3 * Long.BYTES);
+      return dis.readUTF();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.compactions;
+
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Adjusts the rate of compactions based on the latency of scans and write-ahead log writes, so
+ * compactions run fast when the tablet server is quiet and get out of the way when it is busy.
+ * While scans or write-ahead log writes take longer than their targets, the rate is multiplied by
+ * the backoff. Otherwise, when compactions use most of their rate, the rate is raised by a fraction
+ * of the maximum rate. The rate is not raised while compactions do not use it, so it does not grow
+ * beyond what compactions could actually use.
+ *
+ * <p>
+ * The following options are supported.
+ *
+ * <ul>
+ * <li>{@code maxRate} The highest rate in bytes per second for compaction services that have no
+ * configured rate limit, otherwise the configured rate limit is the highest rate. Defaults to 256M.
+ * <li>{@code minRate} The lowest rate in bytes per second. Defaults to 4M.
+ * <li>{@code scanWaitTarget} The average time scans may wait for a batch of results before
+ * compactions are slowed down. Defaults to 100ms.
+ * <li>{@code walSyncTarget} The average time write-ahead log writes may take before compactions are
+ * slowed down. Defaults to 50ms.
+ * <li>{@code backoff} The fraction of the rate kept when compactions are slowed down. Defaults to
+ * 0.7.
+ * <li>{@code increase} The fraction of the highest rate added to the rate when compactions are sped
+ * up. Defaults to 0.05.
+ * </ul>
+ */
+public class FeedbackCompactionRatePolicy implements CompactionRatePolicy {
+
+  // compactions use their rate when their throughput is at least this fraction of it
+  private static final double RATE_USED = 0.8;
+
+  private long maxRate;
+  private long minRate;
+  private double scanWaitTarget;
+  private double walSyncTarget;
+  private double backoff;
+  private double increase;
+
+  private long rate = 0;
+
+  @Override
+  public void init(Map<String,String> options) {
+    maxRate =
+        ConfigurationTypeHelper.getFixedMemoryAsBytes(options.getOrDefault("maxRate", "256M"));
+    minRate = ConfigurationTypeHelper.getFixedMemoryAsBytes(options.getOrDefault("minRate", "4M"));
+    scanWaitTarget =
+        ConfigurationTypeHelper.getTimeInMillis(options.getOrDefault("scanWaitTarget", "100ms"));
+    walSyncTarget =
+        ConfigurationTypeHelper.getTimeInMillis(options.getOrDefault("walSyncTarget", "50ms"));
+    backoff = Double.parseDouble(options.getOrDefault("backoff", "0.7"));
+    increase = Double.parseDouble(options.getOrDefault("increase", "0.05"));
+
+    Preconditions.checkArgument(minRate > 0 && minRate <= maxRate,
+        "minRate %s must be positive and not larger than maxRate %s", minRate, maxRate);
+    Preconditions.checkArgument(backoff > 0 && backoff < 1, "backoff must be between 0 and 1 : %s",
+        backoff);
+    Preconditions.checkArgument(increase > 0 && increase <= 1,
+        "increase must be between 0 and 1 : %s", increase);
+  }
+
+  @Override
+  public long getRate(Signals signals) {
+    long highest = signals.getConfiguredRate() > 0 ? signals.getConfiguredRate() : maxRate;
+    long lowest = Math.min(minRate, highest);
+
+    if (rate <= 0) {
+      rate = highest;
+    } else if (signals.getScanWaitMillis() > scanWaitTarget
+        || signals.getWalSyncMillis() > walSyncTarget) {
+      rate = (long) (rate * backoff);
+    } else if (signals.getCompactionThroughput() >= rate * RATE_USED) {
+      rate += (long) (highest * increase);
+    }
+
+    rate = Math.max(lowest, Math.min(highest, rate));
+    return rate;
+  }
+}
@@ -39,9 +39,13 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.accumulo.core.client.Durability;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
@@ -67,15 +71,18 @@ import org.apache.accumulo.server.fs.VolumeManager;
 import org.apache.accumulo.tserver.TabletMutations;
 import org.apache.accumulo.tserver.logger.LogFileKey;
 import org.apache.accumulo.tserver.logger.LogFileValue;
+import org.apache.accumulo.tserver.metrics.TabletServerWalMetrics;
 import org.apache.accumulo.tserver.tablet.CommitSession;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hdfs.DFSOutputStream;
 import org.apache.hadoop.hdfs.protocol.DatanodeInfo;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 
@@ -133,7 +140,7 @@ public class DfsLogger implements Comparable<DfsLogger> {
 
   private static final LogFileValue EMPTY = new LogFileValue();
 
-  private boolean closed = false;
+  private volatile boolean closed = false;
 
   private class LogSyncingTask implements Runnable {
     private int expectedReplication = 0;
@@ -150,6 +157,9 @@ public class DfsLogger implements Comparable<DfsLogger> {
         } catch (InterruptedException ex) {
           continue;
         }
+        if (groupCommitWaitNanos > 0) {
+          waitForGroup(work);
+        }
         workQueue.drainTo(work);
 
         Optional<Boolean> shouldHSync = Optional.empty();
@@ -214,11 +224,50 @@ public class DfsLogger implements Comparable<DfsLogger> {
           }
         }
 
+        long batchSize = 0;
+        long batchBytes = 0;
+        long now = System.nanoTime();
         for (DfsLogger.LogWork logWork : work)
           if (logWork == CLOSED_MARKER)
             sawClosedMarker = true;
-          else
+          else {
             logWork.latch.countDown();
+            batchSize++;
+            batchBytes += logWork.bytes;
+            if (metrics != null) {
+              metrics.addSyncWait(TimeUnit.NANOSECONDS.toMillis(now - logWork.queued));
+            }
+          }
+        if (metrics != null && batchSize > 0) {
+          metrics.addSyncBatchSize(batchSize);
+          metrics.addSyncBatchBytes(batchBytes);
+        }
+      }
+    }
+
+    /**
+     * Waits for more work to arrive so it can share a sync with the work already taken, until the
+     * group commit wait expires, the pending bytes reach the group commit size, or the log closes.
+     */
+    private void waitForGroup(ArrayList<DfsLogger.LogWork> work) {
+      long bytes = work.get(0).bytes;
+      long deadline = System.nanoTime() + groupCommitWaitNanos;
+      while (bytes < groupCommitBytes && work.get(work.size() - 1) != CLOSED_MARKER) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          break;
+        }
+        DfsLogger.LogWork next;
+        try {
+          next = workQueue.poll(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+          break;
+        }
+        if (next == null) {
+          break;
+        }
+        work.add(next);
+        bytes += next.bytes;
       }
     }
 
@@ -233,6 +282,8 @@ public class DfsLogger implements Comparable<DfsLogger> {
   private static class LogWork {
     final CountDownLatch latch;
     final Durability durability;
+    final long queued = System.nanoTime();
+    long bytes = 0;
     volatile Exception exception;
 
     public LogWork(CountDownLatch latch, Durability durability) {
@@ -241,6 +292,26 @@ public class DfsLogger implements Comparable<DfsLogger> {
     }
   }
 
+  /**
+   * Serialized log entries waiting to be appended to the log file by whichever writer thread
+   * currently holds {@link DfsLogger#appending}. The queuing thread parks until that writer marks
+   * the append done and unparks it.
+   */
+  private static class Append {
+    final byte[] data;
+    final int length;
+    final int entries;
+    final Thread writer = Thread.currentThread();
+    volatile boolean done = false;
+    volatile Exception exception;
+
+    Append(byte[] data, int length, int entries) {
+      this.data = data;
+      this.length = length;
+      this.entries = entries;
+    }
+  }
+
   static class LoggerOperation {
     private final LogWork work;
 
@@ -307,21 +378,37 @@ public class DfsLogger implements Comparable<DfsLogger> {
   private String metaReference;
   private AtomicLong syncCounter;
   private AtomicLong flushCounter;
+  private TabletServerWalMetrics metrics;
   private final long slowFlushMillis;
-  private long writes = 0;
+  private final long groupCommitWaitNanos;
+  private final long groupCommitBytes;
+  private final AtomicLong writes = new AtomicLong(0);
+
+  // Writers serialize their entries without holding a lock and queue them here. The first writer
+  // to set the appending flag writes every queued append to the log file, so concurrent writers
+  // share a single write and flush of the encrypting stream. The other writers park until their
+  // appends are written, when the flag is released the writer of the oldest queued append is
+  // unparked to take it.
+  private final ConcurrentLinkedQueue<Append> appendQueue = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean appending = new AtomicBoolean(false);
 
   private DfsLogger(ServerContext context, ServerResources conf) {
     this.context = context;
     this.conf = conf;
     this.slowFlushMillis =
         conf.getConfiguration().getTimeInMillis(Property.TSERV_SLOW_FLUSH_MILLIS);
+    this.groupCommitWaitNanos = TimeUnit.MILLISECONDS
+        .toNanos(conf.getConfiguration().getTimeInMillis(Property.TSERV_WAL_GROUP_COMMIT_WAIT));
+    this.groupCommitBytes =
+        conf.getConfiguration().getAsBytes(Property.TSERV_WAL_GROUP_COMMIT_BYTES);
   }
 
   public DfsLogger(ServerContext context, ServerResources conf, AtomicLong syncCounter,
-      AtomicLong flushCounter) {
+      AtomicLong flushCounter, TabletServerWalMetrics metrics) {
     this(context, conf);
     this.syncCounter = syncCounter;
     this.flushCounter = flushCounter;
+    this.metrics = metrics;
   }
 
   /**
@@ -440,8 +527,8 @@ public class DfsLogger implements Comparable<DfsLogger> {
 
       /**
        * Always wrap the WAL in a NoFlushOutputStream to prevent extra flushing to HDFS. The
-       * {@link #write(LogFileKey, LogFileValue)} method will flush crypto data or do nothing when
-       * crypto is not enabled.
+       * {@link #write(List)} method will flush crypto data or do nothing when crypto is not
+       * enabled.
        **/
       OutputStream encryptedStream = encrypter.encryptStream(new NoFlushOutputStream(logFile));
       if (encryptedStream instanceof NoFlushOutputStream) {
@@ -469,6 +556,20 @@ public class DfsLogger implements Comparable<DfsLogger> {
     log.debug("Got new write-ahead log: {}", this);
   }
 
+  /**
+   * Starts appending entries to a stream that is already positioned after the log header, without
+   * writing an OPEN entry.
+   */
+  @VisibleForTesting
+  void open(String path, FSDataOutputStream out) {
+    logPath = path;
+    metaReference = toString();
+    logFile = out;
+    encryptingLogFile = new NoFlushOutputStream(out);
+    syncThread = Threads.createThread("Accumulo WALog thread " + this, new LogSyncingTask());
+    syncThread.start();
+  }
+
   static long getWalBlockSize(AccumuloConfiguration conf) {
     long blockSize = conf.getAsBytes(Property.TSERV_WAL_BLOCKSIZE);
     if (blockSize == 0)
@@ -540,9 +641,10 @@ public class DfsLogger implements Comparable<DfsLogger> {
       }
   }
 
-  public synchronized long getWrites() {
-    Preconditions.checkState(writes >= 0);
-    return writes;
+  public long getWrites() {
+    long count = writes.get();
+    Preconditions.checkState(count >= 0);
+    return count;
   }
 
   public LoggerOperation defineTablet(CommitSession cs) throws IOException {
@@ -555,11 +657,88 @@ public class DfsLogger implements Comparable<DfsLogger> {
     return logKeyData(key, Durability.LOG);
   }
 
-  private synchronized void write(LogFileKey key, LogFileValue value) throws IOException {
-    key.write(encryptingLogFile);
-    value.write(encryptingLogFile);
-    encryptingLogFile.flush();
-    writes++;
+  /**
+   * Appends the entries to the log file, returning the number of bytes written. The entries are
+   * serialized by the calling thread and then written, in order, together with any entries other
+   * threads have queued concurrently.
+   */
+  private int write(List<Pair<LogFileKey,LogFileValue>> entries) throws IOException {
+    if (closed) {
+      throw new LogClosedException();
+    }
+    DataOutputBuffer buffer = new DataOutputBuffer();
+    for (Pair<LogFileKey,LogFileValue> pair : entries) {
+      pair.getFirst().write(buffer);
+      pair.getSecond().write(buffer);
+    }
+    Append append = new Append(buffer.getData(), buffer.getLength(), entries.size());
+    appendQueue.add(append);
+
+    boolean interrupted = false;
+    while (!append.done) {
+      if (appending.compareAndSet(false, true)) {
+        try {
+          do {
+            writeQueuedAppends();
+          } while (!append.done);
+        } finally {
+          appending.set(false);
+          // an append queued after the last poll above has no writer yet, wake its thread
+          Append next = appendQueue.peek();
+          if (next != null) {
+            LockSupport.unpark(next.writer);
+          }
+        }
+      } else {
+        LockSupport.park(this);
+        // park returns immediately while the interrupt flag is set, clear it so this thread parks
+        // again and restore it once the append is done
+        if (Thread.interrupted()) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (append.exception != null) {
+      if (append.exception instanceof IOException)
+        throw (IOException) append.exception;
+      throw (RuntimeException) append.exception;
+    }
+    return append.length;
+  }
+
+  private void writeQueuedAppends() {
+    List<Append> written = new ArrayList<>();
+    Exception failure = null;
+    boolean completed = false;
+    try {
+      Append append;
+      while ((append = appendQueue.poll()) != null) {
+        written.add(append);
+        encryptingLogFile.write(append.data, 0, append.length);
+      }
+      encryptingLogFile.flush();
+      completed = true;
+    } catch (IOException | RuntimeException e) {
+      failure = e;
+      completed = true;
+    } finally {
+      if (!completed) {
+        // an Error is propagating to the appending thread, the other writers must still wake up
+        failure = new IOException("Unexpected error appending to " + logPath);
+      }
+      for (Append append : written) {
+        if (failure == null) {
+          writes.addAndGet(append.entries);
+        }
+        append.exception = failure;
+        append.done = true;
+        LockSupport.unpark(append.writer);
+      }
+    }
   }
 
   private LoggerOperation logKeyData(LogFileKey key, Durability d) throws IOException {
@@ -570,9 +749,9 @@ public class DfsLogger implements Comparable<DfsLogger> {
       Durability durability) throws IOException {
     DfsLogger.LogWork work = new DfsLogger.LogWork(new CountDownLatch(1), durability);
     try {
-      for (Pair<LogFileKey,LogFileValue> pair : keys) {
-        write(pair.getFirst(), pair.getSecond());
-      }
+      work.bytes = write(keys);
+    } catch (LogClosedException ex) {
+      throw ex;
     } catch (ClosedChannelException ex) {
       throw new LogClosedException();
     } catch (Exception e) {
@@ -21,18 +21,29 @@ package org.apache.accumulo.tserver.log;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.crypto.CryptoServiceFactory;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.rfile.RFile;
 import org.apache.accumulo.core.master.thrift.RecoveryStatus;
 import org.apache.accumulo.core.util.Pair;
 import org.apache.accumulo.core.util.threads.ThreadPools;
@@ -47,11 +58,12 @@ import org.apache.accumulo.tserver.logger.LogFileValue;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.io.MapFile;
 import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.Uninterruptibles;
+
 public class LogSorter {
 
   private static final Logger log = LoggerFactory.getLogger(LogSorter.class);
@@ -131,22 +143,43 @@ public class LogSorter {
 
         final long bufferSize = conf.getAsBytes(Property.TSERV_SORT_BUFFER_SIZE);
         Thread.currentThread().setName("Sorting " + name + " for recovery");
-        while (true) {
-          final ArrayList<Pair<LogFileKey,LogFileValue>> buffer = new ArrayList<>();
-          try {
-            long start = input.getPos();
-            while (input.getPos() - start < bufferSize) {
-              LogFileKey key = new LogFileKey();
-              LogFileValue value = new LogFileValue();
-              key.readFields(decryptingInput);
-              value.readFields(decryptingInput);
-              buffer.add(new Pair<>(key, value));
+        // Buffers are sorted and written by the sort pool while this thread continues to read and
+        // decrypt the log. The number of outstanding buffers is bounded to limit memory use.
+        final Deque<BufferWriter> pending = new ArrayDeque<>();
+        try {
+          while (true) {
+            final ArrayList<Pair<LogFileKey,LogFileValue>> buffer = new ArrayList<>();
+            boolean eof = false;
+            try {
+              long start = input.getPos();
+              while (input.getPos() - start < bufferSize) {
+                LogFileKey key = new LogFileKey();
+                LogFileValue value = new LogFileValue();
+                key.readFields(decryptingInput);
+                value.readFields(decryptingInput);
+                buffer.add(new Pair<>(key, value));
+              }
+            } catch (EOFException ex) {
+              eof = true;
+            }
+            while (pending.size() >= sortThreadPoolSize) {
+              pending.removeFirst().future.get();
             }
-            writeBuffer(destPath, buffer, part++);
-            buffer.clear();
-          } catch (EOFException ex) {
-            writeBuffer(destPath, buffer, part++);
-            break;
+            BufferWriter writer = new BufferWriter(destPath, buffer, part++);
+            writer.future = sortThreadPool.submit(writer);
+            pending.addLast(writer);
+            if (eof) {
+              break;
+            }
+          }
+          while (!pending.isEmpty()) {
+            pending.removeFirst().future.get();
+          }
+        } finally {
+          // when the sort fails, buffers that have not started are dropped and the ones being
+          // written are waited for, so no part is written after the failed marker
+          for (BufferWriter writer : pending) {
+            writer.awaitOrDrop();
           }
         }
         fs.create(new Path(destPath, "finished")).close();
@@ -174,17 +207,61 @@ public class LogSorter {
       }
     }
 
+    /**
+     * Sorts and writes one buffer on the sort pool. The buffer is claimed when it starts, or when
+     * a failed sort drops it before it starts.
+     */
+    private class BufferWriter implements Callable<Void> {
+      private final String destPath;
+      private final List<Pair<LogFileKey,LogFileValue>> buffer;
+      private final int part;
+      private final AtomicBoolean claimed = new AtomicBoolean(false);
+      private Future<Void> future;
+
+      BufferWriter(String destPath, List<Pair<LogFileKey,LogFileValue>> buffer, int part) {
+        this.destPath = destPath;
+        this.buffer = buffer;
+        this.part = part;
+      }
+
+      @Override
+      public Void call() throws IOException {
+        if (claimed.compareAndSet(false, true)) {
+          writeBuffer(destPath, buffer, part);
+        }
+        return null;
+      }
+
+      void awaitOrDrop() {
+        if (claimed.compareAndSet(false, true)) {
+          future.cancel(false);
+          return;
+        }
+        try {
+          Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException | CancellationException e) {
+          log.debug("Failed to write part {} of a failed sort of {}", part, destPath, e);
+        }
+      }
+    }
+
     private void writeBuffer(String destPath, List<Pair<LogFileKey,LogFileValue>> buffer, int part)
         throws IOException {
-      Path path = new Path(destPath, String.format("part-r-%05d", part));
+      Path path = new Path(destPath, String.format("part-r-%05d.%s", part, RFile.EXTENSION));
       FileSystem ns = context.getVolumeManager().getFileSystemByPath(path);
 
-      try (MapFile.Writer output = new MapFile.Writer(ns.getConf(), ns.makeQualified(path),
-          MapFile.Writer.keyClass(LogFileKey.class),
-          MapFile.Writer.valueClass(LogFileValue.class))) {
-        buffer.sort(Comparator.comparing(Pair::getFirst));
+      buffer.sort(Comparator.comparing(Pair::getFirst));
+      // sorted parts hold decrypted log data in plain text, the same as the MapFiles written
+      // before, so they are not written with the configured crypto service
+      try (FileSKVWriter output = FileOperations
+          .getInstance().newWriterBuilder().forFile(ns.makeQualified(path).toString(), ns,
+              ns.getConf(), CryptoServiceFactory.newDefaultInstance())
+          .withTableConfiguration(conf).build()) {
+        output.startDefaultLocalityGroup();
+        long timestamp = buffer.size();
         for (Pair<LogFileKey,LogFileValue> entry : buffer) {
-          output.append(entry.getFirst(), entry.getSecond());
+          output.append(RecoveryLogReader.toKey(entry.getFirst(), timestamp--),
+              RecoveryLogReader.toValue(entry.getFirst(), entry.getSecond()));
         }
       }
     }
@@ -215,6 +292,8 @@ public class LogSorter {
   }
 
   ThreadPoolExecutor threadPool;
+  private final ThreadPoolExecutor sortThreadPool;
+  private final int sortThreadPoolSize;
   private final ServerContext context;
   private double walBlockSize;
 
@@ -224,6 +303,9 @@ public class LogSorter {
     int threadPoolSize = conf.getCount(Property.TSERV_RECOVERY_MAX_CONCURRENT);
     this.threadPool =
         ThreadPools.createFixedThreadPool(threadPoolSize, this.getClass().getName(), false);
+    this.sortThreadPoolSize = conf.getCount(Property.TSERV_WAL_SORT_MAX_CONCURRENT);
+    this.sortThreadPool = ThreadPools.createFixedThreadPool(sortThreadPoolSize,
+        this.getClass().getName() + " buffer sort", false);
     this.walBlockSize = DfsLogger.getWalBlockSize(conf);
   }
 
@@ -22,11 +22,20 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.PriorityQueue;
 
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.crypto.CryptoServiceFactory;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.rfile.RFile;
 import org.apache.accumulo.server.fs.VolumeManager;
 import org.apache.accumulo.server.log.SortedLogState;
 import org.apache.accumulo.tserver.logger.LogEvents;
@@ -49,37 +58,37 @@ import com.google.common.collect.PeekingIterator;
 /**
  * A class which reads sorted recovery logs produced from a single WAL.
  *
- * Presently only supports next() and seek() and works on all the Map directories within a
- * directory. The primary purpose of this class is to merge the results of multiple Reduce jobs that
- * result in Map output files.
+ * Presently only supports next() and seek() and works on all the sorted parts within a directory.
+ * Parts are RFiles written by {@link LogSorter}, or Map directories written by older versions. The
+ * primary purpose of this class is to merge the results of the parallel sorts of a WAL.
  */
 public class RecoveryLogReader implements CloseableIterator<Entry<LogFileKey,LogFileValue>> {
 
+  private static final byte[] EMPTY = new byte[0];
+
   /**
-   * Group together the next key/value from a Reader with the Reader
+   * Group together the next key/value from a sorted part file with the reader of that file
    */
-  private static class Index implements Comparable<Index> {
-    Reader reader;
+  private abstract static class Index implements Comparable<Index> {
     WritableComparable<?> key;
     Writable value;
     boolean cached = false;
 
-    private static Object create(java.lang.Class<?> klass) {
-      try {
-        return klass.getConstructor().newInstance();
-      } catch (Exception t) {
-        throw new RuntimeException("Unable to construct objects to use for comparison");
-      }
-    }
+    /**
+     * Reads the next entry of the part file into {@link #key} and {@link #value}.
+     */
+    abstract boolean readNext() throws IOException;
 
-    public Index(Reader reader) {
-      this.reader = reader;
-      key = (WritableComparable<?>) create(reader.getKeyClass());
-      value = (Writable) create(reader.getValueClass());
-    }
+    /**
+     * Positions this index so that the next call to {@link #readNext()} returns entries near the
+     * given key, returning true if the key exists.
+     */
+    abstract boolean seek(WritableComparable<?> key) throws IOException;
+
+    abstract void close() throws IOException;
 
     private void cache() throws IOException {
-      if (!cached && reader.next(key, value)) {
+      if (!cached && readNext()) {
         cached = true;
       }
     }
@@ -113,6 +122,122 @@ public class RecoveryLogReader implements CloseableIterator<Entry<LogFileKey,Log
     }
   }
 
+  /**
+   * Index over a part written as a Hadoop MapFile, the format used by older versions
+   */
+  private static class MapFileIndex extends Index {
+    Reader reader;
+
+    private static Object create(java.lang.Class<?> klass) {
+      try {
+        return klass.getConstructor().newInstance();
+      } catch (Exception t) {
+        throw new RuntimeException("Unable to construct objects to use for comparison");
+      }
+    }
+
+    MapFileIndex(Reader reader) {
+      this.reader = reader;
+      key = (WritableComparable<?>) create(reader.getKeyClass());
+      value = (Writable) create(reader.getValueClass());
+    }
+
+    @Override
+    boolean readNext() throws IOException {
+      return reader.next(key, value);
+    }
+
+    @Override
+    boolean seek(WritableComparable<?> key) throws IOException {
+      try {
+        WritableComparable<?> found = reader.getClosest(key, value, true);
+        return found != null && found.equals(key);
+      } catch (EOFException ex) {
+        // thrown if key is beyond all data in the map
+        return false;
+      }
+    }
+
+    @Override
+    void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  /**
+   * Index over a part written as an RFile by {@link LogSorter}
+   */
+  private static class RFileIndex extends Index {
+    FileSKVIterator reader;
+
+    RFileIndex(FileSKVIterator reader) {
+      this.reader = reader;
+      key = new LogFileKey();
+      value = new LogFileValue();
+    }
+
+    @Override
+    boolean readNext() throws IOException {
+      if (!reader.hasTop()) {
+        return false;
+      }
+      readEntry(reader.getTopValue(), (LogFileKey) key, (LogFileValue) value);
+      reader.next();
+      return true;
+    }
+
+    @Override
+    boolean seek(WritableComparable<?> key) throws IOException {
+      Key start = toKey((LogFileKey) key, Long.MAX_VALUE);
+      reader.seek(new Range(start, true, null, false), Collections.emptySet(), false);
+      return reader.hasTop() && reader.getTopKey().getRowData().equals(start.getRowData());
+    }
+
+    @Override
+    void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  /**
+   * Creates the key an entry is stored under in an RFile part. The row orders entries the same way
+   * as {@link LogFileKey#compareTo(LogFileKey)} and the timestamp, which sorts descending, keeps
+   * entries with equal rows in the order they were appended.
+   */
+  static Key toKey(LogFileKey key, long timestamp) {
+    byte[] row = new byte[13];
+    row[0] = (byte) LogFileKey.eventType(key.event);
+    if (key.event != LogEvents.OPEN) {
+      int tabletId = key.tabletId ^ Integer.MIN_VALUE;
+      long seq = key.seq ^ Long.MIN_VALUE;
+      for (int i = 0; i < 4; i++) {
+        row[1 + i] = (byte) (tabletId >>> (24 - 8 * i));
+      }
+      for (int i = 0; i < 8; i++) {
+        row[5 + i] = (byte) (seq >>> (56 - 8 * i));
+      }
+    }
+    return new Key(row, EMPTY, EMPTY, EMPTY, timestamp);
+  }
+
+  /**
+   * Serializes a log entry into the value stored in an RFile part.
+   */
+  static Value toValue(LogFileKey key, LogFileValue value) throws IOException {
+    DataOutputBuffer output = new DataOutputBuffer();
+    key.write(output);
+    value.write(output);
+    return new Value(output.getData(), 0, output.getLength());
+  }
+
+  private static void readEntry(Value entry, LogFileKey key, LogFileValue value)
+      throws IOException {
+    DataInputBuffer input = new DataInputBuffer();
+    input.reset(entry.get(), entry.getSize());
+    key.readFields(input);
+    value.readFields(input);
+  }
+
   private PriorityQueue<Index> heap = new PriorityQueue<>();
   private Iterator<Entry<LogFileKey,LogFileValue>> iter;
 
@@ -134,7 +259,14 @@ public class RecoveryLogReader implements CloseableIterator<Entry<LogFileKey,Log
         continue;
       }
       FileSystem ns = fs.getFileSystemByPath(child.getPath());
-      heap.add(new Index(new Reader(ns.makeQualified(child.getPath()), ns.getConf())));
+      Path part = ns.makeQualified(child.getPath());
+      if (part.getName().endsWith("." + RFile.EXTENSION)) {
+        heap.add(new RFileIndex(FileOperations.getInstance().newReaderBuilder()
+            .forFile(part.toString(), ns, ns.getConf(), CryptoServiceFactory.newDefaultInstance())
+            .withTableConfiguration(DefaultConfiguration.getInstance()).seekToBeginning().build()));
+      } else {
+        heap.add(new MapFileIndex(new Reader(part, ns.getConf())));
+      }
     }
     if (!foundFinish)
       throw new IOException(
@@ -175,13 +307,8 @@ public class RecoveryLogReader implements CloseableIterator<Entry<LogFileKey,Log
     PriorityQueue<Index> reheap = new PriorityQueue<>(heap.size());
     boolean result = false;
     for (Index index : heap) {
-      try {
-        WritableComparable<?> found = index.reader.getClosest(key, index.value, true);
-        if (found != null && found.equals(key)) {
-          result = true;
-        }
-      } catch (EOFException ex) {
-        // thrown if key is beyond all data in the map
+      if (index.seek(key)) {
+        result = true;
       }
       index.cached = false;
       reheap.add(index);
@@ -195,7 +322,7 @@ public class RecoveryLogReader implements CloseableIterator<Entry<LogFileKey,Log
     IOException problem = null;
     for (Index index : heap) {
       try {
-        index.reader.close();
+        index.close();
       } catch (IOException ex) {
         problem = ex;
       }
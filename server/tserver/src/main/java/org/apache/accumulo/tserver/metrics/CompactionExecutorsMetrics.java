@@ -35,9 +35,11 @@ public class CompactionExecutorsMetrics extends TServerMetrics {
   private static class CeMetrics {
     MutableGaugeInt queuedGauge;
     MutableGaugeInt runningGauge;
+    MutableGaugeInt subCompactionGauge;
 
     IntSupplier runningSupplier;
     IntSupplier queuedSupplier;
+    IntSupplier subCompactionSupplier;
   }
 
   public CompactionExecutorsMetrics() {
@@ -45,7 +47,7 @@ public class CompactionExecutorsMetrics extends TServerMetrics {
   }
 
   public synchronized AutoCloseable addExecutor(CompactionExecutorId ceid,
-      IntSupplier runningSupplier, IntSupplier queuedSupplier) {
+      IntSupplier runningSupplier, IntSupplier queuedSupplier, IntSupplier subCompactionSupplier) {
 
     MetricsRegistry registry = super.getRegistry();
 
@@ -55,21 +57,27 @@ public class CompactionExecutorsMetrics extends TServerMetrics {
         m.queuedGauge = registry.newGauge(ceid.canonical().replace('.', '_') + "_queued",
             "Queued compactions for executor " + ceid, 0);
         m.runningGauge = registry.newGauge(ceid.canonical().replace('.', '_') + "_running",
-            "Running compactions for executor " + ceid, 0);
+            "Running compactions and sub-compactions for executor " + ceid, 0);
+        m.subCompactionGauge =
+            registry.newGauge(ceid.canonical().replace('.', '_') + "_subcompactions",
+                "Running sub-compactions for executor " + ceid, 0);
         return m;
       });
 
       cem.runningSupplier = runningSupplier;
       cem.queuedSupplier = queuedSupplier;
+      cem.subCompactionSupplier = subCompactionSupplier;
 
       ceml = List.copyOf(metrics.values());
 
       return () -> {
         cem.runningSupplier = () -> 0;
         cem.queuedSupplier = () -> 0;
+        cem.subCompactionSupplier = () -> 0;
 
         cem.runningGauge.set(0);
         cem.queuedGauge.set(0);
+        cem.subCompactionGauge.set(0);
       };
     }
 
@@ -80,6 +88,7 @@ public class CompactionExecutorsMetrics extends TServerMetrics {
     ceml.forEach(cem -> {
       cem.runningGauge.set(cem.runningSupplier.getAsInt());
       cem.queuedGauge.set(cem.queuedSupplier.getAsInt());
+      cem.subCompactionGauge.set(cem.subCompactionSupplier.getAsInt());
     });
   }
 
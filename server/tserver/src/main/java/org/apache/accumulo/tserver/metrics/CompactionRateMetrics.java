@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.metrics;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.apache.accumulo.core.spi.compaction.CompactionServiceId;
+import org.apache.accumulo.tserver.compactions.CompactionRateSignals;
+import org.apache.hadoop.metrics2.lib.MetricsRegistry;
+import org.apache.hadoop.metrics2.lib.MutableGaugeFloat;
+import org.apache.hadoop.metrics2.lib.MutableGaugeLong;
+
+public class CompactionRateMetrics extends TServerMetrics {
+
+  private final CompactionRateSignals signals;
+  private final MutableGaugeFloat scanWait;
+  private final MutableGaugeFloat walSync;
+  private CompactionRateSignals.Snapshot lastSnapshot;
+
+  private volatile List<CsMetrics> csml = List.of();
+  private final Map<CompactionServiceId,CsMetrics> metrics = new HashMap<>();
+
+  private static class CsMetrics {
+    MutableGaugeLong rateGauge;
+    MutableGaugeLong readGauge;
+    MutableGaugeLong writeGauge;
+
+    LongSupplier rateSupplier;
+    LongSupplier readSupplier;
+    LongSupplier writeSupplier;
+  }
+
+  public CompactionRateMetrics(CompactionRateSignals signals) {
+    super("compactionRates");
+
+    MetricsRegistry registry = super.getRegistry();
+    scanWait = registry.newGauge("scanWait",
+        "Average milliseconds scans waited for a batch of results since the last update", 0.0f);
+    walSync = registry.newGauge("walSync",
+        "Average milliseconds to write mutations to the write-ahead log since the last update",
+        0.0f);
+
+    this.signals = signals;
+    this.lastSnapshot = signals.snapshot();
+  }
+
+  public synchronized AutoCloseable addService(CompactionServiceId csid, LongSupplier rateSupplier,
+      LongSupplier readSupplier, LongSupplier writeSupplier) {
+
+    MetricsRegistry registry = super.getRegistry();
+
+    synchronized (metrics) {
+      CsMetrics csm = metrics.computeIfAbsent(csid, id -> {
+        CsMetrics m = new CsMetrics();
+        m.rateGauge = registry.newGauge(csid.canonical() + "_rate",
+            "Bytes per second compactions of service " + csid + " may read or write", 0L);
+        m.readGauge = registry.newGauge(csid.canonical() + "_readThroughput",
+            "Bytes per second compactions of service " + csid + " read", 0L);
+        m.writeGauge = registry.newGauge(csid.canonical() + "_writeThroughput",
+            "Bytes per second compactions of service " + csid + " wrote", 0L);
+        return m;
+      });
+
+      csm.rateSupplier = rateSupplier;
+      csm.readSupplier = readSupplier;
+      csm.writeSupplier = writeSupplier;
+
+      csml = List.copyOf(metrics.values());
+
+      return () -> {
+        csm.rateSupplier = () -> 0;
+        csm.readSupplier = () -> 0;
+        csm.writeSupplier = () -> 0;
+
+        csm.rateGauge.set(0);
+        csm.readGauge.set(0);
+        csm.writeGauge.set(0);
+      };
+    }
+  }
+
+  @Override
+  protected synchronized void prepareMetrics() {
+    var snapshot = signals.snapshot();
+    scanWait.set((float) snapshot.getScanWaitMillis(lastSnapshot));
+    walSync.set((float) snapshot.getWalSyncMillis(lastSnapshot));
+    lastSnapshot = snapshot;
+
+    csml.forEach(csm -> {
+      csm.rateGauge.set(csm.rateSupplier.getAsLong());
+      csm.readGauge.set(csm.readSupplier.getAsLong());
+      csm.writeGauge.set(csm.writeSupplier.getAsLong());
+    });
+  }
+}
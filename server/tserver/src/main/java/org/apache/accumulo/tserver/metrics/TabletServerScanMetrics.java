@@ -18,7 +18,13 @@
  */
 package org.apache.accumulo.tserver.metrics;
 
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
+import org.apache.accumulo.tserver.FileManager;
 import org.apache.hadoop.metrics2.lib.MetricsRegistry;
+import org.apache.hadoop.metrics2.lib.MutableCounterLong;
+import org.apache.hadoop.metrics2.lib.MutableGaugeFloat;
+import org.apache.hadoop.metrics2.lib.MutableGaugeInt;
+import org.apache.hadoop.metrics2.lib.MutableGaugeLong;
 import org.apache.hadoop.metrics2.lib.MutableStat;
 
 public class TabletServerScanMetrics extends TServerMetrics {
@@ -26,14 +32,69 @@ public class TabletServerScanMetrics extends TServerMetrics {
   private final MutableStat scans;
   private final MutableStat resultsPerScan;
   private final MutableStat yields;
+  private final MutableStat batchEntryLimit;
+  private final MutableStat batchByteLimit;
+  private final MutableGaugeLong prefetchRequested;
+  private final MutableGaugeLong prefetchHits;
+  private final MutableGaugeLong prefetchWasted;
+  private final MutableCounterLong visibilityCacheHits;
+  private final MutableCounterLong visibilityCacheMisses;
+  private final MutableGaugeFloat visibilityCacheHitRate;
+  private final MutableGaugeLong fileReservations;
+  private final MutableGaugeLong fileReservationWait;
+  private final MutableGaugeInt openFiles;
+  private final MutableGaugeInt idleOpenFiles;
 
-  public TabletServerScanMetrics() {
+  private final BlockPrefetcher prefetcher;
+  private final FileManager fileManager;
+
+  public TabletServerScanMetrics(BlockPrefetcher prefetcher, FileManager fileManager) {
     super("Scans");
 
     MetricsRegistry registry = super.getRegistry();
     scans = registry.newStat("scan", "Scans", "Ops", "Count", true);
     resultsPerScan = registry.newStat("result", "Results per scan", "Ops", "Count", true);
     yields = registry.newStat("yield", "Yields", "Ops", "Count", true);
+    batchEntryLimit = registry.newStat("batchEntryLimit",
+        "Maximum entries of batches returned to scan sessions", "Ops", "Count", true);
+    batchByteLimit = registry.newStat("batchByteLimit",
+        "Maximum bytes of batches returned to scan sessions", "Ops", "Bytes", true);
+    prefetchRequested =
+        registry.newGauge("prefetchRequested", "File blocks submitted to be read ahead", 0L);
+    prefetchHits =
+        registry.newGauge("prefetchHit", "File blocks read ahead that were consumed", 0L);
+    prefetchWasted = registry.newGauge("prefetchWasted",
+        "File blocks read ahead that were discarded without being consumed", 0L);
+    visibilityCacheHits = registry.newCounter("visibilityCacheHit",
+        "Column visibility evaluations answered by a scan session cache", 0L);
+    visibilityCacheMisses = registry.newCounter("visibilityCacheMiss",
+        "Column visibility evaluations not found in a scan session cache", 0L);
+    visibilityCacheHitRate = registry.newGauge("visibilityCacheHitRate",
+        "Fraction of column visibility evaluations answered by a scan session cache", 0.0f);
+    fileReservations =
+        registry.newGauge("fileReservations", "Times scans reserved permits to open files", 0L);
+    fileReservationWait = registry.newGauge("fileReservationWait",
+        "Total milliseconds scans waited for permits to open files", 0L);
+    openFiles = registry.newGauge("openFiles", "Open file readers, reserved or idle", 0);
+    idleOpenFiles =
+        registry.newGauge("idleOpenFiles", "Open file readers not reserved by a scan", 0);
+
+    this.prefetcher = prefetcher;
+    this.fileManager = fileManager;
+  }
+
+  @Override
+  protected void prepareMetrics() {
+    prefetchRequested.set(prefetcher.getRequested());
+    prefetchHits.set(prefetcher.getHits());
+    prefetchWasted.set(prefetcher.getWasted());
+    long hits = visibilityCacheHits.value();
+    long total = hits + visibilityCacheMisses.value();
+    visibilityCacheHitRate.set(total == 0 ? 0.0f : (float) hits / total);
+    fileReservations.set(fileManager.getReservations());
+    fileReservationWait.set(fileManager.getReservationWaitMillis());
+    openFiles.set(fileManager.getOpenReaders());
+    idleOpenFiles.set(fileManager.getIdleReaders());
   }
 
   public void addScan(long value) {
@@ -48,4 +109,14 @@ public class TabletServerScanMetrics extends TServerMetrics {
     yields.add(value);
   }
 
+  public void addBatchLimits(long entries, long bytes) {
+    batchEntryLimit.add(entries);
+    batchByteLimit.add(bytes);
+  }
+
+  public void addVisibilityCacheLookups(long hits, long misses) {
+    visibilityCacheHits.incr(hits);
+    visibilityCacheMisses.incr(misses);
+  }
+
 }
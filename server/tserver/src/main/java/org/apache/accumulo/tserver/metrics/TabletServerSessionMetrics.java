@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.tserver.session.SessionManager;
+import org.apache.accumulo.tserver.session.SessionStats;
+import org.apache.hadoop.metrics2.lib.MetricsRegistry;
+import org.apache.hadoop.metrics2.lib.MutableGaugeLong;
+
+public class TabletServerSessionMetrics extends TServerMetrics {
+
+  private static class TypeGauges {
+    final SessionStats stats;
+    final MutableGaugeLong active;
+    final MutableGaugeLong reserved;
+    final MutableGaugeLong expired;
+    final MutableGaugeLong reservationWait;
+
+    TypeGauges(MetricsRegistry registry, String type, SessionStats stats) {
+      this.stats = stats;
+      active = registry.newGauge(type + "Active", "Open " + type + " sessions", 0L);
+      reserved = registry.newGauge(type + "Reserved",
+          "Open " + type + " sessions reserved by a client request", 0L);
+      expired = registry.newGauge(type + "Expired",
+          "Total " + type + " sessions closed after being idle", 0L);
+      reservationWait = registry.newGauge(type + "ReservationWait",
+          "Total milliseconds requests waited to reserve a " + type + " session", 0L);
+    }
+
+    void update() {
+      active.set(stats.getActive());
+      reserved.set(stats.getReserved());
+      expired.set(stats.getExpired());
+      reservationWait.set(stats.getReservationWaitMillis());
+    }
+  }
+
+  private final List<TypeGauges> gauges = new ArrayList<>();
+
+  public TabletServerSessionMetrics(SessionManager sessionManager) {
+    super("Sessions");
+
+    MetricsRegistry registry = super.getRegistry();
+    for (Map.Entry<String,SessionStats> entry : sessionManager.getSessionStats().entrySet()) {
+      gauges.add(new TypeGauges(registry, entry.getKey(), entry.getValue()));
+    }
+  }
+
+  @Override
+  protected void prepareMetrics() {
+    gauges.forEach(TypeGauges::update);
+  }
+
+}
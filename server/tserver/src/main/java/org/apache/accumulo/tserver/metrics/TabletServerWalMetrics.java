@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.metrics;
+
+import org.apache.hadoop.metrics2.lib.MetricsRegistry;
+import org.apache.hadoop.metrics2.lib.MutableStat;
+
+public class TabletServerWalMetrics extends TServerMetrics {
+
+  private final MutableStat syncBatchSizeStat;
+  private final MutableStat syncBatchBytesStat;
+  private final MutableStat syncWaitStat;
+
+  public TabletServerWalMetrics() {
+    super("Wal");
+
+    MetricsRegistry registry = super.getRegistry();
+    syncBatchSizeStat =
+        registry.newStat("syncBatchSize", "write-ahead log writes per sync", "Ops", "Size", true);
+    syncBatchBytesStat =
+        registry.newStat("syncBatchBytes", "write-ahead log bytes per sync", "Ops", "Size", true);
+    syncWaitStat =
+        registry.newStat("syncWait", "waiting for write-ahead log sync", "Ops", "Time", true);
+  }
+
+  public void addSyncBatchSize(long value) {
+    syncBatchSizeStat.add(value);
+  }
+
+  public void addSyncBatchBytes(long value) {
+    syncBatchBytesStat.add(value);
+  }
+
+  public void addSyncWait(long value) {
+    syncWaitStat.add(value);
+  }
+
+}
@@ -37,6 +37,8 @@ public class NextBatchTask extends ScanTask<ScanBatch> {
   private static final Logger log = LoggerFactory.getLogger(NextBatchTask.class);
 
   private final long scanID;
+  private volatile long readNanos;
+  private volatile long finishedNanos;
 
   public NextBatchTask(TabletServer server, long scanID, AtomicBoolean interruptFlag) {
     super(server);
@@ -47,6 +49,20 @@ public class NextBatchTask extends ScanTask<ScanBatch> {
       cancel(true);
   }
 
+  /**
+   * @return the time taken to read the batch
+   */
+  public long getReadNanos() {
+    return readNanos;
+  }
+
+  /**
+   * @return the value of {@link System#nanoTime()} when the batch was read
+   */
+  public long getFinishedNanos() {
+    return finishedNanos;
+  }
+
   @Override
   public void run() {
 
@@ -71,7 +87,13 @@ public class NextBatchTask extends ScanTask<ScanBatch> {
         return;
       }
 
+      long t1 = System.nanoTime();
       ScanBatch batch = scanSession.scanner.read();
+      finishedNanos = System.nanoTime();
+      readNanos = finishedNanos - t1;
+
+      // let the session start reading the following batch before handing this one over
+      scanSession.batchRead(this, batch.isMore());
 
       // there should only be one thing on the queue at a time, so
       // it should be ok to call add()
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Scales the entry and byte limits of the batches returned to a scan session, based on how the
+ * client consumes them. The scale starts at one, so a session initially uses the batch size
+ * requested by the client and the table's table.scan.max.memory. It is halved when a batch sits
+ * unread much longer than it took to read, or when the tablet server heap is nearly full, and
+ * doubled back up to one when the client had to wait for a batch. So by default a batch never holds
+ * more entries than the client requested. A client may opt in to batches growing past that with
+ * the {@value #GROW_HINT} execution hint, but batches never hold more bytes than
+ * table.scan.max.memory.
+ */
+public class ScanBatchSizer {
+
+  /**
+   * Execution hint a scanner sets to "true" to let its batches hold more entries than its batch
+   * size while it waits for them.
+   */
+  public static final String GROW_HINT = "scan.batch.grow";
+
+  static final double MIN_SCALE = 1.0 / 64;
+  static final double MAX_SCALE = 64;
+  static final int MIN_ENTRIES = 16;
+  static final long MIN_BYTES = 16 * 1024;
+
+  // fraction of the max heap live after the last collection above which batches are shrunk
+  static final double HEAP_USED_THRESHOLD = 0.85;
+  // idle time of a batch, relative to the time taken to read it, above which batches are shrunk
+  static final long IDLE_READ_RATIO = 4;
+  // batches are never shrunk because of idle time shorter than this
+  static final long MIN_IDLE_NANOS = 100_000_000L;
+
+  // heap pools that report their usage after the last collection
+  private static final List<MemoryPoolMXBean> HEAP_POOLS =
+      ManagementFactory.getMemoryPoolMXBeans().stream()
+          .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+          .collect(Collectors.toList());
+
+  private volatile double scale = 1.0;
+  private volatile double maxScale = 1.0;
+
+  /**
+   * Lets the scale grow past one, up to {@link #MAX_SCALE}, so batches may hold more entries than
+   * the client requested.
+   */
+  public void allowGrowth() {
+    maxScale = MAX_SCALE;
+  }
+
+  public double getScale() {
+    return scale;
+  }
+
+  /**
+   * @return the number of entries a batch may hold, given the number requested by the client
+   */
+  public int scaleEntries(int maxEntries) {
+    if (maxEntries <= MIN_ENTRIES) {
+      return maxEntries;
+    }
+    return (int) Math.min(Integer.MAX_VALUE,
+        Math.max(MIN_ENTRIES, (long) (maxEntries * scale)));
+  }
+
+  /**
+   * @return the number of bytes a batch may hold, given the table's limit, which is never exceeded
+   */
+  public long scaleBytes(long maxBytes) {
+    if (maxBytes <= MIN_BYTES || scale >= 1.0) {
+      return maxBytes;
+    }
+    return Math.max(MIN_BYTES, (long) (maxBytes * scale));
+  }
+
+  /**
+   * Adjusts the scale after the client took a batch.
+   *
+   * @param clientWaited
+   *          true if the batch was still being read when the client asked for it
+   * @param idleNanos
+   *          time the batch waited for the client after it was read
+   * @param readNanos
+   *          time taken to read the batch
+   * @param heapUsed
+   *          fraction of the max heap live after the last collection
+   */
+  public void batchTaken(boolean clientWaited, long idleNanos, long readNanos, double heapUsed) {
+    if (heapUsed > HEAP_USED_THRESHOLD || (!clientWaited && idleNanos > MIN_IDLE_NANOS
+        && idleNanos > IDLE_READ_RATIO * readNanos)) {
+      scale = Math.max(MIN_SCALE, scale / 2);
+    } else if (clientWaited) {
+      scale = Math.min(maxScale, scale * 2);
+    }
+  }
+
+  /**
+   * @return fraction of the max heap that was live after the last collection. Garbage not yet
+   *         collected is not counted, so a heap that is about to be collected is not seen as full.
+   */
+  public static double heapUsed() {
+    long maxHeap = Runtime.getRuntime().maxMemory();
+    if (HEAP_POOLS.isEmpty()) {
+      MemoryUsage usage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+      return (double) usage.getUsed() / maxHeap;
+    }
+
+    long used = 0;
+    for (MemoryPoolMXBean pool : HEAP_POOLS) {
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (usage != null) {
+        used += usage.getUsed();
+      }
+    }
+    return (double) used / maxHeap;
+  }
+}
@@ -25,6 +25,7 @@ import java.util.Set;
 import org.apache.accumulo.core.client.sample.SamplerConfiguration;
 import org.apache.accumulo.core.data.Column;
 import org.apache.accumulo.core.dataImpl.thrift.IterInfo;
+import org.apache.accumulo.core.iteratorsImpl.system.VisibilityCache;
 import org.apache.accumulo.core.sample.impl.SamplerConfigurationImpl;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.spi.scan.ScanDispatch;
@@ -43,6 +44,8 @@ public final class ScanParameters {
   private final SamplerConfiguration samplerConfig;
   private final long batchTimeOut;
   private final String classLoaderContext;
+  private final VisibilityCache visibilityCache;
+  private final ScanBatchSizer batchSizer = new ScanBatchSizer();
   private volatile ScanDispatch dispatch;
 
   public ScanParameters(int maxEntries, Authorizations authorizations, Set<Column> columnSet,
@@ -57,6 +60,7 @@ public final class ScanParameters {
     this.samplerConfig = samplerConfig;
     this.batchTimeOut = batchTimeOut;
     this.classLoaderContext = classLoaderContext;
+    this.visibilityCache = new VisibilityCache(authorizations);
   }
 
   public Authorizations getAuthorizations() {
@@ -97,6 +101,20 @@ public final class ScanParameters {
     return classLoaderContext;
   }
 
+  /**
+   * @return cache of visibility evaluations shared by every data source read for this scan
+   */
+  public VisibilityCache getVisibilityCache() {
+    return visibilityCache;
+  }
+
+  /**
+   * @return the sizer that scales the limits of batches returned for this scan
+   */
+  public ScanBatchSizer getBatchSizer() {
+    return batchSizer;
+  }
+
   public void setScanDispatch(ScanDispatch dispatch) {
     this.dispatch = dispatch;
   }
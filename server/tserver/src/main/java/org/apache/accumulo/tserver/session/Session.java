@@ -31,6 +31,10 @@ public class Session {
   public long lastAccessTime;
   public long startTime;
   State state = State.NEW;
+  // the id assigned by the session manager
+  long id;
+  // true while the session has an entry in the session manager's idle timer wheel
+  boolean expirationScheduled = false;
   private final TCredentials credentials;
 
   Session(TCredentials credentials) {
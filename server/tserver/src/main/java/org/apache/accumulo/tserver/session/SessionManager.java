@@ -21,14 +21,17 @@ package org.apache.accumulo.tserver.session;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -57,13 +60,20 @@ import com.google.common.collect.Maps;
 public class SessionManager {
   private static final Logger log = LoggerFactory.getLogger(SessionManager.class);
 
+  private static final List<String> SESSION_TYPES =
+      List.of("scan", "multiScan", "update", "conditional", "summary", "other");
+
   private final SecureRandom random;
   private final ConcurrentMap<Long,Session> sessions = new ConcurrentHashMap<>();
   private final long maxIdle;
   private final long maxUpdateIdle;
-  private final List<Session> idleSessions = new ArrayList<>();
+  // holds session ids rather than sessions, so closed sessions are not kept until their timer is
+  // due
+  private final TimerWheel<Long> idleTimers;
+  private final Queue<Session> idleSessions = new ConcurrentLinkedQueue<>();
   private final Long expiredSessionMarker = (long) -1;
   private final AccumuloConfiguration aconf;
+  private final Map<String,SessionStats> stats;
 
   public SessionManager(AccumuloConfiguration conf) {
     aconf = conf;
@@ -80,15 +90,64 @@ public class SessionManager {
     }
     random = sr;
 
-    Runnable r = new Runnable() {
-      @Override
-      public void run() {
-        sweep(maxIdle, maxUpdateIdle);
-      }
-    };
+    Map<String,SessionStats> typeStats = new LinkedHashMap<>();
+    for (String type : SESSION_TYPES) {
+      typeStats.put(type, new SessionStats());
+    }
+    stats = Collections.unmodifiableMap(typeStats);
+
+    // Idle sessions are found through a timer wheel, so each tick only looks at the sessions whose
+    // idle time may have run out instead of every session. This makes it cheap to tick more often
+    // than the sweep it replaced, expiring sessions closer to their configured idle time.
+    long tickMillis = Math.max(Math.min(maxIdle, maxUpdateIdle) / 10, 100);
+    idleTimers = new TimerWheel<>(512, tickMillis, System.currentTimeMillis());
+
+    ThreadPools.createGeneralScheduledExecutorService(conf).scheduleWithFixedDelay(this::expireIdle,
+        0, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  static String getType(Session session) {
+    if (session instanceof SingleScanSession) {
+      return "scan";
+    } else if (session instanceof MultiScanSession) {
+      return "multiScan";
+    } else if (session instanceof UpdateSession) {
+      return "update";
+    } else if (session instanceof ConditionalSession) {
+      return "conditional";
+    } else if (session instanceof SummarySession) {
+      return "summary";
+    }
+    return "other";
+  }
+
+  /**
+   * @return counts of sessions by session type, the map and its values are updated in place
+   */
+  public Map<String,SessionStats> getSessionStats() {
+    return stats;
+  }
+
+  private SessionStats getStats(Session session) {
+    return stats.get(getType(session));
+  }
+
+  // must be called while holding the session lock
+  private void setState(Session session, State state) {
+    getStats(session).transition(session.state, state);
+    session.state = state;
+  }
 
-    ThreadPools.createGeneralScheduledExecutorService(conf).scheduleWithFixedDelay(r, 0,
-        Math.max(maxIdle / 2, 1000), TimeUnit.MILLISECONDS);
+  private long getMaxIdle(Session session) {
+    return session instanceof UpdateSession ? maxUpdateIdle : maxIdle;
+  }
+
+  // must be called while holding the session lock, a session has at most one timer at a time
+  private void scheduleExpiration(Session session) {
+    if (!session.expirationScheduled) {
+      session.expirationScheduled = true;
+      idleTimers.schedule(session.id, session.lastAccessTime + getMaxIdle(session) + 1);
+    }
   }
 
   public long createSession(Session session, boolean reserve) {
@@ -96,7 +155,7 @@ public class SessionManager {
 
     synchronized (session) {
       Preconditions.checkArgument(session.state == State.NEW);
-      session.state = reserve ? State.RESERVED : State.UNRESERVED;
+      setState(session, reserve ? State.RESERVED : State.UNRESERVED);
       session.startTime = session.lastAccessTime = System.currentTimeMillis();
     }
 
@@ -104,6 +163,13 @@ public class SessionManager {
       sid = random.nextLong();
     }
 
+    synchronized (session) {
+      session.id = sid;
+      if (session.state == State.UNRESERVED) {
+        scheduleExpiration(session);
+      }
+    }
+
     return sid;
   }
 
@@ -124,7 +190,7 @@ public class SessionManager {
               "Attempted to reserved session that is already reserved " + sessionId);
         if (session.state == State.REMOVED)
           return null;
-        session.state = State.RESERVED;
+        setState(session, State.RESERVED);
       }
     }
 
@@ -140,12 +206,16 @@ public class SessionManager {
         if (session.state == State.REMOVED)
           return null;
 
-        while (wait && session.state == State.RESERVED) {
-          try {
-            session.wait(1000);
-          } catch (InterruptedException e) {
-            throw new RuntimeException();
+        if (wait && session.state == State.RESERVED) {
+          long waitStart = System.nanoTime();
+          while (session.state == State.RESERVED) {
+            try {
+              session.wait(1000);
+            } catch (InterruptedException e) {
+              throw new RuntimeException();
+            }
           }
+          getStats(session).waited(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waitStart));
         }
 
         if (session.state == State.RESERVED)
@@ -153,7 +223,7 @@ public class SessionManager {
               "Attempted to reserved session that is already reserved " + sessionId);
         if (session.state == State.REMOVED)
           return null;
-        session.state = State.RESERVED;
+        setState(session, State.RESERVED);
       }
     }
 
@@ -168,8 +238,9 @@ public class SessionManager {
       if (session.state != State.RESERVED)
         throw new IllegalStateException("Cannon unreserve, state: " + session.state);
       session.notifyAll();
-      session.state = State.UNRESERVED;
+      setState(session, State.UNRESERVED);
       session.lastAccessTime = System.currentTimeMillis();
+      scheduleExpiration(session);
     }
   }
 
@@ -210,7 +281,7 @@ public class SessionManager {
             unreserveSession(session);
           }
           doCleanup = true;
-          session.state = State.REMOVED;
+          setState(session, State.REMOVED);
         }
       }
 
@@ -222,43 +293,48 @@ public class SessionManager {
     return session;
   }
 
-  private void sweep(final long maxIdle, final long maxUpdateIdle) {
+  private void expireIdle() {
+    long now = System.currentTimeMillis();
+    List<Long> due = new ArrayList<>();
+    idleTimers.advance(now, due);
+
     List<Session> sessionsToCleanup = new ArrayList<>();
-    Iterator<Session> iter = sessions.values().iterator();
-    while (iter.hasNext()) {
-      Session session = iter.next();
+    for (Long sessionId : due) {
+      Session session = sessions.get(sessionId);
+      if (session == null) {
+        // removed since the timer was set
+        continue;
+      }
       synchronized (session) {
+        session.expirationScheduled = false;
+        // reserved sessions get a new timer when unreserved, removed sessions need none
         if (session.state == State.UNRESERVED) {
-          long configuredIdle = maxIdle;
-          if (session instanceof UpdateSession) {
-            configuredIdle = maxUpdateIdle;
-          }
-          long idleTime = System.currentTimeMillis() - session.lastAccessTime;
-          if (idleTime > configuredIdle) {
+          long idleTime = now - session.lastAccessTime;
+          if (idleTime > getMaxIdle(session)) {
             log.info("Closing idle session from user={}, client={}, idle={}ms", session.getUser(),
                 session.client, idleTime);
-            iter.remove();
+            sessions.remove(session.id, session);
             sessionsToCleanup.add(session);
-            session.state = State.REMOVED;
+            setState(session, State.REMOVED);
+            getStats(session).expired();
+          } else {
+            // accessed since the timer was set
+            scheduleExpiration(session);
           }
         }
       }
     }
 
-    // do clean up outside of lock for TabletServer in a synchronized block for simplicity vice a
-    // synchronized list
-
-    synchronized (idleSessions) {
-      sessionsToCleanup.addAll(idleSessions);
-      idleSessions.clear();
+    // retry clean up for sessions whose clean up could not complete last time
+    Session idle;
+    while ((idle = idleSessions.poll()) != null) {
+      sessionsToCleanup.add(idle);
     }
 
     // perform cleanup for all of the sessions
     for (Session session : sessionsToCleanup) {
       if (!session.cleanup())
-        synchronized (idleSessions) {
-          idleSessions.add(session);
-        }
+        idleSessions.add(session);
     }
   }
 
@@ -278,7 +354,8 @@ public class SessionManager {
             boolean shouldRemove = false;
             synchronized (session2) {
               if (session2.lastAccessTime == removeTime && session2.state == State.UNRESERVED) {
-                session2.state = State.REMOVED;
+                setState(session2, State.REMOVED);
+                getStats(session2).expired();
                 shouldRemove = true;
               }
             }
@@ -303,13 +380,11 @@ public class SessionManager {
 
     Set<Entry<Long,Session>> copiedIdleSessions = new HashSet<>();
 
-    synchronized (idleSessions) {
-      /**
-       * Add sessions so that get the list returned in the active scans call
-       */
-      for (Session session : idleSessions) {
-        copiedIdleSessions.add(Maps.immutableEntry(expiredSessionMarker, session));
-      }
+    /**
+     * Add sessions so that get the list returned in the active scans call
+     */
+    for (Session session : idleSessions) {
+      copiedIdleSessions.add(Maps.immutableEntry(expiredSessionMarker, session));
     }
 
     for (Entry<Long,Session> entry : Iterables.concat(sessions.entrySet(), copiedIdleSessions)) {
@@ -355,13 +430,11 @@ public class SessionManager {
     final long ct = System.currentTimeMillis();
     final Set<Entry<Long,Session>> copiedIdleSessions = new HashSet<>();
 
-    synchronized (idleSessions) {
-      /**
-       * Add sessions so that get the list returned in the active scans call
-       */
-      for (Session session : idleSessions) {
-        copiedIdleSessions.add(Maps.immutableEntry(expiredSessionMarker, session));
-      }
+    /**
+     * Add sessions so that get the list returned in the active scans call
+     */
+    for (Session session : idleSessions) {
+      copiedIdleSessions.add(Maps.immutableEntry(expiredSessionMarker, session));
     }
 
     for (Entry<Long,Session> entry : Iterables.concat(sessions.entrySet(), copiedIdleSessions)) {
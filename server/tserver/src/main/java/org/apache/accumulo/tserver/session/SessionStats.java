@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.session;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of the sessions of one type, maintained by the {@link SessionManager}.
+ */
+public class SessionStats {
+
+  private final LongAdder active = new LongAdder();
+  private final LongAdder reserved = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+  private final LongAdder reservationWaitMillis = new LongAdder();
+
+  SessionStats() {}
+
+  void transition(Session.State from, Session.State to) {
+    if (from == Session.State.NEW) {
+      active.increment();
+    } else if (to == Session.State.REMOVED) {
+      active.decrement();
+    }
+
+    if (from == Session.State.RESERVED) {
+      reserved.decrement();
+    }
+    if (to == Session.State.RESERVED) {
+      reserved.increment();
+    }
+  }
+
+  void expired() {
+    expired.increment();
+  }
+
+  void waited(long millis) {
+    reservationWaitMillis.add(millis);
+  }
+
+  /**
+   * @return sessions that have been created and not yet removed
+   */
+  public long getActive() {
+    return active.sum();
+  }
+
+  /**
+   * @return sessions currently reserved by a client request
+   */
+  public long getReserved() {
+    return reserved.sum();
+  }
+
+  /**
+   * @return sessions removed because a client stopped using them
+   */
+  public long getExpired() {
+    return expired.sum();
+  }
+
+  /**
+   * @return total milliseconds client requests waited to reserve a session another request held
+   */
+  public long getReservationWaitMillis() {
+    return reservationWaitMillis.sum();
+  }
+}
@@ -18,8 +18,12 @@
  */
 package org.apache.accumulo.tserver.session;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.apache.accumulo.core.data.TableId;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
@@ -33,16 +37,100 @@ public class SingleScanSession extends ScanSession {
   public final KeyExtent extent;
   public final AtomicBoolean interruptFlag = new AtomicBoolean();
   public long entriesReturned = 0;
-  public long batchCount = 0;
+  public volatile long batchCount = 0;
   public volatile ScanTask<ScanBatch> nextBatchTask;
   public Scanner scanner;
   public final long readaheadThreshold;
+  public final int pipelineWindow;
+
+  /**
+   * Creates a task that reads the next batch from {@link #scanner}, and runs such a task.
+   */
+  public Supplier<ScanTask<ScanBatch>> batchTaskFactory;
+  public Consumer<ScanTask<ScanBatch>> batchTaskExecutor;
+
+  // batches being read ahead of the client after nextBatchTask, oldest first
+  private final Deque<ScanTask<ScanBatch>> pipeline = new ArrayDeque<>();
+  // the most recently started task, and whether it has read a batch with more data after it
+  private ScanTask<ScanBatch> lastStarted;
+  private boolean lastHasMore;
 
   public SingleScanSession(TCredentials credentials, KeyExtent extent, ScanParameters scanParams,
       long readaheadThreshold, Map<String,String> executionHints) {
+    this(credentials, extent, scanParams, readaheadThreshold, 1, executionHints);
+  }
+
+  /**
+   * @param pipelineWindow
+   *          the number of batches that may be read ahead of the client once it has read more than
+   *          readaheadThreshold batches
+   */
+  public SingleScanSession(TCredentials credentials, KeyExtent extent, ScanParameters scanParams,
+      long readaheadThreshold, int pipelineWindow, Map<String,String> executionHints) {
     super(credentials, scanParams, executionHints);
     this.extent = extent;
     this.readaheadThreshold = readaheadThreshold;
+    this.pipelineWindow = Math.max(1, pipelineWindow);
+  }
+
+  /**
+   * Starts reading a batch for the client, unless one is already being read or waiting to be taken.
+   */
+  public void startNextBatch() {
+    ScanTask<ScanBatch> task;
+    synchronized (this) {
+      if (nextBatchTask != null)
+        return;
+      task = batchTaskFactory.get();
+      nextBatchTask = task;
+      lastStarted = task;
+      lastHasMore = false;
+    }
+    batchTaskExecutor.accept(task);
+  }
+
+  /**
+   * Called after the result of {@link #nextBatchTask} was taken for the client. The oldest batch in
+   * the pipeline, if any, becomes the next batch.
+   */
+  public void nextBatchTaken() {
+    synchronized (this) {
+      nextBatchTask = pipeline.poll();
+    }
+    extendPipeline();
+  }
+
+  /**
+   * Called by a task once it has read a batch.
+   *
+   * @param more
+   *          true if there is more data to read after the batch
+   */
+  public void batchRead(ScanTask<ScanBatch> task, boolean more) {
+    synchronized (this) {
+      if (task != lastStarted)
+        return;
+      lastHasMore = more;
+    }
+    extendPipeline();
+  }
+
+  /**
+   * Starts reading the batch after the last one started, when that batch has been read, the client
+   * is past the read ahead threshold and the pipeline has room.
+   */
+  private void extendPipeline() {
+    ScanTask<ScanBatch> task;
+    synchronized (this) {
+      if (!lastHasMore || nextBatchTask == null || interruptFlag.get()
+          || batchCount <= readaheadThreshold || 1 + pipeline.size() >= pipelineWindow)
+        return;
+      task = batchTaskFactory.get();
+      pipeline.add(task);
+      lastStarted = task;
+      lastHasMore = false;
+    }
+    batchTaskExecutor.accept(task);
   }
 
   @Override
@@ -61,6 +149,10 @@ public class SingleScanSession extends ScanSession {
     try {
       if (nextBatchTask != null)
         nextBatchTask.cancel(true);
+      synchronized (this) {
+        pipeline.forEach(task -> task.cancel(true));
+        pipeline.clear();
+      }
     } finally {
       if (scanner != null)
         ret = scanner.close();
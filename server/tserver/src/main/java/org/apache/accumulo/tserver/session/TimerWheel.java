@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.session;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A hashed timer wheel. Items are hashed into a fixed ring of buckets by the tick their deadline
+ * falls in, so scheduling an item and finding the items that are due only touch the buckets of the
+ * elapsed ticks instead of every scheduled item. Items are found in the first tick to end after
+ * their deadline, deadlines further out than one turn of the wheel are found early and placed back
+ * in the wheel.
+ *
+ * <p>
+ * Any thread may schedule items, {@link #advance(long, Collection)} is expected to be called from a
+ * single thread.
+ */
+class TimerWheel<T> {
+
+  private static class Timeout<T> {
+    final T item;
+    final long deadline;
+
+    Timeout(T item, long deadline) {
+      this.item = item;
+      this.deadline = deadline;
+    }
+  }
+
+  private final long tickMillis;
+  private final List<ArrayDeque<Timeout<T>>> buckets;
+  // the last tick whose bucket was drained, only changed while holding the lock of that bucket
+  private volatile long processedTick;
+
+  TimerWheel(int numBuckets, long tickMillis, long now) {
+    Preconditions.checkArgument(numBuckets > 0, "numBuckets must be positive");
+    Preconditions.checkArgument(tickMillis > 0, "tickMillis must be positive");
+    this.tickMillis = tickMillis;
+    this.buckets = new ArrayList<>(numBuckets);
+    for (int i = 0; i < numBuckets; i++) {
+      buckets.add(new ArrayDeque<>());
+    }
+    this.processedTick = now / tickMillis - 1;
+  }
+
+  /**
+   * Schedules an item to be returned by the first call to {@link #advance(long, Collection)} made
+   * after the tick containing the deadline has ended.
+   */
+  void schedule(T item, long deadline) {
+    Objects.requireNonNull(item);
+    long deadlineTick = deadline / tickMillis;
+    while (true) {
+      long tick = Math.max(deadlineTick, processedTick + 1);
+      ArrayDeque<Timeout<T>> bucket = buckets.get((int) (tick % buckets.size()));
+      synchronized (bucket) {
+        // the bucket may have been drained for this tick since it was chosen, if so pick again
+        if (tick > processedTick) {
+          bucket.add(new Timeout<>(item, deadline));
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Moves the wheel through every tick that ended by the given time, adding the items whose
+   * deadline has passed to due.
+   */
+  void advance(long now, Collection<T> due) {
+    long endedTick = now / tickMillis - 1;
+    // one full turn drains every bucket, so never look at more ticks than there are buckets
+    long tick = Math.max(processedTick + 1, endedTick - buckets.size() + 1);
+    for (; tick <= endedTick; tick++) {
+      ArrayDeque<Timeout<T>> bucket = buckets.get((int) (tick % buckets.size()));
+      ArrayDeque<Timeout<T>> drained;
+      synchronized (bucket) {
+        processedTick = tick;
+        drained = new ArrayDeque<>(bucket);
+        bucket.clear();
+      }
+
+      for (Timeout<T> timeout : drained) {
+        if (timeout.deadline <= now) {
+          due.add(timeout.item);
+        } else {
+          schedule(timeout.item, timeout.deadline);
+        }
+      }
+    }
+  }
+}
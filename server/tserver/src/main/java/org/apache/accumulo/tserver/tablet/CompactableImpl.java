@@ -30,6 +30,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
@@ -59,6 +60,7 @@ import org.apache.accumulo.server.ServiceEnvironmentImpl;
 import org.apache.accumulo.server.util.MetadataTableUtil;
 import org.apache.accumulo.tserver.compactions.Compactable;
 import org.apache.accumulo.tserver.compactions.CompactionManager;
+import org.apache.accumulo.tserver.compactions.ExternalCompactionQueue;
 import org.apache.accumulo.tserver.managermessage.TabletStatusMessage;
 import org.apache.accumulo.tserver.tablet.Compactor.CompactionCanceledException;
 import org.slf4j.Logger;
@@ -541,7 +543,8 @@ public class CompactableImpl implements Compactable {
 
   @Override
   public void compact(CompactionServiceId service, CompactionJob job, RateLimiter readLimiter,
-      RateLimiter writeLimiter, long queuedTime) {
+      RateLimiter writeLimiter, Executor subCompactionExecutor,
+      ExternalCompactionQueue externalQueue, long queuedTime) {
 
     Set<StoredTabletFile> jobFiles = job.getFiles().stream()
         .map(cf -> ((CompactableFileImpl) cf).getStoredTabletFile()).collect(Collectors.toSet());
@@ -653,7 +656,7 @@ public class CompactableImpl implements Compactable {
 
       metaFile = CompactableUtils.compact(tablet, job, jobFiles, compactionId, propogateDeletes,
           localHelper, iters, new CompactionCheck(service, job.getKind(), checkCompactionId),
-          readLimiter, writeLimiter, stats);
+          readLimiter, writeLimiter, subCompactionExecutor, externalQueue, stats);
 
       TabletLogger.compacted(getExtent(), job, metaFile);
 
@@ -748,6 +751,11 @@ public class CompactableImpl implements Compactable {
     return tablet.getTableConfiguration().getFraction(Property.TABLE_MAJC_RATIO);
   }
 
+  @Override
+  public double getScanRate() {
+    return tablet.scanRate();
+  }
+
   public boolean isMajorCompactionRunning() {
     // this method intentionally not synchronized because its called by stats code.
     return compactionRunning;
@@ -30,6 +30,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -58,6 +59,7 @@ import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
 import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.metadata.CompactableFileImpl;
@@ -82,6 +84,8 @@ import org.apache.accumulo.tserver.compaction.CompactionStrategy;
 import org.apache.accumulo.tserver.compaction.MajorCompactionReason;
 import org.apache.accumulo.tserver.compaction.MajorCompactionRequest;
 import org.apache.accumulo.tserver.compaction.WriteParameters;
+import org.apache.accumulo.tserver.compactions.ExternalCompactionJob;
+import org.apache.accumulo.tserver.compactions.ExternalCompactionQueue;
 import org.apache.accumulo.tserver.tablet.CompactableImpl.CompactionCheck;
 import org.apache.accumulo.tserver.tablet.CompactableImpl.CompactionHelper;
 import org.apache.accumulo.tserver.tablet.Compactor.CompactionCanceledException;
@@ -532,7 +536,8 @@ public class CompactableUtils {
   static StoredTabletFile compact(Tablet tablet, CompactionJob job, Set<StoredTabletFile> jobFiles,
       Long compactionId, boolean propogateDeletes, CompactableImpl.CompactionHelper helper,
       List<IteratorSetting> iters, CompactionCheck compactionCheck, RateLimiter readLimiter,
-      RateLimiter writeLimiter, CompactionStats stats)
+      RateLimiter writeLimiter, Executor subCompactionExecutor,
+      ExternalCompactionQueue externalQueue, CompactionStats stats)
       throws IOException, CompactionCanceledException {
     StoredTabletFile metaFile;
     CompactionEnv cenv = new CompactionEnv() {
@@ -555,6 +560,16 @@ public class CompactableUtils {
       public RateLimiter getWriteLimiter() {
         return writeLimiter;
       }
+
+      @Override
+      public BlockPrefetcher getPrefetcher() {
+        return tablet.getTabletResources().getTabletServerResourceManager().getBlockPrefetcher();
+      }
+
+      @Override
+      public Executor getSubCompactionExecutor() {
+        return subCompactionExecutor;
+      }
     };
 
     int reason = job.getKind().ordinal();
@@ -569,10 +584,18 @@ public class CompactableUtils {
     TabletFile newFile = tablet.getNextMapFilename(!propogateDeletes ? "A" : "C");
     TabletFile compactTmpName = new TabletFile(new Path(newFile.getMetaInsert() + "_tmp"));
 
-    Compactor compactor = new Compactor(tablet.getContext(), tablet, compactFiles, null,
-        compactTmpName, propogateDeletes, cenv, iters, reason, tableConfig);
-
-    var mcs = compactor.call();
+    CompactionStats mcs;
+    if (externalQueue == null) {
+      Compactor compactor = new Compactor(tablet.getContext(), tablet, compactFiles, null,
+          compactTmpName, propogateDeletes, cenv, iters, reason, tableConfig);
+
+      mcs = compactor.call();
+    } else {
+      // the compactor limits the job to the rate the service has now, both limiters share it
+      long rateLimit = readLimiter == null ? 0 : readLimiter.getRate();
+      mcs = externalQueue.compact(new ExternalCompactionJob(tablet.getExtent(), compactFiles,
+          compactTmpName, propogateDeletes, iters, reason, tableConfig, rateLimit), cenv);
+    }
 
     if (job.getKind() == CompactionKind.USER || job.getKind() == CompactionKind.SELECTOR) {
       helper.getFilesToDrop().forEach(f -> {
@@ -23,7 +23,7 @@ public class CompactionStats {
   private long entriesWritten;
   private long fileSize;
 
-  CompactionStats(long er, long ew) {
+  public CompactionStats(long er, long ew) {
     this.setEntriesRead(er);
     this.setEntriesWritten(ew);
   }
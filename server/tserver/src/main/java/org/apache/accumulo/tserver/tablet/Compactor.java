@@ -29,20 +29,26 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.IterConfigUtil;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.KeyValue;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
 import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.ColumnFamilySkippingIterator;
@@ -88,6 +94,13 @@ public class Compactor implements Callable<CompactionStats> {
     RateLimiter getReadLimiter();
 
     RateLimiter getWriteLimiter();
+
+    BlockPrefetcher getPrefetcher();
+
+    /**
+     * @return the executor sub-compactions run on, or null to run a compaction on a single thread
+     */
+    Executor getSubCompactionExecutor();
   }
 
   private final Map<StoredTabletFile,DataFileValue> filesToCompact;
@@ -150,8 +163,16 @@ public class Compactor implements Callable<CompactionStats> {
   public Compactor(ServerContext context, Tablet tablet, Map<StoredTabletFile,DataFileValue> files,
       InMemoryMap imm, TabletFile outputFile, boolean propogateDeletes, CompactionEnv env,
       List<IteratorSetting> iterators, int reason, AccumuloConfiguration tableConfiguation) {
+    this(context, tablet.getExtent(), files, imm, outputFile, propogateDeletes, env, iterators,
+        reason, tableConfiguation);
+  }
+
+  public Compactor(ServerContext context, KeyExtent extent,
+      Map<StoredTabletFile,DataFileValue> files, InMemoryMap imm, TabletFile outputFile,
+      boolean propogateDeletes, CompactionEnv env, List<IteratorSetting> iterators, int reason,
+      AccumuloConfiguration tableConfiguation) {
     this.context = context;
-    this.extent = tablet.getExtent();
+    this.extent = extent;
     this.fs = context.getVolumeManager();
     this.acuTableConf = tableConfiguation;
     this.filesToCompact = files;
@@ -219,16 +240,35 @@ public class Compactor implements Callable<CompactionStats> {
 
       HashSet<ByteSequence> allColumnFamilies = new HashSet<>();
 
+      int parallelism = acuTableConf.getCount(Property.TABLE_MAJC_SUBCOMPACTIONS);
+      Executor subCompactionExecutor = env.getSubCompactionExecutor();
+      List<Range> ranges = List.of(extent.toDataRange());
+      if (parallelism > 1 && subCompactionExecutor != null && imm == null) {
+        ranges = partition(parallelism);
+      }
+
+      List<SubCompaction> subCompactions = new ArrayList<>();
       if (mfw.supportsLocalityGroups()) {
         for (Entry<String,Set<ByteSequence>> entry : lGroups.entrySet()) {
-          setLocalityGroup(entry.getKey());
-          compactLocalityGroup(entry.getKey(), entry.getValue(), true, mfw, majCStats);
+          for (Range range : ranges) {
+            subCompactions.add(new SubCompaction(entry.getKey(), entry.getValue(), true, range));
+          }
           allColumnFamilies.addAll(entry.getValue());
         }
       }
+      for (Range range : ranges) {
+        subCompactions.add(new SubCompaction(null, allColumnFamilies, false, range));
+      }
 
-      setLocalityGroup("");
-      compactLocalityGroup(null, allColumnFamilies, false, mfw, majCStats);
+      if (parallelism > 1 && subCompactionExecutor != null && imm == null
+          && subCompactions.size() > 1) {
+        compactInParallel(subCompactions, subCompactionExecutor, parallelism, mfw, majCStats);
+      } else {
+        for (SubCompaction subCompaction : subCompactions) {
+          setLocalityGroup(subCompaction.lgName == null ? "" : subCompaction.lgName);
+          compactLocalityGroup(subCompaction, mfw, majCStats);
+        }
+      }
 
       long t2 = System.currentTimeMillis();
 
@@ -296,7 +336,10 @@ public class Compactor implements Callable<CompactionStats> {
 
         reader = fileFactory.newReaderBuilder()
             .forFile(mapFile.getPathStr(), fs, fs.getConf(), context.getCryptoService())
-            .withTableConfiguration(acuTableConf).withRateLimiter(env.getReadLimiter()).build();
+            .withTableConfiguration(acuTableConf).withRateLimiter(env.getReadLimiter())
+            .withPrefetch(env.getPrefetcher(),
+                acuTableConf.getCount(Property.TABLE_FILE_PREFETCH_COMPACTION))
+            .build();
 
         readers.add(reader);
 
@@ -335,20 +378,80 @@ public class Compactor implements Callable<CompactionStats> {
     return iters;
   }
 
-  private void compactLocalityGroup(String lgName, Set<ByteSequence> columnFamilies,
-      boolean inclusive, FileSKVWriter mfw, CompactionStats majCStats)
-      throws IOException, CompactionCanceledException {
-    ArrayList<FileSKVIterator> readers = new ArrayList<>(filesToCompact.size());
-    try (TraceScope span = Trace.startSpan("compact")) {
-      long entriesCompacted = 0;
+  /**
+   * Splits the extent into key ranges of about the same amount of data using the indexes of the
+   * files to compact, when they are large enough to be worth compacting in parts.
+   */
+  List<Range> partition(int numPartitions) {
+    Range range = extent.toDataRange();
+
+    long size = 0;
+    for (DataFileValue dfv : filesToCompact.values()) {
+      size += dfv.getSize();
+    }
+    if (size < acuTableConf.getAsBytes(Property.TABLE_MAJC_SUBCOMPACTION_MIN_SIZE)) {
+      return List.of(range);
+    }
+
+    List<FileSKVIterator> indexes = new ArrayList<>(filesToCompact.size());
+    try {
+      for (TabletFile file : filesToCompact.keySet()) {
+        FileSystem ns = fs.getFileSystemByPath(file.getPath());
+        indexes.add(FileOperations.getInstance().newIndexReaderBuilder()
+            .forFile(file.getPathStr(), ns, ns.getConf(), context.getCryptoService())
+            .withTableConfiguration(acuTableConf).build());
+      }
+      return ScanPartitioner.partition(range, numPartitions,
+          new MultiIterator(new ArrayList<>(indexes), true));
+    } catch (IOException e) {
+      log.warn("Failed to read file indexes of {} to split a compaction, compacting it whole",
+          extent, e);
+      return List.of(range);
+    } finally {
+      for (FileSKVIterator index : indexes) {
+        try {
+          index.close();
+        } catch (IOException e) {
+          log.debug("Failed to close index of {}", extent, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * The part of a compaction that compacts one key range of one locality group. It has its own
+   * readers and iterators, so sub-compactions can run in parallel.
+   */
+  private class SubCompaction implements PartitionedCompaction.SubCompaction {
+
+    // the most entries and bytes returned in a batch when running in parallel
+    private static final int MAX_BATCH_ENTRIES = 1000;
+    private static final long MAX_BATCH_BYTES = 1 << 20;
+
+    private final String lgName;
+    private final Set<ByteSequence> columnFamilies;
+    private final boolean inclusive;
+    private final Range range;
+
+    private final ArrayList<FileSKVIterator> readers = new ArrayList<>(filesToCompact.size());
+    private CountingIterator citr;
+    private SortedKeyValueIterator<Key,Value> itr;
+
+    SubCompaction(String lgName, Set<ByteSequence> columnFamilies, boolean inclusive, Range range) {
+      this.lgName = lgName;
+      this.columnFamilies = columnFamilies;
+      this.inclusive = inclusive;
+      this.range = range;
+    }
+
+    SortedKeyValueIterator<Key,Value> open() throws IOException {
       List<SortedKeyValueIterator<Key,Value>> iters = openMapDataFiles(readers);
 
       if (imm != null) {
         iters.add(imm.compactionIterator());
       }
 
-      CountingIterator citr =
-          new CountingIterator(new MultiIterator(iters, extent.toDataRange()), entriesRead);
+      citr = new CountingIterator(new MultiIterator(iters, extent.toDataRange()), entriesRead);
       SortedKeyValueIterator<Key,Value> delIter =
           DeletingIterator.wrap(citr, propogateDeletes, DeletingIterator.getBehavior(acuTableConf));
       ColumnFamilySkippingIterator cfsi = new ColumnFamilySkippingIterator(delIter);
@@ -365,17 +468,92 @@ public class Compactor implements Callable<CompactionStats> {
       else
         throw new IllegalArgumentException();
 
-      SortedKeyValueIterator<Key,Value> itr = iterEnv.getTopLevelIterator(IterConfigUtil
-          .convertItersAndLoad(env.getIteratorScope(), cfsi, acuTableConf, iterators, iterEnv));
+      itr = iterEnv.getTopLevelIterator(IterConfigUtil.convertItersAndLoad(env.getIteratorScope(),
+          cfsi, acuTableConf, iterators, iterEnv));
 
-      itr.seek(extent.toDataRange(), columnFamilies, inclusive);
+      itr.seek(range, columnFamilies, inclusive);
 
-      if (inclusive) {
-        mfw.startNewLocalityGroup(lgName, columnFamilies);
-      } else {
-        mfw.startDefaultLocalityGroup();
+      return itr;
+    }
+
+    long getEntriesRead() {
+      return citr == null ? 0 : citr.getCount();
+    }
+
+    @Override
+    public List<KeyValue> read() throws IOException, CompactionCanceledException {
+      if (itr == null) {
+        open();
+      }
+
+      if (!itr.hasTop()) {
+        return null;
+      }
+
+      List<KeyValue> batch = new ArrayList<>();
+      long bytes = 0;
+      while (itr.hasTop() && env.isCompactionEnabled() && batch.size() < MAX_BATCH_ENTRIES
+          && bytes < MAX_BATCH_BYTES) {
+        Key key = new Key(itr.getTopKey());
+        Value value = new Value(itr.getTopValue());
+        batch.add(new KeyValue(key, value));
+        bytes += key.getSize() + value.getSize();
+        itr.next();
       }
 
+      if (itr.hasTop() && !env.isCompactionEnabled()) {
+        throw new CompactionCanceledException();
+      }
+
+      return batch;
+    }
+
+    @Override
+    public void close() {
+      // close sequence files opened
+      for (FileSKVIterator reader : readers) {
+        try {
+          reader.close();
+        } catch (Exception e) {
+          log.warn("Failed to close map file", e);
+        }
+      }
+      readers.clear();
+    }
+  }
+
+  private void startLocalityGroup(SubCompaction subCompaction, FileSKVWriter mfw)
+      throws IOException {
+    if (subCompaction.inclusive) {
+      mfw.startNewLocalityGroup(subCompaction.lgName, subCompaction.columnFamilies);
+    } else {
+      mfw.startDefaultLocalityGroup();
+    }
+  }
+
+  private void cancel(FileSKVWriter mfw) throws CompactionCanceledException {
+    // cancel major compaction operation
+    try {
+      try {
+        mfw.close();
+      } catch (IOException e) {
+        log.error("{}", e.getMessage(), e);
+      }
+      fs.deleteRecursively(outputFile.getPath());
+    } catch (Exception e) {
+      log.warn("Failed to delete Canceled compaction output file {}", outputFile, e);
+    }
+    throw new CompactionCanceledException();
+  }
+
+  private void compactLocalityGroup(SubCompaction subCompaction, FileSKVWriter mfw,
+      CompactionStats majCStats) throws IOException, CompactionCanceledException {
+    try (TraceScope span = Trace.startSpan("compact")) {
+      long entriesCompacted = 0;
+      SortedKeyValueIterator<Key,Value> itr = subCompaction.open();
+
+      startLocalityGroup(subCompaction, mfw);
+
       try (TraceScope write = Trace.startSpan("write")) {
         while (itr.hasTop() && env.isCompactionEnabled()) {
           mfw.append(itr.getTopKey(), itr.getTopValue());
@@ -389,34 +567,60 @@ public class Compactor implements Callable<CompactionStats> {
         }
 
         if (itr.hasTop() && !env.isCompactionEnabled()) {
-          // cancel major compaction operation
-          try {
-            try {
-              mfw.close();
-            } catch (IOException e) {
-              log.error("{}", e.getMessage(), e);
-            }
-            fs.deleteRecursively(outputFile.getPath());
-          } catch (Exception e) {
-            log.warn("Failed to delete Canceled compaction output file {}", outputFile, e);
-          }
-          throw new CompactionCanceledException();
+          cancel(mfw);
         }
 
       } finally {
-        CompactionStats lgMajcStats = new CompactionStats(citr.getCount(), entriesCompacted);
+        CompactionStats lgMajcStats =
+            new CompactionStats(subCompaction.getEntriesRead(), entriesCompacted);
         majCStats.add(lgMajcStats);
       }
 
     } finally {
-      // close sequence files opened
-      for (FileSKVIterator reader : readers) {
-        try {
-          reader.close();
-        } catch (Exception e) {
-          log.warn("Failed to close map file", e);
+      subCompaction.close();
+    }
+  }
+
+  /**
+   * Runs sub-compactions in parallel on the executor while writing their output in order. Each
+   * locality group is started in the output file before the first of its sub-compactions is
+   * written.
+   */
+  private void compactInParallel(List<SubCompaction> subCompactions, Executor executor,
+      int parallelism, FileSKVWriter mfw, CompactionStats majCStats)
+      throws IOException, CompactionCanceledException {
+    PartitionedCompaction compaction =
+        new PartitionedCompaction(subCompactions, executor, parallelism);
+    try (TraceScope span = Trace.startSpan("compact")) {
+      SubCompaction previous = null;
+      for (int i = 0; i < subCompactions.size(); i++) {
+        SubCompaction subCompaction = subCompactions.get(i);
+        if (previous == null || previous.inclusive != subCompaction.inclusive
+            || !Objects.equals(previous.lgName, subCompaction.lgName)) {
+          setLocalityGroup(subCompaction.lgName == null ? "" : subCompaction.lgName);
+          startLocalityGroup(subCompaction, mfw);
+        }
+        previous = subCompaction;
+
+        long entriesCompacted = 0;
+        try (TraceScope write = Trace.startSpan("write")) {
+          List<KeyValue> batch;
+          while ((batch = compaction.read(i)) != null) {
+            for (KeyValue entry : batch) {
+              mfw.append(entry.getKey(), entry.getValue());
+            }
+            entriesCompacted += batch.size();
+            entriesWritten.addAndGet(batch.size());
+          }
+        } catch (CompactionCanceledException e) {
+          compaction.close();
+          cancel(mfw);
+        } finally {
+          majCStats.add(new CompactionStats(subCompaction.getEntriesRead(), entriesCompacted));
         }
       }
+    } finally {
+      compaction.close();
     }
   }
 
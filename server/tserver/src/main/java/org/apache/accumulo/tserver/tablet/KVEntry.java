@@ -27,15 +27,29 @@ import org.apache.accumulo.core.data.Value;
 public class KVEntry extends KeyValue {
   private static final long serialVersionUID = 1L;
 
+  // the estimated memory used by the objects of an entry, besides its key and value data
+  static final int OVERHEAD = 9 * 32; // overhead is 32 per object
+
   public KVEntry(Key k, Value v) {
     super(new Key(k), Arrays.copyOf(v.get(), v.get().length));
   }
 
+  private KVEntry(Key k, byte[] v) {
+    super(k, v);
+  }
+
+  /**
+   * Creates an entry that takes ownership of a key and value the caller has already copied.
+   */
+  static KVEntry wrap(Key k, Value v) {
+    return new KVEntry(k, v.get());
+  }
+
   int numBytes() {
     return getKey().getSize() + getValue().get().length;
   }
 
   int estimateMemoryUsed() {
-    return getKey().getSize() + getValue().get().length + (9 * 32); // overhead is 32 per object
+    return getKey().getSize() + getValue().get().length + OVERHEAD;
   }
 }
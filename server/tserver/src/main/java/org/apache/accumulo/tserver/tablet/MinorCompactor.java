@@ -26,11 +26,13 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.clientImpl.Tables;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
 import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.accumulo.core.manager.state.tables.TableState;
 import org.apache.accumulo.core.metadata.TabletFile;
@@ -77,6 +79,16 @@ public class MinorCompactor extends Compactor {
           public RateLimiter getWriteLimiter() {
             return null;
           }
+
+          @Override
+          public BlockPrefetcher getPrefetcher() {
+            return null;
+          }
+
+          @Override
+          public Executor getSubCompactionExecutor() {
+            return null;
+          }
         }, Collections.emptyList(), mincReason.ordinal(), tableConfig);
     this.tabletServer = tabletServer;
   }
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.tablet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.apache.accumulo.core.data.KeyValue;
+import org.apache.accumulo.tserver.tablet.Compactor.CompactionCanceledException;
+
+/**
+ * Runs the sub-compactions of a single compaction in parallel and returns their output in order.
+ * The sub-compactions after the one being returned are read ahead with a {@link ReadAhead}, and at
+ * most parallelism sub-compactions are in progress at once.
+ */
+class PartitionedCompaction {
+
+  interface SubCompaction {
+    /**
+     * @return the next entries of the sub-compaction in key order, or null when it has no more
+     */
+    List<KeyValue> read() throws IOException, CompactionCanceledException;
+
+    /**
+     * Releases the resources of the sub-compaction, it is never called while reading.
+     */
+    void close();
+  }
+
+  // the batches a sub-compaction reads ahead of the one being returned
+  private static final int MAX_BUFFERED_BATCHES = 4;
+
+  private final List<ReadAhead<List<KeyValue>,CompactionCanceledException>> parts;
+  private final int parallelism;
+
+  private static class Part
+      implements ReadAhead.BatchSource<List<KeyValue>,CompactionCanceledException> {
+    private final SubCompaction subCompaction;
+
+    Part(SubCompaction subCompaction) {
+      this.subCompaction = subCompaction;
+    }
+
+    @Override
+    public List<KeyValue> read() throws IOException, CompactionCanceledException {
+      return subCompaction.read();
+    }
+
+    @Override
+    public boolean isFinished() {
+      // only known once read returns null
+      return false;
+    }
+
+    @Override
+    public void close(boolean sawErrors) {
+      subCompaction.close();
+    }
+  }
+
+  PartitionedCompaction(List<? extends SubCompaction> subCompactions, Executor executor,
+      int parallelism) {
+    this.parts = new ArrayList<>(subCompactions.size());
+    for (SubCompaction subCompaction : subCompactions) {
+      parts.add(new ReadAhead<>(new Part(subCompaction), executor, MAX_BUFFERED_BATCHES,
+          IllegalStateException::new));
+    }
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * Returns the next batch of a sub-compaction, sub-compactions must be read in order and this must
+   * not be called concurrently.
+   *
+   * @return the next batch of entries, or null when the sub-compaction has no more entries
+   */
+  List<KeyValue> read(int subCompaction) throws IOException, CompactionCanceledException {
+    int end = Math.min(parts.size(), subCompaction + parallelism);
+    for (int i = subCompaction + 1; i < end; i++) {
+      parts.get(i).scheduleRead();
+    }
+
+    ReadAhead<List<KeyValue>,CompactionCanceledException> part = parts.get(subCompaction);
+    List<KeyValue> batch = part.take();
+    if (batch == null) {
+      // waits for the sub-compaction to be released
+      part.close(true);
+    } else {
+      part.scheduleRead();
+    }
+    return batch;
+  }
+
+  /**
+   * Stops reading ahead and releases every sub-compaction, waiting for running reads to finish.
+   */
+  void close() {
+    for (ReadAhead<List<KeyValue>,CompactionCanceledException> part : parts) {
+      part.close(true);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.tablet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.iterators.IterationInterruptedException;
+
+/**
+ * Reads the partitions of a single tablet scan in parallel and returns their batches in key order.
+ * Every partition after the one being returned is read ahead with a {@link ReadAhead}. Each
+ * partition reads all of its batches with one {@link BatchReader}, which is closed once the
+ * partition is done.
+ */
+class PartitionedScan {
+
+  /**
+   * Reads the batches of one partition, used by only one thread at a time.
+   */
+  interface BatchReader {
+    Batch read(Range range) throws IOException;
+
+    void close(boolean sawErrors);
+  }
+
+  // the batches a partition reads ahead of the one being returned
+  private static final int MAX_BUFFERED_BATCHES = 2;
+
+  private final List<ReadAhead<Batch,IOException>> partitions;
+  private int current = 0;
+
+  // reads one partition, creating its reader when the first batch is read
+  private static class Partition implements ReadAhead.BatchSource<Batch,IOException> {
+    private final Supplier<BatchReader> readers;
+    // the part of the partition not read yet, null once every batch of the partition was read
+    private Range range;
+    private BatchReader reader;
+
+    Partition(Range range, Supplier<BatchReader> readers) {
+      this.range = range;
+      this.readers = readers;
+    }
+
+    @Override
+    public Batch read() throws IOException {
+      if (range == null) {
+        return null;
+      }
+      if (reader == null) {
+        reader = readers.get();
+      }
+
+      Batch batch = reader.read(range);
+      if (batch.getResults() == null || batch.getContinueKey() == null) {
+        range = null;
+      } else {
+        range = new Range(batch.getContinueKey(), !batch.isSkipContinueKey(), range.getEndKey(),
+            range.isEndKeyInclusive());
+      }
+      return batch;
+    }
+
+    @Override
+    public boolean isFinished() {
+      return range == null;
+    }
+
+    @Override
+    public void close(boolean sawErrors) {
+      if (reader != null) {
+        reader.close(sawErrors);
+      }
+    }
+  }
+
+  PartitionedScan(List<Range> ranges, Supplier<BatchReader> readers, Executor executor) {
+    this.partitions = new ArrayList<>(ranges.size());
+    for (Range range : ranges) {
+      partitions.add(new ReadAhead<>(new Partition(range, readers), executor,
+          MAX_BUFFERED_BATCHES, IterationInterruptedException::new));
+    }
+  }
+
+  /**
+   * Returns the next batch of the scan. Must not be called concurrently.
+   */
+  ScanBatch read() throws IOException {
+    while (true) {
+      for (int i = current + 1; i < partitions.size(); i++) {
+        partitions.get(i).scheduleRead();
+      }
+
+      ReadAhead<Batch,IOException> partition = partitions.get(current);
+      Batch batch = partition.take();
+      partition.scheduleRead();
+
+      if (batch == null || batch.getResults() == null || batch.getContinueKey() == null) {
+        current++;
+      }
+      boolean more = current < partitions.size();
+
+      if (batch != null && batch.getResults() != null) {
+        return new ScanBatch(batch.getResults(), more);
+      } else if (!more) {
+        return new ScanBatch(new ArrayList<>(), false);
+      }
+    }
+  }
+
+  /**
+   * Stops partitions from reading ahead and closes their readers, a partition reading a batch stops
+   * and closes its reader after that batch.
+   */
+  void close() {
+    for (ReadAhead<Batch,IOException> partition : partitions) {
+      partition.close(false);
+    }
+  }
+}
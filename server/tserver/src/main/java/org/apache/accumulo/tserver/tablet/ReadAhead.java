@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.tablet;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Reads the batches of one source on an executor, ahead of the thread consuming them, until a few
+ * batches are buffered. When the consumer needs a batch and no read is running, it reads the batch
+ * itself, so it never waits on a read queued behind others on a busy executor. Partitioned scans
+ * and compactions use one per part to read their parts in parallel while returning them in order.
+ *
+ * @param <T>
+ *          the type of batches read
+ * @param <E>
+ *          the checked exception, other than {@link IOException}, the source may throw
+ */
+class ReadAhead<T,E extends Exception> implements Runnable {
+
+  interface BatchSource<T,E extends Exception> {
+    /**
+     * @return the next batch, or null when the source has no more batches
+     */
+    T read() throws IOException, E;
+
+    /**
+     * @return true when the last batch read was the final one, so the source can be released
+     *         without reading again
+     */
+    boolean isFinished();
+
+    /**
+     * Releases the source, it is called once and never while reading.
+     */
+    void close(boolean sawErrors);
+  }
+
+  private final BatchSource<T,E> source;
+  private final Executor executor;
+  private final int maxBuffered;
+  private final Function<String,RuntimeException> interruption;
+
+  private final ArrayDeque<T> ready = new ArrayDeque<>();
+  private boolean queued = false;
+  // set by the thread reading from or closing the source
+  private boolean reading = false;
+  private boolean done = false;
+  private boolean closed = false;
+  private boolean sourceClosed = false;
+  private Exception error;
+
+  /**
+   * @param maxBuffered
+   *          the most batches read ahead of the consumer
+   * @param interruption
+   *          creates the exception thrown when the consumer is interrupted, or asks for a batch
+   *          after this was closed
+   */
+  ReadAhead(BatchSource<T,E> source, Executor executor, int maxBuffered,
+      Function<String,RuntimeException> interruption) {
+    this.source = source;
+    this.executor = executor;
+    this.maxBuffered = maxBuffered;
+    this.interruption = interruption;
+  }
+
+  /**
+   * Queues a read on the executor, unless one is already queued or running, or enough batches are
+   * buffered.
+   */
+  void scheduleRead() {
+    synchronized (this) {
+      if (queued || reading || closed || done || error != null || ready.size() >= maxBuffered) {
+        return;
+      }
+      queued = true;
+    }
+
+    try {
+      executor.execute(this);
+    } catch (RejectedExecutionException e) {
+      // the source is read when a batch is needed instead
+      synchronized (this) {
+        queued = false;
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    synchronized (this) {
+      queued = false;
+      if (reading) {
+        return;
+      }
+      reading = true;
+    }
+    readBatches(maxBuffered);
+  }
+
+  // must only be called by the thread that set reading
+  private void readBatches(int limit) {
+    try {
+      while (true) {
+        synchronized (this) {
+          if (closed || done || ready.size() >= limit) {
+            return;
+          }
+        }
+
+        T batch = source.read();
+
+        synchronized (this) {
+          if (batch == null) {
+            done = true;
+          } else {
+            ready.add(batch);
+            done = source.isFinished();
+          }
+          notifyAll();
+        }
+      }
+    } catch (Exception e) {
+      synchronized (this) {
+        error = e;
+      }
+    } finally {
+      boolean close;
+      boolean sawErrors;
+      synchronized (this) {
+        sawErrors = error != null;
+        close = (closed || done || sawErrors) && !sourceClosed;
+        sourceClosed |= close;
+      }
+      // still reading while the source is closed, so close(true) waits for it
+      if (close) {
+        source.close(sawErrors);
+      }
+      synchronized (this) {
+        reading = false;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Returns the next batch of the source, reading it when it is not buffered or being read. Must
+   * not be called concurrently.
+   *
+   * @return the next batch, or null when the source has no more batches
+   */
+  @SuppressWarnings("unchecked")
+  T take() throws IOException, E {
+    while (true) {
+      synchronized (this) {
+        T batch = ready.poll();
+        if (batch != null) {
+          return batch;
+        }
+
+        if (error instanceof IOException) {
+          throw (IOException) error;
+        } else if (error instanceof RuntimeException) {
+          throw (RuntimeException) error;
+        } else if (error != null) {
+          throw (E) error;
+        }
+
+        if (done) {
+          return null;
+        }
+
+        if (reading) {
+          waitForReader();
+          continue;
+        }
+
+        if (closed) {
+          throw interruption.apply("Read ahead was closed");
+        }
+        reading = true;
+      }
+      readBatches(1);
+    }
+  }
+
+  private void waitForReader() {
+    try {
+      wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw interruption.apply("Interrupted waiting for a batch read ahead");
+    }
+  }
+
+  /**
+   * Stops reading ahead, drops the buffered batches and closes the source. A read in progress
+   * finishes first and its thread closes the source.
+   *
+   * @param await
+   *          wait for a read in progress to finish and close the source before returning
+   */
+  void close(boolean await) {
+    synchronized (this) {
+      closed = true;
+      ready.clear();
+      while (await && reading) {
+        waitForReader();
+      }
+      if (reading || sourceClosed) {
+        return;
+      }
+      sourceClosed = true;
+      reading = true;
+    }
+    try {
+      source.close(false);
+    } finally {
+      synchronized (this) {
+        reading = false;
+        notifyAll();
+      }
+    }
+  }
+}
@@ -70,11 +70,23 @@ class ScanDataSource implements DataSource {
 
   private final ScanParameters scanParams;
   private final boolean loadIters;
+  private final boolean detachable;
   private final byte[] defaultLabels;
 
   ScanDataSource(Tablet tablet, ScanParameters scanParams, boolean loadIters,
       AtomicBoolean interruptFlag) {
+    this(tablet, scanParams, loadIters, scanParams.isIsolated(), interruptFlag);
+  }
+
+  /**
+   * @param detachable
+   *          whether the files opened can be released with {@link #detachFileManager()} between
+   *          reads and reopened with {@link #reattachFileManager()}
+   */
+  ScanDataSource(Tablet tablet, ScanParameters scanParams, boolean loadIters, boolean detachable,
+      AtomicBoolean interruptFlag) {
     this.tablet = tablet;
+    this.detachable = detachable;
     this.expectedDeletionCount = tablet.getDataSourceDeletions();
     this.scanParams = scanParams;
     this.interruptFlag = interruptFlag;
@@ -160,7 +172,7 @@ class ScanDataSource implements DataSource {
     }
 
     Collection<InterruptibleIterator> mapfiles =
-        fileManager.openFiles(files, scanParams.isIsolated(), samplerConfig);
+        fileManager.openFiles(files, detachable, samplerConfig);
 
     for (SortedKeyValueIterator<Key,Value> skvi : Iterables.concat(mapfiles, memIters))
       ((InterruptibleIterator) skvi).setInterruptFlag(interruptFlag);
@@ -181,9 +193,10 @@ class ScanDataSource implements DataSource {
     statsIterator =
         new StatsIterator(multiIter, TabletServer.seekCount, tablet.getScannedCounter());
 
-    SortedKeyValueIterator<Key,Value> visFilter =
-        SystemIteratorUtil.setupSystemScanIterators(statsIterator, scanParams.getColumnSet(),
-            scanParams.getAuthorizations(), defaultLabels, tablet.getTableConfiguration());
+    SortedKeyValueIterator<Key,
+        Value> visFilter = SystemIteratorUtil.setupSystemScanIterators(statsIterator,
+            scanParams.getColumnSet(), scanParams.getAuthorizations(), defaultLabels,
+            tablet.getTableConfiguration(), scanParams.getVisibilityCache());
 
     if (loadIters) {
       List<IterInfo> iterInfos;
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.tablet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Splits the range of a scan into contiguous partitions of about the same amount of data, using the
+ * keys of file indexes. Each index key ends a block of a file, so rows spaced evenly through the
+ * index are spaced evenly through the data. Partitions always end at a row boundary, so iterators
+ * that operate on whole rows see each row in a single partition.
+ */
+final class ScanPartitioner {
+
+  // the number of index rows kept per partition, more gives partitions of more even size
+  private static final int SAMPLES_PER_PARTITION = 16;
+
+  private ScanPartitioner() {}
+
+  /**
+   * @param index
+   *          the merged, sorted keys of the indexes of the files the range is read from
+   * @return the partitions of the range in key order, or just the range when the index is too small
+   *         to split it
+   */
+  static List<Range> partition(Range range, int numPartitions,
+      SortedKeyValueIterator<Key,Value> index) throws IOException {
+    if (numPartitions <= 1) {
+      return List.of(range);
+    }
+    return partition(range, numPartitions, sampleRows(range, numPartitions, index));
+  }
+
+  /**
+   * Samples evenly spaced rows from the part of an index within a range, so that the range can
+   * later be partitioned without reading the index again.
+   *
+   * @param index
+   *          the merged, sorted keys of the indexes of the files the range is read from
+   * @return the sampled rows in sorted order
+   */
+  static List<Text> sampleRows(Range range, int numPartitions,
+      SortedKeyValueIterator<Key,Value> index) throws IOException {
+    // Keep every stride'th index row. When too many rows are kept, every other one is dropped and
+    // the stride doubles, so the rows stay evenly spaced without holding the whole index.
+    int maxSamples = Math.max(numPartitions, 1) * SAMPLES_PER_PARTITION;
+    List<Text> rows = new ArrayList<>();
+    long stride = 1;
+    long seen = 0;
+    while (index.hasTop()) {
+      Key key = index.getTopKey();
+      if (range.afterEndKey(key)) {
+        break;
+      }
+
+      if (!range.beforeStartKey(key) && seen++ % stride == 0) {
+        Text row = key.getRow();
+        if (rows.isEmpty() || !rows.get(rows.size() - 1).equals(row)) {
+          rows.add(row);
+        }
+
+        if (rows.size() >= 2 * maxSamples) {
+          int kept = 0;
+          for (int i = 0; i < rows.size(); i += 2) {
+            rows.set(kept++, rows.get(i));
+          }
+          rows.subList(kept, rows.size()).clear();
+          stride *= 2;
+        }
+      }
+      index.next();
+    }
+    return rows;
+  }
+
+  /**
+   * @param sampledRows
+   *          rows sampled by {@link #sampleRows} from a range containing this one
+   * @return the partitions of the range in key order, or just the range when too few of the sampled
+   *         rows fall within it to split it
+   */
+  static List<Range> partition(Range range, int numPartitions, List<Text> sampledRows) {
+    if (numPartitions <= 1) {
+      return List.of(range);
+    }
+
+    List<Text> rows = new ArrayList<>();
+    for (Text row : sampledRows) {
+      if (range.clip(new Range(row), true) != null) {
+        rows.add(row);
+      }
+    }
+
+    List<Text> splits = new ArrayList<>(numPartitions - 1);
+    for (int i = 1; i < numPartitions && rows.size() >= numPartitions; i++) {
+      Text split = rows.get((int) ((long) i * rows.size() / numPartitions));
+      if (splits.isEmpty() || !splits.get(splits.size() - 1).equals(split)) {
+        splits.add(split);
+      }
+    }
+
+    if (splits.isEmpty()) {
+      return List.of(range);
+    }
+
+    List<Range> partitions = new ArrayList<>(splits.size() + 1);
+    Text prevSplit = null;
+    for (Text split : splits) {
+      Range partition = range.clip(new Range(prevSplit, false, split, true), true);
+      if (partition != null) {
+        partitions.add(partition);
+      }
+      prevSplit = split;
+    }
+    Range partition = range.clip(new Range(prevSplit, false, null, true), true);
+    if (partition != null) {
+      partitions.add(partition);
+    }
+
+    return partitions;
+  }
+}
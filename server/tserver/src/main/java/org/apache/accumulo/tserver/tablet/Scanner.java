@@ -20,6 +20,7 @@ package org.apache.accumulo.tserver.tablet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -55,6 +56,9 @@ public class Scanner {
 
   private AtomicBoolean interruptFlag;
 
+  private boolean partitioningChecked = false;
+  private volatile PartitionedScan partitionedScan;
+
   Scanner(Tablet tablet, Range range, ScanParameters scanParams, AtomicBoolean interruptFlag) {
     this.tablet = tablet;
     this.range = range;
@@ -85,6 +89,21 @@ public class Scanner {
       if (scanClosed)
         throw new IllegalStateException("Tried to use scanner after it was closed.");
 
+      if (!partitioningChecked) {
+        partitioningChecked = true;
+        if (!scanParams.isIsolated()) {
+          List<Range> partitions = tablet.getScanPartitions(range);
+          if (partitions.size() > 1) {
+            partitionedScan = new PartitionedScan(partitions, PartitionReader::new,
+                tablet.getTabletResources().getScanExecutor(scanParams.getScanDispatch()));
+          }
+        }
+      }
+
+      if (partitionedScan != null) {
+        return partitionedScan.read();
+      }
+
       if (scanParams.isIsolated()) {
         if (isolatedDataSource == null)
           isolatedDataSource = new ScanDataSource(tablet, scanParams, true, interruptFlag);
@@ -132,7 +151,8 @@ public class Scanner {
       }
 
       sawException = true;
-      dataSource.close(true);
+      if (dataSource != null)
+        dataSource.close(true);
       throw ioe;
     } catch (RuntimeException re) {
       sawException = true;
@@ -153,12 +173,45 @@ public class Scanner {
     }
   }
 
+  /**
+   * Reads the batches of one partition of a partitioned scan. The data source is kept across the
+   * batches of the partition, and the files it reserved are released between them.
+   */
+  private class PartitionReader implements PartitionedScan.BatchReader {
+    private final ScanDataSource dataSource =
+        new ScanDataSource(tablet, scanParams, true, true, interruptFlag);
+    private final SortedKeyValueIterator<Key,Value> iter =
+        new SourceSwitchingIterator(dataSource, false);
+
+    @Override
+    public Batch read(Range partition) throws IOException {
+      Batch results = null;
+      try {
+        dataSource.reattachFileManager();
+        results = tablet.nextBatch(iter, partition, scanParams);
+        // on errors the files stay reserved until the reader is closed, so they are not reused
+        dataSource.detachFileManager();
+        return results;
+      } finally {
+        if (results != null && results.getResults() != null)
+          tablet.updateQueryStats(results.getResults().size(), results.getNumBytes());
+      }
+    }
+
+    @Override
+    public void close(boolean sawErrors) {
+      dataSource.close(sawErrors);
+    }
+  }
+
   // close and read are synchronized because can not call close on the data source while it is in
   // use
   // this could lead to the case where file iterators that are in use by a thread are returned
   // to the pool... this would be bad
   public boolean close() {
     interruptFlag.set(true);
+    if (partitionedScan != null)
+      partitionedScan.close();
 
     boolean obtainedLock = false;
     try {
@@ -65,9 +65,12 @@ import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.dataImpl.thrift.MapFileInfo;
 import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.iterators.IterationInterruptedException;
+import org.apache.accumulo.core.iterators.KeyValueBatch;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.YieldCallback;
+import org.apache.accumulo.core.iteratorsImpl.system.MultiIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.SourceSwitchingIterator;
 import org.apache.accumulo.core.logging.TabletLogger;
 import org.apache.accumulo.core.manager.state.tables.TableState;
@@ -121,10 +124,12 @@ import org.apache.accumulo.tserver.compactions.Compactable;
 import org.apache.accumulo.tserver.constraints.ConstraintChecker;
 import org.apache.accumulo.tserver.log.DfsLogger;
 import org.apache.accumulo.tserver.metrics.TabletServerMinCMetrics;
+import org.apache.accumulo.tserver.scan.ScanBatchSizer;
 import org.apache.accumulo.tserver.scan.ScanParameters;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.Text;
 import org.apache.htrace.Trace;
@@ -225,6 +230,27 @@ public class Tablet {
   private volatile long numEntries = 0;
   private volatile long numEntriesInMemory = 0;
 
+  // Rows sampled from the indexes of the tablet's files to partition scans. Reading the indexes
+  // opens every file, so the samples are reused until the files or partition count change.
+  private final Object scanPartitionLock = new Object();
+  private volatile ScanPartitionSample scanPartitionSample = null;
+
+  private static class ScanPartitionSample {
+    final Set<StoredTabletFile> files;
+    final int numPartitions;
+    final List<Text> rows;
+
+    ScanPartitionSample(Set<StoredTabletFile> files, int numPartitions, List<Text> rows) {
+      this.files = files;
+      this.numPartitions = numPartitions;
+      this.rows = rows;
+    }
+
+    boolean isFor(Set<StoredTabletFile> files, int numPartitions) {
+      return this.numPartitions == numPartitions && this.files.equals(files);
+    }
+  }
+
   private final Rate scannedRate = new Rate(0.95);
   private final AtomicLong scannedCount = new AtomicLong(0);
 
@@ -665,6 +691,9 @@ public class Tablet {
     }
   }
 
+  // the number of entries read from a scan's iterator stack per call
+  private static final int SCAN_READ_BATCH_SIZE = 64;
+
   Batch nextBatch(SortedKeyValueIterator<Key,Value> iter, Range range, ScanParameters scanParams)
       throws IOException {
 
@@ -681,11 +710,13 @@ public class Tablet {
     List<KVEntry> results = new ArrayList<>();
     Key key = null;
 
-    Value value;
     long resultSize = 0L;
     long resultBytes = 0L;
 
-    long maxResultsSize = tableConfiguration.getAsBytes(Property.TABLE_SCAN_MAXMEM);
+    ScanBatchSizer batchSizer = scanParams.getBatchSizer();
+    long maxResultsSize =
+        batchSizer.scaleBytes(tableConfiguration.getAsBytes(Property.TABLE_SCAN_MAXMEM));
+    int maxEntries = batchSizer.scaleEntries(scanParams.getMaxEntries());
 
     Key continueKey = null;
     boolean skipContinueKey = false;
@@ -703,31 +734,48 @@ public class Tablet {
       iter.seek(range, LocalityGroupUtil.families(scanParams.getColumnSet()), true);
     }
 
-    while (iter.hasTop()) {
+    // entries are read from the iterator stack in batches. Each read is limited by the entries and
+    // memory left for this batch of results, so only its last entry can fill the results and no
+    // entry is read past the one where the results end.
+    KeyValueBatch kvBatch = new KeyValueBatch(SCAN_READ_BATCH_SIZE);
+    boolean resultsFull = false;
+
+    while (!resultsFull && iter.hasTop()) {
       if (yield.hasYielded()) {
         throw new IOException(
             "Coding error: hasTop returned true but has yielded at " + yield.getPositionAndReset());
       }
-      value = iter.getTopValue();
-      key = iter.getTopKey();
 
-      KVEntry kvEntry = new KVEntry(key, value); // copies key and value
-      results.add(kvEntry);
-      resultSize += kvEntry.estimateMemoryUsed();
-      resultBytes += kvEntry.numBytes();
+      long memoryLeft = Math.max(1L, maxResultsSize - resultSize);
+      int readLimit = (int) Math.min(kvBatch.capacity(), Math.max(1L,
+          Math.min((long) maxEntries - results.size(), memoryLeft / KVEntry.OVERHEAD + 1)));
+      kvBatch.clear(readLimit,
+          Math.max(1L, memoryLeft - (long) (readLimit - 1) * KVEntry.OVERHEAD));
+      kvBatch.fill(iter); // copies keys and values
+
+      for (int i = 0; i < kvBatch.size(); i++) {
+        key = kvBatch.getKey(i);
+
+        KVEntry kvEntry = KVEntry.wrap(key, kvBatch.getValue(i));
+        results.add(kvEntry);
+        resultSize += kvEntry.estimateMemoryUsed();
+        resultBytes += kvEntry.numBytes();
+      }
 
       boolean timesUp = batchTimeOut > 0 && (System.nanoTime() - startNanos) >= timeToRun;
 
-      if (resultSize >= maxResultsSize || results.size() >= scanParams.getMaxEntries() || timesUp) {
+      if (!kvBatch.isEmpty()
+          && (resultSize >= maxResultsSize || results.size() >= maxEntries || timesUp)) {
         continueKey = new Key(key);
         skipContinueKey = true;
-        break;
+        resultsFull = true;
       }
-
-      iter.next();
     }
 
-    if (yield.hasYielded()) {
+    if (resultsFull) {
+      // the scan continues after the last result, any later yield position is not needed
+      yield.getPositionAndReset();
+    } else if (yield.hasYielded()) {
       continueKey = new Key(yield.getPositionAndReset());
       skipContinueKey = true;
       if (!range.contains(continueKey)) {
@@ -763,6 +811,76 @@ public class Tablet {
     return new Scanner(this, range, scanParams, interruptFlag);
   }
 
+  /**
+   * Splits a scan range into the partitions that are read in parallel, using the indexes of the
+   * tablet's files. Returns just the range when the tablet is not configured to be scanned in
+   * partitions or its files are too small to be worth it.
+   */
+  List<Range> getScanPartitions(Range range) {
+    int numPartitions = tableConfiguration.getCount(Property.TABLE_SCAN_PARTITIONS);
+    if (numPartitions <= 1 || extent.isMeta()) {
+      return List.of(range);
+    }
+
+    Map<StoredTabletFile,DataFileValue> files = getDatafileManager().getDatafileSizes();
+    long size = 0;
+    for (DataFileValue dfv : files.values()) {
+      size += dfv.getSize();
+    }
+    if (size < tableConfiguration.getAsBytes(Property.TABLE_SCAN_PARTITION_MIN_SIZE)) {
+      return List.of(range);
+    }
+
+    Set<StoredTabletFile> fileSet = Set.copyOf(files.keySet());
+    ScanPartitionSample sample = scanPartitionSample;
+    if (sample == null || !sample.isFor(fileSet, numPartitions)) {
+      // only one scan reads the indexes, the others wait for and reuse its samples
+      synchronized (scanPartitionLock) {
+        sample = scanPartitionSample;
+        if (sample == null || !sample.isFor(fileSet, numPartitions)) {
+          List<Text> rows = sampleIndexRows(fileSet, numPartitions);
+          if (rows == null) {
+            return List.of(range);
+          }
+          sample = new ScanPartitionSample(fileSet, numPartitions, rows);
+          scanPartitionSample = sample;
+        }
+      }
+    }
+
+    return ScanPartitioner.partition(range, numPartitions, sample.rows);
+  }
+
+  /**
+   * Samples rows over the whole tablet from the indexes of the given files, returning null when
+   * the indexes could not be read.
+   */
+  private List<Text> sampleIndexRows(Set<StoredTabletFile> files, int numPartitions) {
+    List<FileSKVIterator> indexes = new ArrayList<>(files.size());
+    try {
+      for (StoredTabletFile file : files) {
+        FileSystem ns = context.getVolumeManager().getFileSystemByPath(file.getPath());
+        indexes.add(FileOperations.getInstance().newIndexReaderBuilder()
+            .forFile(file.getPathStr(), ns, ns.getConf(), context.getCryptoService())
+            .withTableConfiguration(tableConfiguration).build());
+      }
+      return ScanPartitioner.sampleRows(extent.toDataRange(), numPartitions,
+          new MultiIterator(new ArrayList<>(indexes), true));
+    } catch (IOException e) {
+      log.warn("Failed to read file indexes of {} to partition a scan, scanning it serially",
+          extent, e);
+      return null;
+    } finally {
+      for (FileSKVIterator index : indexes) {
+        try {
+          index.close();
+        } catch (IOException e) {
+          log.debug("Failed to close index of {}", extent, e);
+        }
+      }
+    }
+  }
+
   DataFileValue minorCompact(InMemoryMap memTable, TabletFile tmpDatafile, TabletFile newDatafile,
       long queued, CommitSession commitSession, long flushId, MinorCompactionReason mincReason) {
     boolean failed = false;
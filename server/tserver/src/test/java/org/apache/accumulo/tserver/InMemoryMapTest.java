@@ -30,11 +30,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.accumulo.core.client.SampleNotPresentException;
 import org.apache.accumulo.core.client.sample.RowSampler;
@@ -173,6 +175,42 @@ public class InMemoryMapTest {
     return new InMemoryMap(config, getServerContext(), TableId.of("--TEST--"));
   }
 
+  @Test
+  public void testOffHeapMap() throws Exception {
+    ConfigurationCopy config = newConfig(tempFolder.newFolder().getAbsolutePath());
+    config.set(Property.TSERV_OFFHEAPMAP_ENABLED, "true");
+    InMemoryMap imm = new InMemoryMap(config, getServerContext(), TableId.of("--TEST--"));
+    assertEquals(InMemoryMap.TYPE_OFF_HEAP_MAP_WRAPPER, imm.getMapType());
+
+    mutate(imm, "r1", "foo:cq1", 3, "bar1");
+    mutate(imm, "r1", "foo:cq1", 3, "bar2");
+    MemoryIterator ski1 = imm.skvIterator(null);
+    mutate(imm, "r1", "foo:cq1", 3, "bar3");
+    mutate(imm, "r3", "foo:cq1", 3, "bar9");
+    assertEquals(4, imm.getNumEntries());
+
+    ski1.seek(new Range(new Text("r1")), Set.of(), false);
+    testAndCallNext(ski1, "r1", "foo:cq1", 3, "bar2");
+    testAndCallNext(ski1, "r1", "foo:cq1", 3, "bar1");
+    assertFalse(ski1.hasTop());
+
+    // iterators switch to a dump file when the map is deleted, so they still work after the off
+    // heap memory is freed
+    imm.delete(0);
+
+    ski1.seek(new Range(new Text("r1")), Set.of(), false);
+    testAndCallNext(ski1, "r1", "foo:cq1", 3, "bar2");
+    testAndCallNext(ski1, "r1", "foo:cq1", 3, "bar1");
+    assertFalse(ski1.hasTop());
+    ski1.close();
+
+    config.set(Property.TABLE_LOCALITY_GROUP_PREFIX + "lg1",
+        LocalityGroupUtil.encodeColumnFamilies(toTextSet("foo")));
+    config.set(Property.TABLE_LOCALITY_GROUPS.getKey(), "lg1");
+    imm = new InMemoryMap(config, getServerContext(), TableId.of("--TEST--"));
+    assertEquals(InMemoryMap.TYPE_LOCALITY_GROUP_MAP_OFF_HEAP, imm.getMapType());
+  }
+
   @Test
   public void test2() throws Exception {
     InMemoryMap imm = newInMemoryMap(false, tempFolder.newFolder().getAbsolutePath());
@@ -539,6 +577,122 @@ public class InMemoryMapTest {
     seekLocalityGroups(iter1.deepCopy(null));
   }
 
+  private static int countAndCheckRows(SortedKeyValueIterator<Key,Value> iter) throws IOException {
+    iter.seek(new Range(), Set.of(), false);
+    int count = 0;
+    Key prev = null;
+    int rowCount = 0;
+    while (iter.hasTop()) {
+      Key key = iter.getTopKey();
+      if (prev != null) {
+        assertTrue(prev.compareTo(key) <= 0);
+      }
+      if (prev == null || !prev.getRow().equals(key.getRow())) {
+        // each mutation wrote two columns, a partially visible mutation would leave one
+        assertTrue(prev == null || rowCount == 2);
+        rowCount = 0;
+      }
+      rowCount++;
+      count++;
+      prev = new Key(key);
+      iter.next();
+    }
+    assertTrue(prev == null || rowCount == 2);
+    return count;
+  }
+
+  @Test
+  public void testShardedConcurrentWrites() throws Exception {
+    ConfigurationCopy config = newConfig(tempFolder.newFolder().getAbsolutePath());
+    config.set(Property.TABLE_MEMORY_MAP_SHARDS, "4");
+    config.set(Property.TABLE_LOCALITY_GROUP_PREFIX + "lg1",
+        LocalityGroupUtil.encodeColumnFamilies(toTextSet("cf1")));
+    config.set(Property.TABLE_LOCALITY_GROUPS.getKey(), "lg1");
+
+    InMemoryMap imm = new InMemoryMap(config, getServerContext(), TableId.of("--TEST--"));
+
+    int numWriters = 8;
+    int mutationsPerWriter = 200;
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    AtomicBoolean writing = new AtomicBoolean(true);
+
+    Thread reader = new Thread(() -> {
+      try {
+        while (writing.get()) {
+          MemoryIterator iter = imm.skvIterator(null);
+          countAndCheckRows(iter);
+          iter.close();
+        }
+      } catch (Throwable t) {
+        failure.compareAndSet(null, t);
+      }
+    });
+    reader.start();
+
+    List<Thread> writers = new ArrayList<>();
+    for (int t = 0; t < numWriters; t++) {
+      int writer = t;
+      writers.add(new Thread(() -> {
+        try {
+          for (int i = 0; i < mutationsPerWriter; i++) {
+            Mutation m = new Mutation(String.format("r%d_%04d", writer, i));
+            m.put("cf1", "a", 2, "1");
+            m.put("foo", "b", 2, "2");
+            imm.mutate(Collections.singletonList(m), 2);
+          }
+        } catch (Throwable t2) {
+          failure.compareAndSet(null, t2);
+        }
+      }));
+    }
+    writers.forEach(Thread::start);
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    writing.set(false);
+    reader.join();
+
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+
+    int expected = numWriters * mutationsPerWriter * 2;
+    assertEquals(expected, imm.getNumEntries());
+    assertEquals(expected, countAndCheckRows(imm.compactionIterator()));
+
+    MemoryIterator iter = imm.skvIterator(null);
+    assertEquals(expected, countAndCheckRows(iter));
+    imm.delete(0);
+    // the iterator switched to a dump of the merged shards
+    assertEquals(expected, countAndCheckRows(iter));
+    iter.close();
+  }
+
+  @Test
+  public void testShardedOverwrites() throws Exception {
+    ConfigurationCopy config = newConfig(tempFolder.newFolder().getAbsolutePath());
+    config.set(Property.TABLE_MEMORY_MAP_SHARDS, "3");
+    InMemoryMap imm = new InMemoryMap(config, getServerContext(), TableId.of("--TEST--"));
+
+    // writes from different threads may land in different shards, the merged view must still
+    // return the newest write of a key first
+    for (int i = 1; i <= 3; i++) {
+      String value = "bar" + i;
+      Thread writer = new Thread(() -> mutate(imm, "r1", "foo:cq1", 3, value));
+      writer.start();
+      writer.join();
+    }
+    MemoryIterator ski1 = imm.skvIterator(null);
+    mutate(imm, "r1", "foo:cq1", 3, "bar4");
+
+    ski1.seek(new Range(new Text("r1")), Set.of(), false);
+    testAndCallNext(ski1, "r1", "foo:cq1", 3, "bar3");
+    testAndCallNext(ski1, "r1", "foo:cq1", 3, "bar2");
+    testAndCallNext(ski1, "r1", "foo:cq1", 3, "bar1");
+    assertFalse(ski1.hasTop());
+    assertEquals(4, imm.getNumEntries());
+  }
+
   @Test
   public void testSample() throws Exception {
 
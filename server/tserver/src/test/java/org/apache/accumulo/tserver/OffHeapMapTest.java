@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.util.CleanerUtil;
+import org.junit.Test;
+
+public class OffHeapMapTest {
+
+  private static String row(int r) {
+    return String.format("r%05d", r);
+  }
+
+  private static int insert(OffHeapMap map, TreeMap<Key,Value> expected, List<Mutation> mutations,
+      int kvCount) {
+    map.mutate(mutations, kvCount);
+    for (Mutation m : mutations) {
+      for (var cvp : m.getUpdates()) {
+        Key k = new MemKey(m.getRow(), cvp.getColumnFamily(), cvp.getColumnQualifier(),
+            cvp.getColumnVisibility(), cvp.getTimestamp(), cvp.isDeleted(), true, kvCount++);
+        expected.put(k, new Value(cvp.getValue()));
+      }
+    }
+    return kvCount;
+  }
+
+  private static void verify(SortedKeyValueIterator<Key,Value> iter,
+      Iterator<Entry<Key,Value>> expected) throws IOException {
+    while (expected.hasNext()) {
+      Entry<Key,Value> entry = expected.next();
+      assertTrue(iter.hasTop());
+      assertEquals(entry.getKey(), iter.getTopKey());
+      assertEquals(((MemKey) entry.getKey()).getKVCount(),
+          ((MemKey) iter.getTopKey()).getKVCount());
+      assertEquals(entry.getValue(), iter.getTopValue());
+      iter.next();
+    }
+    assertFalse(iter.hasTop());
+  }
+
+  @Test
+  public void testRandomInsertAndSeek() throws IOException {
+    Random random = new Random(42);
+    OffHeapMap map = new OffHeapMap();
+    TreeMap<Key,Value> expected = new TreeMap<>(new MemKeyComparator());
+
+    int kvCount = 1;
+    for (int i = 0; i < 200; i++) {
+      List<Mutation> mutations = new ArrayList<>();
+      for (int j = 0; j < 10; j++) {
+        Mutation m = new Mutation(row(random.nextInt(1000)));
+        int cols = 1 + random.nextInt(3);
+        for (int c = 0; c < cols; c++) {
+          String cf = "cf" + random.nextInt(3);
+          String cq = "cq" + random.nextInt(100);
+          byte[] val = new byte[random.nextInt(64)];
+          random.nextBytes(val);
+          if (random.nextInt(10) == 0) {
+            m.putDelete(cf, cq, random.nextInt(5));
+          } else {
+            m.put(cf, cq, new ColumnVisibility(random.nextBoolean() ? "A" : ""), random.nextInt(5),
+                new Value(val));
+          }
+        }
+        mutations.add(m);
+      }
+      kvCount = insert(map, expected, mutations, kvCount);
+    }
+
+    assertEquals(expected.size(), map.size());
+    assertTrue(map.getMemoryUsed() >= OffHeapMap.MIN_CHUNK_SIZE);
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    iter.seek(new Range(), Set.of(), false);
+    verify(iter, expected.entrySet().iterator());
+
+    for (int i = 0; i < 100; i++) {
+      String r1 = row(random.nextInt(1000));
+      String r2 = row(random.nextInt(1000));
+      if (r1.compareTo(r2) > 0) {
+        String t = r1;
+        r1 = r2;
+        r2 = t;
+      }
+      Range range = new Range(r1, random.nextBoolean(), r2, random.nextBoolean());
+      iter.seek(range, Set.of(), false);
+      Iterator<Entry<Key,Value>> expectedIter =
+          expected.entrySet().stream().filter(e -> range.contains(e.getKey())).iterator();
+      verify(iter, expectedIter);
+    }
+
+    // a deep copy sees the same data independently of the source
+    SortedKeyValueIterator<Key,Value> copy = iter.deepCopy(null);
+    copy.seek(new Range(), Set.of(), false);
+    verify(copy, expected.entrySet().iterator());
+  }
+
+  @Test
+  public void testNewestFirst() throws IOException {
+    OffHeapMap map = new OffHeapMap();
+    Mutation m1 = new Mutation("r1");
+    m1.put("cf", "cq", 3, "v1");
+    Mutation m2 = new Mutation("r1");
+    m2.put("cf", "cq", 3, "v2");
+    map.mutate(List.of(m1), 1);
+    map.mutate(List.of(m2), 2);
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    iter.seek(new Range("r1"), Set.of(), false);
+    assertEquals(new Value("v2"), iter.getTopValue());
+    assertEquals(2, ((MemKey) iter.getTopKey()).getKVCount());
+    iter.next();
+    assertEquals(new Value("v1"), iter.getTopValue());
+    assertEquals(1, ((MemKey) iter.getTopKey()).getKVCount());
+    iter.next();
+    assertFalse(iter.hasTop());
+  }
+
+  @Test
+  public void testLargeValues() throws IOException {
+    OffHeapMap map = new OffHeapMap();
+    TreeMap<Key,Value> expected = new TreeMap<>(new MemKeyComparator());
+
+    byte[] big = new byte[OffHeapMap.MAX_CHUNK_SIZE + 100];
+    new Random(7).nextBytes(big);
+
+    List<Mutation> mutations = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Mutation m = new Mutation(row(i));
+      m.put("cf", "small", "v" + i);
+      m.put("cf", "big", new Value(big));
+      mutations.add(m);
+    }
+    insert(map, expected, mutations, 1);
+
+    assertTrue(map.getMemoryUsed() > 3L * big.length);
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    iter.seek(new Range(), Set.of(), false);
+    verify(iter, expected.entrySet().iterator());
+  }
+
+  @Test
+  public void testDelete() throws IOException {
+    OffHeapMap map = new OffHeapMap();
+    Mutation m = new Mutation("r1");
+    m.put("cf", "cq", "v1");
+    map.mutate(List.of(m), 1);
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    map.delete();
+    assertEquals(0, map.getMemoryUsed());
+    assertThrows(IllegalStateException.class, () -> iter.seek(new Range(), Set.of(), false));
+    assertThrows(IllegalStateException.class, () -> map.mutate(List.of(m), 2));
+    assertThrows(IllegalStateException.class, map::delete);
+  }
+
+  @Test
+  public void testDeleteFreesChunks() throws IOException {
+    assumeTrue(CleanerUtil.UNMAP_SUPPORTED);
+    BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+        .filter(pool -> pool.getName().equals("direct")).findFirst().get();
+
+    OffHeapMap map = new OffHeapMap();
+    for (int i = 0; i < 1000; i++) {
+      Mutation m = new Mutation(String.format("r%04d", i));
+      m.put("cf", "cq", "v" + i);
+      map.mutate(List.of(m), i);
+    }
+    long capacity = direct.getTotalCapacity();
+    map.delete();
+    // freed without waiting for a garbage collection
+    assertTrue(direct.getTotalCapacity() <= capacity - OffHeapMap.MIN_CHUNK_SIZE);
+  }
+}
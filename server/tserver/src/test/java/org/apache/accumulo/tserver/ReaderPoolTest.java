@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import static org.easymock.EasyMock.createMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.junit.Test;
+
+public class ReaderPoolTest {
+
+  @Test
+  public void testTakeMostRecent() {
+    ReaderPool pool = new ReaderPool();
+    FileSKVIterator r1 = createMock(FileSKVIterator.class);
+    FileSKVIterator r2 = createMock(FileSKVIterator.class);
+
+    assertTrue(pool.opening(2, 10).isEmpty());
+    pool.release("f1", r1, 1);
+    pool.release("f1", r2, 2);
+    assertEquals(2, pool.getIdleCount());
+    assertEquals(2, pool.getOpenCount());
+
+    assertNull(pool.take("f2"));
+    assertSame(r2, pool.take("f1"));
+    assertSame(r1, pool.take("f1"));
+    assertNull(pool.take("f1"));
+    assertEquals(0, pool.getIdleCount());
+    assertEquals(2, pool.getOpenCount());
+  }
+
+  @Test
+  public void testCloseLeastRecent() {
+    ReaderPool pool = new ReaderPool();
+    FileSKVIterator r1 = createMock(FileSKVIterator.class);
+    FileSKVIterator r2 = createMock(FileSKVIterator.class);
+    FileSKVIterator r3 = createMock(FileSKVIterator.class);
+
+    pool.opening(3, 3);
+    pool.release("f2", r2, 2);
+    pool.release("f1", r1, 1);
+    pool.release("f3", r3, 3);
+
+    // opening two more files closes the two least recently released readers
+    assertEquals(List.of(r1, r2), pool.opening(2, 3));
+    assertEquals(3, pool.getOpenCount());
+    assertEquals(1, pool.getIdleCount());
+    assertNull(pool.take("f1"));
+
+    // nothing idle left to close, the limit is exceeded
+    assertSame(r3, pool.take("f3"));
+    assertTrue(pool.opening(1, 3).isEmpty());
+    assertEquals(4, pool.getOpenCount());
+    pool.closed(1);
+    assertEquals(3, pool.getOpenCount());
+  }
+
+  @Test
+  public void testTakeIdle() {
+    ReaderPool pool = new ReaderPool();
+    FileSKVIterator r1 = createMock(FileSKVIterator.class);
+    FileSKVIterator r2 = createMock(FileSKVIterator.class);
+    FileSKVIterator r3 = createMock(FileSKVIterator.class);
+
+    pool.opening(3, 10);
+    pool.release("f1", r1, 100);
+    pool.release("f1", r2, 200);
+    pool.release("f2", r3, 150);
+
+    List<FileSKVIterator> idle = pool.takeIdle(100, 275);
+    assertEquals(2, idle.size());
+    assertTrue(idle.contains(r1));
+    assertTrue(idle.contains(r3));
+    assertEquals(1, pool.getOpenCount());
+    assertSame(r2, pool.take("f1"));
+    assertNull(pool.take("f2"));
+  }
+}
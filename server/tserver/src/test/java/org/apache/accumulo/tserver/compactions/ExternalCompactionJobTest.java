@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.compactions;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.iterators.user.VersioningIterator;
+import org.apache.accumulo.core.metadata.StoredTabletFile;
+import org.apache.accumulo.core.metadata.TabletFile;
+import org.apache.accumulo.core.metadata.schema.DataFileValue;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class ExternalCompactionJobTest {
+
+  private static ExternalCompactionJob newJob() {
+    Map<StoredTabletFile,DataFileValue> files = new HashMap<>();
+    files.put(new StoredTabletFile("hdfs://nn1/accumulo/tables/5/t-0001/F0001.rf"),
+        new DataFileValue(1000, 10));
+    files.put(new StoredTabletFile("hdfs://nn1/accumulo/tables/5/t-0001/F0002.rf"),
+        new DataFileValue(2000, 20, 7));
+
+    IteratorSetting versions = new IteratorSetting(20, "vers", VersioningIterator.class);
+    versions.addOption("maxVersions", "2");
+
+    ConfigurationCopy tableConfig = new ConfigurationCopy();
+    tableConfig.set(Property.TABLE_FILE_COMPRESSION_TYPE, "snappy");
+
+    return new ExternalCompactionJob(new KeyExtent(TableId.of("5"), new Text("m"), null), files,
+        new TabletFile(new Path("hdfs://nn1/accumulo/tables/5/t-0001/A0003.rf_tmp")), true,
+        List.of(versions), 2, tableConfig, 1_000_000);
+  }
+
+  @Test
+  public void testEncodeDecode() {
+    ExternalCompactionJob job = newJob();
+    byte[] encoded = job.encode();
+
+    ExternalCompactionJob decoded = ExternalCompactionJob.decode(encoded);
+    assertEquals(job.getExtent(), decoded.getExtent());
+    assertEquals(job.getOutputFile(), decoded.getOutputFile());
+    assertEquals(1_000_000, decoded.getRateLimit());
+    // files, iterators and table properties survive when a decoded job encodes to the same bytes
+    assertArrayEquals(encoded, decoded.encode());
+  }
+
+  @Test
+  public void testDecodeUnexpectedData() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ExternalCompactionJob.decode("not a compaction job".getBytes(UTF_8)));
+
+    byte[] encoded = newJob().encode();
+    // the version follows the magic number
+    encoded[4]++;
+    assertThrows(IllegalArgumentException.class, () -> ExternalCompactionJob.decode(encoded));
+  }
+}
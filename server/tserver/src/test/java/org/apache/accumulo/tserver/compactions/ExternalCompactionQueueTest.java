@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.compactions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.accumulo.core.metadata.TabletFile;
+import org.apache.accumulo.tserver.tablet.CompactionStats;
+import org.apache.hadoop.fs.Path;
+import org.junit.Test;
+
+public class ExternalCompactionQueueTest {
+
+  @Test
+  public void testEncodeDecodeResult() throws IOException {
+    CompactionStats stats = new CompactionStats(100, 42);
+    stats.setFileSize(4096);
+    TabletFile outputFile =
+        new TabletFile(new Path("hdfs://nn1/accumulo/tables/5/t-0001/A0003.rf_tmp"));
+
+    byte[] result = ExternalCompactionQueue.encodeResult(stats, outputFile);
+
+    CompactionStats decoded = ExternalCompactionQueue.decodeResult(result);
+    assertEquals(100, decoded.getEntriesRead());
+    assertEquals(42, decoded.getEntriesWritten());
+    assertEquals(4096, decoded.getFileSize());
+    assertEquals(outputFile.getPathStr(), ExternalCompactionQueue.decodeOutputFile(result));
+  }
+
+  @Test
+  public void testEncodeDecodeFailure() {
+    byte[] result = ExternalCompactionQueue.encodeFailure(new IOException("disk full"));
+
+    IOException e =
+        assertThrows(IOException.class, () -> ExternalCompactionQueue.decodeResult(result));
+    assertTrue(e.getMessage(), e.getMessage().contains("disk full"));
+    // the compactor deletes the output file of a failed job
+    assertNull(ExternalCompactionQueue.decodeOutputFile(result));
+  }
+}
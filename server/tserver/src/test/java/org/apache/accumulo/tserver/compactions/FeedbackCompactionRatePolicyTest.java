@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.compactions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class FeedbackCompactionRatePolicyTest {
+
+  private static final long MB = 1 << 20;
+
+  private static CompactionRatePolicy.Signals signals(long configuredRate, double scanWaitMillis,
+      double walSyncMillis, long throughput) {
+    return signals(configuredRate, scanWaitMillis, walSyncMillis, throughput, throughput);
+  }
+
+  private static CompactionRatePolicy.Signals signals(long configuredRate, double scanWaitMillis,
+      double walSyncMillis, long readThroughput, long writeThroughput) {
+    return new CompactionRatePolicy.Signals() {
+      @Override
+      public long getConfiguredRate() {
+        return configuredRate;
+      }
+
+      @Override
+      public double getScanWaitMillis() {
+        return scanWaitMillis;
+      }
+
+      @Override
+      public double getWalSyncMillis() {
+        return walSyncMillis;
+      }
+
+      @Override
+      public long getReadThroughput() {
+        return readThroughput;
+      }
+
+      @Override
+      public long getWriteThroughput() {
+        return writeThroughput;
+      }
+    };
+  }
+
+  private static FeedbackCompactionRatePolicy createPolicy() {
+    var policy = new FeedbackCompactionRatePolicy();
+    policy.init(Map.of("maxRate", "100M", "minRate", "10M", "scanWaitTarget", "100ms",
+        "walSyncTarget", "50ms", "backoff", "0.5", "increase", "0.1"));
+    return policy;
+  }
+
+  @Test
+  public void testBackoff() {
+    var policy = createPolicy();
+
+    // starts at the highest rate
+    assertEquals(100 * MB, policy.getRate(signals(0, 0, 0, 0)));
+
+    // slow scans or slow write-ahead log writes halve the rate
+    assertEquals(50 * MB, policy.getRate(signals(0, 150, 0, 100 * MB)));
+    assertEquals(25 * MB, policy.getRate(signals(0, 0, 60, 50 * MB)));
+    assertEquals(12.5 * MB, policy.getRate(signals(0, 150, 60, 25 * MB)), 1);
+
+    // never goes below the lowest rate
+    assertEquals(10 * MB, policy.getRate(signals(0, 150, 60, 12 * MB)));
+    assertEquals(10 * MB, policy.getRate(signals(0, 150, 60, 10 * MB)));
+  }
+
+  @Test
+  public void testIncrease() {
+    var policy = createPolicy();
+    policy.getRate(signals(0, 0, 0, 0));
+    assertEquals(50 * MB, policy.getRate(signals(0, 150, 0, 100 * MB)));
+
+    // compactions do not use their rate, so it is not raised
+    assertEquals(50 * MB, policy.getRate(signals(0, 0, 0, 10 * MB)));
+
+    // compactions use their rate and latencies are low, so it is raised by 10% of the highest rate
+    assertEquals(60 * MB, policy.getRate(signals(0, 0, 0, 50 * MB)));
+    assertEquals(70 * MB, policy.getRate(signals(0, 0, 0, 60 * MB)));
+
+    // never goes above the highest rate
+    for (int i = 0; i < 10; i++) {
+      policy.getRate(signals(0, 0, 0, 100 * MB));
+    }
+    assertEquals(100 * MB, policy.getRate(signals(0, 0, 0, 100 * MB)));
+  }
+
+  @Test
+  public void testReadAndWriteThroughput() {
+    var policy = createPolicy();
+    policy.getRate(signals(0, 0, 0, 0));
+    assertEquals(50 * MB, policy.getRate(signals(0, 150, 0, 100 * MB)));
+
+    // reads and writes are limited separately, together they use 80% of the rate but each only
+    // uses 40% of it, so the rate is not raised
+    assertEquals(20 * MB, signals(0, 0, 0, 20 * MB, 20 * MB).getCompactionThroughput());
+    assertEquals(50 * MB, policy.getRate(signals(0, 0, 0, 20 * MB, 20 * MB)));
+
+    // either one using the rate is enough to raise it
+    assertEquals(60 * MB, policy.getRate(signals(0, 0, 0, 45 * MB, 5 * MB)));
+    assertEquals(70 * MB, policy.getRate(signals(0, 0, 0, 5 * MB, 50 * MB)));
+  }
+
+  @Test
+  public void testConfiguredRate() {
+    var policy = createPolicy();
+
+    // the configured rate of the service is the highest rate
+    assertEquals(40 * MB, policy.getRate(signals(40 * MB, 0, 0, 0)));
+    assertEquals(40 * MB, policy.getRate(signals(40 * MB, 0, 0, 40 * MB)));
+    assertEquals(20 * MB, policy.getRate(signals(40 * MB, 150, 0, 40 * MB)));
+
+    // a configured rate below the lowest rate is still used
+    assertEquals(5 * MB, policy.getRate(signals(5 * MB, 0, 0, 5 * MB)));
+    assertEquals(5 * MB, policy.getRate(signals(5 * MB, 150, 0, 5 * MB)));
+  }
+
+  @Test
+  public void testStatic() {
+    var policy = new StaticCompactionRatePolicy();
+    policy.init(Map.of());
+    assertEquals(0, policy.getRate(signals(0, 150, 60, 0)));
+    assertEquals(40 * MB, policy.getRate(signals(40 * MB, 150, 60, 40 * MB)));
+  }
+}
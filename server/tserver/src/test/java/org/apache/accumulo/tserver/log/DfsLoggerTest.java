@@ -19,15 +19,38 @@
 package org.apache.accumulo.tserver.log;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.client.Durability;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.server.fs.VolumeManager;
 import org.apache.accumulo.tserver.TabletMutations;
+import org.apache.accumulo.tserver.log.DfsLogger.LogClosedException;
+import org.apache.accumulo.tserver.log.DfsLogger.LoggerOperation;
+import org.apache.accumulo.tserver.log.DfsLogger.ServerResources;
 import org.apache.accumulo.tserver.tablet.CommitSession;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Syncable;
 import org.easymock.EasyMock;
 import org.junit.Test;
 
@@ -76,4 +99,195 @@ public class DfsLoggerTest {
     return result;
   }
 
+  /**
+   * A log file stream whose syncs block until released, so a test can queue work behind a sync
+   * that is in progress.
+   */
+  private static class BlockingSyncStream extends OutputStream implements Syncable {
+    final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    final CountDownLatch syncStarted = new CountDownLatch(1);
+    final CountDownLatch releaseSync = new CountDownLatch(1);
+    final AtomicInteger syncs = new AtomicInteger();
+    volatile IOException writeFailure;
+    volatile IOException syncFailure;
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+      if (writeFailure != null)
+        throw writeFailure;
+      written.write(b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+      if (writeFailure != null)
+        throw writeFailure;
+      written.write(b, off, len);
+    }
+
+    @Override
+    public void hflush() throws IOException {
+      hsync();
+    }
+
+    @Override
+    public void hsync() throws IOException {
+      syncs.incrementAndGet();
+      syncStarted.countDown();
+      try {
+        releaseSync.await();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      if (syncFailure != null)
+        throw syncFailure;
+    }
+  }
+
+  private static DfsLogger openLogger(BlockingSyncStream stream, AtomicLong syncs)
+      throws IOException {
+    ServerResources resources = new ServerResources() {
+      @Override
+      public AccumuloConfiguration getConfiguration() {
+        return DefaultConfiguration.getInstance();
+      }
+
+      @Override
+      public VolumeManager getVolumeManager() {
+        throw new UnsupportedOperationException();
+      }
+    };
+    DfsLogger logger = new DfsLogger(null, resources, syncs, new AtomicLong(), null);
+    logger.open("/accumulo/wal/localhost+9997/" + UUID.randomUUID(),
+        new FSDataOutputStream(stream, null));
+    return logger;
+  }
+
+  private static CommitSession commitSession() {
+    CommitSession commitSession = EasyMock.createNiceMock(CommitSession.class);
+    EasyMock.replay(commitSession);
+    return commitSession;
+  }
+
+  private static Mutation mutation(int row) {
+    Mutation m = new Mutation("row" + row);
+    m.put("cf", "cq", "value" + row);
+    return m;
+  }
+
+  /**
+   * Has each thread log a mutation while the first sync is blocked, and returns the operations the
+   * threads got back once all of them are queued.
+   */
+  private static List<LoggerOperation> logConcurrently(DfsLogger logger, int threads)
+      throws Exception {
+    CommitSession commitSession = commitSession();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CyclicBarrier barrier = new CyclicBarrier(threads);
+      List<Future<LoggerOperation>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        int row = i;
+        futures.add(executor.submit(() -> {
+          barrier.await();
+          return logger.log(commitSession, mutation(row), Durability.SYNC);
+        }));
+      }
+      List<LoggerOperation> ops = new ArrayList<>();
+      for (Future<LoggerOperation> future : futures) {
+        ops.add(future.get());
+      }
+      return ops;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void testConcurrentWritersShareSync() throws Exception {
+    BlockingSyncStream stream = new BlockingSyncStream();
+    AtomicLong syncs = new AtomicLong();
+    DfsLogger logger = openLogger(stream, syncs);
+
+    // block the sync thread in a sync for the first mutation
+    LoggerOperation first = logger.log(commitSession(), mutation(-1), Durability.SYNC);
+    stream.syncStarted.await();
+
+    List<LoggerOperation> ops = logConcurrently(logger, 8);
+    stream.releaseSync.countDown();
+    first.await();
+    for (LoggerOperation op : ops) {
+      op.await();
+    }
+
+    // the eight writers queued behind the first sync share the second one
+    assertEquals(2, stream.syncs.get());
+    assertEquals(2, syncs.get());
+    assertEquals(9, logger.getWrites());
+    logger.close();
+  }
+
+  @Test(timeout = 60_000)
+  public void testSyncFailureReachesEveryWaiter() throws Exception {
+    BlockingSyncStream stream = new BlockingSyncStream();
+    DfsLogger logger = openLogger(stream, new AtomicLong());
+
+    LoggerOperation first = logger.log(commitSession(), mutation(-1), Durability.SYNC);
+    stream.syncStarted.await();
+    List<LoggerOperation> ops = logConcurrently(logger, 8);
+    ops.add(first);
+
+    IOException failure = new IOException("sync failed");
+    stream.syncFailure = failure;
+    stream.releaseSync.countDown();
+    for (LoggerOperation op : ops) {
+      try {
+        op.await();
+        fail("expected the sync failure");
+      } catch (IOException e) {
+        assertSame(failure, e);
+      }
+    }
+    logger.close();
+  }
+
+  @Test(timeout = 60_000)
+  public void testWriteFailureReachesEveryWaiter() throws Exception {
+    BlockingSyncStream stream = new BlockingSyncStream();
+    stream.releaseSync.countDown();
+    DfsLogger logger = openLogger(stream, new AtomicLong());
+
+    IOException failure = new IOException("write failed");
+    stream.writeFailure = failure;
+    for (LoggerOperation op : logConcurrently(logger, 8)) {
+      try {
+        op.await();
+        fail("expected the write failure");
+      } catch (IOException e) {
+        assertSame(failure, e);
+      }
+    }
+    assertEquals(0, logger.getWrites());
+    logger.close();
+  }
+
+  @Test(timeout = 60_000)
+  public void testClosedLogRejectsAppends() throws Exception {
+    BlockingSyncStream stream = new BlockingSyncStream();
+    stream.releaseSync.countDown();
+    DfsLogger logger = openLogger(stream, new AtomicLong());
+    logger.log(commitSession(), mutation(0), Durability.SYNC).await();
+    int length = stream.written.size();
+    assertTrue(length > 0);
+    logger.close();
+
+    try {
+      logger.log(commitSession(), mutation(1), Durability.SYNC);
+      fail("expected the closed log to reject the append");
+    } catch (LogClosedException e) {
+      // expected
+    }
+    assertEquals(length, stream.written.size());
+    assertEquals(1, logger.getWrites());
+  }
 }
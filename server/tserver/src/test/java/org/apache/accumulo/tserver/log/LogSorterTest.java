@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.server.data.ServerMutation;
+import org.apache.accumulo.server.fs.VolumeManager;
+import org.apache.accumulo.server.fs.VolumeManagerImpl;
+import org.apache.accumulo.server.log.SortedLogState;
+import org.apache.accumulo.tserver.logger.LogEvents;
+import org.apache.accumulo.tserver.logger.LogFileKey;
+import org.apache.accumulo.tserver.logger.LogFileValue;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+@SuppressFBWarnings(value = "PATH_TRAVERSAL_IN", justification = "paths not set by user input")
+public class LogSorterTest {
+
+  private VolumeManager fs;
+  private ServerContext context;
+  private Path root;
+
+  @Rule
+  public TemporaryFolder tempFolder =
+      new TemporaryFolder(new File(System.getProperty("user.dir"), "target"));
+
+  @Before
+  public void setUp() throws Exception {
+    File workDir = tempFolder.newFolder();
+    fs = VolumeManagerImpl.getLocalForTesting(workDir.getAbsolutePath());
+    root = new Path("file://" + workDir.getAbsolutePath());
+    context = createMock(ServerContext.class);
+    expect(context.getVolumeManager()).andReturn(fs).anyTimes();
+    replay(context);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    fs.close();
+  }
+
+  private static String describe(LogFileKey key, LogFileValue value) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(key.event);
+    if (key.event != LogEvents.OPEN) {
+      sb.append(' ').append(key.tabletId).append(' ').append(key.seq);
+    }
+    value.mutations.forEach(m -> sb.append(' ').append(new String(m.getRow(), UTF_8)));
+    return sb.toString();
+  }
+
+  @Test
+  public void testParallelSort() throws Exception {
+    ConfigurationCopy conf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    // a small buffer splits the log into many parts, written by several threads
+    conf.set(Property.TSERV_SORT_BUFFER_SIZE, "2K");
+    conf.set(Property.TSERV_WAL_SORT_MAX_CONCURRENT, "4");
+
+    Random rand = new Random(42);
+    List<String> expected = new ArrayList<>();
+    Path wal = new Path(root, "wal");
+    try (FSDataOutputStream out = fs.create(wal)) {
+      out.write(DfsLogger.LOG_FILE_HEADER_V3.getBytes(UTF_8));
+      out.writeUTF("NullCryptoModule");
+
+      LogFileKey open = new LogFileKey();
+      open.event = LogEvents.OPEN;
+      open.tserverSession = "session";
+      open.write(out);
+      new LogFileValue().write(out);
+      expected.add(describe(open, new LogFileValue()));
+
+      for (int i = 0; i < 1000; i++) {
+        LogFileKey key = new LogFileKey();
+        LogFileValue value = new LogFileValue();
+        if (i % 100 == 0) {
+          key.event = LogEvents.DEFINE_TABLET;
+          key.tablet = new KeyExtent(TableId.of("1"), new Text("r" + i), null);
+        } else {
+          key.event = LogEvents.MUTATION;
+          ServerMutation m = new ServerMutation(new Text(String.format("row%04d", i)));
+          m.put("cf", "cq", "value" + i);
+          m.setSystemTimestamp(i);
+          value.mutations = List.of(m);
+        }
+        key.tabletId = rand.nextInt(5);
+        key.seq = rand.nextInt(50);
+        key.write(out);
+        value.write(out);
+        expected.add(describe(key, value));
+      }
+    }
+
+    String dest = root + "/sorted";
+    new LogSorter(context, conf).new LogProcessor().sort("wal", wal, dest);
+
+    assertTrue(fs.exists(SortedLogState.getFinishedMarkerPath(dest)));
+    assertFalse(fs.exists(SortedLogState.getFailedMarkerPath(dest)));
+    assertTrue(fs.listStatus(new Path(dest)).length > 5);
+
+    List<String> actual = new ArrayList<>();
+    LogFileKey previous = null;
+    try (RecoveryLogReader reader = new RecoveryLogReader(fs, new Path(dest))) {
+      while (reader.hasNext()) {
+        Entry<LogFileKey,LogFileValue> entry = reader.next();
+        if (previous != null) {
+          assertTrue(previous.compareTo(entry.getKey()) <= 0);
+        }
+        previous = entry.getKey();
+        actual.add(describe(entry.getKey(), entry.getValue()));
+      }
+    }
+
+    Collections.sort(expected);
+    Collections.sort(actual);
+    assertEquals(expected, actual);
+  }
+}
@@ -29,6 +29,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.crypto.CryptoServiceFactory;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVWriter;
 import org.apache.accumulo.server.fs.VolumeManager;
 import org.apache.accumulo.server.fs.VolumeManagerImpl;
 import org.apache.accumulo.server.log.SortedLogState;
@@ -213,4 +219,79 @@ public class RecoveryLogsReaderTest {
     assertTrue(fs.delete(new Path(manyMaps, SortedLogState.FAILED.getMarker())));
   }
 
+  private static LogFileKey logKey(LogEvents event, int tabletId, long seq) {
+    LogFileKey key = new LogFileKey();
+    key.event = event;
+    key.tabletId = tabletId;
+    key.seq = seq;
+    key.tablet = new KeyExtent(TableId.of("1"), null, null);
+    key.filename = "/t/f1.rf";
+    return key;
+  }
+
+  private void writeRFilePart(Path part, List<LogFileKey> keys) throws IOException {
+    FileSystem ns = fs.getFileSystemByPath(part);
+    try (FileSKVWriter writer = FileOperations.getInstance().newWriterBuilder()
+        .forFile(part.toString(), ns, ns.getConf(), CryptoServiceFactory.newDefaultInstance())
+        .withTableConfiguration(DefaultConfiguration.getInstance()).build()) {
+      writer.startDefaultLocalityGroup();
+      long timestamp = keys.size();
+      for (LogFileKey key : keys) {
+        writer.append(RecoveryLogReader.toKey(key, timestamp--),
+            RecoveryLogReader.toValue(key, new LogFileValue()));
+      }
+    }
+  }
+
+  @Test
+  public void testRFileParts() throws IOException {
+    Path dir = new Path("file://" + tempFolder.newFolder().getAbsolutePath());
+    fs.create(new Path(dir, "finished")).close();
+
+    LogFileKey open = new LogFileKey();
+    open.event = LogEvents.OPEN;
+    open.tserverSession = "session";
+
+    List<LogFileKey> part0 = new ArrayList<>();
+    part0.add(open);
+    part0.add(logKey(LogEvents.DEFINE_TABLET, 1, 1));
+    part0.add(logKey(LogEvents.MUTATION, 1, 3));
+    part0.add(logKey(LogEvents.MUTATION, 1, 3));
+    part0.add(logKey(LogEvents.MANY_MUTATIONS, 1, 7));
+    writeRFilePart(new Path(dir, "part-r-00000.rf"), part0);
+
+    List<LogFileKey> part1 = new ArrayList<>();
+    part1.add(logKey(LogEvents.COMPACTION_START, 1, 4));
+    part1.add(logKey(LogEvents.COMPACTION_FINISH, 1, 4));
+    part1.add(logKey(LogEvents.MUTATION, 1, 5));
+    part1.add(logKey(LogEvents.MUTATION, 2, 1));
+    writeRFilePart(new Path(dir, "part-r-00001.rf"), part1);
+
+    LogFileKey[] expected =
+        {open, logKey(LogEvents.DEFINE_TABLET, 1, 1), logKey(LogEvents.COMPACTION_START, 1, 4),
+            logKey(LogEvents.COMPACTION_FINISH, 1, 4), logKey(LogEvents.MUTATION, 1, 3),
+            logKey(LogEvents.MUTATION, 1, 3), logKey(LogEvents.MUTATION, 1, 5),
+            logKey(LogEvents.MANY_MUTATIONS, 1, 7), logKey(LogEvents.MUTATION, 2, 1)};
+
+    try (RecoveryLogReader reader = new RecoveryLogReader(fs, dir)) {
+      for (LogFileKey key : expected) {
+        assertTrue(reader.hasNext());
+        LogFileKey actual = reader.next().getKey();
+        assertEquals(key.event, actual.event);
+        assertEquals(0, key.compareTo(actual));
+      }
+      assertFalse(reader.hasNext());
+    }
+
+    // the start of the range is inclusive, entries with equal keys are all returned
+    try (RecoveryLogReader reader = new RecoveryLogReader(fs, dir, logKey(LogEvents.MUTATION, 1, 3),
+        logKey(LogEvents.MUTATION, 1, 5))) {
+      for (int i = 4; i < 7; i++) {
+        assertTrue(reader.hasNext());
+        assertEquals(0, expected[i].compareTo(reader.next().getKey()));
+      }
+      assertFalse(reader.hasNext());
+    }
+  }
+
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ScanBatchSizerTest {
+
+  private static final long MS = 1_000_000L;
+
+  @Test
+  public void testShrinkAndGrow() {
+    ScanBatchSizer sizer = new ScanBatchSizer();
+    assertEquals(1000, sizer.scaleEntries(1000));
+    assertEquals(512 * 1024, sizer.scaleBytes(512 * 1024));
+
+    // batch sat unread far longer than it took to read
+    sizer.batchTaken(false, 500 * MS, 10 * MS, 0.5);
+    assertEquals(500, sizer.scaleEntries(1000));
+    assertEquals(256 * 1024, sizer.scaleBytes(512 * 1024));
+
+    // heap is nearly full
+    sizer.batchTaken(true, 0, 10 * MS, 0.9);
+    assertEquals(250, sizer.scaleEntries(1000));
+
+    // client had to wait, so grow back but never past the requested size
+    sizer.batchTaken(true, 0, 10 * MS, 0.5);
+    assertEquals(500, sizer.scaleEntries(1000));
+    sizer.batchTaken(true, 0, 10 * MS, 0.5);
+    sizer.batchTaken(true, 0, 10 * MS, 0.5);
+    assertEquals(1000, sizer.scaleEntries(1000));
+    assertEquals(512 * 1024, sizer.scaleBytes(512 * 1024));
+  }
+
+  @Test
+  public void testClientLimitByDefault() {
+    ScanBatchSizer sizer = new ScanBatchSizer();
+    for (int i = 0; i < 100; i++) {
+      sizer.batchTaken(true, 0, 0, 0.5);
+    }
+    assertEquals(1.0, sizer.getScale(), 0.0);
+    assertEquals(1000, sizer.scaleEntries(1000));
+    assertEquals(512 * 1024, sizer.scaleBytes(512 * 1024));
+  }
+
+  @Test
+  public void testGrowthAllowed() {
+    ScanBatchSizer sizer = new ScanBatchSizer();
+    sizer.allowGrowth();
+    sizer.batchTaken(true, 0, 10 * MS, 0.5);
+    // past the requested entries, while the bytes stay within the table's limit
+    assertEquals(2000, sizer.scaleEntries(1000));
+    assertEquals(512 * 1024, sizer.scaleBytes(512 * 1024));
+  }
+
+  @Test
+  public void testMaximums() {
+    ScanBatchSizer sizer = new ScanBatchSizer();
+    sizer.allowGrowth();
+    for (int i = 0; i < 100; i++) {
+      sizer.batchTaken(true, 0, 0, 0.5);
+    }
+    assertEquals(ScanBatchSizer.MAX_SCALE, sizer.getScale(), 0.0);
+    assertEquals((int) (1000 * ScanBatchSizer.MAX_SCALE), sizer.scaleEntries(1000));
+    assertEquals(Integer.MAX_VALUE, sizer.scaleEntries(Integer.MAX_VALUE));
+    assertEquals(512 * 1024, sizer.scaleBytes(512 * 1024));
+  }
+
+  @Test
+  public void testHeapUsed() {
+    double heapUsed = ScanBatchSizer.heapUsed();
+    assertTrue("heap used " + heapUsed, heapUsed >= 0.0 && heapUsed <= 1.0);
+  }
+
+  @Test
+  public void testNoChange() {
+    ScanBatchSizer sizer = new ScanBatchSizer();
+    sizer.batchTaken(false, 500 * MS, 10 * MS, 0.5);
+
+    // batch was ready but only idle briefly
+    sizer.batchTaken(false, 20 * MS, 1 * MS, 0.5);
+    // batch was ready and idle for less than the time taken to read it
+    sizer.batchTaken(false, 300 * MS, 200 * MS, 0.5);
+    assertEquals(0.5, sizer.getScale(), 0.0);
+  }
+
+  @Test
+  public void testMinimums() {
+    ScanBatchSizer sizer = new ScanBatchSizer();
+    for (int i = 0; i < 100; i++) {
+      sizer.batchTaken(false, 0, 0, 1.0);
+    }
+    assertEquals(ScanBatchSizer.MIN_SCALE, sizer.getScale(), 0.0);
+    assertEquals(ScanBatchSizer.MIN_ENTRIES, sizer.scaleEntries(1000));
+    assertEquals(ScanBatchSizer.MIN_BYTES, sizer.scaleBytes(512 * 1024));
+    // limits already below the minimums are left alone
+    assertEquals(5, sizer.scaleEntries(5));
+    assertEquals(1024, sizer.scaleBytes(1024));
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.securityImpl.thrift.TCredentials;
+import org.junit.Test;
+
+public class SessionManagerTest {
+
+  private static SessionManager newManager(String maxIdle) {
+    ConfigurationCopy config = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    config.set(Property.TSERV_SESSION_MAXIDLE, maxIdle);
+    return new SessionManager(config);
+  }
+
+  private static Session newSession() {
+    return new SummarySession(new TCredentials(), new CompletableFuture<>());
+  }
+
+  @Test
+  public void testReservation() {
+    SessionManager manager = newManager("1h");
+    SessionStats stats = manager.getSessionStats().get("summary");
+
+    Session session = newSession();
+    long sid = manager.createSession(session, true);
+    assertEquals(1, stats.getActive());
+    assertEquals(1, stats.getReserved());
+    assertThrows(IllegalStateException.class, () -> manager.reserveSession(sid));
+
+    manager.unreserveSession(session);
+    assertEquals(0, stats.getReserved());
+    assertThrows(IllegalStateException.class, () -> manager.unreserveSession(session));
+
+    assertSame(session, manager.reserveSession(sid));
+    assertEquals(1, stats.getReserved());
+
+    assertSame(session, manager.removeSession(sid, true));
+    assertEquals(0, stats.getActive());
+    assertEquals(0, stats.getReserved());
+    assertEquals(0, stats.getExpired());
+    assertNull(manager.reserveSession(sid));
+    assertNull(manager.getSession(sid));
+  }
+
+  @Test
+  public void testReservationWait() throws Exception {
+    SessionManager manager = newManager("1h");
+    SessionStats stats = manager.getSessionStats().get("summary");
+
+    Session session = newSession();
+    long sid = manager.createSession(session, true);
+
+    Thread unreserver = new Thread(() -> {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      manager.unreserveSession(session);
+    });
+    unreserver.start();
+
+    assertSame(session, manager.reserveSession(sid, true));
+    unreserver.join();
+    assertEquals(1, stats.getReserved());
+    assertTrue(stats.getReservationWaitMillis() > 0);
+    manager.removeSession(sid, true);
+  }
+
+  @Test(timeout = 30_000)
+  public void testIdleExpiration() throws Exception {
+    SessionManager manager = newManager("200ms");
+    SessionStats stats = manager.getSessionStats().get("summary");
+
+    Session idle = newSession();
+    long idleId = manager.createSession(idle, false);
+    Session reserved = newSession();
+    long reservedId = manager.createSession(reserved, true);
+
+    while (stats.getExpired() == 0) {
+      Thread.sleep(50);
+    }
+
+    assertNull(manager.getSession(idleId));
+    // reserved sessions never expire
+    assertSame(reserved, manager.getSession(reservedId));
+    assertEquals(1, stats.getExpired());
+    assertEquals(1, stats.getActive());
+    manager.removeSession(reservedId, true);
+  }
+
+  @Test(timeout = 30_000)
+  public void testRemovedSessionNotRetained() throws Exception {
+    SessionManager manager = newManager("1h");
+
+    Session session = newSession();
+    long sid = manager.createSession(session, false);
+    WeakReference<Session> ref = new WeakReference<>(session);
+    session = null;
+
+    // the idle timer of the session is not due for an hour, it must not keep the session reachable
+    manager.removeSession(sid);
+    while (ref.get() != null) {
+      System.gc();
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.securityImpl.thrift.TCredentials;
+import org.apache.accumulo.tserver.scan.ScanParameters;
+import org.apache.accumulo.tserver.scan.ScanTask;
+import org.apache.accumulo.tserver.tablet.ScanBatch;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class SingleScanSessionTest {
+
+  private static SingleScanSession newSession(long readaheadThreshold, int window,
+      List<ScanTask<ScanBatch>> started) {
+    ScanParameters params = new ScanParameters(1000, Authorizations.EMPTY, Collections.emptySet(),
+        Collections.emptyList(), Collections.emptyMap(), false, null, 0, null);
+    SingleScanSession session = new SingleScanSession(new TCredentials(),
+        new KeyExtent(TableId.of("1"), null, null), params, readaheadThreshold, window, null);
+    session.batchTaskFactory = () -> {
+      @SuppressWarnings("unchecked")
+      ScanTask<ScanBatch> task = EasyMock.createNiceMock(ScanTask.class);
+      EasyMock.replay(task);
+      return task;
+    };
+    session.batchTaskExecutor = started::add;
+    return session;
+  }
+
+  @Test
+  public void testPipelineWindow() {
+    List<ScanTask<ScanBatch>> started = new ArrayList<>();
+    SingleScanSession session = newSession(0, 3, started);
+    session.batchCount = 1;
+
+    session.startNextBatch();
+    assertEquals(1, started.size());
+    assertSame(started.get(0), session.nextBatchTask);
+
+    // already reading the next batch
+    session.startNextBatch();
+    assertEquals(1, started.size());
+
+    session.batchRead(started.get(0), true);
+    assertEquals(2, started.size());
+    session.batchRead(started.get(1), true);
+    assertEquals(3, started.size());
+
+    // window is full
+    session.batchRead(started.get(2), true);
+    assertEquals(3, started.size());
+
+    // taking a batch makes room for the next
+    session.nextBatchTaken();
+    assertSame(started.get(1), session.nextBatchTask);
+    assertEquals(4, started.size());
+
+    // the last batch read has no data after it
+    session.batchRead(started.get(3), false);
+    session.nextBatchTaken();
+    session.nextBatchTaken();
+    session.nextBatchTaken();
+    assertNull(session.nextBatchTask);
+    assertEquals(4, started.size());
+  }
+
+  @Test
+  public void testReadaheadThreshold() {
+    List<ScanTask<ScanBatch>> started = new ArrayList<>();
+    SingleScanSession session = newSession(3, 3, started);
+
+    session.startNextBatch();
+    session.batchRead(started.get(0), true);
+    // the client has not read enough batches to read ahead of it
+    assertEquals(1, started.size());
+
+    session.batchCount = 4;
+    session.nextBatchTaken();
+    assertNull(session.nextBatchTask);
+    session.startNextBatch();
+    session.batchRead(started.get(1), true);
+    assertEquals(3, started.size());
+  }
+
+  @Test
+  public void testDefaultWindow() {
+    List<ScanTask<ScanBatch>> started = new ArrayList<>();
+    SingleScanSession session = newSession(0, 1, started);
+    session.batchCount = 1;
+
+    session.startNextBatch();
+    session.batchRead(started.get(0), true);
+    assertEquals(1, started.size());
+  }
+}
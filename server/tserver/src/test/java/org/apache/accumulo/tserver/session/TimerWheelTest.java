@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimerWheelTest {
+
+  @Test
+  public void testAdvance() {
+    TimerWheel<String> wheel = new TimerWheel<>(8, 10, 1000);
+    wheel.schedule("a", 1025);
+    wheel.schedule("b", 1031);
+    wheel.schedule("c", 1099);
+
+    List<String> due = new ArrayList<>();
+    wheel.advance(1024, due);
+    assertTrue(due.isEmpty());
+
+    wheel.advance(1030, due);
+    assertEquals(List.of("a"), due);
+
+    // the tick containing b has not ended
+    due.clear();
+    wheel.advance(1031, due);
+    assertTrue(due.isEmpty());
+    wheel.advance(1040, due);
+    assertEquals(List.of("b"), due);
+
+    due.clear();
+    wheel.advance(1098, due);
+    assertTrue(due.isEmpty());
+    wheel.advance(1100, due);
+    assertEquals(List.of("c"), due);
+  }
+
+  @Test
+  public void testBeyondOneTurn() {
+    TimerWheel<String> wheel = new TimerWheel<>(4, 10, 0);
+    // shares a bucket with ticks 1 and 5 before the one it is due in
+    wheel.schedule("far", 95);
+
+    List<String> due = new ArrayList<>();
+    for (long now = 0; now < 95; now += 5) {
+      wheel.advance(now, due);
+      assertTrue("due early at " + now, due.isEmpty());
+    }
+    wheel.advance(100, due);
+    assertEquals(List.of("far"), due);
+  }
+
+  @Test
+  public void testLongPause() {
+    TimerWheel<String> wheel = new TimerWheel<>(4, 10, 0);
+    wheel.schedule("a", 15);
+    wheel.schedule("b", 25);
+    wheel.schedule("c", 500);
+
+    // skipping many turns of the wheel still finds every due item
+    List<String> due = new ArrayList<>();
+    wheel.advance(300, due);
+    due.sort(null);
+    assertEquals(List.of("a", "b"), due);
+
+    due.clear();
+    wheel.advance(499, due);
+    assertTrue(due.isEmpty());
+    wheel.advance(510, due);
+    assertEquals(List.of("c"), due);
+  }
+
+  @Test
+  public void testScheduleInPast() {
+    TimerWheel<String> wheel = new TimerWheel<>(4, 10, 100);
+    wheel.schedule("late", 50);
+
+    List<String> due = new ArrayList<>();
+    wheel.advance(110, due);
+    assertEquals(List.of("late"), due);
+  }
+}
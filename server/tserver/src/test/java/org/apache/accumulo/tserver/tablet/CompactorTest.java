@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.tablet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.crypto.CryptoServiceFactory;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.metadata.StoredTabletFile;
+import org.apache.accumulo.core.metadata.TabletFile;
+import org.apache.accumulo.core.metadata.schema.DataFileValue;
+import org.apache.accumulo.core.spi.compaction.CompactionKind;
+import org.apache.accumulo.core.spi.crypto.CryptoService;
+import org.apache.accumulo.core.util.ratelimit.RateLimiter;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.server.fs.VolumeManager;
+import org.apache.accumulo.server.fs.VolumeManagerImpl;
+import org.apache.accumulo.tserver.tablet.Compactor.CompactionEnv;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CompactorTest {
+
+  private static final KeyExtent EXTENT = new KeyExtent(TableId.of("1"), null, null);
+  private static final List<String> FAMILIES = List.of("cf1", "cf2", "cf3", "cf4");
+
+  @Rule
+  public TemporaryFolder tempFolder =
+      new TemporaryFolder(new File(System.getProperty("user.dir") + "/target"));
+
+  private final CryptoService cryptoService = CryptoServiceFactory.newDefaultInstance();
+  private VolumeManager fs;
+  private ServerContext context;
+  private File tabletDir;
+  private ConfigurationCopy tableConfig;
+
+  @Before
+  public void setup() throws IOException {
+    File accumuloDir = tempFolder.newFolder("accumulo");
+    tabletDir = new File(accumuloDir, "tables/1/t-0001");
+    assertTrue(tabletDir.mkdirs());
+
+    fs = VolumeManagerImpl.getLocalForTesting(accumuloDir.getAbsolutePath());
+    context = EasyMock.createMock(ServerContext.class);
+    EasyMock.expect(context.getCryptoService()).andReturn(cryptoService).anyTimes();
+    EasyMock.expect(context.getConfiguration()).andReturn(DefaultConfiguration.getInstance())
+        .anyTimes();
+    EasyMock.expect(context.getHadoopConf()).andReturn(new Configuration()).anyTimes();
+    EasyMock.expect(context.getVolumeManager()).andReturn(fs).anyTimes();
+    EasyMock.replay(context);
+
+    tableConfig = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    tableConfig.set(Property.TABLE_LOCALITY_GROUPS, "g1,g2");
+    tableConfig.set(Property.TABLE_LOCALITY_GROUP_PREFIX.getKey() + "g1", "cf1");
+    tableConfig.set(Property.TABLE_LOCALITY_GROUP_PREFIX.getKey() + "g2", "cf2,cf3");
+    // small blocks give the file indexes enough entries to split a compaction into ranges
+    tableConfig.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, "1K");
+    tableConfig.set(Property.TABLE_MAJC_SUBCOMPACTIONS, "4");
+    tableConfig.set(Property.TABLE_MAJC_SUBCOMPACTION_MIN_SIZE, "1");
+  }
+
+  @After
+  public void teardown() throws IOException {
+    fs.close();
+  }
+
+  private static class TestEnv implements CompactionEnv {
+    private final Executor executor;
+
+    TestEnv(Executor executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public boolean isCompactionEnabled() {
+      return true;
+    }
+
+    @Override
+    public IteratorScope getIteratorScope() {
+      return IteratorScope.majc;
+    }
+
+    @Override
+    public RateLimiter getReadLimiter() {
+      return null;
+    }
+
+    @Override
+    public RateLimiter getWriteLimiter() {
+      return null;
+    }
+
+    @Override
+    public BlockPrefetcher getPrefetcher() {
+      return null;
+    }
+
+    @Override
+    public Executor getSubCompactionExecutor() {
+      return executor;
+    }
+  }
+
+  private TabletFile file(String name) {
+    return new TabletFile(new Path(new File(tabletDir, name).toURI()));
+  }
+
+  private void write(TabletFile file, TreeMap<Key,Value> data) throws IOException {
+    FileSystem ns = fs.getFileSystemByPath(file.getPath());
+    FileSKVWriter writer = FileOperations.getInstance().newWriterBuilder()
+        .forFile(file.getPathStr(), ns, ns.getConf(), cryptoService)
+        .withTableConfiguration(tableConfig).build();
+    writer.startDefaultLocalityGroup();
+    for (Entry<Key,Value> entry : data.entrySet()) {
+      writer.append(entry.getKey(), entry.getValue());
+    }
+    writer.close();
+  }
+
+  private List<Entry<Key,Value>> read(TabletFile file, Set<ByteSequence> families,
+      boolean inclusive) throws IOException {
+    FileSystem ns = fs.getFileSystemByPath(file.getPath());
+    FileSKVIterator reader = FileOperations.getInstance().newReaderBuilder()
+        .forFile(file.getPathStr(), ns, ns.getConf(), cryptoService)
+        .withTableConfiguration(tableConfig).build();
+    try {
+      List<Entry<Key,Value>> entries = new ArrayList<>();
+      reader.seek(new Range(), families, inclusive);
+      while (reader.hasTop()) {
+        entries.add(Map.entry(new Key(reader.getTopKey()), new Value(reader.getTopValue())));
+        reader.next();
+      }
+      return entries;
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Writes three files of which the newer ones overwrite and delete entries of the older ones.
+   */
+  private Map<StoredTabletFile,DataFileValue> createFiles() throws IOException {
+    Map<StoredTabletFile,DataFileValue> files = new HashMap<>();
+    for (int f = 0; f < 3; f++) {
+      TreeMap<Key,Value> data = new TreeMap<>();
+      for (int r = f; r < 2000; r += f + 1) {
+        for (String family : FAMILIES) {
+          Key key = new Key(String.format("r%04d", r), family, "q", f);
+          if (f > 0 && r % 5 == 0) {
+            key.setDeleted(true);
+            data.put(key, new Value());
+          } else {
+            data.put(key, new Value("v" + f + "_" + r));
+          }
+        }
+      }
+      TabletFile file = file("F000" + f + ".rf");
+      write(file, data);
+      files.put(new StoredTabletFile(file.getPathStr()),
+          new DataFileValue(fs.getFileStatus(file.getPath()).getLen(), data.size()));
+    }
+    return files;
+  }
+
+  private Compactor newCompactor(Map<StoredTabletFile,DataFileValue> files, TabletFile output,
+      boolean propagateDeletes, Executor executor) {
+    return new Compactor(context, EXTENT, files, null, output, propagateDeletes,
+        new TestEnv(executor), List.of(), CompactionKind.SYSTEM.ordinal(), tableConfig);
+  }
+
+  private void runSplitCompaction(boolean propagateDeletes) throws Exception {
+    Map<StoredTabletFile,DataFileValue> files = createFiles();
+
+    TabletFile single = file("A0003.rf_tmp");
+    CompactionStats singleStats = newCompactor(files, single, propagateDeletes, null).call();
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    AtomicInteger tasks = new AtomicInteger();
+    Executor executor = task -> {
+      tasks.incrementAndGet();
+      pool.execute(task);
+    };
+    try {
+      TabletFile split = file("A0004.rf_tmp");
+      Compactor compactor = newCompactor(files, split, propagateDeletes, executor);
+      assertTrue(compactor.partition(4).size() > 1);
+      CompactionStats splitStats = compactor.call();
+
+      assertTrue(tasks.get() > 0);
+      assertEquals(singleStats.getEntriesRead(), splitStats.getEntriesRead());
+      assertEquals(singleStats.getEntriesWritten(), splitStats.getEntriesWritten());
+
+      List<Entry<Key,Value>> expected = read(single, Set.of(), false);
+      assertEquals(singleStats.getEntriesWritten(), expected.size());
+      assertEquals(expected, read(split, Set.of(), false));
+      assertEquals(propagateDeletes,
+          expected.stream().anyMatch(entry -> entry.getKey().isDeleted()));
+
+      // each locality group holds the same entries
+      for (String family : FAMILIES) {
+        Set<ByteSequence> families = Set.of(new Key("", family).getColumnFamilyData());
+        List<Entry<Key,Value>> expectedFamily = read(single, families, true);
+        assertFalse(expectedFamily.isEmpty());
+        assertEquals(expectedFamily, read(split, families, true));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSplitCompaction() throws Exception {
+    runSplitCompaction(false);
+  }
+
+  @Test
+  public void testSplitCompactionPropagatingDeletes() throws Exception {
+    runSplitCompaction(true);
+  }
+
+  @Test
+  public void testSmallCompactionNotSplit() throws Exception {
+    tableConfig.set(Property.TABLE_MAJC_SUBCOMPACTION_MIN_SIZE, "1G");
+    Compactor compactor = newCompactor(createFiles(), file("A0003.rf_tmp"), false, null);
+    assertEquals(List.of(EXTENT.toDataRange()), compactor.partition(4));
+  }
+}
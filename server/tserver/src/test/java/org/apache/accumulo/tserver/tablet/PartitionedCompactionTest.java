@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.tablet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.KeyValue;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.tserver.tablet.Compactor.CompactionCanceledException;
+import org.junit.Test;
+
+public class PartitionedCompactionTest {
+
+  // returns the rows from start to end in batches of up to 7 entries
+  private static class TestSubCompaction implements PartitionedCompaction.SubCompaction {
+    private int next;
+    private final int end;
+    private final IOException error;
+    volatile boolean closed = false;
+
+    TestSubCompaction(int start, int end, IOException error) {
+      this.next = start;
+      this.end = end;
+      this.error = error;
+    }
+
+    @Override
+    public List<KeyValue> read() throws IOException {
+      if (error != null) {
+        throw error;
+      }
+      if (next == end) {
+        return null;
+      }
+      List<KeyValue> batch = new ArrayList<>();
+      for (; next < end && batch.size() < 7; next++) {
+        batch.add(new KeyValue(new Key(String.format("r%04d", next)), new Value("v" + next)));
+      }
+      return batch;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private static List<TestSubCompaction> subCompactions(int... splits) {
+    List<TestSubCompaction> subCompactions = new ArrayList<>();
+    int prev = 0;
+    for (int split : splits) {
+      subCompactions.add(new TestSubCompaction(prev, split, null));
+      prev = split;
+    }
+    return subCompactions;
+  }
+
+  private static List<Key> readAll(PartitionedCompaction compaction, int size)
+      throws IOException, CompactionCanceledException {
+    List<Key> keys = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      List<KeyValue> batch;
+      while ((batch = compaction.read(i)) != null) {
+        batch.forEach(kv -> keys.add(kv.getKey()));
+      }
+    }
+    return keys;
+  }
+
+  private static List<Key> expected(int size) {
+    List<Key> keys = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      keys.add(new Key(String.format("r%04d", i)));
+    }
+    return keys;
+  }
+
+  @Test
+  public void testOrderedOutput() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      // includes a sub-compaction with no data
+      var subCompactions = subCompactions(100, 333, 333, 700, 1000);
+      PartitionedCompaction compaction = new PartitionedCompaction(subCompactions, executor, 3);
+      assertEquals(expected(1000), readAll(compaction, subCompactions.size()));
+      compaction.close();
+      subCompactions.forEach(sc -> assertTrue(sc.closed));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testReadsWithoutExecutor() throws Exception {
+    // a rejecting executor means every batch is read by the caller
+    var subCompactions = subCompactions(500, 1000);
+    PartitionedCompaction compaction = new PartitionedCompaction(subCompactions, r -> {
+      throw new RejectedExecutionException();
+    }, 2);
+    assertEquals(expected(1000), readAll(compaction, subCompactions.size()));
+    subCompactions.forEach(sc -> assertTrue(sc.closed));
+  }
+
+  @Test
+  public void testError() throws Exception {
+    IOException failure = new IOException("failed read");
+    List<TestSubCompaction> subCompactions = new ArrayList<>();
+    subCompactions.add(new TestSubCompaction(0, 500, null));
+    subCompactions.add(new TestSubCompaction(500, 1000, failure));
+    PartitionedCompaction compaction = new PartitionedCompaction(subCompactions, Runnable::run, 2);
+    assertSame(failure, assertThrows(IOException.class, () -> readAll(compaction, 2)));
+    compaction.close();
+    subCompactions.forEach(sc -> assertTrue(sc.closed));
+  }
+}
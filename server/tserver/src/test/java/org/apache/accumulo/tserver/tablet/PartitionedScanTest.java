@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.tablet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+public class PartitionedScanTest {
+
+  private static final SortedMap<Key,Value> DATA = new TreeMap<>();
+
+  static {
+    for (int i = 0; i < 1000; i++) {
+      DATA.put(new Key(String.format("r%04d", i), "f", "q"), new Value("v" + i));
+    }
+  }
+
+  // reads up to 7 entries of a range per batch
+  private static Batch readBatch(Range range) {
+    List<KVEntry> results = new ArrayList<>();
+    Key last = null;
+    for (var entry : DATA.entrySet()) {
+      if (range.contains(entry.getKey())) {
+        results.add(new KVEntry(entry.getKey(), entry.getValue()));
+        last = entry.getKey();
+        if (results.size() == 7) {
+          return new Batch(true, results, last, 0);
+        }
+      }
+    }
+    return new Batch(false, results.isEmpty() ? null : results, null, 0);
+  }
+
+  // a reader of one partition that records whether and how it was closed
+  private static class TestReader implements PartitionedScan.BatchReader {
+    int reads = 0;
+    int closes = 0;
+    boolean sawErrors = false;
+
+    @Override
+    public Batch read(Range range) throws IOException {
+      assertEquals("read after close", 0, closes);
+      reads++;
+      return readBatch(range);
+    }
+
+    @Override
+    public void close(boolean sawErrors) {
+      closes++;
+      this.sawErrors = sawErrors;
+    }
+  }
+
+  private static List<Range> partitions(String... splits) {
+    List<Range> ranges = new ArrayList<>();
+    String prev = null;
+    for (String split : splits) {
+      ranges.add(new Range(prev, false, split, true));
+      prev = split;
+    }
+    ranges.add(new Range(prev, false, null, true));
+    return ranges;
+  }
+
+  private static List<Key> readAll(PartitionedScan scan) throws IOException {
+    List<Key> keys = new ArrayList<>();
+    ScanBatch batch;
+    do {
+      batch = scan.read();
+      batch.getResults().forEach(kv -> keys.add(kv.getKey()));
+    } while (batch.isMore());
+    return keys;
+  }
+
+  @Test
+  public void testOrderedResults() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      // includes a partition with no data
+      List<Range> ranges = partitions("r0100", "r0333", "r0334", "r0700", "r9999");
+      List<TestReader> readers = Collections.synchronizedList(new ArrayList<>());
+      PartitionedScan scan = new PartitionedScan(ranges, () -> {
+        TestReader reader = new TestReader();
+        readers.add(reader);
+        return reader;
+      }, executor);
+      assertEquals(new ArrayList<>(DATA.keySet()), readAll(scan));
+      // a reader is closed by the thread that read its last batch, after handing the batch over
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+      // one reader per partition, reused for all of its batches and closed when it is done
+      assertEquals(ranges.size(), readers.size());
+      int reads = 0;
+      for (TestReader reader : readers) {
+        assertEquals(1, reader.closes);
+        assertFalse(reader.sawErrors);
+        reads += reader.reads;
+      }
+      assertTrue(reads > ranges.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testReadsWithoutExecutor() throws Exception {
+    // a rejecting executor means every batch is read by the caller
+    PartitionedScan scan =
+        new PartitionedScan(partitions("r0500"), TestReader::new, r -> {
+          throw new RejectedExecutionException();
+        });
+    assertEquals(new ArrayList<>(DATA.keySet()), readAll(scan));
+
+    List<Runnable> queued = new ArrayList<>();
+    scan = new PartitionedScan(partitions("r0500"), TestReader::new, queued::add);
+    ScanBatch batch = scan.read();
+    assertTrue(batch.isMore());
+    assertEquals(7, batch.getResults().size());
+    assertFalse(queued.isEmpty());
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    List<TestReader> readers = new ArrayList<>();
+    List<Runnable> queued = new ArrayList<>();
+    PartitionedScan scan = new PartitionedScan(partitions("r0500"), () -> {
+      TestReader reader = new TestReader();
+      readers.add(reader);
+      return reader;
+    }, queued::add);
+    assertTrue(scan.read().isMore());
+    queued.forEach(Runnable::run);
+    assertEquals(2, readers.size());
+
+    scan.close();
+    for (TestReader reader : readers) {
+      assertEquals(1, reader.closes);
+    }
+  }
+
+  @Test
+  public void testError() throws Exception {
+    IOException failure = new IOException("failed read");
+    List<TestReader> readers = new ArrayList<>();
+    PartitionedScan scan = new PartitionedScan(partitions("r0500"), () -> {
+      TestReader reader = new TestReader() {
+        @Override
+        public Batch read(Range range) throws IOException {
+          if (range.getStartKey() != null) {
+            throw failure;
+          }
+          return super.read(range);
+        }
+      };
+      readers.add(reader);
+      return reader;
+    }, Runnable::run);
+    assertSame(failure, assertThrows(IOException.class, () -> readAll(scan)));
+    // both partitions fail after their first batch, each reader is closed once it fails
+    assertEquals(2, readers.size());
+    for (TestReader reader : readers) {
+      assertEquals(1, reader.closes);
+      assertTrue(reader.sawErrors);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.tablet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class ScanPartitionerTest {
+
+  private static SortedMapIterator index(int numRows) throws IOException {
+    TreeMap<Key,Value> index = new TreeMap<>();
+    for (int i = 0; i < numRows; i++) {
+      index.put(new Key(String.format("r%04d", i), "f", "q"), new Value());
+    }
+    SortedMapIterator iter = new SortedMapIterator(index);
+    iter.seek(new Range(), List.of(), false);
+    return iter;
+  }
+
+  private static void assertTiles(Range range, List<Range> partitions) {
+    assertEquals(range.getStartKey(), partitions.get(0).getStartKey());
+    assertEquals(range.isStartKeyInclusive(), partitions.get(0).isStartKeyInclusive());
+    assertEquals(range.getEndKey(), partitions.get(partitions.size() - 1).getEndKey());
+    for (int i = 1; i < partitions.size(); i++) {
+      Range prev = partitions.get(i - 1);
+      Range next = partitions.get(i);
+      // each partition starts right after the row the previous one ended with
+      assertEquals(prev.getEndKey(), next.getStartKey());
+      assertTrue(prev.getEndKey().getColumnFamilyData().length() == 0);
+      assertTrue(!prev.isEndKeyInclusive() && next.isStartKeyInclusive());
+    }
+  }
+
+  @Test
+  public void testWholeTablet() throws Exception {
+    Range range = new Range();
+    List<Range> partitions = ScanPartitioner.partition(range, 4, index(1000));
+    assertEquals(4, partitions.size());
+    assertTiles(range, partitions);
+    // index rows are sampled, so partitions are only about the same size
+    for (Range partition : partitions) {
+      int rows = 0;
+      for (int i = 0; i < 1000; i++) {
+        if (partition.contains(new Key(String.format("r%04d", i), "f", "q"))) {
+          rows++;
+        }
+      }
+      assertTrue("partition has " + rows + " rows", rows > 225 && rows < 275);
+    }
+  }
+
+  @Test
+  public void testSubRange() throws Exception {
+    Range range = new Range(new Key("r0100", "f", "q2"), true, new Key("r0199"), false);
+    List<Range> partitions = ScanPartitioner.partition(range, 3, index(1000));
+    assertEquals(3, partitions.size());
+    assertTiles(range, partitions);
+    for (Range partition : partitions) {
+      assertEquals(partition, range.clip(partition));
+    }
+  }
+
+  @Test
+  public void testSmallIndex() throws Exception {
+    Range range = new Range();
+    assertEquals(List.of(range), ScanPartitioner.partition(range, 8, index(5)));
+    assertEquals(List.of(range), ScanPartitioner.partition(range, 1, index(1000)));
+
+    // an index with fewer rows than partitions within the range
+    Range narrow = new Range("r0010", "r0012");
+    assertEquals(List.of(narrow), ScanPartitioner.partition(narrow, 4, index(1000)));
+  }
+
+  @Test
+  public void testSampledRows() throws Exception {
+    // rows sampled once for the whole tablet partition any range within it
+    List<Text> rows = ScanPartitioner.sampleRows(new Range(), 4, index(1000));
+    assertTrue(rows.size() >= 4 * 16 && rows.size() < 2 * 4 * 16);
+
+    Range range = new Range(new Key("r0500", "f", "q2"), true, null, true);
+    List<Range> partitions = ScanPartitioner.partition(range, 4, rows);
+    assertEquals(4, partitions.size());
+    assertTiles(range, partitions);
+    for (Range partition : partitions) {
+      assertEquals(partition, range.clip(partition));
+    }
+
+    Range narrow = new Range("r0010", "r0012");
+    assertEquals(List.of(narrow), ScanPartitioner.partition(narrow, 4, rows));
+  }
+}
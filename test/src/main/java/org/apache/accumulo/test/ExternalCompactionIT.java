@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.accumulo.core.client.Accumulo;
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.admin.CompactionConfig;
+import org.apache.accumulo.core.client.admin.NewTableConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.metadata.StoredTabletFile;
+import org.apache.accumulo.core.metadata.schema.TabletMetadata.ColumnType;
+import org.apache.accumulo.core.metadata.schema.TabletsMetadata;
+import org.apache.accumulo.core.spi.compaction.DefaultCompactionPlanner;
+import org.apache.accumulo.harness.SharedMiniClusterBase;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Runs compactions in a compactor process started by mini accumulo cluster.
+ */
+public class ExternalCompactionIT extends SharedMiniClusterBase {
+
+  private static final String QUEUE = "q1";
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    SharedMiniClusterBase.startMiniClusterWithConfig((miniCfg, coreSite) -> {
+      Map<String,String> siteCfg = new HashMap<>();
+
+      var csp = Property.TSERV_COMPACTION_SERVICE_PREFIX.getKey();
+      siteCfg.put(csp + "ext.planner", DefaultCompactionPlanner.class.getName());
+      siteCfg.put(csp + "ext.planner.opts.executors",
+          ("[{'name':'all','numThreads':2,'queue':'" + QUEUE + "'}]").replaceAll("'", "\""));
+
+      miniCfg.setSiteConfig(siteCfg);
+      miniCfg.setNumCompactors(1, QUEUE);
+    });
+  }
+
+  @AfterClass
+  public static void teardown() {
+    SharedMiniClusterBase.stopMiniCluster();
+  }
+
+  @Test
+  public void testCompact() throws Exception {
+    try (AccumuloClient client = Accumulo.newClient().from(getClientProps()).build()) {
+      String table = getUniqueNames(1)[0];
+      client.tableOperations().create(table, new NewTableConfiguration().setProperties(
+          Map.of(Property.TABLE_COMPACTION_DISPATCHER_OPTS.getKey() + "service", "ext")));
+
+      for (int i = 0; i < 3; i++) {
+        addFile(client, table, i * 1000, (i + 1) * 1000);
+      }
+      assertEquals(3, getFiles(client, table).size());
+
+      client.tableOperations().compact(table, new CompactionConfig().setWait(true));
+      assertEquals(1, getFiles(client, table).size());
+      assertEquals(3000, count(client, table));
+
+      // iterators configured for a compaction run in the compactor
+      IteratorSetting iterSetting = new IteratorSetting(100, RegExFilter.class);
+      RegExFilter.setRegexs(iterSetting, "000000.*", null, null, null, false);
+      client.tableOperations().compact(table,
+          new CompactionConfig().setWait(true).setIterators(List.of(iterSetting)));
+      assertEquals(1, getFiles(client, table).size());
+      assertEquals(1000, count(client, table));
+    }
+  }
+
+  private static long count(AccumuloClient client, String table) throws Exception {
+    try (var scanner = client.createScanner(table)) {
+      long count = 0;
+      for (Entry<Key,Value> entry : scanner) {
+        assertEquals("v" + Integer.parseInt(entry.getKey().getRowData().toString()),
+            entry.getValue().toString());
+        count++;
+      }
+      return count;
+    }
+  }
+
+  private static Set<String> getFiles(AccumuloClient client, String name) {
+    var tableId = TableId.of(client.tableOperations().tableIdMap().get(name));
+
+    try (var tabletsMeta =
+        TabletsMetadata.builder(client).forTable(tableId).fetch(ColumnType.FILES).build()) {
+      return tabletsMeta.stream().flatMap(tm -> tm.getFiles().stream())
+          .map(StoredTabletFile::getFileName).collect(Collectors.toSet());
+    }
+  }
+
+  private static void addFile(AccumuloClient client, String table, int startRow, int endRow)
+      throws Exception {
+    try (var writer = client.createBatchWriter(table)) {
+      for (int i = startRow; i < endRow; i++) {
+        Mutation mut = new Mutation(String.format("%09d", i));
+        mut.put("f1", "q1", "v" + i);
+        writer.addMutation(mut);
+      }
+    }
+    client.tableOperations().flush(table, null, null, true);
+  }
+}